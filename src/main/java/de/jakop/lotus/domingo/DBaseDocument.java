@@ -27,6 +27,7 @@ import java.io.Writer;
 import java.util.Calendar;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
 
 /**
@@ -329,6 +330,20 @@ public interface DBaseDocument extends DBase {
      */
     DItem replaceItemValue(String name, List values);
 
+    /**
+     * Replaces the values of several items in a single call.
+     *
+     * <p>Each map entry is applied like the <code>replaceItemValue</code>
+     * method matching the type of its value. Values can be String, Integer,
+     * other Numbers, Calendar, TimeZone, DDateRange or Lists of these; a
+     * <code>null</code> value stores an empty string. With the Notes backend
+     * all items are written in one task on the Notes thread.</p>
+     *
+     * @param values map of item names to item values
+     * @see #replaceItemValue(String, List)
+     */
+    void replaceItemValues(Map values);
+
     /**
      * Saves any changes you have made to a document.
      *
@@ -543,6 +558,20 @@ public interface DBaseDocument extends DBase {
      */
     Calendar getItemValueDate(String name);
 
+    /**
+     * Returns the first date/time value of an item as milliseconds since the
+     * epoch. No calendar objects are created, so this method is preferable when
+     * many date values must be read, e.g. for sorting or comparing.
+     *
+     * <p>The value is the same as <code>getItemValueDate(name).getTimeInMillis()</code>.
+     * If the item is a date range, the start of the range is returned.</p>
+     *
+     * @param name The name of the item.
+     * @return The value of the item as milliseconds since the epoch or
+     *         {@link DDocumentSnapshot#NO_DATE} if the item doesn't contain a date/time value
+     */
+    long getItemValueDateMillis(String name);
+
     /**
      * Returns the value of an item with two Calendar value.
      *
@@ -917,6 +946,19 @@ public interface DBaseDocument extends DBase {
      */
     List getItemValueDateTimeArray(String name);
 
+    /**
+     * Returns all date/time values of an item as milliseconds since the epoch.
+     * A date range contributes its start and end value.
+     *
+     * <p>This is the primitive counterpart of {@link #getItemValueDateTimeArray(String)}
+     * that doesn't create calendar objects.</p>
+     *
+     * @param name The name of the item.
+     * @return array of milliseconds since the epoch, never <code>null</code>.
+     *         The array is empty if the item doesn't contain date/time values.
+     */
+    long[] getItemValueDateTimeArrayMillis(String name);
+
     /**
      * The name of the person who created the signature, if a document is
      * signed.
@@ -138,6 +138,26 @@ public interface DDatabase extends DBase {
      */
     DDocument createDocument();
 
+    /**
+     * Creates and saves one document per map of item names to item values.
+     *
+     * <p>All documents are created and saved within a single call. This
+     * saves the round trips of creating documents and replacing item values
+     * one by one, e.g. for imports. A failure of a single document doesn't
+     * affect the other documents.</p>
+     *
+     * <p>Supported item values are <code>String</code>, <code>Integer</code>,
+     * <code>Double</code>, <code>Calendar</code>, <code>TimeZone</code>,
+     * {@link DDateRange} and <code>List</code>s of these.</p>
+     *
+     * @param itemMaps list of <code>Map</code>s of item names to item values
+     * @return list with one element per map, either the universal ID of the
+     *         new document or the <code>RuntimeException</code> that
+     *         prevented the document from being saved
+     * @see de.jakop.lotus.domingo.util.BulkWriter
+     */
+    List createDocuments(List itemMaps);
+
     /**
      * Finds a view or folder in a database, given the name or alias of the view
      * or folder.
@@ -413,4 +413,26 @@ public interface DDocument extends DBaseDocument {
      * @see DSession#resolve(String)
      */
     String getHttpURL();
+
+    /**
+     * Reads items of the document in one pass into an immutable snapshot.
+     *
+     * <p>The snapshot does not reference the document or any Notes object, so
+     * it can be cached or serialized and the document can be recycled
+     * immediately.</p>
+     *
+     * @param itemNames names of items to include; items that don't exist
+     *            are not contained in the snapshot
+     * @return detached snapshot of the given items
+     * @see DDocumentSnapshot
+     */
+    DDocumentSnapshot snapshot(String[] itemNames);
+
+    /**
+     * Reads all items of the document in one pass into an immutable snapshot.
+     *
+     * @return detached snapshot of all items
+     * @see #snapshot(String[])
+     */
+    DDocumentSnapshot snapshot();
 }
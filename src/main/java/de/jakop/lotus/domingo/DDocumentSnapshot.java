@@ -0,0 +1,189 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo;
+
+import java.io.Serializable;
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * Immutable, detached copy of selected items of a document.
+ *
+ * <p>A snapshot is read in one pass from a document and does not reference
+ * any Notes object, so the document can be recycled immediately while the
+ * snapshot is kept in a cache or sent to another VM. Item values are stored
+ * in compact form: text lists as <code>String[]</code>, number lists as
+ * <code>double[]</code> and date/time lists as <code>long[]</code> with
+ * milliseconds since January 1, 1970, 00:00:00 GMT. Item names are
+ * interned and compared case-insensitive, like in Notes.</p>
+ *
+ * <p>To create a snapshot, use {@link DDocument#snapshot()} or
+ * {@link DDocument#snapshot(String[])}.</p>
+ */
+public interface DDocumentSnapshot extends Serializable {
+
+    /** Item type of an item that is not contained in the snapshot. */
+    int TYPE_NONE = 0;
+
+    /** Item type of a text, names, readers or authors item. */
+    int TYPE_TEXT = 1;
+
+    /** Item type of a number item. */
+    int TYPE_NUMBER = 2;
+
+    /** Item type of a date/time item. */
+    int TYPE_DATETIME = 3;
+
+    /** Value returned for missing date/time values. */
+    long NO_DATE = Long.MIN_VALUE;
+
+    /**
+     * Returns the universal ID of the document the snapshot was taken from.
+     *
+     * @return universal ID of the document
+     */
+    String getUniversalID();
+
+    /**
+     * Returns the time when the document was last modified before the
+     * snapshot was taken.
+     *
+     * @return milliseconds since January 1, 1970, 00:00:00 GMT or
+     *         {@link #NO_DATE} if not known
+     */
+    long getLastModified();
+
+    /**
+     * Returns the names of all items in the snapshot.
+     *
+     * @return unmodifiable list of item names
+     */
+    List getItemNames();
+
+    /**
+     * Indicates whether the snapshot contains an item with the given name.
+     *
+     * @param name name of an item
+     * @return <code>true</code> if the snapshot contains the item, else <code>false</code>
+     */
+    boolean hasItem(String name);
+
+    /**
+     * Returns the type of an item.
+     *
+     * @param name name of an item
+     * @return one of {@link #TYPE_TEXT}, {@link #TYPE_NUMBER}, {@link #TYPE_DATETIME}
+     *         or {@link #TYPE_NONE} if the item is not contained
+     */
+    int getItemType(String name);
+
+    /**
+     * Returns the number of values of an item.
+     *
+     * @param name name of an item
+     * @return number of values or <code>0</code> if the item is not contained
+     */
+    int getItemValueSize(String name);
+
+    /**
+     * Returns the values of an item as a list of <code>String</code>,
+     * <code>Double</code>, <code>Calendar</code> or {@link DDateRange} objects.
+     *
+     * <p>The list is created on each call; use the typed accessors to read
+     * values without boxing.</p>
+     *
+     * @param name name of an item
+     * @return unmodifiable list of values, empty if the item is not contained
+     */
+    List getItemValue(String name);
+
+    /**
+     * Returns the first value of an item as string.
+     *
+     * @param name name of an item
+     * @return first value as string or an empty string if the item is not contained
+     */
+    String getItemValueString(String name);
+
+    /**
+     * Returns all values of a text item.
+     *
+     * @param name name of an item
+     * @return copy of the values or an empty array if the item is not a text item
+     */
+    String[] getItemValueStrings(String name);
+
+    /**
+     * Returns the first value of a number item.
+     *
+     * @param name name of an item
+     * @return first value or <code>0</code> if the item is not a number item or empty
+     */
+    double getItemValueDouble(String name);
+
+    /**
+     * Returns the first value of a number item as integer.
+     *
+     * @param name name of an item
+     * @return first value or <code>0</code> if the item is not a number item or empty
+     */
+    int getItemValueInteger(String name);
+
+    /**
+     * Returns all values of a number item.
+     *
+     * @param name name of an item
+     * @return copy of the values or an empty array if the item is not a number item
+     */
+    double[] getItemValueNumbers(String name);
+
+    /**
+     * Returns the first value of a date/time item.
+     *
+     * @param name name of an item
+     * @return milliseconds since January 1, 1970, 00:00:00 GMT or
+     *         {@link #NO_DATE} if the item is not a date/time item or empty
+     */
+    long getItemValueDateTime(String name);
+
+    /**
+     * Returns all values of a date/time item.
+     *
+     * <p>A date range contributes its start and its end.</p>
+     *
+     * @param name name of an item
+     * @return copy of the values in milliseconds since January 1, 1970,
+     *         00:00:00 GMT or an empty array if the item is not a date/time item
+     */
+    long[] getItemValueDateTimes(String name);
+
+    /**
+     * Returns the first value of a date/time item as calendar.
+     *
+     * @param name name of an item
+     * @return new calendar or <code>null</code> if the item is not a date/time item or empty
+     */
+    Calendar getItemValueDate(String name);
+}
@@ -23,6 +23,11 @@
 
 package de.jakop.lotus.domingo;
 
+import java.io.OutputStream;
+import java.io.Writer;
+
+import org.xml.sax.ContentHandler;
+
 /**
  * Represents a Notes database.
  *
@@ -57,6 +62,102 @@ public interface DDxlExporter extends DBase {
      */
     String exportDxl(DDocumentCollection documentCollection) throws DNotesException;
 
+    /**
+     * Converts Domino data to DXL data and writes it incrementally to a writer.
+     * The writer is not closed.
+     *
+     * @param database The Domino data to be converted, in this case the entire database.
+     * @param writer the writer to write the DXL to
+     * @throws DNotesException if the Domino data cannot be exported
+     * @since Notes/Domino Release 6.5
+     */
+    void exportDxl(DDatabase database, Writer writer) throws DNotesException;
+
+    /**
+     * Converts Domino data to DXL data and writes it incrementally to an output stream.
+     * The output stream is not closed.
+     *
+     * @param database The Domino data to be converted, in this case the entire database.
+     * @param outputStream the output stream to write the DXL to
+     * @throws DNotesException if the Domino data cannot be exported
+     * @since Notes/Domino Release 6.5
+     */
+    void exportDxl(DDatabase database, OutputStream outputStream) throws DNotesException;
+
+    /**
+     * Converts Domino data to DXL data and reports it as SAX events to a content handler.
+     *
+     * @param database The Domino data to be converted, in this case the entire database.
+     * @param handler the content handler receiving the DXL
+     * @throws DNotesException if the Domino data cannot be exported
+     * @since Notes/Domino Release 6.5
+     */
+    void exportDxl(DDatabase database, ContentHandler handler) throws DNotesException;
+
+    /**
+     * Converts Domino data to DXL data and writes it incrementally to a writer.
+     * The writer is not closed.
+     *
+     * @param document The Domino data to be converted, in this case one document.
+     * @param writer the writer to write the DXL to
+     * @throws DNotesException if the Domino data cannot be exported
+     * @since Notes/Domino Release 6.5
+     */
+    void exportDxl(DDocument document, Writer writer) throws DNotesException;
+
+    /**
+     * Converts Domino data to DXL data and writes it incrementally to an output stream.
+     * The output stream is not closed.
+     *
+     * @param document The Domino data to be converted, in this case one document.
+     * @param outputStream the output stream to write the DXL to
+     * @throws DNotesException if the Domino data cannot be exported
+     * @since Notes/Domino Release 6.5
+     */
+    void exportDxl(DDocument document, OutputStream outputStream) throws DNotesException;
+
+    /**
+     * Converts Domino data to DXL data and reports it as SAX events to a content handler.
+     *
+     * @param document The Domino data to be converted, in this case one document.
+     * @param handler the content handler receiving the DXL
+     * @throws DNotesException if the Domino data cannot be exported
+     * @since Notes/Domino Release 6.5
+     */
+    void exportDxl(DDocument document, ContentHandler handler) throws DNotesException;
+
+    /**
+     * Converts Domino data to DXL data and writes it incrementally to a writer.
+     * The writer is not closed.
+     *
+     * @param documentCollection The Domino data to be converted, in this case the documents in a document collection.
+     * @param writer the writer to write the DXL to
+     * @throws DNotesException if the Domino data cannot be exported
+     * @since Notes/Domino Release 6.5
+     */
+    void exportDxl(DDocumentCollection documentCollection, Writer writer) throws DNotesException;
+
+    /**
+     * Converts Domino data to DXL data and writes it incrementally to an output stream.
+     * The output stream is not closed.
+     *
+     * @param documentCollection The Domino data to be converted, in this case the documents in a document collection.
+     * @param outputStream the output stream to write the DXL to
+     * @throws DNotesException if the Domino data cannot be exported
+     * @since Notes/Domino Release 6.5
+     */
+    void exportDxl(DDocumentCollection documentCollection, OutputStream outputStream) throws DNotesException;
+
+    /**
+     * Converts Domino data to DXL data and reports it as SAX events to a content handler.
+     *
+     * @param documentCollection The Domino data to be converted, in this case the documents in a document collection.
+     * @param handler the content handler receiving the DXL
+     * @throws DNotesException if the Domino data cannot be exported
+     * @since Notes/Domino Release 6.5
+     */
+    void exportDxl(DDocumentCollection documentCollection, ContentHandler handler) throws DNotesException;
+
     /**
      * Indicates whether a !DOCTYPE statement is exported or not.
      *
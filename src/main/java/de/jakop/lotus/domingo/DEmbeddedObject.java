@@ -23,6 +23,9 @@
 
 package de.jakop.lotus.domingo;
 
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+
 /**
  * Represents an embedded object.
  *
@@ -48,6 +51,26 @@ public interface DEmbeddedObject extends DBase {
      */
     void extractFile(String path);
 
+    /**
+     * Returns a stream to read the content of a file attachment without
+     * extracting it to a temporary file. The caller must close the stream.
+     *
+     * @return stream of the content of the file attachment
+     * @since Notes/Domino Release 6
+     */
+    InputStream getInputStream();
+
+    /**
+     * Writes the content of a file attachment to a channel without
+     * extracting it to a temporary file. The content is copied with a
+     * bounded buffer; if the channel is a file channel, the operating system
+     * copies the data directly. The channel is not closed.
+     *
+     * @param target channel to write the content to
+     * @return number of bytes written
+     */
+    long transferTo(WritableByteChannel target);
+
     /**
      * Removes an object, object link, or file attachment.
      */
@@ -27,6 +27,7 @@ import java.applet.Applet;
 
 import de.jakop.lotus.domingo.i18n.ResourceManager;
 import de.jakop.lotus.domingo.i18n.Resources;
+import de.jakop.lotus.domingo.pool.SessionPool;
 import de.jakop.lotus.domingo.proxy.NotesProxyFactory;
 
 
@@ -54,6 +55,9 @@ public abstract class DNotesFactory {
     /** Internationalized resources. */
     private static final Resources RESOURCES = ResourceManager.getPackageResources(DNotesFactory.class);
 
+    /** Session pool of this factory, created on first request. */
+    private SessionPool fSessionPool = null;
+
     /**
      * Protected Constructor to restrict creation to sub classes.
      */
@@ -491,6 +495,34 @@ public abstract class DNotesFactory {
      */
     public abstract void disposeInstance() throws DNotesRuntimeException;
 
+    /**
+     * Returns the session pool of this factory. The pool is created on first
+     * request and closed when the factory is disposed.
+     *
+     * @return session pool for sessions created by this factory
+     * @see SessionPool
+     */
+    public final synchronized SessionPool getSessionPool() {
+        if (fSessionPool == null) {
+            fSessionPool = new SessionPool(this);
+            if (getMonitor() != null) {
+                fSessionPool.setMonitor(getMonitor());
+            }
+        }
+        return fSessionPool;
+    }
+
+    /**
+     * Closes the session pool of this factory, if any. Must be called by
+     * implementations when the factory is disposed.
+     */
+    protected final synchronized void closeSessionPool() {
+        if (fSessionPool != null) {
+            fSessionPool.close();
+            fSessionPool = null;
+        }
+    }
+
     /**
      * Get the current monitor.
      * @return current monitor
@@ -24,8 +24,10 @@
 package de.jakop.lotus.domingo;
 
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents a view or folder of a database and provides access to documents
@@ -410,6 +412,23 @@ public interface DView extends DBase {
      */
     DViewEntry getEntryByKey(List keys, boolean exact);
 
+    /**
+     * Finds all entries for many keys at once.
+     *
+     * <p>Each key is compared to the first sorted column of the view, like
+     * with {@link #getAllEntriesByKey(String, boolean)} with an exact match;
+     * strings are compared case-insensitive, unless the implementation knows
+     * that the column is sorted case-sensitive. Keys can be strings, numbers
+     * or calendars. Depending on the implementation, the view is read in a
+     * single pass or in ranges of keys instead of one search per key, which
+     * is much faster for large numbers of keys.</p>
+     *
+     * @param keys collection of keys
+     * @return map of each key to a list of the matching {@link DViewEntry}s,
+     *         in view order; the list is empty if there are no matching entries
+     */
+    Map lookupAll(Collection keys);
+
     /**
      * Iterator over all entries in a view in view order starting with a given
      * entry.
@@ -934,4 +953,15 @@ public interface DView extends DBase {
      * @return list of all columns
      */
     List getColumns();
+
+    /**
+     * Returns the design of the view and all its columns.
+     *
+     * <p>All view and column attributes are read in one pass into an
+     * immutable, detached design. The design is cached by the view and read
+     * again only if the design of the view has been modified.</p>
+     *
+     * @return design of the view
+     */
+    DViewDesign getDesign();
 }
@@ -0,0 +1,157 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+
+package de.jakop.lotus.domingo;
+
+import java.io.Serializable;
+import java.util.Calendar;
+import java.util.List;
+
+/**
+ * Immutable, detached copy of the design of a view and its columns.
+ *
+ * <p>A design is read in one pass from a view and does not reference any
+ * Notes object, so it can be kept in a cache. Columns are returned as
+ * immutable {@link DViewColumn} instances whose getters do not access the
+ * view; their setters throw an <code>UnsupportedOperationException</code>.</p>
+ *
+ * <p>To get the design of a view, use {@link DView#getDesign()}.</p>
+ */
+public interface DViewDesign extends Serializable {
+
+    /**
+     * Returns the name of the view.
+     *
+     * @return name of the view
+     */
+    String getName();
+
+    /**
+     * Returns the aliases of the view.
+     *
+     * @return list of alias names, empty if the view has no aliases
+     */
+    List getAliases();
+
+    /**
+     * Returns the universal ID of the view note.
+     *
+     * @return universal ID of the view
+     */
+    String getUniversalID();
+
+    /**
+     * Returns the date and time the view design was last modified.
+     *
+     * @return last modification of the view design
+     */
+    Calendar getLastModified();
+
+    /**
+     * Returns the selection formula of the view.
+     *
+     * @return selection formula
+     */
+    String getSelectionFormula();
+
+    /**
+     * Indicates whether the view is categorized.
+     *
+     * @return <code>true</code> if the view is categorized
+     */
+    boolean isCategorized();
+
+    /**
+     * Indicates whether the view shows response documents in a hierarchy.
+     *
+     * @return <code>true</code> if the view is hierarchical
+     */
+    boolean isHierarchical();
+
+    /**
+     * Indicates whether the view is a folder.
+     *
+     * @return <code>true</code> if the view is a folder
+     */
+    boolean isFolder();
+
+    /**
+     * Indicates whether the view is a calendar view.
+     *
+     * @return <code>true</code> if the view is a calendar view
+     */
+    boolean isCalendar();
+
+    /**
+     * Returns the number of columns.
+     *
+     * @return number of columns
+     */
+    int getColumnCount();
+
+    /**
+     * Returns a column of the view.
+     *
+     * @param i column number where 1 is the first column
+     * @return the column
+     * @see DView#getColumn(int)
+     */
+    DViewColumn getColumn(int i);
+
+    /**
+     * Returns all columns from left to right.
+     *
+     * @return unmodifiable list of {@link DViewColumn}s
+     */
+    List getColumns();
+
+    /**
+     * Returns the titles of all columns from left to right.
+     *
+     * @return unmodifiable list of column titles
+     * @see DView#getColumnNames()
+     */
+    List getColumnNames();
+
+    /**
+     * Returns the programmatic names of all columns from left to right.
+     * This is the name of the item displayed in a column or the name given
+     * to a formula column.
+     *
+     * @return unmodifiable list of item names
+     */
+    List getColumnItemNames();
+
+    /**
+     * Returns the index of the column that displays a given item, which is
+     * also the index of its value in {@link DViewEntry#getColumnValues()}.
+     * Names are compared case-insensitive, like item names in Notes.
+     *
+     * @param itemName programmatic name of a column
+     * @return zero-based column index, or <code>-1</code> if no column
+     *         displays the item
+     */
+    int getColumnIndex(String itemName);
+}
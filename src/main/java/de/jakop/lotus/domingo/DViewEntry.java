@@ -40,6 +40,18 @@ public interface DViewEntry extends DBase {
      */
     List getColumnValues();
 
+    /**
+     * The date/time value of each column in the view entry as milliseconds
+     * since the epoch. No calendar objects are created.
+     *
+     * <p>For columns with multiple values the first value is returned, for
+     * columns with date ranges the start of the range.</p>
+     *
+     * @return array with one element per column, columns without a date/time
+     *         value contain {@link DDocumentSnapshot#NO_DATE}
+     */
+    long[] getColumnValuesMillis();
+
     /**
      * The document associated with the view entry.
      *
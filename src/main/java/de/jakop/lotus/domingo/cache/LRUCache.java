@@ -0,0 +1,342 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.cache;
+
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Capacity-bounded cache with strong references.
+ *
+ * <p>This implementation of the <code>Cache</code> interface holds its
+ * values strongly and removes the least recently used entry when the
+ * capacity is exceeded. Unlike the {@link WeakCache}, cached values survive
+ * garbage collections.</p>
+ *
+ * <p><b>Note that this implementation is synchronized.</b> Multiple
+ * threads can access this cache concurrently. The views returned by
+ * {@link #keySet()} and {@link #values()} are backed by the cache and
+ * synchronized on it. Like with <code>Collections.synchronizedMap</code>,
+ * callers must synchronize on the cache while iterating over a view:</p>
+ * <pre>
+ * synchronized (cache) {
+ *     Iterator i = cache.keySet().iterator();
+ *     while (i.hasNext()) {
+ *         foo(i.next());
+ *     }
+ * }
+ * </pre>
+ */
+public final class LRUCache extends AbstractBaseCache implements Serializable {
+
+    /** serial version ID for serialization. */
+    private static final long serialVersionUID = -3519127052786913450L;
+
+    /** Default capacity. */
+    private static final int DEFAULT_CAPACITY = 100;
+
+    /** Maximum number of entries. */
+    private int capacity;
+
+    /**
+     * Creates a new cache with the default capacity of 100 entries.
+     */
+    public LRUCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new cache.
+     *
+     * @param capacity maximum number of entries, must be positive
+     */
+    public LRUCache(final int capacity) {
+        super();
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see AbstractBaseCache#createMap()
+     */
+    protected Map createMap() {
+        return new BoundedMap();
+    }
+
+    /**
+     * Returns the maximum number of entries.
+     *
+     * @return capacity of the cache
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see Cache#get(java.lang.Object)
+     */
+    public synchronized Object get(final Object key) {
+        return getMap().get(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see Cache#put(java.lang.Object, java.lang.Object)
+     */
+    public synchronized void put(final Object key, final Object value) {
+        getMap().put(key, value);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see Cache#containsKey(java.lang.Object)
+     */
+    public synchronized boolean containsKey(final Object key) {
+        return getMap().containsKey(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see Cache#remove(java.lang.Object)
+     */
+    public synchronized Object remove(final Object key) {
+        return getMap().remove(key);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see Cache#clear()
+     */
+    public synchronized void clear() {
+        getMap().clear();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see AbstractBaseCache#keySet()
+     */
+    public Set keySet() {
+        return new KeySet();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see AbstractBaseCache#values()
+     */
+    public Collection values() {
+        return new Values();
+    }
+
+    /**
+     * Set view of the keys, backed by the cache and synchronized on it.
+     */
+    private final class KeySet extends AbstractSet {
+
+        /**
+         * {@inheritDoc}
+         * @see java.util.AbstractCollection#size()
+         */
+        public int size() {
+            synchronized (LRUCache.this) {
+                return getMap().size();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see java.util.AbstractCollection#contains(java.lang.Object)
+         */
+        public boolean contains(final Object o) {
+            synchronized (LRUCache.this) {
+                return getMap().containsKey(o);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see java.util.AbstractCollection#remove(java.lang.Object)
+         */
+        public boolean remove(final Object o) {
+            synchronized (LRUCache.this) {
+                return getMap().keySet().remove(o);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see java.util.AbstractCollection#clear()
+         */
+        public void clear() {
+            LRUCache.this.clear();
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see java.util.AbstractCollection#iterator()
+         */
+        public Iterator iterator() {
+            synchronized (LRUCache.this) {
+                return new SynchronizedIterator(getMap().keySet().iterator());
+            }
+        }
+    }
+
+    /**
+     * Collection view of the values, backed by the cache and synchronized on it.
+     */
+    private final class Values extends AbstractCollection {
+
+        /**
+         * {@inheritDoc}
+         * @see java.util.AbstractCollection#size()
+         */
+        public int size() {
+            synchronized (LRUCache.this) {
+                return getMap().size();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see java.util.AbstractCollection#contains(java.lang.Object)
+         */
+        public boolean contains(final Object o) {
+            synchronized (LRUCache.this) {
+                return getMap().containsValue(o);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see java.util.AbstractCollection#remove(java.lang.Object)
+         */
+        public boolean remove(final Object o) {
+            synchronized (LRUCache.this) {
+                return getMap().values().remove(o);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see java.util.AbstractCollection#clear()
+         */
+        public void clear() {
+            LRUCache.this.clear();
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see java.util.AbstractCollection#iterator()
+         */
+        public Iterator iterator() {
+            synchronized (LRUCache.this) {
+                return new SynchronizedIterator(getMap().values().iterator());
+            }
+        }
+    }
+
+    /**
+     * Iterator over a view of the cache that synchronizes each call on the cache.
+     */
+    private final class SynchronizedIterator implements Iterator {
+
+        /** Iterator over the view of the map. */
+        private final Iterator iterator;
+
+        /**
+         * Creates a new iterator.
+         *
+         * @param iterator iterator over the view of the map
+         */
+        SynchronizedIterator(final Iterator iterator) {
+            this.iterator = iterator;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see java.util.Iterator#hasNext()
+         */
+        public boolean hasNext() {
+            synchronized (LRUCache.this) {
+                return iterator.hasNext();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see java.util.Iterator#next()
+         */
+        public Object next() {
+            synchronized (LRUCache.this) {
+                return iterator.next();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see java.util.Iterator#remove()
+         */
+        public void remove() {
+            synchronized (LRUCache.this) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Access-ordered map that removes its eldest entry when the capacity of
+     * the cache is exceeded.
+     */
+    private final class BoundedMap extends LinkedHashMap {
+
+        /** serial version ID for serialization. */
+        private static final long serialVersionUID = 6164520949377093016L;
+
+        /**
+         * Constructor.
+         */
+        BoundedMap() {
+            super(16, 0.75f, true);
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see java.util.LinkedHashMap#removeEldestEntry(java.util.Map.Entry)
+         */
+        protected boolean removeEldestEntry(final Map.Entry eldest) {
+            return size() > capacity;
+        }
+    }
+}
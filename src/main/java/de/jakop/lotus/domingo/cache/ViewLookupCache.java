@@ -0,0 +1,449 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.jakop.lotus.domingo.DNotesRuntimeException;
+import de.jakop.lotus.domingo.DView;
+import de.jakop.lotus.domingo.DViewEntry;
+
+/**
+ * Near-cache for keyed view lookups, similar to <tt>@DbLookup</tt>.
+ *
+ * <p>A lookup returns the column values of the first view entry that
+ * exactly matches a key in the first sorted column of the view. Rows are kept
+ * in a capacity-bounded cache for a time to live; keys without a matching
+ * entry are cached as well. Concurrent misses for the same key cause only one
+ * call of {@link DView#getEntryByKey(String, boolean)}; all callers wait for
+ * and share its result.</p>
+ *
+ * <p>With refresh-ahead, a hit on a row that is older than the time to live
+ * minus the refresh-ahead time returns the cached row immediately and reloads
+ * it in a background thread, so frequently used rows never expire. Small views
+ * can be loaded completely with {@link #preload()}.</p>
+ *
+ * <p>This class is thread-safe. Keys are compared case-insensitive, like view
+ * keys in Notes.</p>
+ */
+public final class ViewLookupCache {
+
+    /** Marker for keys without a matching view entry. */
+    private static final List NOT_FOUND = Collections.unmodifiableList(new ArrayList());
+
+    /** The view to read from. */
+    private final DView fView;
+
+    /** Cached rows: lower-case key to row. */
+    private final Cache fRows;
+
+    /** Time to live of rows in milliseconds. */
+    private final long fTimeToLive;
+
+    /** Age in milliseconds after which a hit triggers a reload, or <code>0</code>. */
+    private final long fRefreshAfter;
+
+    /** Loads in progress: lower-case key to task. */
+    private final ConcurrentMap fLoading = new ConcurrentHashMap();
+
+    /** Executor for refresh-ahead, <code>null</code> if disabled. */
+    private final ExecutorService fExecutor;
+
+    /** Number of hits. */
+    private final AtomicLong fHits = new AtomicLong();
+
+    /** Number of misses. */
+    private final AtomicLong fMisses = new AtomicLong();
+
+    /** Number of rows read from the view. */
+    private final AtomicLong fLoads = new AtomicLong();
+
+    /** Number of background refreshes. */
+    private final AtomicLong fRefreshes = new AtomicLong();
+
+    /** Number of failed loads. */
+    private final AtomicLong fErrors = new AtomicLong();
+
+    /**
+     * Creates a lookup cache without refresh-ahead.
+     *
+     * @param view the view to read from
+     * @param capacity maximum number of cached rows
+     * @param timeToLive time to live of rows in milliseconds
+     */
+    public ViewLookupCache(final DView view, final int capacity, final long timeToLive) {
+        this(view, capacity, timeToLive, 0);
+    }
+
+    /**
+     * Creates a lookup cache.
+     *
+     * @param view the view to read from
+     * @param capacity maximum number of cached rows
+     * @param timeToLive time to live of rows in milliseconds
+     * @param refreshAhead time in milliseconds before expiry during which a hit
+     *            reloads the row in the background, <code>0</code> to disable
+     */
+    public ViewLookupCache(final DView view, final int capacity, final long timeToLive, final long refreshAhead) {
+        if (timeToLive <= 0) {
+            throw new IllegalArgumentException("time to live must be positive: " + timeToLive);
+        }
+        if (refreshAhead < 0 || refreshAhead >= timeToLive) {
+            throw new IllegalArgumentException("refresh-ahead must be between 0 and the time to live: "
+                    + refreshAhead);
+        }
+        fView = view;
+        fRows = new LRUCache(capacity);
+        fTimeToLive = timeToLive;
+        fRefreshAfter = refreshAhead > 0 ? timeToLive - refreshAhead : 0;
+        if (refreshAhead > 0) {
+            fExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+                public Thread newThread(final Runnable runnable) {
+                    final Thread thread = new Thread(runnable, "domingo-lookup-refresh");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        } else {
+            fExecutor = null;
+        }
+    }
+
+    /**
+     * Returns the column values of the first view entry with the given key.
+     *
+     * @param key the key
+     * @return unmodifiable list of column values, or <code>null</code> if no
+     *         entry matches the key
+     * @throws DNotesRuntimeException if the view cannot be read
+     */
+    public List lookup(final String key) {
+        final String normalizedKey = key.toLowerCase();
+        final Row row = (Row) fRows.get(normalizedKey);
+        final long now = System.currentTimeMillis();
+        if (row != null && now - row.fLoaded < fTimeToLive) {
+            fHits.incrementAndGet();
+            if (fRefreshAfter > 0 && now - row.fLoaded >= fRefreshAfter) {
+                refresh(key, normalizedKey);
+            }
+            return row.getValues();
+        }
+        fMisses.incrementAndGet();
+        return load(key, normalizedKey).getValues();
+    }
+
+    /**
+     * Returns the column value of the first view entry with the given key.
+     *
+     * @param key the key
+     * @param column index of the column
+     * @return column value, or <code>null</code> if no entry matches the key
+     * @throws DNotesRuntimeException if the view cannot be read
+     */
+    public Object lookup(final String key, final int column) {
+        final List values = lookup(key);
+        return values == null || column >= values.size() ? null : values.get(column);
+    }
+
+    /**
+     * Reads all entries of the view into the cache. The key of an entry is
+     * the string value of its first column.
+     *
+     * <p>Only use this method for views that fit into the capacity of the
+     * cache; otherwise the first rows are evicted again.</p>
+     *
+     * @return number of rows read
+     * @throws DNotesRuntimeException if the view cannot be read
+     */
+    public int preload() {
+        int count = 0;
+        final long now = System.currentTimeMillis();
+        final Iterator iterator = fView.getAllEntries();
+        while (iterator.hasNext()) {
+            final DViewEntry entry = (DViewEntry) iterator.next();
+            if (!entry.isDocument()) {
+                continue;
+            }
+            final List values = entry.getColumnValues();
+            if (values == null || values.isEmpty() || values.get(0) == null) {
+                continue;
+            }
+            final String normalizedKey = values.get(0).toString().toLowerCase();
+            if (!fRows.containsKey(normalizedKey)) {
+                fRows.put(normalizedKey, new Row(copy(values), now));
+                count++;
+            }
+        }
+        fLoads.addAndGet(count);
+        return count;
+    }
+
+    /**
+     * Removes a key from the cache.
+     *
+     * @param key the key
+     */
+    public void invalidate(final String key) {
+        fRows.remove(key.toLowerCase());
+    }
+
+    /**
+     * Removes all keys from the cache.
+     */
+    public void invalidateAll() {
+        fRows.clear();
+    }
+
+    /**
+     * Returns the number of cached rows, including expired rows.
+     *
+     * @return number of cached rows
+     */
+    public int size() {
+        return fRows.size();
+    }
+
+    /**
+     * Returns the number of lookups served from the cache.
+     *
+     * @return number of hits
+     */
+    public long getHitCount() {
+        return fHits.get();
+    }
+
+    /**
+     * Returns the number of lookups that had to wait for a row to be read.
+     *
+     * @return number of misses
+     */
+    public long getMissCount() {
+        return fMisses.get();
+    }
+
+    /**
+     * Returns the ratio of hits to all lookups.
+     *
+     * @return hit rate between <code>0</code> and <code>1</code>
+     */
+    public double getHitRate() {
+        final long hits = fHits.get();
+        final long total = hits + fMisses.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    /**
+     * Returns the number of rows read from the view, including preloaded and
+     * refreshed rows. Concurrent misses for the same key count once.
+     *
+     * @return number of loads
+     */
+    public long getLoadCount() {
+        return fLoads.get();
+    }
+
+    /**
+     * Returns the number of background refreshes.
+     *
+     * @return number of refreshes
+     */
+    public long getRefreshCount() {
+        return fRefreshes.get();
+    }
+
+    /**
+     * Returns the number of failed reads.
+     *
+     * @return number of errors
+     */
+    public long getErrorCount() {
+        return fErrors.get();
+    }
+
+    /**
+     * Stops the refresh-ahead thread. Lookups still work afterwards, but
+     * without refresh-ahead.
+     */
+    public void close() {
+        if (fExecutor != null) {
+            fExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Reads a row from the view. Concurrent calls for the same key wait for
+     * the first call and share its result.
+     *
+     * @param key the key
+     * @param normalizedKey the lower-case key
+     * @return the row
+     */
+    private Row load(final String key, final String normalizedKey) {
+        final FutureTask task = new FutureTask(new Callable() {
+            public Object call() {
+                return read(key, normalizedKey);
+            }
+        });
+        final FutureTask running = (FutureTask) fLoading.putIfAbsent(normalizedKey, task);
+        if (running == null) {
+            try {
+                task.run();
+            } finally {
+                fLoading.remove(normalizedKey, task);
+            }
+            return getResult(task, key);
+        }
+        return getResult(running, key);
+    }
+
+    /**
+     * Reloads a row in the background unless it is already being loaded.
+     *
+     * @param key the key
+     * @param normalizedKey the lower-case key
+     */
+    private void refresh(final String key, final String normalizedKey) {
+        if (fExecutor == null || fExecutor.isShutdown() || fLoading.containsKey(normalizedKey)) {
+            return;
+        }
+        final FutureTask task = new FutureTask(new Callable() {
+            public Object call() {
+                try {
+                    return read(key, normalizedKey);
+                } finally {
+                    fLoading.remove(normalizedKey);
+                }
+            }
+        });
+        if (fLoading.putIfAbsent(normalizedKey, task) == null) {
+            fRefreshes.incrementAndGet();
+            try {
+                fExecutor.execute(task);
+            } catch (RuntimeException e) {
+                // executor was shut down concurrently
+                fLoading.remove(normalizedKey, task);
+            }
+        }
+    }
+
+    /**
+     * Reads a row from the view and puts it into the cache.
+     *
+     * @param key the key
+     * @param normalizedKey the lower-case key
+     * @return the row
+     */
+    private Row read(final String key, final String normalizedKey) {
+        try {
+            final DViewEntry entry = fView.getEntryByKey(key, true);
+            final List values = entry == null ? NOT_FOUND : copy(entry.getColumnValues());
+            final Row row = new Row(values, System.currentTimeMillis());
+            fLoads.incrementAndGet();
+            fRows.put(normalizedKey, row);
+            return row;
+        } catch (RuntimeException e) {
+            fErrors.incrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Waits for the result of a load.
+     *
+     * @param task the load
+     * @param key the key
+     * @return the row
+     */
+    private Row getResult(final FutureTask task, final String key) {
+        try {
+            return (Row) task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DNotesRuntimeException("Interrupted while waiting for lookup of " + key, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new DNotesRuntimeException("Cannot look up " + key, e.getCause());
+        }
+    }
+
+    /**
+     * Creates an unmodifiable copy of column values.
+     *
+     * @param values column values
+     * @return unmodifiable copy
+     */
+    private static List copy(final List values) {
+        return Collections.unmodifiableList(values == null ? new ArrayList() : new ArrayList(values));
+    }
+
+    /**
+     * A cached row.
+     */
+    private static final class Row {
+
+        /** Column values or {@link ViewLookupCache#NOT_FOUND}. */
+        private final List fValues;
+
+        /** Time the row was read in milliseconds. */
+        private final long fLoaded;
+
+        /**
+         * Constructor.
+         *
+         * @param values column values
+         * @param loaded time the row was read in milliseconds
+         */
+        Row(final List values, final long loaded) {
+            fValues = values;
+            fLoaded = loaded;
+        }
+
+        /**
+         * Returns the column values.
+         *
+         * @return column values, or <code>null</code> if the key has no entry
+         */
+        List getValues() {
+            return fValues == NOT_FOUND ? null : fValues;
+        }
+    }
+}
@@ -22,6 +22,7 @@
  */
 package de.jakop.lotus.domingo.groupware;
 
+import java.util.Calendar;
 import java.util.Iterator;
 
 /**
@@ -43,6 +44,17 @@ public interface AddressBook {
 
     Iterator getContacts();
 
+    /**
+     * Returns an iterator over all contacts created or modified since a
+     * given date.
+     *
+     * <p>Deleted contacts are not returned. The contacts are not ordered.</p>
+     *
+     * @param since cutoff date
+     * @return iterator over contact digests
+     */
+    Iterator getModifiedContacts(Calendar since);
+
     /**
      * Indicates if a database is a Personal Address Book.
      *
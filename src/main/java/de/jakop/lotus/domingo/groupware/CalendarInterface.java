@@ -50,6 +50,35 @@ public interface CalendarInterface {
      */
     List getObjects(Calendar from, Calendar to);
 
+    /**
+     * Returns a page of calendar objects within the specified time frame.
+     *
+     * <p>The returned iterator reads the calendar lazily and returns one
+     * digest per occurrence of repeating entries, ordered by start date/time.
+     * The time frame includes all occurrences starting at the day of
+     * <code>from</code> up to and including the day of <code>to</code>.</p>
+     *
+     * @param from start date
+     * @param to end date
+     * @param offset number of calendar entries to skip
+     * @param limit maximum number of calendar entries to return or a negative
+     *            value for all entries
+     * @return iterator over calendar entry digests
+     */
+    Iterator getObjects(Calendar from, Calendar to, int offset, int limit);
+
+    /**
+     * Returns the calendar objects created or modified since a given date,
+     * one digest per occurrence of repeating entries.
+     *
+     * <p>Deleted calendar entries are not returned. The digests are not
+     * ordered.</p>
+     *
+     * @param since cutoff date
+     * @return iterator over calendar entry digests
+     */
+    Iterator getModifiedObjects(Calendar since);
+
     /**
      * Returns an iterator over all entries in the Calendar.
      *
@@ -0,0 +1,434 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.groupware;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import de.jakop.lotus.domingo.util.GregorianDateTime;
+
+/**
+ * Local index of the contacts of one or more address books.
+ *
+ * <p>All contacts are read in bulk by {@link #load()} and kept up to date by
+ * {@link #refresh()}, which only reads the contacts modified since the last
+ * load or refresh of an address book. Lookups never access Notes.</p>
+ *
+ * <p>Contacts are found by exact name or mail address with
+ * {@link #lookup(String)}, and by prefix with {@link #find(String, int)} for
+ * type-ahead. Both search in the full name, each word of the full name, the
+ * common and abbreviated form of canonical names like
+ * <tt>CN=Kurt Riede/O=BEA</tt> and the mail address, ignoring case.</p>
+ *
+ * <p>Deleted contacts are not reported as modifications by Notes. They
+ * remain in the index until the address book is loaded again.</p>
+ *
+ * <p>Lookups are thread-safe and may run concurrently to a refresh.</p>
+ */
+public final class ContactIndex {
+
+    /** Address books and the time of their last update. */
+    private final Map fAddressBooks = new HashMap();
+
+    /** Contacts by id, <code>null</code> for free ids. */
+    private ContactDigest[] fContacts = new ContactDigest[16];
+
+    /** Number of ids in use, including free ids. */
+    private int fSize;
+
+    /** Free ids for reuse. */
+    private final List fFreeIds = new ArrayList();
+
+    /** Ids by universal id of the contact. */
+    private final Map fIds = new HashMap();
+
+    /** Ids by normalized exact key. */
+    private final Map fKeys = new HashMap();
+
+    /** Ids by normalized prefix. */
+    private final PrefixTrie fTrie = new PrefixTrie();
+
+    private final ReadWriteLock fLock = new ReentrantReadWriteLock();
+
+    /**
+     * Adds an address book to the index. The address book is not read until
+     * the next call to {@link #load()} or {@link #refresh()}.
+     *
+     * @param addressBook an address book
+     */
+    public synchronized void add(final AddressBook addressBook) {
+        fAddressBooks.put(addressBook, null);
+    }
+
+    /**
+     * Reads all contacts of all address books and rebuilds the index.
+     */
+    public synchronized void load() {
+        final Calendar now = new GregorianDateTime();
+        final List contacts = new ArrayList();
+        final Iterator addressBooks = fAddressBooks.keySet().iterator();
+        while (addressBooks.hasNext()) {
+            final Iterator iterator = ((AddressBook) addressBooks.next()).getContacts();
+            while (iterator.hasNext()) {
+                contacts.add(iterator.next());
+            }
+        }
+        fLock.writeLock().lock();
+        try {
+            fContacts = new ContactDigest[Math.max(16, contacts.size())];
+            fSize = 0;
+            fFreeIds.clear();
+            fIds.clear();
+            fKeys.clear();
+            fTrie.clear();
+            for (int i = 0; i < contacts.size(); i++) {
+                put((ContactDigest) contacts.get(i));
+            }
+        } finally {
+            fLock.writeLock().unlock();
+        }
+        final Iterator iterator = new ArrayList(fAddressBooks.keySet()).iterator();
+        while (iterator.hasNext()) {
+            fAddressBooks.put(iterator.next(), now);
+        }
+    }
+
+    /**
+     * Reads the contacts modified since the last load or refresh and updates
+     * the index. Address books never loaded are loaded completely.
+     */
+    public synchronized void refresh() {
+        if (fAddressBooks.containsValue(null)) {
+            load();
+            return;
+        }
+        final Iterator addressBooks = new ArrayList(fAddressBooks.entrySet()).iterator();
+        while (addressBooks.hasNext()) {
+            final Map.Entry entry = (Map.Entry) addressBooks.next();
+            final Calendar now = new GregorianDateTime();
+            final List contacts = new ArrayList();
+            final Iterator iterator = ((AddressBook) entry.getKey()).getModifiedContacts((Calendar) entry.getValue());
+            while (iterator.hasNext()) {
+                contacts.add(iterator.next());
+            }
+            fLock.writeLock().lock();
+            try {
+                for (int i = 0; i < contacts.size(); i++) {
+                    final ContactDigest contact = (ContactDigest) contacts.get(i);
+                    remove(contact.getUnid());
+                    put(contact);
+                }
+            } finally {
+                fLock.writeLock().unlock();
+            }
+            fAddressBooks.put(entry.getKey(), now);
+        }
+    }
+
+    /**
+     * Returns the number of indexed contacts.
+     *
+     * @return number of contacts
+     */
+    public int size() {
+        fLock.readLock().lock();
+        try {
+            return fIds.size();
+        } finally {
+            fLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns all contacts with a given name or mail address, ignoring case.
+     *
+     * @param nameOrAddress full, common, abbreviated or canonical name or
+     *            a mail address
+     * @return list of {@link ContactDigest}s, ordered by full name
+     */
+    public List lookup(final String nameOrAddress) {
+        fLock.readLock().lock();
+        try {
+            final int[] ids = (int[]) fKeys.get(normalize(nameOrAddress));
+            if (ids == null) {
+                return Collections.EMPTY_LIST;
+            }
+            final List result = new ArrayList(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                result.add(fContacts[ids[i]]);
+            }
+            Collections.sort(result, new FullNameComparator());
+            return result;
+        } finally {
+            fLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns contacts where the full name, a word of the full name, the
+     * abbreviated name or the mail address start with a given prefix,
+     * ignoring case.
+     *
+     * @param prefix the prefix
+     * @param max maximum number of contacts to return
+     * @return list of {@link ContactDigest}s, ordered by full name
+     */
+    public List find(final String prefix, final int max) {
+        final Set ids = new LinkedHashSet();
+        fLock.readLock().lock();
+        try {
+            fTrie.collect(normalize(prefix), max, ids);
+            final List result = new ArrayList(ids.size());
+            final Iterator iterator = ids.iterator();
+            while (iterator.hasNext()) {
+                result.add(fContacts[((Integer) iterator.next()).intValue()]);
+            }
+            Collections.sort(result, new FullNameComparator());
+            return result;
+        } finally {
+            fLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the canonical name for an abbreviated or common name, e.g.
+     * <tt>CN=Kurt Riede/O=BEA</tt> for <tt>Kurt Riede/BEA</tt>.
+     *
+     * @param name abbreviated or common name
+     * @return canonical name or <code>null</code> if no contact with an
+     *         unambiguous canonical name is found
+     */
+    public String getCanonicalName(final String name) {
+        final List contacts = lookup(name);
+        String canonical = null;
+        for (int i = 0; i < contacts.size(); i++) {
+            final String fullName = ((ContactDigest) contacts.get(i)).getFullName();
+            if (isCanonical(fullName)) {
+                if (canonical != null && !canonical.equalsIgnoreCase(fullName)) {
+                    return null;
+                }
+                canonical = fullName;
+            }
+        }
+        return canonical;
+    }
+
+    /**
+     * Returns the abbreviated form of a canonical name, e.g.
+     * <tt>Kurt Riede/BEA</tt> for <tt>CN=Kurt Riede/O=BEA</tt>.
+     * Names that are not canonical are returned unchanged.
+     *
+     * @param name a name
+     * @return abbreviated name
+     */
+    public static String getAbbreviatedName(final String name) {
+        if (!isCanonical(name)) {
+            return name;
+        }
+        final StringBuffer buffer = new StringBuffer(name.length());
+        int start = 0;
+        while (start <= name.length()) {
+            int end = name.indexOf('/', start);
+            if (end < 0) {
+                end = name.length();
+            }
+            final String component = name.substring(start, end);
+            final int equals = component.indexOf('=');
+            if (buffer.length() > 0) {
+                buffer.append('/');
+            }
+            buffer.append(equals >= 0 ? component.substring(equals + 1) : component);
+            start = end + 1;
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Returns the common name of a canonical or abbreviated name, e.g.
+     * <tt>Kurt Riede</tt> for <tt>CN=Kurt Riede/O=BEA</tt>.
+     *
+     * @param name a name
+     * @return common name
+     */
+    public static String getCommonName(final String name) {
+        final String abbreviated = getAbbreviatedName(name);
+        final int slash = abbreviated.indexOf('/');
+        return slash >= 0 ? abbreviated.substring(0, slash) : abbreviated;
+    }
+
+    private static boolean isCanonical(final String name) {
+        return name != null && name.regionMatches(true, 0, "CN=", 0, 3);
+    }
+
+    private static String normalize(final String key) {
+        return key.trim().toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Adds a contact to all maps. Must be called with the write lock held.
+     */
+    private void put(final ContactDigest contact) {
+        final int id;
+        if (fFreeIds.isEmpty()) {
+            if (fSize == fContacts.length) {
+                final ContactDigest[] contacts = new ContactDigest[fContacts.length * 2];
+                System.arraycopy(fContacts, 0, contacts, 0, fSize);
+                fContacts = contacts;
+            }
+            id = fSize++;
+        } else {
+            id = ((Integer) fFreeIds.remove(fFreeIds.size() - 1)).intValue();
+        }
+        fContacts[id] = contact;
+        if (contact.getUnid() != null) {
+            fIds.put(contact.getUnid(), new Integer(id));
+        }
+        final Set exact = getExactKeys(contact);
+        final Iterator keys = exact.iterator();
+        while (keys.hasNext()) {
+            final String key = (String) keys.next();
+            final int[] ids = (int[]) fKeys.get(key);
+            final int[] newIds;
+            if (ids == null) {
+                newIds = new int[] {id};
+            } else {
+                newIds = new int[ids.length + 1];
+                System.arraycopy(ids, 0, newIds, 0, ids.length);
+                newIds[ids.length] = id;
+            }
+            fKeys.put(key, newIds);
+        }
+        final Iterator prefixes = getPrefixKeys(contact, exact).iterator();
+        while (prefixes.hasNext()) {
+            fTrie.add((String) prefixes.next(), id);
+        }
+    }
+
+    /**
+     * Removes a contact from all maps. Must be called with the write lock
+     * held.
+     */
+    private void remove(final String unid) {
+        final Integer id = (Integer) fIds.remove(unid);
+        if (id == null) {
+            return;
+        }
+        final ContactDigest contact = fContacts[id.intValue()];
+        final Set exact = getExactKeys(contact);
+        final Iterator keys = exact.iterator();
+        while (keys.hasNext()) {
+            final String key = (String) keys.next();
+            final int[] ids = (int[]) fKeys.get(key);
+            if (ids == null) {
+                continue;
+            }
+            if (ids.length == 1) {
+                fKeys.remove(key);
+                continue;
+            }
+            final int[] newIds = new int[ids.length - 1];
+            int j = 0;
+            for (int i = 0; i < ids.length && j < newIds.length; i++) {
+                if (ids[i] != id.intValue()) {
+                    newIds[j++] = ids[i];
+                }
+            }
+            fKeys.put(key, newIds);
+        }
+        final Iterator prefixes = getPrefixKeys(contact, exact).iterator();
+        while (prefixes.hasNext()) {
+            fTrie.remove((String) prefixes.next(), id.intValue());
+        }
+        fContacts[id.intValue()] = null;
+        fFreeIds.add(id);
+    }
+
+    private static Set getExactKeys(final ContactDigest contact) {
+        final Set keys = new LinkedHashSet();
+        final String fullName = contact.getFullName();
+        if (fullName != null && fullName.trim().length() > 0) {
+            keys.add(normalize(fullName));
+            keys.add(normalize(getAbbreviatedName(fullName)));
+            keys.add(normalize(getCommonName(fullName)));
+        }
+        final String email = contact.getEmail();
+        if (email != null && email.trim().length() > 0) {
+            keys.add(normalize(email));
+        }
+        return keys;
+    }
+
+    private static Set getPrefixKeys(final ContactDigest contact, final Set exactKeys) {
+        final Set keys = new LinkedHashSet(exactKeys);
+        final String fullName = contact.getFullName();
+        if (fullName != null) {
+            final String common = normalize(getCommonName(fullName));
+            int start = 0;
+            for (int i = 0; i <= common.length(); i++) {
+                if (i == common.length() || common.charAt(i) == ' ' || common.charAt(i) == ',') {
+                    if (i > start) {
+                        keys.add(common.substring(start, i));
+                    }
+                    start = i + 1;
+                }
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Orders contacts by full name, ignoring case.
+     */
+    private static final class FullNameComparator implements Comparator {
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
+         */
+        public int compare(final Object o1, final Object o2) {
+            final String name1 = ((ContactDigest) o1).getFullName();
+            final String name2 = ((ContactDigest) o2).getFullName();
+            if (name1 == null) {
+                return name2 == null ? 0 : -1;
+            }
+            if (name2 == null) {
+                return 1;
+            }
+            return name1.compareToIgnoreCase(name2);
+        }
+    }
+}
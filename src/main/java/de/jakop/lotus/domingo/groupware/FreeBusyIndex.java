@@ -0,0 +1,395 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.groupware;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import de.jakop.lotus.domingo.groupware.CalendarEntry.Type;
+import de.jakop.lotus.domingo.util.GregorianDateTime;
+
+/**
+ * In-memory free/busy index over the calendars of many mailboxes.
+ *
+ * <p>For each registered mailbox the busy times within a fixed time frame
+ * are held in an interval tree, so free/busy questions are answered without
+ * reading any calendar view. The index is built by {@link #load()}, which
+ * reads all mailboxes in parallel, and kept up to date by {@link #refresh()},
+ * which only reads the calendar entries modified since the last load or
+ * refresh of a mailbox.</p>
+ *
+ * <p>Deleted calendar entries are not reported as modifications by Notes.
+ * They remain in the index until the mailbox is loaded again, so a full
+ * {@link #load()} should be scheduled now and then, e.g. once per night.</p>
+ *
+ * <p>Anniversaries and reminders don't block time and are not indexed.</p>
+ *
+ * <p>Queries are thread-safe and may run concurrently to a refresh.</p>
+ *
+ * <pre>
+ * FreeBusyIndex index = new FreeBusyIndex(from, to, 8);
+ * index.add("CN=Kurt Riede/O=BEA", calendar1);
+ * index.add("CN=Hans Wurst/O=BEA", calendar2);
+ * index.load();
+ * Calendar slot = index.findFreeSlot(owners, from, to, 30 * 60 * 1000);
+ * </pre>
+ */
+public final class FreeBusyIndex {
+
+    /** Start of the indexed time frame in milliseconds. */
+    private final long fFrom;
+
+    /** End of the indexed time frame in milliseconds. */
+    private final long fTo;
+
+    /** Start of the indexed time frame. */
+    private final Calendar fFromCalendar;
+
+    /** End of the indexed time frame. */
+    private final Calendar fToCalendar;
+
+    /** Number of mailboxes loaded in parallel. */
+    private final int fThreads;
+
+    /** Schedules by mailbox owner. */
+    private final Map fSchedules = new ConcurrentHashMap();
+
+    /**
+     * Creates a new free/busy index.
+     *
+     * @param from start of the time frame to index
+     * @param to end of the time frame to index
+     * @param threads number of mailboxes to load in parallel
+     */
+    public FreeBusyIndex(final Calendar from, final Calendar to, final int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        fFromCalendar = (Calendar) from.clone();
+        fToCalendar = (Calendar) to.clone();
+        fFrom = from.getTimeInMillis();
+        fTo = to.getTimeInMillis();
+        fThreads = threads;
+    }
+
+    /**
+     * Registers the calendar of a mailbox. The calendar is not read until the
+     * next call to {@link #load()} or {@link #refresh()}.
+     *
+     * @param owner name of the mailbox owner
+     * @param calendar calendar of the mailbox
+     */
+    public void add(final String owner, final CalendarInterface calendar) {
+        fSchedules.put(owner, new Schedule(calendar));
+    }
+
+    /**
+     * Removes the calendar of a mailbox from the index.
+     *
+     * @param owner name of the mailbox owner
+     */
+    public void remove(final String owner) {
+        fSchedules.remove(owner);
+    }
+
+    /**
+     * Returns the names of all registered mailbox owners.
+     *
+     * @return collection of owner names
+     */
+    public Collection getOwners() {
+        return new ArrayList(fSchedules.keySet());
+    }
+
+    /**
+     * Reads the calendars of all mailboxes and rebuilds the index.
+     *
+     * @throws GroupwareException if a calendar cannot be read; all other
+     *             calendars are still loaded
+     */
+    public void load() throws GroupwareException {
+        execute(true);
+    }
+
+    /**
+     * Reads all calendar entries modified since the last load or refresh and
+     * updates the index. Mailboxes never loaded are loaded completely.
+     *
+     * @throws GroupwareException if a calendar cannot be read; all other
+     *             calendars are still refreshed
+     */
+    public void refresh() throws GroupwareException {
+        execute(false);
+    }
+
+    /**
+     * Checks if a mailbox owner is free during a time frame.
+     *
+     * @param owner name of the mailbox owner
+     * @param from start of the time frame, inclusive
+     * @param to end of the time frame, exclusive
+     * @return <code>true</code> if no indexed calendar entry overlaps the time frame
+     */
+    public boolean isFree(final String owner, final Calendar from, final Calendar to) {
+        return !getSchedule(owner).overlaps(from.getTimeInMillis(), to.getTimeInMillis());
+    }
+
+    /**
+     * Returns all calendar entries of a mailbox owner overlapping a time frame.
+     *
+     * @param owner name of the mailbox owner
+     * @param from start of the time frame, inclusive
+     * @param to end of the time frame, exclusive
+     * @return list of {@link CalendarEntryDigest}s ordered by start date/time
+     */
+    public List getBusy(final String owner, final Calendar from, final Calendar to) {
+        return getSchedule(owner).collect(from.getTimeInMillis(), to.getTimeInMillis());
+    }
+
+    /**
+     * Finds the first time slot within a time frame where all given mailbox
+     * owners are free.
+     *
+     * @param owners collection of owner names
+     * @param from start of the time frame to search in
+     * @param to end of the time frame to search in
+     * @param duration duration of the slot in milliseconds
+     * @return start of the first free slot or <code>null</code> if there is
+     *         no free slot in the time frame
+     */
+    public Calendar findFreeSlot(final Collection owners, final Calendar from, final Calendar to, final long duration) {
+        final Schedule[] schedules = new Schedule[owners.size()];
+        final Iterator iterator = owners.iterator();
+        for (int i = 0; i < schedules.length; i++) {
+            schedules[i] = getSchedule((String) iterator.next());
+        }
+        final long end = to.getTimeInMillis();
+        long start = from.getTimeInMillis();
+        // round-robin over all schedules until all of them are free at the
+        // same candidate start; a busy schedule moves the candidate behind
+        // its latest overlapping entry
+        int free = 0;
+        int i = 0;
+        while (start + duration <= end) {
+            if (free == schedules.length) {
+                final Calendar slot = new GregorianDateTime();
+                slot.setTimeInMillis(start);
+                return slot;
+            }
+            final long busyUntil = schedules[i].getMaxOverlapEnd(start, start + duration);
+            if (busyUntil == Long.MIN_VALUE) {
+                free++;
+                i = (i + 1) % schedules.length;
+            } else {
+                start = busyUntil;
+                free = 0;
+            }
+        }
+        return null;
+    }
+
+    private Schedule getSchedule(final String owner) {
+        final Schedule schedule = (Schedule) fSchedules.get(owner);
+        if (schedule == null) {
+            throw new IllegalArgumentException("Unknown mailbox owner: " + owner);
+        }
+        return schedule;
+    }
+
+    /**
+     * Loads or refreshes all schedules in parallel.
+     *
+     * @param reload <code>true</code> to read all calendar entries,
+     *            <code>false</code> to read modified entries only
+     * @throws GroupwareException if at least one schedule failed
+     */
+    private void execute(final boolean reload) throws GroupwareException {
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(fThreads, Math.max(1, fSchedules.size())));
+        final Map futures = new HashMap();
+        try {
+            final Iterator iterator = fSchedules.entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry entry = (Map.Entry) iterator.next();
+                final Schedule schedule = (Schedule) entry.getValue();
+                futures.put(entry.getKey(), executor.submit(new Runnable() {
+                    public void run() {
+                        schedule.update(reload);
+                    }
+                }));
+            }
+            GroupwareException failure = null;
+            final Iterator results = futures.entrySet().iterator();
+            while (results.hasNext()) {
+                final Map.Entry entry = (Map.Entry) results.next();
+                try {
+                    ((Future) entry.getValue()).get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = new GroupwareException("Cannot read calendar of " + entry.getKey(), e.getCause());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new GroupwareException("Interrupted while reading calendars", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Busy times of a single mailbox.
+     */
+    private final class Schedule {
+
+        private final CalendarInterface fCalendar;
+
+        private final IntervalTree fTree = new IntervalTree();
+
+        /** Interval keys by universal id of the calendar entry. */
+        private final Map fKeys = new HashMap();
+
+        private final ReadWriteLock fLock = new ReentrantReadWriteLock();
+
+        /** Time of the last load or refresh or <code>null</code> if never loaded. */
+        private Calendar fLastUpdate;
+
+        Schedule(final CalendarInterface calendar) {
+            fCalendar = calendar;
+        }
+
+        /**
+         * Reads calendar entries and updates the tree. The calendar is read
+         * without holding the lock, so queries are only blocked while the
+         * tree is modified.
+         *
+         * @param reload <code>true</code> to read all calendar entries
+         */
+        void update(final boolean reload) {
+            final Calendar now = new GregorianDateTime();
+            final boolean full = reload || fLastUpdate == null;
+            final List digests = new ArrayList();
+            final Iterator iterator;
+            if (full) {
+                iterator = fCalendar.getObjects(fFromCalendar, fToCalendar, 0, -1);
+            } else {
+                iterator = fCalendar.getModifiedObjects(fLastUpdate);
+            }
+            while (iterator.hasNext()) {
+                digests.add(iterator.next());
+            }
+            fLock.writeLock().lock();
+            try {
+                if (full) {
+                    fTree.clear();
+                    fKeys.clear();
+                } else {
+                    for (int i = 0; i < digests.size(); i++) {
+                        removeEntry(((CalendarEntryDigest) digests.get(i)).getUnid());
+                    }
+                }
+                for (int i = 0; i < digests.size(); i++) {
+                    addEntry((CalendarEntryDigest) digests.get(i));
+                }
+                fLastUpdate = now;
+            } finally {
+                fLock.writeLock().unlock();
+            }
+        }
+
+        private void removeEntry(final String unid) {
+            final List keys = (List) fKeys.remove(unid);
+            if (keys != null) {
+                for (int i = 0; i < keys.size(); i++) {
+                    fTree.remove(keys.get(i));
+                }
+            }
+        }
+
+        private void addEntry(final CalendarEntryDigest digest) {
+            if (digest.getStartDateTime() == null || digest.getEndDateTime() == null) {
+                return;
+            }
+            if (digest.getType() == Type.ANNIVERSARY || digest.getType() == Type.REMINDER) {
+                return;
+            }
+            final long start = digest.getStartDateTime().getTimeInMillis();
+            final long end = digest.getEndDateTime().getTimeInMillis();
+            if (end <= start || end <= fFrom || start >= fTo) {
+                return;
+            }
+            List keys = (List) fKeys.get(digest.getUnid());
+            if (keys == null) {
+                keys = new ArrayList(1);
+                fKeys.put(digest.getUnid(), keys);
+            }
+            keys.add(fTree.add(start, end, digest));
+        }
+
+        boolean overlaps(final long start, final long end) {
+            fLock.readLock().lock();
+            try {
+                return fTree.overlaps(start, end);
+            } finally {
+                fLock.readLock().unlock();
+            }
+        }
+
+        long getMaxOverlapEnd(final long start, final long end) {
+            fLock.readLock().lock();
+            try {
+                return fTree.getMaxOverlapEnd(start, end);
+            } finally {
+                fLock.readLock().unlock();
+            }
+        }
+
+        List collect(final long start, final long end) {
+            final List result = new ArrayList();
+            fLock.readLock().lock();
+            try {
+                fTree.collect(start, end, result);
+            } finally {
+                fLock.readLock().unlock();
+            }
+            return result;
+        }
+    }
+}
@@ -50,6 +50,9 @@ public final class Groupware {
     /** references to the associated address books */
     private List addressBooks;
 
+    /** Index over all address books, created on first request. */
+    private ContactIndex fContactIndex;
+
     private DNotesFactory fFactory;
 
     private DSession fSession;
@@ -193,6 +196,27 @@ public final class Groupware {
         return new AddressBookIterator(addressBooks.iterator());
     }
 
+    /**
+     * Returns a local index over the contacts of all available public and
+     * private address books. The index is loaded on first request; call
+     * {@link ContactIndex#refresh()} to read modified contacts.
+     *
+     * @return contact index
+     * @see ContactIndex
+     */
+    public synchronized ContactIndex getContactIndex() {
+        if (fContactIndex == null) {
+            final ContactIndex index = new ContactIndex();
+            final Iterator iterator = getAddressBooks();
+            while (iterator.hasNext()) {
+                index.add((AddressBook) iterator.next());
+            }
+            index.load();
+            fContactIndex = index;
+        }
+        return fContactIndex;
+    }
+
     /**
      * Closes the groupware instance, including all internal resources of the
      * Notes connection.
@@ -0,0 +1,314 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.groupware;
+
+import java.util.List;
+
+/**
+ * Balanced interval tree of half-open time intervals <tt>[start, end)</tt>.
+ *
+ * <p>The tree is an AVL tree ordered by start time where each node also
+ * holds the maximum end time of its subtree, so overlap queries only descend
+ * into subtrees that can contain overlapping intervals. Intervals are
+ * identified by the key returned from {@link #add(long, long, Object)} and
+ * can be removed individually to support incremental updates.</p>
+ *
+ * <p>This class is not thread-safe.</p>
+ */
+final class IntervalTree {
+
+    /** Root node or <code>null</code> if the tree is empty. */
+    private Node fRoot;
+
+    /** Number of intervals in the tree. */
+    private int fSize;
+
+    /** Sequence number for the next interval, disambiguates equal starts. */
+    private long fSequence;
+
+    /**
+     * Adds an interval.
+     *
+     * @param start start time, inclusive
+     * @param end end time, exclusive
+     * @param value value associated with the interval
+     * @return key of the interval for removal
+     */
+    Object add(final long start, final long end, final Object value) {
+        if (end < start) {
+            throw new IllegalArgumentException("end before start: " + start + " > " + end);
+        }
+        final Node node = new Node(start, end, fSequence++, value);
+        fRoot = insert(fRoot, node);
+        fSize++;
+        return node;
+    }
+
+    /**
+     * Removes an interval.
+     *
+     * @param key key of the interval as returned from {@link #add(long, long, Object)}
+     * @return <code>true</code> if the interval was removed
+     */
+    boolean remove(final Object key) {
+        final Node node = (Node) key;
+        final int size = fSize;
+        fRoot = delete(fRoot, node.fStart, node.fSequence);
+        return fSize < size;
+    }
+
+    /**
+     * Removes all intervals.
+     */
+    void clear() {
+        fRoot = null;
+        fSize = 0;
+    }
+
+    /**
+     * Returns the number of intervals.
+     *
+     * @return number of intervals
+     */
+    int size() {
+        return fSize;
+    }
+
+    /**
+     * Checks if any interval overlaps the given time frame.
+     *
+     * @param start start time, inclusive
+     * @param end end time, exclusive
+     * @return <code>true</code> if at least one interval overlaps
+     */
+    boolean overlaps(final long start, final long end) {
+        Node node = fRoot;
+        while (node != null) {
+            if (node.fStart < end && start < node.fEnd) {
+                return true;
+            }
+            if (node.fLeft != null && node.fLeft.fMaxEnd > start) {
+                node = node.fLeft;
+            } else if (node.fStart < end) {
+                node = node.fRight;
+            } else {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the latest end time of all intervals overlapping the given
+     * time frame.
+     *
+     * @param start start time, inclusive
+     * @param end end time, exclusive
+     * @return latest end time or <code>Long.MIN_VALUE</code> if no interval
+     *         overlaps
+     */
+    long getMaxOverlapEnd(final long start, final long end) {
+        return maxOverlapEnd(fRoot, start, end);
+    }
+
+    /**
+     * Adds the values of all intervals overlapping the given time frame to a
+     * list, ordered by start time.
+     *
+     * @param start start time, inclusive
+     * @param end end time, exclusive
+     * @param result list to add the values to
+     */
+    void collect(final long start, final long end, final List result) {
+        collect(fRoot, start, end, result);
+    }
+
+    private static long maxOverlapEnd(final Node node, final long start, final long end) {
+        if (node == null || node.fMaxEnd <= start) {
+            return Long.MIN_VALUE;
+        }
+        long max = maxOverlapEnd(node.fLeft, start, end);
+        if (node.fStart < end) {
+            if (start < node.fEnd) {
+                max = Math.max(max, node.fEnd);
+            }
+            max = Math.max(max, maxOverlapEnd(node.fRight, start, end));
+        }
+        return max;
+    }
+
+    private static void collect(final Node node, final long start, final long end, final List result) {
+        if (node == null || node.fMaxEnd <= start) {
+            return;
+        }
+        collect(node.fLeft, start, end, result);
+        if (node.fStart < end) {
+            if (start < node.fEnd) {
+                result.add(node.fValue);
+            }
+            collect(node.fRight, start, end, result);
+        }
+    }
+
+    private static Node insert(final Node root, final Node node) {
+        if (root == null) {
+            return node;
+        }
+        if (compare(node.fStart, node.fSequence, root) < 0) {
+            root.fLeft = insert(root.fLeft, node);
+        } else {
+            root.fRight = insert(root.fRight, node);
+        }
+        return balance(root);
+    }
+
+    private Node delete(final Node root, final long start, final long sequence) {
+        if (root == null) {
+            return null;
+        }
+        final int cmp = compare(start, sequence, root);
+        if (cmp < 0) {
+            root.fLeft = delete(root.fLeft, start, sequence);
+        } else if (cmp > 0) {
+            root.fRight = delete(root.fRight, start, sequence);
+        } else {
+            fSize--;
+            if (root.fLeft == null) {
+                return root.fRight;
+            }
+            if (root.fRight == null) {
+                return root.fLeft;
+            }
+            Node successor = root.fRight;
+            while (successor.fLeft != null) {
+                successor = successor.fLeft;
+            }
+            successor.fRight = deleteMin(root.fRight);
+            successor.fLeft = root.fLeft;
+            return balance(successor);
+        }
+        return balance(root);
+    }
+
+    private static Node deleteMin(final Node root) {
+        if (root.fLeft == null) {
+            return root.fRight;
+        }
+        root.fLeft = deleteMin(root.fLeft);
+        return balance(root);
+    }
+
+    private static int compare(final long start, final long sequence, final Node node) {
+        if (start != node.fStart) {
+            return start < node.fStart ? -1 : 1;
+        }
+        if (sequence != node.fSequence) {
+            return sequence < node.fSequence ? -1 : 1;
+        }
+        return 0;
+    }
+
+    private static Node balance(final Node node) {
+        update(node);
+        final int factor = height(node.fLeft) - height(node.fRight);
+        if (factor > 1) {
+            if (height(node.fLeft.fLeft) < height(node.fLeft.fRight)) {
+                node.fLeft = rotateLeft(node.fLeft);
+            }
+            return rotateRight(node);
+        }
+        if (factor < -1) {
+            if (height(node.fRight.fRight) < height(node.fRight.fLeft)) {
+                node.fRight = rotateRight(node.fRight);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(final Node node) {
+        final Node left = node.fLeft;
+        node.fLeft = left.fRight;
+        left.fRight = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(final Node node) {
+        final Node right = node.fRight;
+        node.fRight = right.fLeft;
+        right.fLeft = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(final Node node) {
+        node.fHeight = Math.max(height(node.fLeft), height(node.fRight)) + 1;
+        long maxEnd = node.fEnd;
+        if (node.fLeft != null) {
+            maxEnd = Math.max(maxEnd, node.fLeft.fMaxEnd);
+        }
+        if (node.fRight != null) {
+            maxEnd = Math.max(maxEnd, node.fRight.fMaxEnd);
+        }
+        node.fMaxEnd = maxEnd;
+    }
+
+    private static int height(final Node node) {
+        return node == null ? 0 : node.fHeight;
+    }
+
+    /**
+     * A node of the tree, holding a single interval.
+     */
+    private static final class Node {
+
+        private final long fStart;
+
+        private final long fEnd;
+
+        private final long fSequence;
+
+        private final Object fValue;
+
+        private long fMaxEnd;
+
+        private int fHeight = 1;
+
+        private Node fLeft;
+
+        private Node fRight;
+
+        Node(final long start, final long end, final long sequence, final Object value) {
+            fStart = start;
+            fEnd = end;
+            fSequence = sequence;
+            fValue = value;
+            fMaxEnd = end;
+        }
+    }
+}
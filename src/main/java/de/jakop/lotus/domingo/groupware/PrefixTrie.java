@@ -0,0 +1,225 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.groupware;
+
+import java.util.Set;
+
+/**
+ * Compact trie mapping string keys to sets of integer ids.
+ *
+ * <p>Children of a node are stored in a sorted character array with a
+ * parallel node array and ids in a plain int array, so a node costs a few
+ * dozen bytes instead of a hash map per node. Keys are case-sensitive;
+ * callers normalize keys before adding or searching.</p>
+ *
+ * <p>This class is not thread-safe.</p>
+ */
+final class PrefixTrie {
+
+    private static final char[] NO_CHARS = new char[0];
+
+    private static final Node[] NO_NODES = new Node[0];
+
+    private static final int[] NO_IDS = new int[0];
+
+    private Node fRoot = new Node();
+
+    /**
+     * Adds an id for a key.
+     *
+     * @param key the key
+     * @param id the id
+     */
+    void add(final String key, final int id) {
+        Node node = fRoot;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.getOrCreateChild(key.charAt(i));
+        }
+        node.addId(id);
+    }
+
+    /**
+     * Removes an id from a key. Nodes left without ids and children are
+     * removed.
+     *
+     * @param key the key
+     * @param id the id
+     */
+    void remove(final String key, final int id) {
+        remove(fRoot, key, 0, id);
+    }
+
+    /**
+     * Removes all keys.
+     */
+    void clear() {
+        fRoot = new Node();
+    }
+
+    /**
+     * Adds the ids of all keys starting with a given prefix to a set, until
+     * the set contains <code>max</code> ids.
+     *
+     * @param prefix the prefix
+     * @param max maximum number of ids to collect
+     * @param result set of <code>Integer</code>s to add ids to
+     */
+    void collect(final String prefix, final int max, final Set result) {
+        Node node = fRoot;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.getChild(prefix.charAt(i));
+        }
+        if (node != null) {
+            collect(node, max, result);
+        }
+    }
+
+    private static void collect(final Node node, final int max, final Set result) {
+        for (int i = 0; i < node.fIdCount && result.size() < max; i++) {
+            result.add(new Integer(node.fIds[i]));
+        }
+        for (int i = 0; i < node.fChars.length && result.size() < max; i++) {
+            collect(node.fChildren[i], max, result);
+        }
+    }
+
+    /**
+     * Removes an id recursively.
+     *
+     * @return <code>true</code> if the node is empty and can be removed
+     */
+    private static boolean remove(final Node node, final String key, final int index, final int id) {
+        if (index == key.length()) {
+            node.removeId(id);
+        } else {
+            final Node child = node.getChild(key.charAt(index));
+            if (child != null && remove(child, key, index + 1, id)) {
+                node.removeChild(key.charAt(index));
+            }
+        }
+        return node.fIdCount == 0 && node.fChars.length == 0;
+    }
+
+    /**
+     * A node of the trie.
+     */
+    private static final class Node {
+
+        private char[] fChars = NO_CHARS;
+
+        private Node[] fChildren = NO_NODES;
+
+        private int[] fIds = NO_IDS;
+
+        private int fIdCount;
+
+        Node getChild(final char c) {
+            final int index = search(c);
+            return index >= 0 ? fChildren[index] : null;
+        }
+
+        Node getOrCreateChild(final char c) {
+            int index = search(c);
+            if (index >= 0) {
+                return fChildren[index];
+            }
+            index = -index - 1;
+            final char[] chars = new char[fChars.length + 1];
+            final Node[] children = new Node[fChars.length + 1];
+            System.arraycopy(fChars, 0, chars, 0, index);
+            System.arraycopy(fChildren, 0, children, 0, index);
+            System.arraycopy(fChars, index, chars, index + 1, fChars.length - index);
+            System.arraycopy(fChildren, index, children, index + 1, fChars.length - index);
+            final Node child = new Node();
+            chars[index] = c;
+            children[index] = child;
+            fChars = chars;
+            fChildren = children;
+            return child;
+        }
+
+        void removeChild(final char c) {
+            final int index = search(c);
+            if (index < 0) {
+                return;
+            }
+            if (fChars.length == 1) {
+                fChars = NO_CHARS;
+                fChildren = NO_NODES;
+                return;
+            }
+            final char[] chars = new char[fChars.length - 1];
+            final Node[] children = new Node[fChars.length - 1];
+            System.arraycopy(fChars, 0, chars, 0, index);
+            System.arraycopy(fChildren, 0, children, 0, index);
+            System.arraycopy(fChars, index + 1, chars, index, chars.length - index);
+            System.arraycopy(fChildren, index + 1, children, index, chars.length - index);
+            fChars = chars;
+            fChildren = children;
+        }
+
+        void addId(final int id) {
+            for (int i = 0; i < fIdCount; i++) {
+                if (fIds[i] == id) {
+                    return;
+                }
+            }
+            if (fIdCount == fIds.length) {
+                final int[] ids = new int[fIds.length == 0 ? 1 : fIds.length * 2];
+                System.arraycopy(fIds, 0, ids, 0, fIdCount);
+                fIds = ids;
+            }
+            fIds[fIdCount++] = id;
+        }
+
+        void removeId(final int id) {
+            for (int i = 0; i < fIdCount; i++) {
+                if (fIds[i] == id) {
+                    fIds[i] = fIds[--fIdCount];
+                    if (fIdCount == 0) {
+                        fIds = NO_IDS;
+                    }
+                    return;
+                }
+            }
+        }
+
+        private int search(final char c) {
+            int low = 0;
+            int high = fChars.length - 1;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                if (fChars[mid] < c) {
+                    low = mid + 1;
+                } else if (fChars[mid] > c) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+}
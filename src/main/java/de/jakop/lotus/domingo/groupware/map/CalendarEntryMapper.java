@@ -149,6 +149,87 @@ public final class CalendarEntryMapper extends BaseMapper {
         }
     }
 
+    /**
+     * Returns all start date/times of a calendar entry from the column values
+     * of the calendar view. Repeating entries have one start date/time per
+     * occurrence.
+     *
+     * @param columnValues column values of a calendar view entry
+     * @return list of <code>Calendar</code>s, possibly empty
+     */
+    static List getStartDateTimes(final List columnValues) {
+        return getCalendars(columnValues.get(START_DATE_TIME_COLUMN));
+    }
+
+    /**
+     * Returns all end date/times of a calendar entry from the column values
+     * of the calendar view. Repeating entries have one end date/time per
+     * occurrence.
+     *
+     * @param columnValues column values of a calendar view entry
+     * @return list of <code>Calendar</code>s, possibly empty
+     */
+    static List getEndDateTimes(final List columnValues) {
+        return getCalendars(columnValues.get(END_DATE_COLUMN));
+    }
+
+    /**
+     * Returns one calendar entry digest per occurrence of the calendar entry
+     * stored in a document. Documents without start date/time, e.g. to-do
+     * items, result in an empty list.
+     *
+     * @param document a calendar entry document
+     * @return list of {@link CalendarEntryDigest}s
+     */
+    static List getOccurrences(final DDocument document) {
+        final long[] starts = document.getItemValueDateTimeArrayMillis("StartDateTime");
+        final long[] ends = document.getItemValueDateTimeArrayMillis("EndDateTime");
+        final List occurrences = new ArrayList(starts.length);
+        Type type = null;
+        final String typeValue = document.getItemValueString("AppointmentType");
+        if (typeValue != null && !"".equals(typeValue)) {
+            try {
+                type = getType(Integer.parseInt(typeValue));
+            } catch (IllegalArgumentException e) {
+                type = null;
+            }
+        }
+        final List chairs = document.getItemValue("Chair");
+        for (int i = 0; i < starts.length; i++) {
+            final CalendarEntryDigest digest = new CalendarEntryDigest();
+            digest.setUnid(document.getUniversalID());
+            digest.setType(type);
+            digest.setSubject(document.getItemValueString("Subject"));
+            digest.setLocation(document.getItemValueString("Location"));
+            digest.setChairs(chairs);
+            final Calendar start = new GregorianDateTime();
+            start.setTimeInMillis(starts[i]);
+            digest.setStartDateTime(start);
+            if (i < ends.length && type != Type.REMINDER && type != Type.ANNIVERSARY) {
+                final Calendar end = new GregorianDateTime();
+                end.setTimeInMillis(ends[i]);
+                digest.setEndDateTime(end);
+            }
+            occurrences.add(digest);
+        }
+        return occurrences;
+    }
+
+    private static List getCalendars(final Object calendarOrList) {
+        final List result = new ArrayList();
+        if (calendarOrList instanceof Calendar) {
+            result.add(calendarOrList);
+        } else if (calendarOrList instanceof List) {
+            final List list = (List) calendarOrList;
+            for (int i = 0; i < list.size(); i++) {
+                if (list.get(i) instanceof Calendar) {
+                    result.add(list.get(i));
+                }
+            }
+        }
+        return result;
+    }
+
     private static class ComputeCalendarEntry extends CustomMapper {
 
         /**
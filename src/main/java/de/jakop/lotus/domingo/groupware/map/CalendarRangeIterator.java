@@ -0,0 +1,230 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.groupware.map;
+
+import java.util.Calendar;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import de.jakop.lotus.domingo.groupware.CalendarEntryDigest;
+
+/**
+ * Merges the occurrences of calendar entries into a single stream ordered by
+ * start date/time.
+ *
+ * <p>The source iterator returns for each row of a calendar view a list of
+ * occurrence digests, one per start date of a (possibly repeating) entry.
+ * Rows must arrive in ascending order of their start date, as they do in the
+ * calendar view. The calendar view has one row per instance of a repeating
+ * entry and each of these rows lists all start dates of the entry, so an
+ * occurrence with the universal ID and start date/time of an occurrence
+ * already read is dropped. Occurrences outside of the requested time frame
+ * are dropped, too. Occurrences are buffered in a priority queue and an
+ * occurrence is returned as soon as no later row can contain an earlier one,
+ * so only the occurrences of overlapping repeating entries are held in memory
+ * at a time, independent of the size of the requested time frame.</p>
+ *
+ * <p>Occurrences with equal start date/time are returned in the order they
+ * were read from the view.</p>
+ */
+final class CalendarRangeIterator implements Iterator {
+
+    /** Iterator over lists of occurrences, one list per view row. */
+    private final Iterator fRows;
+
+    /** Pending occurrences, ordered by start date/time. */
+    private final PriorityQueue fQueue = new PriorityQueue(16, new OccurrenceComparator());
+
+    /** Start of the time frame in milliseconds, inclusive. */
+    private final long fFrom;
+
+    /** End of the time frame in milliseconds, exclusive. */
+    private final long fTo;
+
+    /** Maximum number of occurrences to return or a negative value for no limit. */
+    private final int fLimit;
+
+    /** Number of occurrences to skip. */
+    private int fSkip;
+
+    /** Number of occurrences returned so far. */
+    private int fCount = 0;
+
+    /** Sequence number of the next occurrence put into the queue. */
+    private long fSequence = 0;
+
+    /** Universal ID and start of all occurrences put into the queue. */
+    private final Set fSeen = new HashSet();
+
+    /** Start of the first occurrence of the last row read from the source. */
+    private long fLastRowStart = Long.MIN_VALUE;
+
+    /**
+     * Constructor.
+     *
+     * @param rows iterator over lists of {@link CalendarEntryDigest}s
+     * @param from start of the time frame in milliseconds, inclusive
+     * @param to end of the time frame in milliseconds, exclusive
+     * @param offset number of occurrences to skip
+     * @param limit maximum number of occurrences to return or a negative value
+     *            for no limit
+     */
+    CalendarRangeIterator(final Iterator rows, final long from, final long to, final int offset, final int limit) {
+        fRows = rows;
+        fFrom = from;
+        fTo = to;
+        fSkip = offset;
+        fLimit = limit;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.util.Iterator#hasNext()
+     */
+    public boolean hasNext() {
+        if (fLimit >= 0 && fCount >= fLimit) {
+            return false;
+        }
+        fill();
+        while (fSkip > 0 && !fQueue.isEmpty()) {
+            fQueue.poll();
+            fSkip--;
+            fill();
+        }
+        return !fQueue.isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.util.Iterator#next()
+     */
+    public Object next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        fCount++;
+        return ((Occurrence) fQueue.poll()).fDigest;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.util.Iterator#remove()
+     */
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Reads rows from the source until the head of the queue cannot be
+     * preceded by an occurrence of a row not yet read.
+     */
+    private void fill() {
+        while (fRows.hasNext() && (fQueue.isEmpty() || peekStart() > fLastRowStart)) {
+            final List occurrences = (List) fRows.next();
+            long rowStart = Long.MAX_VALUE;
+            for (int i = 0; i < occurrences.size(); i++) {
+                final CalendarEntryDigest digest = (CalendarEntryDigest) occurrences.get(i);
+                final Calendar start = digest.getStartDateTime();
+                if (start == null) {
+                    continue;
+                }
+                final long time = start.getTimeInMillis();
+                rowStart = Math.min(rowStart, time);
+                if (time >= fFrom && time < fTo && isFirst(digest.getUnid(), time)) {
+                    fQueue.add(new Occurrence(time, fSequence++, digest));
+                }
+            }
+            if (rowStart != Long.MAX_VALUE) {
+                fLastRowStart = Math.max(fLastRowStart, rowStart);
+            }
+        }
+    }
+
+    /**
+     * Checks if an occurrence is read for the first time. Occurrences
+     * without universal ID are never considered duplicates.
+     *
+     * @param unid universal ID of the entry or <code>null</code>
+     * @param start start of the occurrence in milliseconds
+     * @return <code>true</code> if the occurrence was not read before
+     */
+    private boolean isFirst(final String unid, final long start) {
+        return unid == null || fSeen.add(unid + '/' + start);
+    }
+
+    private long peekStart() {
+        return ((Occurrence) fQueue.peek()).fStart;
+    }
+
+    /**
+     * A single occurrence of a calendar entry.
+     */
+    private static final class Occurrence {
+
+        private final long fStart;
+
+        private final long fSequence;
+
+        private final CalendarEntryDigest fDigest;
+
+        Occurrence(final long start, final long sequence, final CalendarEntryDigest digest) {
+            fStart = start;
+            fSequence = sequence;
+            fDigest = digest;
+        }
+    }
+
+    /**
+     * Orders occurrences by start date/time and then by the order they were
+     * read in.
+     */
+    private static final class OccurrenceComparator implements Comparator {
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
+         */
+        public int compare(final Object o1, final Object o2) {
+            final Occurrence occurrence1 = (Occurrence) o1;
+            final Occurrence occurrence2 = (Occurrence) o2;
+            if (occurrence1.fStart != occurrence2.fStart) {
+                return occurrence1.fStart < occurrence2.fStart ? -1 : 1;
+            }
+            if (occurrence1.fSequence != occurrence2.fSequence) {
+                return occurrence1.fSequence < occurrence2.fSequence ? -1 : 1;
+            }
+            return 0;
+        }
+    }
+}
@@ -24,14 +24,11 @@
 package de.jakop.lotus.domingo.groupware.map;
 
 import java.io.IOException;
-import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Comparator;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.SortedSet;
-import java.util.TreeSet;
 
 import de.jakop.lotus.domingo.DDatabase;
 import de.jakop.lotus.domingo.DDocument;
@@ -50,6 +47,7 @@ import de.jakop.lotus.domingo.map.BaseDatabase;
 import de.jakop.lotus.domingo.map.MapperRegistrationException;
 import de.jakop.lotus.domingo.map.MappingException;
 import de.jakop.lotus.domingo.map.NotesLocation;
+import de.jakop.lotus.domingo.pool.SessionPool;
 
 /**
  * Interface to mail databases.
@@ -90,6 +88,23 @@ public final class MailDatabase extends BaseDatabase implements Mailbox, Calenda
         fOwner = owner;
     }
 
+    /**
+     * Constructor.
+     *
+     * <p>The session is borrowed from a session pool and must be given back
+     * by calling {@link #close()}.</p>
+     *
+     * @param pool a session pool
+     * @param location location of database.
+     * @param owner name of mailbox owner
+     * @throws DNotesException if the uri is invalid or the database cannot be
+     *             opened
+     */
+    public MailDatabase(final SessionPool pool, final NotesLocation location, final String owner) throws DNotesException {
+        super(pool, location);
+        fOwner = owner;
+    }
+
     /**
      * Constructor.
      *
@@ -199,28 +214,52 @@ public final class MailDatabase extends BaseDatabase implements Mailbox, Calenda
      *      java.util.Calendar)
      */
     public List getObjects(final Calendar from, final Calendar to) {
-
-        SortedSet calendarEntrySet = new TreeSet(new CalendarEntryComparator());
-        DView view = getDatabase().getView(CALENDAR_VIEW);
-        Iterator it = view.getAllEntriesByKey(from, to, true);
+        final List list = new ArrayList();
+        final Iterator it = getObjects(from, to, 0, -1);
         while (it.hasNext()) {
-            DViewEntry entry = (DViewEntry) it.next();
-            CalendarEntryDigest entryDigest = new CalendarEntryDigest();
+            list.add(it.next());
+        }
+        return list;
+    }
 
-            try {
-                map(entry, entryDigest);
-            } catch (MappingException e) {
-                throw new GroupwareRuntimeException("Cannot get next calendar entry", e);
-            }
+    /**
+     * {@inheritDoc}
+     *
+     * @see CalendarInterface#getObjects(java.util.Calendar,
+     *      java.util.Calendar, int, int)
+     */
+    public Iterator getObjects(final Calendar from, final Calendar to, final int offset, final int limit) {
+        final DView view = getDatabase().getView(CALENDAR_VIEW);
+        final Iterator entries = view.getAllEntriesByKey(from, to, true);
+        final Calendar end = startOfDay(to);
+        end.add(Calendar.DAY_OF_MONTH, 1);
+        return new CalendarRangeIterator(new OccurrenceIterator(entries), startOfDay(from).getTimeInMillis(), end
+                .getTimeInMillis(), offset, limit);
+    }
 
-            // This check filters out TO-DO items appearing in the calendar view
-            // (they appear unless the user has checked "do not display to-do
-            // entries in the calendar") in the Calendar Preferences.
-            if (null != entryDigest.getStartDateTime()) {
-                calendarEntrySet.add(entryDigest);
-            }
+    /**
+     * {@inheritDoc}
+     *
+     * @see CalendarInterface#getModifiedObjects(java.util.Calendar)
+     */
+    public Iterator getModifiedObjects(final Calendar since) {
+        final Iterator documents = getDatabase().search("Form = \"Appointment\"", since);
+        final List occurrences = new ArrayList();
+        while (documents.hasNext()) {
+            final DDocument document = (DDocument) documents.next();
+            occurrences.addAll(CalendarEntryMapper.getOccurrences(document));
+            document.recycle();
         }
-        return new ArrayList(calendarEntrySet);
+        return occurrences.iterator();
+    }
+
+    private static Calendar startOfDay(final Calendar calendar) {
+        final Calendar day = (Calendar) calendar.clone();
+        day.set(Calendar.HOUR_OF_DAY, 0);
+        day.set(Calendar.MINUTE, 0);
+        day.set(Calendar.SECOND, 0);
+        day.set(Calendar.MILLISECOND, 0);
+        return day;
     }
 
     /**
@@ -275,21 +314,80 @@ public final class MailDatabase extends BaseDatabase implements Mailbox, Calenda
     }
 
     /**
-     * Compares calendar entries by start date.
+     * Iterates thru a collection of calendar view entries and returns for
+     * each view-entry a list of calendar digests, one per occurrence.
+     *
+     * <p>The calendar view has one row per instance of a repeating entry and
+     * each row lists all start dates, so all rows of a repeating entry return
+     * the same occurrences. {@link CalendarRangeIterator} drops the
+     * duplicates.</p>
+     *
+     * <p>TO-DO items appearing in the calendar view (they appear unless the
+     * user has checked "do not display to-do entries in the calendar" in the
+     * Calendar Preferences) have no start date and result in an empty
+     * list.</p>
      */
-    private static final class CalendarEntryComparator implements Comparator, Serializable {
-
-        private static final long serialVersionUID = 8982105227393259520L;
-
-        public int compare(final Object o1, final Object o2) {
-            CalendarEntryDigest ced1 = (CalendarEntryDigest) o1;
-            CalendarEntryDigest ced2 = (CalendarEntryDigest) o2;
-            if (null == ced1 && null == ced2) { return 0; }
-            if (null == ced1) { return -1; }
-            if (null == ced2) { return 1; }
-            if (null == ced1.getStartDateTime()) { return -1; }
-            if (null == ced2.getStartDateTime()) { return 1; }
-            return (ced1.getStartDateTime().getTime().compareTo(ced2.getStartDateTime().getTime()));
+    private class OccurrenceIterator implements Iterator {
+
+        private final Iterator allEntries;
+
+        /**
+         * Constructor.
+         *
+         * @param allEntries collection of view-entries
+         */
+        public OccurrenceIterator(final Iterator allEntries) {
+            this.allEntries = allEntries;
+        }
+
+        /**
+         * @see java.util.Iterator#hasNext()
+         */
+        public boolean hasNext() {
+            return allEntries.hasNext();
+        }
+
+        /**
+         * @see java.util.Iterator#next()
+         */
+        public Object next() {
+            DViewEntry entry = (DViewEntry) allEntries.next();
+            CalendarEntryDigest entryDigest = new CalendarEntryDigest();
+            try {
+                map(entry, entryDigest);
+            } catch (MappingException e) {
+                throw new GroupwareRuntimeException("Cannot get next calendar entry", e);
+            }
+            if (entryDigest.getStartDateTime() == null) {
+                return Collections.EMPTY_LIST;
+            }
+            List columnValues = entry.getColumnValues();
+            List starts = CalendarEntryMapper.getStartDateTimes(columnValues);
+            if (starts.size() <= 1) {
+                return Collections.singletonList(entryDigest);
+            }
+            List ends = CalendarEntryMapper.getEndDateTimes(columnValues);
+            boolean hasEnds = entryDigest.getEndDateTime() != null && ends.size() == starts.size();
+            List occurrences = new ArrayList(starts.size());
+            for (int i = 0; i < starts.size(); i++) {
+                CalendarEntryDigest occurrence = new CalendarEntryDigest();
+                occurrence.setUnid(entryDigest.getUnid());
+                occurrence.setType(entryDigest.getType());
+                occurrence.setSubject(entryDigest.getSubject());
+                occurrence.setLocation(entryDigest.getLocation());
+                occurrence.setChairs(entryDigest.getChairs());
+                occurrence.setStartDateTime((Calendar) starts.get(i));
+                occurrence.setEndDateTime(hasEnds ? (Calendar) ends.get(i) : entryDigest.getEndDateTime());
+                occurrences.add(occurrence);
+            }
+            return occurrences;
+        }
+
+        /**
+         * @see java.util.Iterator#remove()
+         */
+        public void remove() {
+            throw new UnsupportedOperationException();
         }
     }
 
@@ -24,8 +24,12 @@
 package de.jakop.lotus.domingo.groupware.map;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.Iterator;
+import java.util.List;
 
+import de.jakop.lotus.domingo.DDocument;
 import de.jakop.lotus.domingo.DNotesException;
 import de.jakop.lotus.domingo.DSession;
 import de.jakop.lotus.domingo.DView;
@@ -37,6 +41,7 @@ import de.jakop.lotus.domingo.map.BaseDatabase;
 import de.jakop.lotus.domingo.map.MapperRegistrationException;
 import de.jakop.lotus.domingo.map.MappingException;
 import de.jakop.lotus.domingo.map.NotesLocation;
+import de.jakop.lotus.domingo.pool.SessionPool;
 
 /**
  * Interface to public and private name and address book databases.
@@ -68,6 +73,21 @@ public final class NamesDatabase extends BaseDatabase implements AddressBook {
         super(session, location);
     }
 
+    /**
+     * Constructor.
+     *
+     * <p>The session is borrowed from a session pool and must be given back
+     * by calling {@link #close()}.</p>
+     *
+     * @param pool a session pool
+     * @param location location of database.
+     * @throws DNotesException if the uri is invalid or the database cannot be
+     *             opened
+     */
+    public NamesDatabase(final SessionPool pool, final NotesLocation location) throws DNotesException {
+        super(pool, location);
+    }
+
     /**
      * {@inheritDoc}
      * @see AddressBook#getContacts()
@@ -85,6 +105,25 @@ public final class NamesDatabase extends BaseDatabase implements AddressBook {
         return new ContactIterator(view.getAllEntries());
     }
 
+    /**
+     * {@inheritDoc}
+     * @see AddressBook#getModifiedContacts(java.util.Calendar)
+     */
+    public Iterator getModifiedContacts(final Calendar since) {
+        final Iterator documents = getDatabase().search("Form = \"Person\"", since);
+        final List contacts = new ArrayList();
+        while (documents.hasNext()) {
+            final DDocument document = (DDocument) documents.next();
+            final ContactDigest digest = new ContactDigest();
+            digest.setUnid(document.getUniversalID());
+            digest.setFullName(document.getItemValueString("FullName"));
+            digest.setEmail(document.getItemValueString("MailAddress"));
+            contacts.add(digest);
+            document.recycle();
+        }
+        return contacts.iterator();
+    }
+
     /**
      * {@inheritDoc}
      * @see AddressBook#isPrivate()
@@ -23,20 +23,20 @@
 
 package de.jakop.lotus.domingo.http;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-
+import de.jakop.lotus.domingo.util.BulkWriter;
+import de.jakop.lotus.domingo.util.DateUtil;
 import de.jakop.lotus.domingo.util.Timezones;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -47,12 +47,14 @@ import de.jakop.lotus.domingo.DBaseItem;
 import de.jakop.lotus.domingo.DDatabase;
 import de.jakop.lotus.domingo.DDateRange;
 import de.jakop.lotus.domingo.DDocument;
+import de.jakop.lotus.domingo.DDocumentSnapshot;
 import de.jakop.lotus.domingo.DEmbeddedObject;
 import de.jakop.lotus.domingo.DItem;
 import de.jakop.lotus.domingo.DNotesMonitor;
 import de.jakop.lotus.domingo.DNotesRuntimeException;
 import de.jakop.lotus.domingo.DRichTextItem;
 import de.jakop.lotus.domingo.DView;
+import de.jakop.lotus.domingo.monitor.MonitorUtil;
 
 /**
  * Http implementation of a Domingo view.
@@ -71,6 +73,9 @@ public abstract class BaseDocumentHttp extends BaseHttp implements DBaseDocument
 
     private Map fItemsMap = new HashMap();
 
+    /** Names of items changed since the document was read or last saved. */
+    private Set fChangedItems = new HashSet();
+
     /**
      * Private Constructor for this class.
      *
@@ -86,6 +91,7 @@ public abstract class BaseDocumentHttp extends BaseHttp implements DBaseDocument
         this.fUniversalId = unid;
         if (unid != null && unid.length() > 0) {
             readDocument();
+            fChangedItems.clear();
         }
     }
 
@@ -170,13 +176,10 @@ public abstract class BaseDocumentHttp extends BaseHttp implements DBaseDocument
     private void readDocumentByXML() {
         try {
             final String bs = execute("cmd=ReadDocument&unid=" + fUniversalId);
-            final SAXParser parser = getDSession().getFactory().getSAXParserFactory().newSAXParser();
             final DocumentParser documentParser = new DocumentParser();
-            parser.parse(new ByteArrayInputStream(bs.getBytes()), documentParser);
+            getDSession().parse(getDSession().getXmlCodec(), bs, "document", documentParser);
         } catch (IOException e) {
             throw new NotesHttpRuntimeException(e);
-        } catch (ParserConfigurationException e) {
-            throw new NotesHttpRuntimeException(e);
         } catch (SAXException e) {
             throw new NotesHttpRuntimeException(e);
         }
@@ -363,11 +366,11 @@ public abstract class BaseDocumentHttp extends BaseHttp implements DBaseDocument
     public final DItem replaceItemValue(final String name, final TimeZone value) {
         String s = "";
         if (value == null) {
-            getMonitor().warn("time zone is null; storing an empty string in item " + name);
+            MonitorUtil.warn(getMonitor(), "time zone is null; storing an empty string in item {}", name);
         } else {
             s = Timezones.getLotusTimeZoneString(value);
             if (s.startsWith("Unknown")) {
-                getMonitor().warn("Unknown time zone identifier (using default): " + value.getID());
+                MonitorUtil.warn(getMonitor(), "Unknown time zone identifier (using default): {}", value.getID());
             }
         }
         return replaceItemValue(name, s);
@@ -410,12 +413,65 @@ public abstract class BaseDocumentHttp extends BaseHttp implements DBaseDocument
         if (item == null) {
             item = new ItemHttp(getFactory(), this, name, values, getMonitor());
             fItemsMap.put(name, item);
+        } else if (values != null && values.equals(item.getValues())) {
+            return item;
         } else {
             item.setValues(values);
         }
+        fChangedItems.add(name);
         return item;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @see DBaseDocument#replaceItemValues(java.util.Map)
+     */
+    public final void replaceItemValues(final Map values) {
+        final Iterator iterator = values.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry entry = (Map.Entry) iterator.next();
+            BulkWriter.replaceItemValue(this, (String) entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Returns the items changed since the document was read or last saved.
+     * Replacing an item with its current values does not count as a change.
+     *
+     * @return iterator over the changed items
+     */
+    protected final Iterator getChangedItems() {
+        final List items = new ArrayList(fChangedItems.size());
+        final Iterator iterator = fChangedItems.iterator();
+        while (iterator.hasNext()) {
+            final Object item = fItemsMap.get(iterator.next());
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items.iterator();
+    }
+
+    /**
+     * Marks an item as changed, e.g. after its values were set directly on
+     * the item.
+     *
+     * @param name name of the changed item
+     */
+    final void itemChanged(final String name) {
+        if (fItemsMap.containsKey(name)) {
+            fChangedItems.add(name);
+        }
+    }
+
+    /**
+     * Forgets all item changes, e.g. after the document was saved.
+     */
+    protected final void clearChangedItems() {
+        fChangedItems.clear();
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -440,7 +496,11 @@ public abstract class BaseDocumentHttp extends BaseHttp implements DBaseDocument
      * @see DBaseDocument#getAttachment(java.lang.String)
      */
     public final DEmbeddedObject getAttachment(final String filename) {
-        throw new UnsupportedOperationException("getAttachment()");
+        if (fUniversalId == null) {
+            return null;
+        }
+        final String path = getParentDatabase().getFilePath().replace('\\', '/');
+        return new EmbeddedObjectHttp(getFactory(), this, path, fUniversalId, filename, getMonitor());
     }
 
     /**
@@ -468,6 +528,7 @@ public abstract class BaseDocumentHttp extends BaseHttp implements DBaseDocument
      */
     public final void removeItem(final String name) {
         fItemsMap.remove(name);
+        fChangedItems.remove(name);
     }
 
     /**
@@ -537,6 +598,23 @@ public abstract class BaseDocumentHttp extends BaseHttp implements DBaseDocument
         return (Calendar) (item == null ? null : item.getValues().get(0));
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @see DBaseDocument#getItemValueDateMillis(java.lang.String)
+     */
+    public final long getItemValueDateMillis(final String name) {
+        final DItem item = ((DItem) fItemsMap.get(name));
+        if (item == null) {
+            return DDocumentSnapshot.NO_DATE;
+        }
+        final List values = item.getValues();
+        if (values instanceof ValueList && values.size() > 0) {
+            return ((ValueList) values).getMillis(0);
+        }
+        return DateUtil.getMillis(values);
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -796,6 +874,16 @@ public abstract class BaseDocumentHttp extends BaseHttp implements DBaseDocument
         throw new UnsupportedOperationException("not supported in Http Document");
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @see DBaseDocument#getItemValueDateTimeArrayMillis(java.lang.String)
+     */
+    public final long[] getItemValueDateTimeArrayMillis(final String name) {
+        final DItem item = ((DItem) fItemsMap.get(name));
+        return DateUtil.getMillisArray(item == null ? null : item.getValues());
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -29,14 +29,13 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.GregorianCalendar;
 import java.util.Iterator;
 import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
 
 import de.jakop.lotus.domingo.monitor.AbstractMonitorEnabled;
-import org.apache.commons.httpclient.Header;
 import org.apache.commons.httpclient.HttpStatus;
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
@@ -58,12 +57,11 @@ public abstract class BaseHttp extends AbstractMonitorEnabled implements DBase {
     // constants
     ////////////////////////////////////////////////
 
-    private static final int VIEW_ENTRY_TIME_LENGTH = "ThhMMss".length();
-
-    private static final int VIEW_ENTRY_DATE_LENGTH = "yyyymmdd".length();
-
     private static final String LINE_TERM = System.getProperty("line.separator");
 
+    /** Charset of responses without charset in the content type. */
+    private static final String DEFAULT_CHARSET = "ISO-8859-1";
+
     /** Number of characters needed to represent a date/time value. */
     protected static final int DATETIME_STRING_LENGTH = 20;
 
@@ -182,49 +180,61 @@ public abstract class BaseHttp extends AbstractMonitorEnabled implements DBase {
         return executeUrl(getDomingoDatabase() + "/" + infoname);
     }
 
+    /**
+     * Returns the command of a request, used to name its metrics.
+     *
+     * <p>The command is the value of a <code>cmd</code> parameter, like in
+     * <code>OpenAgent&amp;cmd=ReadDocument</code>, or else the first
+     * parameter of the query, like in <code>ReadViewEntries&amp;start=1</code>.
+     * Requests without a query are named by the HTTP method.</p>
+     *
+     * @param httpMethod name of the HTTP method, e.g. <code>GET</code>
+     * @param query the query string, may be <code>null</code>
+     * @return name of the command
+     */
+    static String getCommand(final String httpMethod, final String query) {
+        if (query == null || query.length() == 0) {
+            return httpMethod;
+        }
+        int begin = 0;
+        if (query.startsWith("cmd=")) {
+            begin = "cmd=".length();
+        } else {
+            final int index = query.indexOf("&cmd=");
+            if (index >= 0) {
+                begin = index + "&cmd=".length();
+            }
+        }
+        int end = begin;
+        while (end < query.length() && query.charAt(end) != '&' && query.charAt(end) != '=') {
+            end++;
+        }
+        return end > begin ? query.substring(begin, end) : httpMethod;
+    }
+
     /**
      * Executes a given URL and returns the answer from the server.
      *
+     * <p>Concurrent identical reads of the same user are coalesced into a
+     * single request. Slow reads may be hedged by the session.</p>
+     *
      * @param pathInfo the path_info to execute
      * @return array of bytes with result from server
      * @throws IOException if the URL cannot be executed
-     *
-     * TODO move this to the session
+     * @see RequestCoalescer
      */
     protected final String executeUrl(final String pathInfo) throws IOException {
-        final DominoHttpMethod method = getDSession().createGetMethod(pathInfo);
-        try {
-            final int statusCode = getDSession().executeMethod(method);
-            if (statusCode != HttpStatus.SC_OK) {
-                getMonitor().error("Http request failed: " + method.getStatusText());
-                throw new IOException("Error " + method.getStatusCode() + ": " + method.getStatusText() + ": " + pathInfo);
-            }
-            final byte[] responseBody = method.getResponseBody();
-            Header contentType = method.getRequestHeader("Content-Type");
-            String value = contentType.getValue();
-            String charset = value.substring(value.lastIndexOf('='));
-            if (!Charset.availableCharsets().containsKey(charset)) {
-                throw new IOException("unsupported charset: " + charset);
-            }
-            ByteArrayInputStream is = new ByteArrayInputStream(responseBody);
-            InputStreamReader isReader = new InputStreamReader(is, charset);
-            BufferedReader reader = new BufferedReader(isReader);
-            StringBuffer response = new StringBuffer(responseBody.length);
-            String line = null;
-            do {
-                line = reader.readLine();
-                if (line != null) {
-                    response.append(line);
-                    response.append(LINE_TERM);
-                }
-            } while (line != null);
-            return response.toString();
-        } catch (IOException e) {
-            getMonitor().error(e.getLocalizedMessage(), e);
-            throw e;
-        } finally {
-            method.releaseConnection();
+        final int index = pathInfo.indexOf('?');
+        final String command = getCommand("GET", index < 0 ? null : pathInfo.substring(index + 1));
+        if (!RequestCoalescer.isRead(command)) {
+            return (String) getDSession().execute(command, new GetAttempt(pathInfo), null);
         }
+        final String key = getDSession().getIdentity() + " " + RequestCoalescer.normalize(pathInfo);
+        return (String) getFactory().getRequestCoalescer().execute(key, new Callable() {
+            public Object call() throws IOException {
+                return getDSession().execute(command, new GetAttempt(pathInfo), new GetAttempt(pathInfo));
+            }
+        });
     }
 
     /**
@@ -240,7 +250,7 @@ public abstract class BaseHttp extends AbstractMonitorEnabled implements DBase {
     protected final byte[] postDXL(final String query, final DocumentHttp document)
             throws IOException {
         final String pathInfo = "/" + getDomingoDatabase() + "/Domingo?OpenAgent&" + query;
-        final DominoPostMethod method = getDSession().createPostMethod(pathInfo);
+        final DominoHttpMethod method = getDSession().createPostMethod(pathInfo);
         final Iterator iterator = document.getItems();
         final StringBuffer buffer = new StringBuffer();
         buffer.append("<?xml version='1.0'?>");
@@ -276,7 +286,7 @@ public abstract class BaseHttp extends AbstractMonitorEnabled implements DBase {
         try {
             final int statusCode = getDSession().executeMethod(method);
             if (statusCode != HttpStatus.SC_OK) {
-                getMonitor().error("Http request failed: " + method.getStatusLine());
+                getMonitor().error("Http request failed: " + statusCode + " " + method.getStatusText());
             }
             return method.getResponseBody();
         } catch (IOException e) {
@@ -403,22 +413,108 @@ public abstract class BaseHttp extends AbstractMonitorEnabled implements DBase {
     //    inner classes
     ////////////////////////////////////////////////
 
+    /**
+     * Attempt to read a URL with a GET request.
+     *
+     * TODO move this to the session
+     */
+    private final class GetAttempt implements HttpAttempt {
+
+        /** The path_info to execute. */
+        private final String fPathInfo;
+
+        /** The GET method. */
+        private final DominoHttpMethod fMethod;
+
+        /**
+         * Creates a new attempt.
+         *
+         * @param pathInfo the path_info to execute
+         */
+        GetAttempt(final String pathInfo) {
+            fPathInfo = pathInfo;
+            fMethod = getDSession().createGetMethod(pathInfo);
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see HttpAttempt#execute()
+         */
+        public Object execute() throws IOException {
+            try {
+                final int statusCode = getDSession().executeMethod(fMethod);
+                if (statusCode != HttpStatus.SC_OK) {
+                    getMonitor().error("Http request failed: " + fMethod.getStatusText());
+                    throw new IOException("Error " + fMethod.getStatusCode() + ": " + fMethod.getStatusText() + ": " + fPathInfo);
+                }
+                final byte[] responseBody = fMethod.getResponseBody();
+                final String contentType = fMethod.getResponseHeaderValue("Content-Type");
+                final int index = contentType == null ? -1 : contentType.lastIndexOf('=');
+                final String charset = index < 0 ? DEFAULT_CHARSET : contentType.substring(index + 1).trim();
+                if (!Charset.isSupported(charset)) {
+                    throw new IOException("unsupported charset: " + charset);
+                }
+                ByteArrayInputStream is = new ByteArrayInputStream(responseBody);
+                InputStreamReader isReader = new InputStreamReader(is, charset);
+                BufferedReader reader = new BufferedReader(isReader);
+                StringBuffer response = new StringBuffer(responseBody.length);
+                String line = null;
+                do {
+                    line = reader.readLine();
+                    if (line != null) {
+                        response.append(line);
+                        response.append(LINE_TERM);
+                    }
+                } while (line != null);
+                return response.toString();
+            } catch (IOException e) {
+                if (!fMethod.isAborted()) {
+                    getMonitor().error(e.getLocalizedMessage(), e);
+                }
+                throw e;
+            } finally {
+                fMethod.releaseConnection();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see HttpAttempt#abort()
+         */
+        public void abort() {
+            fMethod.abort();
+        }
+    }
+
     /**
      * Base SAX parser for DXL.
      * Handles all kinds of item values.
      */
     class BaseHandler extends DefaultHandler {
 
-        private List fValues = new ArrayList();
+        /** Initial size of the character buffer. */
+        private static final int INITIAL_BUFFER_SIZE = 64;
 
-        private StringBuffer fValueBuffer = new StringBuffer();
+        private ValueList fValues = new ValueList();
+
+        /** Characters of the current value, reused for all values. */
+        private char[] fChars = new char[INITIAL_BUFFER_SIZE];
+
+        /** Number of characters of the current value. */
+        private int fLength = 0;
+
+        /** Time zone of date/time values. */
+        private TimeZone fZone = TimeZone.getDefault();
 
         /**
          * Resets the parser to start a new parsing.
          */
         protected void reset() {
-            fValues = new ArrayList();
-            fValueBuffer = new StringBuffer();
+            fValues = new ValueList();
+            fLength = 0;
+            fZone = TimeZone.getDefault();
         }
 
         /**
@@ -434,13 +530,13 @@ public abstract class BaseHttp extends AbstractMonitorEnabled implements DBase {
             } else if ("datetimelist".equals(qName)) {
                 return;
             } else if ("text".equals(qName)) {
-                fValueBuffer = new StringBuffer();
+                fLength = 0;
             } else if ("number".equals(qName)) {
-                fValueBuffer = new StringBuffer();
+                fLength = 0;
             } else if ("datetime".equals(qName)) {
-                fValueBuffer = new StringBuffer();
+                fLength = 0;
             } else if ("break".equals(qName)) {
-                fValueBuffer.append("\n");
+                append('\n');
 //            } else if ("datetimepair".equals(qName)) {
 //                // n/a
             } else {
@@ -459,11 +555,11 @@ public abstract class BaseHttp extends AbstractMonitorEnabled implements DBase {
             } else if ("datetimelist".equals(qName)) {
                 return;
             } else if ("text".equals(qName)) {
-                fValues.add(fValueBuffer.toString());
+                fValues.add(new String(fChars, 0, fLength));
             } else if ("number".equals(qName)) {
-                fValues.add(new Double(fValueBuffer.toString()));
+                fValues.addNumber(ValueParser.parseNumber(fChars, 0, fLength));
             } else if ("datetime".equals(qName)) {
-                fValues.add(parseViewEntryDateTime(fValueBuffer.toString())); // TODO parse date
+                fValues.addDateTime(ValueParser.parseDateTime(fChars, 0, fLength, fZone));
 //            } else if ("datetimepair".equals(localName)) {
 //                // n/a
             } else {
@@ -475,7 +571,32 @@ public abstract class BaseHttp extends AbstractMonitorEnabled implements DBase {
          * @see org.xml.sax.ContentHandler#characters(char[], int, int)
          */
         public void characters(final char[] ch, final int start, final int length) throws SAXException {
-            fValueBuffer.append(ch, start, length);
+            ensureCapacity(fLength + length);
+            System.arraycopy(ch, start, fChars, fLength, length);
+            fLength += length;
+        }
+
+        /**
+         * Appends a single character to the current value.
+         *
+         * @param c the character
+         */
+        private void append(final char c) {
+            ensureCapacity(fLength + 1);
+            fChars[fLength++] = c;
+        }
+
+        /**
+         * Ensures that the character buffer can hold the given number of characters.
+         *
+         * @param capacity required capacity
+         */
+        private void ensureCapacity(final int capacity) {
+            if (capacity > fChars.length) {
+                final char[] chars = new char[Math.max(capacity, fChars.length * 2)];
+                System.arraycopy(fChars, 0, chars, 0, fLength);
+                fChars = chars;
+            }
         }
 
         /**
@@ -523,30 +644,7 @@ public abstract class BaseHttp extends AbstractMonitorEnabled implements DBase {
         if (date == null || "".equals(date)) {
             return null;
         }
-        final int year = Integer.parseInt(date.substring(0, 4));
-        final int month = Integer.parseInt(date.substring(4, 6));
-        final int day = Integer.parseInt(date.substring(6, 8));
-        final int hour;
-        final int minute;
-        final int second;
-        if (date.length() > VIEW_ENTRY_DATE_LENGTH + 1) {
-            // TODO improve parsing, avoid magic naumbers
-            hour = Integer.parseInt(date.substring(VIEW_ENTRY_DATE_LENGTH + 1, VIEW_ENTRY_DATE_LENGTH + 3));
-            minute = Integer.parseInt(date.substring(VIEW_ENTRY_DATE_LENGTH + 2 + 1, VIEW_ENTRY_DATE_LENGTH + 2 + 2 + 1));
-            second = Integer.parseInt(date.substring(VIEW_ENTRY_DATE_LENGTH + 2 + 3, VIEW_ENTRY_DATE_LENGTH + 2 + 2 + 3));
-        } else {
-            hour = 0;
-            minute = 0;
-            second = 0;
-        }
-        int millis = 0;
-        if (date.length() > VIEW_ENTRY_DATE_LENGTH + VIEW_ENTRY_TIME_LENGTH) {
-            millis = Integer.parseInt(date.substring(VIEW_ENTRY_DATE_LENGTH + VIEW_ENTRY_TIME_LENGTH, VIEW_ENTRY_DATE_LENGTH
-                    + VIEW_ENTRY_TIME_LENGTH + 2));
-        }
-        final Calendar calendar = new GregorianCalendar(year, month - 1, day, hour, minute, second);
-        calendar.set(Calendar.MILLISECOND, millis);
-        return calendar;
-
+        final char[] chars = date.toCharArray();
+        return ValueParser.toCalendar(ValueParser.parseDateTime(chars, 0, chars.length, TimeZone.getDefault()));
     }
 }
@@ -0,0 +1,156 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package de.jakop.lotus.domingo.http;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.httpclient.Cookie;
+import org.apache.commons.httpclient.HttpClient;
+import org.apache.commons.httpclient.HttpMethod;
+import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
+import org.apache.commons.httpclient.UsernamePasswordCredentials;
+import org.apache.commons.httpclient.auth.AuthScope;
+import org.apache.commons.httpclient.params.HttpConnectionManagerParams;
+
+/**
+ * Transport based on commons-httpclient.
+ *
+ * @see NotesHttpFactory#TRANSPORT_PROPERTY
+ */
+public final class CommonsHttpTransport implements HttpTransport {
+
+    /** Name of this transport in the transport property. */
+    public static final String NAME = "commons";
+
+    /** Manager of the connections to the server. */
+    private final MultiThreadedHttpConnectionManager fConnectionManager = new MultiThreadedHttpConnectionManager();
+
+    /** The client executing the methods. */
+    private final HttpClient fHttpClient = new HttpClient(fConnectionManager);
+
+    /** Host name of the server. */
+    private String fHost;
+
+    /** Port of the server. */
+    private int fPort;
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see HttpTransport#init(java.lang.String, int)
+     */
+    public void init(final String host, final int port) {
+        fHost = host;
+        fPort = port;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see HttpTransport#configure(int, int)
+     */
+    public void configure(final int maxConnections, final int timeout) {
+        final HttpConnectionManagerParams params = fConnectionManager.getParams();
+        params.setDefaultMaxConnectionsPerHost(maxConnections);
+        params.setMaxTotalConnections(maxConnections);
+        params.setConnectionTimeout(timeout);
+        params.setSoTimeout(timeout);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see HttpTransport#setCredentials(java.lang.String, java.lang.String)
+     */
+    public void setCredentials(final String username, final String password) {
+        final AuthScope scope = new AuthScope(fHost, fPort, AuthScope.ANY_REALM);
+        fHttpClient.getState().setCredentials(scope, new UsernamePasswordCredentials(username, password));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see HttpTransport#addCookie(java.lang.String, java.lang.String)
+     */
+    public void addCookie(final String name, final String value) {
+        fHttpClient.getState().addCookie(new Cookie(fHost, name, value, "/", null, false));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see HttpTransport#getCookies()
+     */
+    public Map getCookies() {
+        final Cookie[] cookies = fHttpClient.getState().getCookies();
+        final Map map = new HashMap();
+        for (int i = 0; i < cookies.length; i++) {
+            if (!cookies[i].isExpired()) {
+                map.put(cookies[i].getName(), cookies[i].getValue());
+            }
+        }
+        return map;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see HttpTransport#createGetMethod(java.lang.String)
+     */
+    public DominoHttpMethod createGetMethod(final String url) {
+        return DominoGetMethod.getInstance(url);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see HttpTransport#createPostMethod(java.lang.String)
+     */
+    public DominoHttpMethod createPostMethod(final String url) {
+        return DominoPostMethod.getInstance(url);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see HttpTransport#executeMethod(DominoHttpMethod)
+     */
+    public int executeMethod(final DominoHttpMethod method) throws IOException {
+        if (!(method instanceof HttpMethod)) {
+            throw new IllegalArgumentException("Method not created by this transport: " + method.getURL());
+        }
+        return fHttpClient.executeMethod((HttpMethod) method);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see HttpTransport#shutdown()
+     */
+    public void shutdown() {
+        fConnectionManager.shutdown();
+    }
+}
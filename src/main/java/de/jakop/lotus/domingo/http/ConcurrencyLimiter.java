@@ -0,0 +1,271 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.http;
+
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive limit of concurrent requests to a server.
+ *
+ * <p>The limit follows the AIMD scheme (additive increase, multiplicative
+ * decrease) on observed latency: while requests succeed with a latency
+ * close to the best latency seen, and the limit is fully used, the limit
+ * grows by one per round of requests. If a request fails or takes more than
+ * {@link #LATENCY_TOLERANCE} times the best latency, the server is
+ * considered overloaded and the limit shrinks by {@link #BACKOFF_RATIO}.</p>
+ *
+ * <p>The best latency is tracked per command, because e.g. reading a page of
+ * a large view naturally takes much longer than opening a small document.</p>
+ *
+ * <p>The best latency decays slowly towards the observed latencies, so that
+ * the limiter adapts if the server becomes permanently slower.</p>
+ */
+public final class ConcurrencyLimiter {
+
+    /** Factor of the best latency above which a request counts as overload. */
+    public static final double LATENCY_TOLERANCE = 2.0;
+
+    /** Factor applied to the limit on overload. */
+    public static final double BACKOFF_RATIO = 0.9;
+
+    /** Number of requests after which the best latency decays. */
+    private static final int DECAY_INTERVAL = 100;
+
+    /** Lock protecting the state. */
+    private final ReentrantLock fLock = new ReentrantLock();
+
+    /** Signalled when a permit becomes available. */
+    private final Condition fAvailable = fLock.newCondition();
+
+    /** Minimum limit. */
+    private final int fMinLimit;
+
+    /** Maximum limit. */
+    private final int fMaxLimit;
+
+    /** Current limit, fractional to allow additive increase by 1/limit. */
+    private double fLimit;
+
+    /** Number of requests in flight. */
+    private int fInFlight;
+
+    /** Best latencies per command, mapping commands to {@link Baseline}s. */
+    private final Map fBaselines = new HashMap();
+
+    /** Number of callers that gave up waiting for a permit. */
+    private long fTimeouts;
+
+    /**
+     * Creates a new limiter.
+     *
+     * @param initialLimit initial limit
+     * @param minLimit minimum limit, at least <tt>1</tt>
+     * @param maxLimit maximum limit
+     */
+    public ConcurrencyLimiter(final int initialLimit, final int minLimit, final int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Invalid limits: " + minLimit + ".." + maxLimit);
+        }
+        fMinLimit = minLimit;
+        fMaxLimit = maxLimit;
+        fLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Acquires a permit for a request, waiting until the number of requests
+     * in flight is below the limit.
+     *
+     * @param timeout maximum time to wait in milliseconds, <tt>0</tt> to wait without limit
+     * @throws InterruptedIOException if interrupted or if the timeout elapsed
+     */
+    public void acquire(final long timeout) throws InterruptedIOException {
+        long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+        fLock.lock();
+        try {
+            while (fInFlight >= (int) fLimit) {
+                if (timeout <= 0) {
+                    fAvailable.await();
+                } else if (nanos <= 0) {
+                    fTimeouts++;
+                    throw new InterruptedIOException("Timeout while waiting for a connection, limit " + getLimit());
+                } else {
+                    nanos = fAvailable.awaitNanos(nanos);
+                }
+            }
+            fInFlight++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException exception = new InterruptedIOException("Interrupted while waiting for a connection");
+            exception.initCause(e);
+            throw exception;
+        } finally {
+            fLock.unlock();
+        }
+    }
+
+    /**
+     * Releases a permit and adapts the limit to the outcome of the request.
+     *
+     * @param command command of the request, e.g. <tt>ReadViewEntries</tt>
+     * @param latency latency of the request in nanoseconds
+     * @param success <code>false</code> if the request failed or was rejected by the server
+     */
+    public void release(final String command, final long latency, final boolean success) {
+        fLock.lock();
+        try {
+            final boolean saturated = fInFlight >= (int) fLimit;
+            fInFlight--;
+            Baseline baseline = (Baseline) fBaselines.get(command);
+            if (baseline == null) {
+                baseline = new Baseline();
+                fBaselines.put(command, baseline);
+            }
+            if (!success || baseline.isSlow(latency)) {
+                fLimit = Math.max(fMinLimit, fLimit * BACKOFF_RATIO);
+            } else if (saturated) {
+                fLimit = Math.min(fMaxLimit, fLimit + 1 / fLimit);
+            }
+            if (success) {
+                baseline.record(latency);
+            }
+            fAvailable.signalAll();
+        } finally {
+            fLock.unlock();
+        }
+    }
+
+    /**
+     * Releases a permit without adapting the limit, e.g. for a request that
+     * was aborted by the caller and says nothing about the server's load.
+     */
+    public void release() {
+        fLock.lock();
+        try {
+            fInFlight--;
+            fAvailable.signalAll();
+        } finally {
+            fLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current limit.
+     *
+     * @return current limit
+     */
+    public int getLimit() {
+        fLock.lock();
+        try {
+            return (int) fLimit;
+        } finally {
+            fLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of requests in flight.
+     *
+     * @return number of requests in flight
+     */
+    public int getInFlight() {
+        fLock.lock();
+        try {
+            return fInFlight;
+        } finally {
+            fLock.unlock();
+        }
+    }
+
+    /**
+     * Checks if a request could be started without waiting.
+     *
+     * @return <code>true</code> if the number of requests in flight is below the limit
+     */
+    public boolean hasCapacity() {
+        fLock.lock();
+        try {
+            return fInFlight < (int) fLimit;
+        } finally {
+            fLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of callers that gave up waiting for a permit.
+     *
+     * @return number of timeouts
+     */
+    public long getTimeoutCount() {
+        fLock.lock();
+        try {
+            return fTimeouts;
+        } finally {
+            fLock.unlock();
+        }
+    }
+
+    /**
+     * Best latency of a command.
+     */
+    private static final class Baseline {
+
+        /** Best latency seen in nanoseconds, <tt>0</tt> if unknown. */
+        private long fBestLatency;
+
+        /** Number of requests since the last decay of the best latency. */
+        private int fSamples;
+
+        /**
+         * Checks if a latency indicates overload.
+         *
+         * @param latency latency of a request in nanoseconds
+         * @return <code>true</code> if the latency exceeds the tolerance
+         */
+        boolean isSlow(final long latency) {
+            return fBestLatency != 0 && latency > fBestLatency * LATENCY_TOLERANCE;
+        }
+
+        /**
+         * Records the latency of a successful request.
+         *
+         * @param latency latency of a request in nanoseconds
+         */
+        void record(final long latency) {
+            if (fBestLatency == 0 || latency < fBestLatency) {
+                fBestLatency = latency;
+            }
+            if (++fSamples >= DECAY_INTERVAL) {
+                // let the best latency follow a permanently slower server
+                fBestLatency = (fBestLatency + latency) / 2;
+                fSamples = 0;
+            }
+        }
+    }
+}
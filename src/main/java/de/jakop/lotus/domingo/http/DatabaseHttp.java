@@ -38,6 +38,7 @@ import de.jakop.lotus.domingo.DNotesMonitor;
 import de.jakop.lotus.domingo.DProfileDocument;
 import de.jakop.lotus.domingo.DSession;
 import de.jakop.lotus.domingo.DView;
+import de.jakop.lotus.domingo.util.BulkWriter;
 
 /**
  *
@@ -184,6 +185,15 @@ public final class DatabaseHttp extends BaseHttp implements DDatabase {
         return DocumentHttp.getInstance(getFactory(), this, getMonitor());
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @see DDatabase#createDocuments(java.util.List)
+     */
+    public List createDocuments(final List itemMaps) {
+        return BulkWriter.createDocuments(this, itemMaps);
+    }
+
     /**
      * {@inheritDoc}
      *
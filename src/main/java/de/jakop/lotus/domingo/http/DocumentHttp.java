@@ -23,16 +23,12 @@
 
 package de.jakop.lotus.domingo.http;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Iterator;
 import java.util.List;
 
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-
 import de.jakop.lotus.domingo.DBaseDocument;
 import org.apache.commons.httpclient.HttpStatus;
 import org.xml.sax.Attributes;
@@ -42,10 +38,12 @@ import de.jakop.lotus.domingo.DBase;
 import de.jakop.lotus.domingo.DBaseItem;
 import de.jakop.lotus.domingo.DDatabase;
 import de.jakop.lotus.domingo.DDocument;
+import de.jakop.lotus.domingo.DDocumentSnapshot;
 import de.jakop.lotus.domingo.DItem;
 import de.jakop.lotus.domingo.DNotesMonitor;
 import de.jakop.lotus.domingo.DNotesRuntimeException;
 import de.jakop.lotus.domingo.DView;
+import de.jakop.lotus.domingo.util.DocumentSnapshot;
 
 /**
  * Http implementation of a Domingo document.
@@ -96,6 +94,7 @@ public final class DocumentHttp extends BaseDocumentHttp implements DDocument {
         this.fUniversalId = unid;
         if (unid != null && unid.length() > 0) {
             readDocument();
+            clearChangedItems();
         }
         fResponse = hasItem("$Ref");
         fParentDocumentUNID = getItemValueString("$Ref");
@@ -186,13 +185,10 @@ public final class DocumentHttp extends BaseDocumentHttp implements DDocument {
     private void readDocumentByXML() {
         try {
             final String bs = execute("cmd=ReadDocument&unid=" + fUniversalId);
-            final SAXParser parser = getDSession().getFactory().getSAXParserFactory().newSAXParser();
             final DocumentParser documentParser = new DocumentParser();
-            parser.parse(new ByteArrayInputStream(bs.getBytes()), documentParser);
+            getDSession().parse(getDSession().getXmlCodec(), bs, "document", documentParser);
         } catch (IOException e) {
             throw new NotesHttpRuntimeException(e);
-        } catch (ParserConfigurationException e) {
-            throw new NotesHttpRuntimeException(e);
         } catch (SAXException e) {
             throw new NotesHttpRuntimeException(e);
         }
@@ -232,13 +228,17 @@ public final class DocumentHttp extends BaseDocumentHttp implements DDocument {
      * @see DBaseDocument#save(boolean, boolean)
      */
     public boolean save(final boolean force, final boolean makeresponse) throws DNotesRuntimeException {
+        // existing documents only post the items that have been changed
+        final Iterator itemIterator = isNewNote() ? getItems() : getChangedItems();
+        if (!itemIterator.hasNext() && !isNewNote()) {
+            return true;
+        }
         final String path = getParentDatabase().getFilePath();
         final String args = "&sign=" + fSignOnSave;
         final String object =  isNewNote() ? ((DItem) getFirstItem("Form")).getValueString() : getUniversalID();
         final String command = isNewNote() ? "CreateDocument" : "SaveDocument";
         final String pathInfo = path + "/" + object + "?" + command + args;
-        final DominoPostMethod method = getDSession().createPostMethod(pathInfo);
-        final Iterator itemIterator = getItems();
+        final DominoHttpMethod method = getDSession().createPostMethod(pathInfo);
         while (itemIterator.hasNext()) {
             final DBaseItem item = (DBaseItem) itemIterator.next();
             if (item instanceof DItem) {
@@ -251,9 +251,12 @@ public final class DocumentHttp extends BaseDocumentHttp implements DDocument {
         try {
             final int statusCode = getDSession().executeMethod(method);
             if (statusCode != HttpStatus.SC_OK && statusCode != HttpStatus.SC_MOVED_TEMPORARILY) {
-                getMonitor().error("Http request failed: " + method.getStatusLine());
+                getMonitor().error("Http request failed: " + statusCode + " " + method.getStatusText());
             }
             // TODO we must also check the content of the response for errors when saving documents
+            if (statusCode == HttpStatus.SC_OK) {
+                clearChangedItems();
+            }
             return statusCode == HttpStatus.SC_OK;
         } catch (IOException e) {
             getMonitor().error(e.getLocalizedMessage(), e);
@@ -263,7 +266,7 @@ public final class DocumentHttp extends BaseDocumentHttp implements DDocument {
         }
     }
 
-    private void addParameter(final DominoPostMethod method, final String name, final Object value) {
+    private void addParameter(final DominoHttpMethod method, final String name, final Object value) {
         if (value instanceof Calendar) {
             method.addParameter(name, value.toString());
         } else if (value instanceof Number) {
@@ -532,4 +535,41 @@ public final class DocumentHttp extends BaseDocumentHttp implements DDocument {
     public String getHttpURL() {
         throw new UnsupportedOperationException("not supported in Http Document");
     }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see DDocument#snapshot(java.lang.String[])
+     */
+    public DDocumentSnapshot snapshot(final String[] itemNames) {
+        final List names = new ArrayList(itemNames.length);
+        final List values = new ArrayList(itemNames.length);
+        for (int i = 0; i < itemNames.length; i++) {
+            final DItem item = (DItem) getFirstItem(itemNames[i]);
+            if (item != null) {
+                names.add(itemNames[i]);
+                values.add(DocumentSnapshot.toCompactValues(item.getValues()));
+            }
+        }
+        return new DocumentSnapshot(getUniversalID(), DDocumentSnapshot.NO_DATE,
+            (String[]) names.toArray(new String[names.size()]), values.toArray());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see DDocument#snapshot()
+     */
+    public DDocumentSnapshot snapshot() {
+        final List names = new ArrayList();
+        final List values = new ArrayList();
+        final Iterator iterator = getItems();
+        while (iterator.hasNext()) {
+            final DItem item = (DItem) iterator.next();
+            names.add(item.getName());
+            values.add(DocumentSnapshot.toCompactValues(item.getValues()));
+        }
+        return new DocumentSnapshot(getUniversalID(), DDocumentSnapshot.NO_DATE,
+            (String[]) names.toArray(new String[names.size()]), values.toArray());
+    }
 }
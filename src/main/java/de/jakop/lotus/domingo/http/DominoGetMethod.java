@@ -27,10 +27,12 @@ import java.io.IOException;
 
 import de.jakop.lotus.domingo.util.XMLUtil;
 import org.apache.commons.httpclient.Header;
+import org.apache.commons.httpclient.URIException;
 import org.apache.commons.httpclient.methods.GetMethod;
 
 /**
- * An Http GET method to a Lotus Domino server.
+ * An Http GET method to a Lotus Domino server, executed by the
+ * {@link CommonsHttpTransport}.
  *
  * @author <a href=mailto:kriede@users.sourceforge.net>Kurt Riede</a>
  */
@@ -56,6 +58,50 @@ public final class DominoGetMethod extends GetMethod implements DominoHttpMethod
         return new DominoGetMethod(uri);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @see DominoHttpMethod#getURL()
+     */
+    public String getURL() {
+        try {
+            return getURI().toString();
+        } catch (URIException e) {
+            throw new NotesHttpRuntimeException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see DominoHttpMethod#getResponseHeaderValue(java.lang.String)
+     */
+    public String getResponseHeaderValue(final String name) {
+        final Header header = getResponseHeader(name);
+        return header == null ? null : header.getValue();
+    }
+
+    /**
+     * Not supported by GET methods.
+     *
+     * @param name name of the parameter
+     * @param value value of the parameter
+     * @see DominoHttpMethod#addParameter(java.lang.String, java.lang.String)
+     */
+    public void addParameter(final String name, final String value) {
+        throw new UnsupportedOperationException("Parameters are not supported by GET methods");
+    }
+
+    /**
+     * Not supported by GET methods.
+     *
+     * @param body the request body
+     * @see DominoHttpMethod#setRequestBody(java.lang.String)
+     */
+    public void setRequestBody(final String body) {
+        throw new UnsupportedOperationException("A request body is not supported by GET methods");
+    }
+
     /**
      * {@inheritDoc}
      * @throws IOException if the response cannot be read
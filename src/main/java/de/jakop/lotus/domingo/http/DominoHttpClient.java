@@ -27,25 +27,19 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Iterator;
+import java.util.Map;
 
 import de.jakop.lotus.domingo.monitor.AbstractMonitorEnabled;
+import de.jakop.lotus.domingo.monitor.MonitorUtil;
 import org.apache.commons.httpclient.Cookie;
-import org.apache.commons.httpclient.Credentials;
-import org.apache.commons.httpclient.HostConfiguration;
-import org.apache.commons.httpclient.HttpClient;
-import org.apache.commons.httpclient.HttpMethod;
-import org.apache.commons.httpclient.HttpState;
 import org.apache.commons.httpclient.HttpStatus;
-import org.apache.commons.httpclient.URIException;
-import org.apache.commons.httpclient.UsernamePasswordCredentials;
-import org.apache.commons.httpclient.auth.AuthScope;
-import org.apache.commons.httpclient.methods.GetMethod;
-import org.apache.commons.httpclient.methods.PostMethod;
 
 import de.jakop.lotus.domingo.DNotesMonitor;
 
 /**
  * An Http client for communication with Lotus Domino.
+ * Requests are executed by a pluggable {@link HttpTransport}.
  *
  * @author <a href=mailto:kriede@users.sourceforge.net>Kurt Riede</a>
  */
@@ -57,7 +51,8 @@ public final class DominoHttpClient extends AbstractMonitorEnabled implements Se
     /** Default port of Http protocol. */
     private static final int DEFAULT_HTTP_PORT = 80;
 
-    private Credentials fCredentials;
+    /** Names of cookies of a login session. */
+    private static final String[] SESSION_COOKIES = {"DomAuthSessId", "LtpaToken"};
 
     private String fProtocol = "http:";
 
@@ -69,13 +64,14 @@ public final class DominoHttpClient extends AbstractMonitorEnabled implements Se
 
     private String fPassword;
 
-    /** List of {@link org.apache.commons.httpclient.Cookie}s. */
-//    private List fCookies = new ArrayList();
+    /** Transport executing the requests. */
+    private HttpTransport fTransport;
 
-    private HttpClient fHttpClient;
+    /** Name of the session cookie issued at login, or <code>null</code>. */
+    private String fSessionCookie;
 
     /**
-     * Constructor.
+     * Constructor using the {@link CommonsHttpTransport}.
      *
      * @param monitor the monitor
      * @param host the host for the session to connect
@@ -85,6 +81,21 @@ public final class DominoHttpClient extends AbstractMonitorEnabled implements Se
      */
     public DominoHttpClient(final DNotesMonitor monitor, final String host, final String username, final String password)
             throws MalformedURLException {
+        this(monitor, host, username, password, new CommonsHttpTransport());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param monitor the monitor
+     * @param host the host for the session to connect
+     * @param username the username for login
+     * @param password the password for login
+     * @param transport the transport executing the requests
+     * @throws MalformedURLException if the host is not valid
+     */
+    public DominoHttpClient(final DNotesMonitor monitor, final String host, final String username, final String password,
+            final HttpTransport transport) throws MalformedURLException {
         super(monitor);
         final String urlStr = (host.indexOf(':') < 0) ? "http://" + host : host;
         final URL url = new URL(urlStr);
@@ -97,10 +108,42 @@ public final class DominoHttpClient extends AbstractMonitorEnabled implements Se
         fPort = fPort == -1 ? DEFAULT_HTTP_PORT : fPort;
         fUsername = username;
         fPassword = password;
-        fHttpClient = new HttpClient();
+        fTransport = transport;
+        fTransport.init(fHost, fPort);
         DominoPreferences prefs = new DominoPreferences(fHost);
-        fHttpClient.getState().addCookie(prefs.getTimeZoneCookie());
-        fHttpClient.getState().addCookie(prefs.getRegionalCookie());
+        addCookie(prefs.getTimeZoneCookie());
+        addCookie(prefs.getRegionalCookie());
+    }
+
+    private void addCookie(final Cookie cookie) {
+        fTransport.addCookie(cookie.getName(), cookie.getValue());
+    }
+
+    /**
+     * Configures the pool of connections to the server.
+     *
+     * @param maxConnections maximum number of concurrent connections
+     * @param timeout connect and read timeout in milliseconds, <tt>0</tt> for no timeout
+     */
+    public void configureConnections(final int maxConnections, final int timeout) {
+        fTransport.configure(maxConnections, timeout);
+    }
+
+    /**
+     * Releases the connections and other resources of the transport. The
+     * client must not be used afterwards.
+     */
+    public void shutdown() {
+        fTransport.shutdown();
+    }
+
+    /**
+     * Returns the transport executing the requests.
+     *
+     * @return transport
+     */
+    public HttpTransport getTransport() {
+        return fTransport;
     }
 
     /**
@@ -114,8 +157,7 @@ public final class DominoHttpClient extends AbstractMonitorEnabled implements Se
     }
 
     private void loginBasicAuthentication() throws IOException {
-        fCredentials = new UsernamePasswordCredentials(fUsername, fPassword);
-        fHttpClient.getState().setCredentials(new AuthScope(fHost, fPort, AuthScope.ANY_REALM), fCredentials);
+        fTransport.setCredentials(fUsername, fPassword);
 
         // TODO test this: Http request to ensure server is available
 //        DominoGetMethod method = createGetMethod(fProtocol + "://" + fHost + ":" + fPort + "/" + "names.nsf");
@@ -132,19 +174,23 @@ public final class DominoHttpClient extends AbstractMonitorEnabled implements Se
 
     private void loginSessionAuthentication() throws IOException {
         final String url = fProtocol + "://" + fHost + ":" + fPort + "/" + "names.nsf?Login";
-        final PostMethod method = new PostMethod(url);
+        final DominoHttpMethod method = fTransport.createPostMethod(url);
         method.addParameter("%%ModDate", "0000000000000000");
         method.addParameter("Username", fUsername);
         method.addParameter("Password", fPassword);
         method.addParameter("RedirectTo", "/names.nsf");
         try {
-            getMonitor().debug("Session authentication with " + url);
-            final int statusCode = fHttpClient.executeMethod(method);
+            MonitorUtil.debug(getMonitor(), "Session authentication with {}", url);
+            final int statusCode = fTransport.executeMethod(method);
             if (statusCode != HttpStatus.SC_OK && statusCode != HttpStatus.SC_MOVED_TEMPORARILY) {
-                getMonitor().error("Http request failed: " + method.getStatusLine());
+                getMonitor().error("Http request failed: " + statusCode + " " + method.getStatusText());
+            }
+            final Map cookies = fTransport.getCookies();
+            for (int i = 0; i < SESSION_COOKIES.length; i++) {
+                if (cookies.containsKey(SESSION_COOKIES[i])) {
+                    fSessionCookie = SESSION_COOKIES[i];
+                }
             }
-            // TODO check if a valid session cookie is now available
-//            setCookies(method.getResponseHeaders("Set-Cookie"));
             logCookies();
         } catch (IOException e) {
             getMonitor().error(e.getLocalizedMessage(), e);
@@ -154,6 +200,18 @@ public final class DominoHttpClient extends AbstractMonitorEnabled implements Se
         }
     }
 
+    /**
+     * Checks if the login session is still valid. If the server issued a
+     * session cookie, the session is valid as long as the cookie is not
+     * expired. Without session cookie, requests are authenticated with basic
+     * authentication and the session is always valid.
+     *
+     * @return <code>true</code> if the session is valid, else <code>false</code>
+     */
+    public boolean isSessionValid() {
+        return fSessionCookie == null || fTransport.getCookies().containsKey(fSessionCookie);
+    }
+
     /**
      * Returns the protocol for the connection, either <tt>http</tt> or
      * <tt>https</tt>.
@@ -212,50 +270,9 @@ public final class DominoHttpClient extends AbstractMonitorEnabled implements Se
     }
 
     /**
-     * Executes the given {@link HttpMethod HTTP method} using the given custom
-     * {@link HostConfiguration host configuration} with the given custom
-     * {@link HttpState HTTP state}.
-     *
-     * @param hostConfiguration The {@link HostConfiguration host configuration}
-     *            to use. If <code>null</code>, the host configuration
-     *            returned by {@link HttpClient#getHostConfiguration()} will be used
-     * @param method the {@link HttpMethod HTTP method} to execute.
-     * @param state the {@link HttpState HTTP state} to use when executing the
-     *            method. If <code>null</code>, the state returned by
-     *            {@link HttpClient#getState()} will be used.
-     * @return the method's response code
-     *
-     * @throws IOException If an I/O (transport) error occurs. Some transport
-     *             exceptions can be recovered from.
-     */
-    public int executeMethod(final HostConfiguration hostConfiguration, final HttpMethod method, final HttpState state)
-            throws IOException {
-        logMethod(method);
-        return fHttpClient.executeMethod(hostConfiguration, method, state);
-    }
-
-    /**
-     * Executes the given {@link HttpMethod HTTP method} using custom
-     * {@link HostConfiguration host configuration}.
-     *
-     * @param hostConfiguration The {@link HostConfiguration host configuration}
-     *            to use. If <code>null</code>, the host configuration
-     *            returned by {@link HttpClient#getHostConfiguration()} will be used
-     * @param method the {@link HttpMethod HTTP method} to execute
-     * @return the method's response code
-     *
-     * @throws IOException If an I/O (transport) error occurs. Some transport
-     *             exceptions can be recovered from.
-     */
-    public int executeMethod(final HostConfiguration hostConfiguration, final HttpMethod method) throws IOException {
-        logMethod(method);
-        return fHttpClient.executeMethod(hostConfiguration, method);
-    }
-
-    /**
-     * Executes the given {@link HttpMethod HTTP method}.
+     * Executes the given {@link DominoHttpMethod HTTP method}.
      *
-     * @param method the {@link HttpMethod HTTP method} to execute
+     * @param method the {@link DominoHttpMethod HTTP method} to execute
      * @return the method's response code
      *
      * @throws IOException If an I/O (transport) error occurs. Some transport
@@ -263,36 +280,23 @@ public final class DominoHttpClient extends AbstractMonitorEnabled implements Se
      */
     public int executeMethod(final DominoHttpMethod method) throws IOException {
         logMethod(method);
-        return fHttpClient.executeMethod(method);
+        return fTransport.executeMethod(method);
     }
 
-//    private void setCookies(final HttpMethod method) {
-//        for (int i = 0; i < fCookies.size(); i++) {
-//            method.addRequestHeader((Header) fCookies.get(i));
-//        }
-//    }
-//
-//    private void setCookies(final Header[] cookies) {
-//        for (int i = 0; i < cookies.length; i++) {
-//            fCookies.add(cookies[i]);
-//        }
-//    }
-
-    private void logMethod(final HttpMethod method) throws URIException {
-        if (method instanceof GetMethod) {
-            getMonitor().debug("HTTP GET " + method.getURI());
-        } else if (method instanceof GetMethod) {
-            getMonitor().debug("HTTP POST " + method.getURI());
+    private void logMethod(final DominoHttpMethod method) {
+        if (!getMonitor().isDebugEnabled()) {
+            return;
         }
+        MonitorUtil.debug(getMonitor(), "HTTP {} {}", method.getName(), method.getURL());
         logCookies();
     }
 
     private void logCookies() {
         if (getMonitor().isDebugEnabled()) {
-            Cookie[] cookies = fHttpClient.getState().getCookies();
-            for (int i = 0; i < cookies.length; i++) {
-                Cookie cookie = (Cookie) cookies[i];
-                getMonitor().debug(cookie.getName() + ": " + cookie.getValue());
+            final Iterator iterator = fTransport.getCookies().entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry cookie = (Map.Entry) iterator.next();
+                MonitorUtil.debug(getMonitor(), "{}: {}", cookie.getKey(), cookie.getValue());
             }
         }
     }
@@ -303,9 +307,9 @@ public final class DominoHttpClient extends AbstractMonitorEnabled implements Se
      * @param pathInfo the path on the server
      * @return new POST method
      */
-    public DominoPostMethod createPost(final String pathInfo) {
+    public DominoHttpMethod createPost(final String pathInfo) {
         final String url = fProtocol + "://" + fHost + ":" + fPort + "/" + pathInfo;
-        return DominoPostMethod.getInstance(url);
+        return fTransport.createPostMethod(url);
     }
 
     /**
@@ -314,8 +318,8 @@ public final class DominoHttpClient extends AbstractMonitorEnabled implements Se
      * @param pathInfo the path on the server
      * @return new GET method
      */
-    public DominoGetMethod createGetMethod(final String pathInfo) {
+    public DominoHttpMethod createGetMethod(final String pathInfo) {
         final String url = fProtocol + "://" + fHost + ":" + fPort + "/" + pathInfo;
-        return DominoGetMethod.getInstance(url);
+        return fTransport.createGetMethod(url);
     }
 }
@@ -24,16 +24,91 @@
 package de.jakop.lotus.domingo.http;
 
 import java.io.IOException;
-
-import org.apache.commons.httpclient.HttpMethod;
+import java.io.InputStream;
 
 /**
  * An Http method to a Lotus Domino server.
- * This is only a markup interface to prevent from using unsupported methods.
+ * This interface hides the {@link HttpTransport transport} executing the
+ * method.
  *
  * @author <a href=mailto:kriede@users.sourceforge.net>Kurt Riede</a>
  */
-public interface DominoHttpMethod extends HttpMethod {
+public interface DominoHttpMethod {
+
+    /**
+     * Returns the name of the method, e.g. <tt>GET</tt> or <tt>POST</tt>.
+     *
+     * @return name of the method
+     */
+    String getName();
+
+    /**
+     * Returns the URL of the method.
+     *
+     * @return URL of the method
+     */
+    String getURL();
+
+    /**
+     * Returns the query string of the method.
+     *
+     * @return query string or <code>null</code> if the URL has no query
+     */
+    String getQueryString();
+
+    /**
+     * Adds a form parameter to the request body. Only supported by POST methods.
+     *
+     * @param name name of the parameter
+     * @param value value of the parameter
+     */
+    void addParameter(String name, String value);
+
+    /**
+     * Sets the request body. Only supported by POST methods.
+     *
+     * @param body the request body
+     */
+    void setRequestBody(String body);
+
+    /**
+     * Returns the status code of the response.
+     *
+     * @return status code
+     */
+    int getStatusCode();
+
+    /**
+     * Returns the status text of the response.
+     *
+     * @return status text
+     */
+    String getStatusText();
+
+    /**
+     * Returns the value of a response header.
+     *
+     * @param name name of the header
+     * @return value of the header or <code>null</code> if the header is not available
+     */
+    String getResponseHeaderValue(String name);
+
+    /**
+     * Returns the response body as an array of bytes.
+     *
+     * @return response body or <code>null</code> if no response is available
+     * @throws IOException if the response cannot be read
+     */
+    byte[] getResponseBody() throws IOException;
+
+    /**
+     * Returns the response body as a stream. The stream is valid until the
+     * connection is released.
+     *
+     * @return response body or <code>null</code> if no response is available
+     * @throws IOException if the response cannot be read
+     */
+    InputStream getResponseBodyAsStream() throws IOException;
 
     /**
      * Returns the response body as a string.
@@ -50,4 +125,21 @@ public interface DominoHttpMethod extends HttpMethod {
      * @throws IOException if the response cannot be read
      */
     String getResponseBodyString() throws IOException;
+
+    /**
+     * Releases the connection of the method for reuse.
+     */
+    void releaseConnection();
+
+    /**
+     * Aborts the execution of the method.
+     */
+    void abort();
+
+    /**
+     * Checks if the method was aborted.
+     *
+     * @return <code>true</code> if {@link #abort()} was called
+     */
+    boolean isAborted();
 }
@@ -23,10 +23,13 @@
 
 package de.jakop.lotus.domingo.http;
 
+import org.apache.commons.httpclient.Header;
+import org.apache.commons.httpclient.URIException;
 import org.apache.commons.httpclient.methods.PostMethod;
 
 /**
- * An Http POST method to a Lotus Domino server.
+ * An Http POST method to a Lotus Domino server, executed by the
+ * {@link CommonsHttpTransport}.
  *
  * @author <a href=mailto:kriede@users.sourceforge.net>Kurt Riede</a>
  */
@@ -52,6 +55,29 @@ public final class DominoPostMethod extends PostMethod implements DominoHttpMeth
         return new DominoPostMethod(uri);
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @see DominoHttpMethod#getURL()
+     */
+    public String getURL() {
+        try {
+            return getURI().toString();
+        } catch (URIException e) {
+            throw new NotesHttpRuntimeException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see DominoHttpMethod#getResponseHeaderValue(java.lang.String)
+     */
+    public String getResponseHeaderValue(final String name) {
+        final Header header = getResponseHeader(name);
+        return header == null ? null : header.getValue();
+    }
+
     /**
      * {@inheritDoc}
      *
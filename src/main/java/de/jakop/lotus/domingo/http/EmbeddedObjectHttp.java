@@ -0,0 +1,200 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.http;
+
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLEncoder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.apache.commons.httpclient.HttpStatus;
+
+import de.jakop.lotus.domingo.DBase;
+import de.jakop.lotus.domingo.DEmbeddedObject;
+import de.jakop.lotus.domingo.DNotesMonitor;
+import de.jakop.lotus.domingo.util.StreamUtil;
+
+/**
+ * File attachment of a document, read from the <tt>$FILE</tt> URL of the
+ * document.
+ *
+ * <p>The content is streamed from the server without buffering the whole
+ * file in memory or on disk.</p>
+ */
+public final class EmbeddedObjectHttp extends BaseHttp implements DEmbeddedObject {
+
+    /** serial version ID for serialization. */
+    private static final long serialVersionUID = -2354981765036429612L;
+
+    /** Path of the database. */
+    private final String fDatabasePath;
+
+    /** Universal id of the document. */
+    private final String fUniversalId;
+
+    /** Name of the file attachment. */
+    private final String fName;
+
+    /**
+     * Constructor.
+     *
+     * @param theFactory the controlling factory
+     * @param theParent the document that contains the attachment
+     * @param theDatabasePath path of the database of the document
+     * @param theUniversalId universal id of the document
+     * @param theName name of the file attachment
+     * @param monitor the monitor that handles logging
+     */
+    EmbeddedObjectHttp(final NotesHttpFactory theFactory, final DBase theParent, final String theDatabasePath,
+            final String theUniversalId, final String theName, final DNotesMonitor monitor) {
+        super(theFactory, theParent, monitor);
+        fDatabasePath = theDatabasePath;
+        fUniversalId = theUniversalId;
+        fName = theName;
+    }
+
+    /**
+     * Returns the path info of the attachment.
+     *
+     * @return path info of the <tt>$FILE</tt> URL
+     * @throws IOException if the file name cannot be encoded
+     */
+    private String getPathInfo() throws IOException {
+        final String encodedName = URLEncoder.encode(fName, "UTF-8").replaceAll("\\+", "%20");
+        return fDatabasePath + "/0/" + fUniversalId + "/$FILE/" + encodedName + "?OpenElement";
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DEmbeddedObject#getInputStream()
+     */
+    public InputStream getInputStream() {
+        try {
+            final DominoHttpMethod method = getDSession().createGetMethod(getPathInfo());
+            final int statusCode = getDSession().executeMethod(method);
+            if (statusCode != HttpStatus.SC_OK) {
+                method.releaseConnection();
+                throw new NotesHttpRuntimeException("Error " + statusCode + ": " + method.getStatusText() + ": " + fName);
+            }
+            final InputStream body = method.getResponseBodyAsStream();
+            if (body == null) {
+                method.releaseConnection();
+                throw new NotesHttpRuntimeException("No content: " + fName);
+            }
+            return new FilterInputStream(body) {
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        method.releaseConnection();
+                    }
+                }
+            };
+        } catch (IOException e) {
+            getMonitor().error(e.getLocalizedMessage(), e);
+            throw new NotesHttpRuntimeException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DEmbeddedObject#transferTo(java.nio.channels.WritableByteChannel)
+     */
+    public long transferTo(final WritableByteChannel target) {
+        final InputStream in = getInputStream();
+        try {
+            return StreamUtil.transfer(in, target);
+        } catch (IOException e) {
+            throw new NotesHttpRuntimeException(e);
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+                getMonitor().warn("Cannot close attachment stream", e);
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DEmbeddedObject#extractFile(java.lang.String)
+     */
+    public void extractFile(final String path) {
+        try {
+            final FileOutputStream out = new FileOutputStream(path);
+            try {
+                final FileChannel channel = out.getChannel();
+                transferTo(channel);
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            throw new NotesHttpRuntimeException("Cannot extract file " + path, e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DEmbeddedObject#remove()
+     */
+    public void remove() {
+        throw new UnsupportedOperationException("not supported in Http Document");
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DEmbeddedObject#getName()
+     */
+    public String getName() {
+        return fName;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DEmbeddedObject#getSource()
+     */
+    public String getSource() {
+        return fName;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DEmbeddedObject#getType()
+     */
+    public int getType() {
+        return EMBED_ATTACHMENT;
+    }
+
+    /**
+     * @see BaseHttp#toString()
+     * @return the name of the attachment
+     */
+    public String toString() {
+        return fName;
+    }
+}
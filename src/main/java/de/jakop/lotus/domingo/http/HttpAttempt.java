@@ -0,0 +1,48 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.http;
+
+import java.io.IOException;
+
+/**
+ * A single attempt to execute a request. A request that is sent more than
+ * once, e.g. when hedged, uses a separate attempt for each try.
+ */
+public interface HttpAttempt {
+
+    /**
+     * Executes the request and reads the response.
+     *
+     * @return the response
+     * @throws IOException if the request fails or was aborted
+     */
+    Object execute() throws IOException;
+
+    /**
+     * Aborts the request, if it is still running. Called from another thread
+     * than {@link #execute()}.
+     */
+    void abort();
+}
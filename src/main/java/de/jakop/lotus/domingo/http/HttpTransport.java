@@ -0,0 +1,110 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package de.jakop.lotus.domingo.http;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Transport executing HTTP methods for a {@link DominoHttpClient}.
+ *
+ * <p>Implementations must be thread-safe and must have a public default
+ * constructor to be configured with the property
+ * {@link NotesHttpFactory#TRANSPORT_PROPERTY}. Cookies received from the
+ * server are stored by the transport and sent with later requests.</p>
+ *
+ * @see UrlConnectionTransport
+ * @see CommonsHttpTransport
+ */
+public interface HttpTransport {
+
+    /**
+     * Initializes the transport for a server.
+     *
+     * @param host host name of the server
+     * @param port port of the server
+     */
+    void init(String host, int port);
+
+    /**
+     * Configures the connections to the server.
+     *
+     * @param maxConnections maximum number of concurrent connections
+     * @param timeout connect and read timeout in milliseconds, <tt>0</tt> for no timeout
+     */
+    void configure(int maxConnections, int timeout);
+
+    /**
+     * Sets the credentials for basic authentication.
+     *
+     * @param username the username
+     * @param password the password
+     */
+    void setCredentials(String username, String password);
+
+    /**
+     * Adds a cookie to be sent with all requests to the server.
+     *
+     * @param name name of the cookie
+     * @param value value of the cookie
+     */
+    void addCookie(String name, String value);
+
+    /**
+     * Returns the cookies that are not expired.
+     *
+     * @return map of cookie names to values
+     */
+    Map getCookies();
+
+    /**
+     * Creates a new GET method.
+     *
+     * @param url the URL of the method
+     * @return new GET method
+     */
+    DominoHttpMethod createGetMethod(String url);
+
+    /**
+     * Creates a new POST method.
+     *
+     * @param url the URL of the method
+     * @return new POST method
+     */
+    DominoHttpMethod createPostMethod(String url);
+
+    /**
+     * Executes a method created by this transport.
+     *
+     * @param method the method to execute
+     * @return the status code of the response
+     * @throws IOException if an I/O (transport) error occurs
+     */
+    int executeMethod(DominoHttpMethod method) throws IOException;
+
+    /**
+     * Closes all connections of the transport.
+     */
+    void shutdown();
+}
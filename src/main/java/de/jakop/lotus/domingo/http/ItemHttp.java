@@ -33,6 +33,7 @@ import java.util.TimeZone;
 
 import de.jakop.lotus.domingo.*;
 import de.jakop.lotus.domingo.DNotesMonitor;
+import de.jakop.lotus.domingo.monitor.MonitorUtil;
 import de.jakop.lotus.domingo.util.GregorianDateRange;
 
 /**
@@ -109,6 +110,17 @@ public final class ItemHttp extends BaseHttp implements DItem {
      */
     public void setValues(final List theValues) {
         fValues = theValues;
+        changed();
+    }
+
+    /**
+     * Marks this item as changed on its parent document, so that the
+     * document posts it on the next save.
+     */
+    private void changed() {
+        if (getParent() instanceof BaseDocumentHttp) {
+            ((BaseDocumentHttp) getParent()).itemChanged(fName);
+        }
     }
 
     /** {@inheritDoc}
@@ -181,7 +193,8 @@ public final class ItemHttp extends BaseHttp implements DItem {
      */
     public void setValueString(final String value) {
         fValues = new ArrayList(1);
-        fValues.set(0, value);
+        fValues.add(value);
+        changed();
     }
 
     /** {@inheritDoc}
@@ -189,7 +202,8 @@ public final class ItemHttp extends BaseHttp implements DItem {
      */
     public void setValueInteger(final int i) {
         fValues = new ArrayList(1);
-        fValues.set(0, new Integer(i));
+        fValues.add(new Integer(i));
+        changed();
     }
 
     /** {@inheritDoc}
@@ -197,7 +211,8 @@ public final class ItemHttp extends BaseHttp implements DItem {
      */
     public void setValueInteger(final Integer i) {
         fValues = new ArrayList(1);
-        fValues.set(0, i);
+        fValues.add(i);
+        changed();
     }
 
     /** {@inheritDoc}
@@ -205,7 +220,8 @@ public final class ItemHttp extends BaseHttp implements DItem {
      */
     public void setValueDouble(final double d) {
         fValues = new ArrayList(1);
-        fValues.set(0, new Double(d));
+        fValues.add(new Double(d));
+        changed();
     }
 
     /** {@inheritDoc}
@@ -213,7 +229,8 @@ public final class ItemHttp extends BaseHttp implements DItem {
      */
     public void setValueDouble(final Double d) {
         fValues = new ArrayList(1);
-        fValues.set(0, d);
+        fValues.add(d);
+        changed();
     }
 
     /** {@inheritDoc}
@@ -221,7 +238,8 @@ public final class ItemHttp extends BaseHttp implements DItem {
      */
     public void setValueDateTime(final Calendar calendar) {
         fValues = new ArrayList(1);
-        fValues.set(0, calendar);
+        fValues.add(calendar);
+        changed();
     }
 
     /** {@inheritDoc}
@@ -229,8 +247,9 @@ public final class ItemHttp extends BaseHttp implements DItem {
      */
     public void setValueDateRange(final DDateRange dateRange) {
         fValues = new ArrayList(2);
-        fValues.set(0, dateRange.getFrom());
-        fValues.set(0, dateRange.getTo());
+        fValues.add(dateRange.getFrom());
+        fValues.add(dateRange.getTo());
+        changed();
     }
 
     /** {@inheritDoc}
@@ -238,8 +257,9 @@ public final class ItemHttp extends BaseHttp implements DItem {
      */
     public void setValueDateRange(final Calendar calendar1, final Calendar calendar2) {
         fValues = new ArrayList(2);
-        fValues.set(0, calendar1);
-        fValues.set(0, calendar2);
+        fValues.add(calendar1);
+        fValues.add(calendar2);
+        changed();
     }
 
     /** {@inheritDoc}
@@ -247,6 +267,7 @@ public final class ItemHttp extends BaseHttp implements DItem {
      */
     public void appendToTextList(final String value) {
         fValues.add(value);
+        changed();
     }
 
     /** {@inheritDoc}
@@ -254,6 +275,7 @@ public final class ItemHttp extends BaseHttp implements DItem {
      */
     public void appendToTextList(final List theValues) {
         fValues.addAll(theValues);
+        changed();
     }
 
     /** {@inheritDoc}
@@ -417,7 +439,7 @@ public final class ItemHttp extends BaseHttp implements DItem {
         try {
             return fValues.get(i);
         } catch (IndexOutOfBoundsException e) {
-            getMonitor().warn("Cannot access value " + i + " of item " + fName);
+            MonitorUtil.warn(getMonitor(), "Cannot access value {} of item {}", new Integer(i), fName);
         }
         return null;
     }
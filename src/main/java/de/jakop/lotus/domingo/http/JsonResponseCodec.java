@@ -0,0 +1,398 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.http;
+
+import java.io.IOException;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Codec for JSON responses, as returned by Domino for
+ * <tt>ReadViewEntries&amp;OutputFormat=JSON</tt>.
+ *
+ * <p>The response is tokenized in a single pass and reported as the SAX events
+ * of the equivalent XML response, without building a tree. The mapping follows
+ * the conventions of Domino:</p>
+ * <ul>
+ * <li>an object is an element with the name of its member, e.g. <tt>"viewentry": {...}</tt></li>
+ * <li>an array is a sequence of elements with the name of its member</li>
+ * <li>members starting with <tt>@</tt> are attributes, e.g. <tt>"@unid": "..."</tt>,
+ * they must precede all other members of an object</li>
+ * <li>the member <tt>"0"</tt> is the text content, e.g. <tt>"text": {"0": "abc"}</tt></li>
+ * </ul>
+ *
+ * <p>Text content is unescaped into a reused character buffer and passed to
+ * {@link DefaultHandler#characters(char[], int, int)} without creating
+ * strings.</p>
+ */
+public final class JsonResponseCodec implements ResponseCodec {
+
+    /** Name of the member holding the text content of an element. */
+    private static final String CONTENT = "0";
+
+    /** Prefix of members that are attributes. */
+    private static final char ATTRIBUTE_PREFIX = '@';
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see ResponseCodec#getFormatArgument()
+     */
+    public String getFormatArgument() {
+        return "&OutputFormat=JSON";
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see ResponseCodec#accepts(java.lang.String)
+     */
+    public boolean accepts(final String response) {
+        return XmlResponseCodec.firstCharacter(response) == '{';
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see ResponseCodec#parse(java.lang.String, java.lang.String, org.xml.sax.helpers.DefaultHandler)
+     */
+    public void parse(final String response, final String rootElement, final DefaultHandler handler)
+            throws IOException, SAXException {
+        final Tokenizer tokenizer = new Tokenizer(response.toCharArray(), handler);
+        handler.startDocument();
+        tokenizer.skipWhitespace();
+        tokenizer.expect('{');
+        tokenizer.parseObject(rootElement);
+        tokenizer.skipWhitespace();
+        if (!tokenizer.isAtEnd()) {
+            throw tokenizer.error("Unexpected content after end of response");
+        }
+        handler.endDocument();
+    }
+
+    /**
+     * Single-use tokenizer for one response.
+     */
+    private static final class Tokenizer {
+
+        /** Initial size of the value buffer. */
+        private static final int INITIAL_BUFFER_SIZE = 64;
+
+        /** Number of hex digits of a unicode escape sequence. */
+        private static final int UNICODE_DIGITS = 4;
+
+        /** Radix of unicode escape sequences. */
+        private static final int HEX = 16;
+
+        /** Characters of the response. */
+        private final char[] fChars;
+
+        /** Handler receiving the SAX events. */
+        private final DefaultHandler fHandler;
+
+        /** Current position in the response. */
+        private int fPosition = 0;
+
+        /** Buffer for unescaped values, reused for all values. */
+        private char[] fBuffer = new char[INITIAL_BUFFER_SIZE];
+
+        /** Number of characters in the value buffer. */
+        private int fLength;
+
+        /**
+         * Creates a new tokenizer.
+         *
+         * @param chars characters of the response
+         * @param handler handler receiving the SAX events
+         */
+        Tokenizer(final char[] chars, final DefaultHandler handler) {
+            fChars = chars;
+            fHandler = handler;
+        }
+
+        /**
+         * Parses the members of an object as content of an element. The
+         * opening brace must already be consumed.
+         *
+         * @param name name of the element
+         * @throws SAXException if the response is invalid
+         */
+        void parseObject(final String name) throws SAXException {
+            final AttributesImpl attributes = new AttributesImpl();
+            boolean started = false;
+            skipWhitespace();
+            if (peek() == '}') {
+                fPosition++;
+            } else {
+                while (true) {
+                    skipWhitespace();
+                    readString();
+                    final String member = new String(fBuffer, 0, fLength);
+                    skipWhitespace();
+                    expect(':');
+                    skipWhitespace();
+                    if (member.length() > 0 && member.charAt(0) == ATTRIBUTE_PREFIX) {
+                        if (started) {
+                            throw error("Attribute " + member + " after content of " + name);
+                        }
+                        if (readScalar()) {
+                            final String attribute = member.substring(1);
+                            attributes.addAttribute("", attribute, attribute, "CDATA", new String(fBuffer, 0, fLength));
+                        }
+                    } else {
+                        if (!started) {
+                            fHandler.startElement("", name, name, attributes);
+                            started = true;
+                        }
+                        if (CONTENT.equals(member)) {
+                            if (readScalar()) {
+                                fHandler.characters(fBuffer, 0, fLength);
+                            }
+                        } else {
+                            parseValue(member);
+                        }
+                    }
+                    skipWhitespace();
+                    final char c = next();
+                    if (c == '}') {
+                        break;
+                    } else if (c != ',') {
+                        throw error("Expected ',' or '}'");
+                    }
+                }
+            }
+            if (!started) {
+                fHandler.startElement("", name, name, attributes);
+            }
+            fHandler.endElement("", name, name);
+        }
+
+        /**
+         * Parses the value of a member.
+         *
+         * @param name name of the member
+         * @throws SAXException if the response is invalid
+         */
+        private void parseValue(final String name) throws SAXException {
+            final char c = peek();
+            if (c == '{') {
+                fPosition++;
+                parseObject(name);
+            } else if (c == '[') {
+                fPosition++;
+                skipWhitespace();
+                if (peek() == ']') {
+                    fPosition++;
+                    return;
+                }
+                while (true) {
+                    skipWhitespace();
+                    parseValue(name);
+                    skipWhitespace();
+                    final char d = next();
+                    if (d == ']') {
+                        return;
+                    } else if (d != ',') {
+                        throw error("Expected ',' or ']'");
+                    }
+                }
+            } else {
+                final boolean notNull = readScalar();
+                fHandler.startElement("", name, name, new AttributesImpl());
+                if (notNull) {
+                    fHandler.characters(fBuffer, 0, fLength);
+                }
+                fHandler.endElement("", name, name);
+            }
+        }
+
+        /**
+         * Reads a string, number or literal into the value buffer.
+         *
+         * @return <code>false</code> if the value is <tt>null</tt>, else <code>true</code>
+         * @throws SAXException if the response is invalid
+         */
+        private boolean readScalar() throws SAXException {
+            if (peek() == '"') {
+                readString();
+                return true;
+            }
+            fLength = 0;
+            while (fPosition < fChars.length) {
+                final char c = fChars[fPosition];
+                if (c == ',' || c == '}' || c == ']' || Character.isWhitespace(c)) {
+                    break;
+                }
+                append(c);
+                fPosition++;
+            }
+            if (fLength == 0) {
+                throw error("Expected value");
+            }
+            return !(fLength == "null".length() && "null".equals(new String(fBuffer, 0, fLength)));
+        }
+
+        /**
+         * Reads a string and unescapes it into the value buffer.
+         *
+         * @throws SAXException if the response is invalid
+         */
+        private void readString() throws SAXException {
+            expect('"');
+            fLength = 0;
+            while (true) {
+                char c = next();
+                if (c == '"') {
+                    return;
+                } else if (c == '\\') {
+                    c = next();
+                    switch (c) {
+                    case 'b':
+                        c = '\b';
+                        break;
+                    case 'f':
+                        c = '\f';
+                        break;
+                    case 'n':
+                        c = '\n';
+                        break;
+                    case 'r':
+                        c = '\r';
+                        break;
+                    case 't':
+                        c = '\t';
+                        break;
+                    case 'u':
+                        c = readUnicode();
+                        break;
+                    default:
+                        // '"', '\\' and '/' stand for themselves
+                        break;
+                    }
+                }
+                append(c);
+            }
+        }
+
+        /**
+         * Reads the four hex digits of a unicode escape sequence.
+         *
+         * @return the character
+         * @throws SAXException if the response is invalid
+         */
+        private char readUnicode() throws SAXException {
+            int value = 0;
+            for (int i = 0; i < UNICODE_DIGITS; i++) {
+                final int digit = Character.digit(next(), HEX);
+                if (digit < 0) {
+                    throw error("Invalid unicode escape sequence");
+                }
+                value = value * HEX + digit;
+            }
+            return (char) value;
+        }
+
+        /**
+         * Appends a character to the value buffer.
+         *
+         * @param c a character
+         */
+        private void append(final char c) {
+            if (fLength == fBuffer.length) {
+                final char[] buffer = new char[fBuffer.length * 2];
+                System.arraycopy(fBuffer, 0, buffer, 0, fLength);
+                fBuffer = buffer;
+            }
+            fBuffer[fLength++] = c;
+        }
+
+        /**
+         * Skips whitespace characters.
+         */
+        void skipWhitespace() {
+            while (fPosition < fChars.length && Character.isWhitespace(fChars[fPosition])) {
+                fPosition++;
+            }
+        }
+
+        /**
+         * Checks if the whole response is consumed.
+         *
+         * @return <code>true</code> if the end of the response is reached
+         */
+        boolean isAtEnd() {
+            return fPosition >= fChars.length;
+        }
+
+        /**
+         * Consumes an expected character.
+         *
+         * @param expected the expected character
+         * @throws SAXException if the next character is not the expected one
+         */
+        void expect(final char expected) throws SAXException {
+            if (next() != expected) {
+                throw error("Expected '" + expected + "'");
+            }
+        }
+
+        /**
+         * Returns the next character without consuming it.
+         *
+         * @return next character
+         * @throws SAXException if the end of the response is reached
+         */
+        private char peek() throws SAXException {
+            if (fPosition >= fChars.length) {
+                throw error("Unexpected end of response");
+            }
+            return fChars[fPosition];
+        }
+
+        /**
+         * Consumes and returns the next character.
+         *
+         * @return next character
+         * @throws SAXException if the end of the response is reached
+         */
+        private char next() throws SAXException {
+            final char c = peek();
+            fPosition++;
+            return c;
+        }
+
+        /**
+         * Creates an exception for an invalid response.
+         *
+         * @param message error message
+         * @return exception with the message and current position
+         */
+        SAXException error(final String message) {
+            return new SAXException(message + " at position " + fPosition);
+        }
+    }
+}
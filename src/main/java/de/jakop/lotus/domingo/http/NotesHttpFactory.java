@@ -25,6 +25,13 @@ package de.jakop.lotus.domingo.http;
 
 import java.applet.Applet;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
 
 import javax.xml.parsers.SAXParserFactory;
 
@@ -60,9 +67,88 @@ public final class NotesHttpFactory extends DNotesFactory implements MonitorEnab
     /** Default file/path of the domingo support database. */
     public static final String DEFAULT_DOMINGO_DATABASE = "domingo.nsf";
 
+    /** Name of the property to configure the output format of view entries. */
+    public static final String OUTPUT_FORMAT_PROPERTY = "de.jakop.lotus.domingo.http.outputformat";
+
+    /** Output format <tt>xml</tt>: view entries are always read as XML. */
+    public static final String OUTPUT_FORMAT_XML = "xml";
+
+    /** Output format <tt>json</tt>: view entries are always read as JSON. */
+    public static final String OUTPUT_FORMAT_JSON = "json";
+
+    /**
+     * Output format <tt>auto</tt>: view entries are requested as JSON, with a
+     * fallback to XML for servers that do not support JSON.
+     */
+    public static final String OUTPUT_FORMAT_AUTO = "auto";
+
+    /**
+     * Name of the property to configure the transport executing HTTP requests:
+     * <tt>commons</tt> (default), <tt>urlconnection</tt> or the name of a class
+     * implementing {@link HttpTransport}.
+     */
+    public static final String TRANSPORT_PROPERTY = "de.jakop.lotus.domingo.http.transport";
+
+    /**
+     * Name of the property to configure how long results of coalesced reads
+     * are kept after completion in milliseconds. Default is <tt>0</tt>, only
+     * concurrent reads share a request.
+     */
+    public static final String COALESCE_TTL_PROPERTY = "de.jakop.lotus.domingo.http.coalesce.ttl";
+
+    /**
+     * Name of the property to configure the maximum time to wait for a read
+     * of another thread in milliseconds. Default is <tt>0</tt>, no limit.
+     */
+    public static final String COALESCE_TIMEOUT_PROPERTY = "de.jakop.lotus.domingo.http.coalesce.timeout";
+
+    /**
+     * Name of the property to configure the deadline of requests in
+     * milliseconds, used as connect and read timeout and as maximum time to
+     * wait for a free connection. Default is <tt>0</tt>, no deadline.
+     */
+    public static final String TIMEOUT_PROPERTY = "de.jakop.lotus.domingo.http.timeout";
+
+    /**
+     * Name of the property to enable the adaptive limit of concurrent
+     * requests per session. Default is <tt>false</tt>.
+     */
+    public static final String LIMIT_ENABLED_PROPERTY = "de.jakop.lotus.domingo.http.limit.enabled";
+
+    /** Name of the property to configure the initial limit of concurrent requests per session. */
+    public static final String LIMIT_INITIAL_PROPERTY = "de.jakop.lotus.domingo.http.limit.initial";
+
+    /** Name of the property to configure the minimum limit of concurrent requests per session. */
+    public static final String LIMIT_MIN_PROPERTY = "de.jakop.lotus.domingo.http.limit.min";
+
+    /** Name of the property to configure the maximum limit of concurrent requests per session. */
+    public static final String LIMIT_MAX_PROPERTY = "de.jakop.lotus.domingo.http.limit.max";
+
+    /**
+     * Name of the property to configure the latency percentile after which
+     * idempotent reads are hedged, e.g. <tt>95</tt>. Default is <tt>0</tt>,
+     * no hedging.
+     */
+    public static final String HEDGE_PERCENTILE_PROPERTY = "de.jakop.lotus.domingo.http.hedge.percentile";
+
+    /** Default initial limit of concurrent requests per session. */
+    public static final int DEFAULT_LIMIT_INITIAL = 8;
+
+    /** Default minimum limit of concurrent requests per session. */
+    public static final int DEFAULT_LIMIT_MIN = 1;
+
+    /** Default maximum limit of concurrent requests per session. */
+    public static final int DEFAULT_LIMIT_MAX = 32;
+
     /** File/path of the domingo support database as configured. */
     private final String fDomingoDatabase;
 
+    /** Output format of view entries as configured. */
+    private final String fOutputFormat;
+
+    /** Coalescer of concurrent identical reads. */
+    private final RequestCoalescer fRequestCoalescer;
+
     // //////////////////////////////////////////////
     // instance attributes
     // //////////////////////////////////////////////
@@ -72,6 +158,12 @@ public final class NotesHttpFactory extends DNotesFactory implements MonitorEnab
 
     private SAXParserFactory fFactory = SAXParserFactory.newInstance();
 
+    /** Sessions created by this factory, to release their connections on disposal. */
+    private final Map fSessions = Collections.synchronizedMap(new WeakHashMap());
+
+    /** Executor of hedged requests of all sessions, created on demand. */
+    private ExecutorService fHedgeExecutor = null;
+
     // //////////////////////////////////////////////
     // creation
     // //////////////////////////////////////////////
@@ -89,6 +181,9 @@ public final class NotesHttpFactory extends DNotesFactory implements MonitorEnab
         } else {
             fDomingoDatabase = property;
         }
+        fOutputFormat = getProperty(OUTPUT_FORMAT_PROPERTY, OUTPUT_FORMAT_AUTO).toLowerCase();
+        fRequestCoalescer = new RequestCoalescer(Math.max(0, getIntProperty(COALESCE_TTL_PROPERTY, 0)),
+                Math.max(0, getIntProperty(COALESCE_TIMEOUT_PROPERTY, 0)));
     }
 
     /**
@@ -111,6 +206,129 @@ public final class NotesHttpFactory extends DNotesFactory implements MonitorEnab
         return fFactory;
     }
 
+    /**
+     * Returns the configured output format of view entries, one of
+     * {@link #OUTPUT_FORMAT_XML}, {@link #OUTPUT_FORMAT_JSON} or
+     * {@link #OUTPUT_FORMAT_AUTO}.
+     *
+     * @return output format of view entries
+     */
+    public String getOutputFormat() {
+        return fOutputFormat;
+    }
+
+    /**
+     * Returns the coalescer of concurrent identical reads.
+     *
+     * @return request coalescer
+     */
+    public RequestCoalescer getRequestCoalescer() {
+        return fRequestCoalescer;
+    }
+
+    /**
+     * Creates the transport for a new session. If a configured transport
+     * class cannot be instantiated, the {@link CommonsHttpTransport} is used.
+     *
+     * @return new transport
+     * @see #TRANSPORT_PROPERTY
+     */
+    public HttpTransport createTransport() {
+        final String name = getProperty(TRANSPORT_PROPERTY, CommonsHttpTransport.NAME);
+        if (UrlConnectionTransport.NAME.equalsIgnoreCase(name)) {
+            return new UrlConnectionTransport();
+        } else if (CommonsHttpTransport.NAME.equalsIgnoreCase(name)) {
+            return new CommonsHttpTransport();
+        }
+        try {
+            return (HttpTransport) Class.forName(name).newInstance();
+        } catch (Exception e) {
+            if (fMonitor != null) {
+                fMonitor.warn("Cannot create HTTP transport " + name + ", using " + CommonsHttpTransport.NAME, e);
+            }
+            return new CommonsHttpTransport();
+        }
+    }
+
+    /**
+     * Returns the deadline of requests.
+     *
+     * @return deadline in milliseconds, <tt>0</tt> for no deadline
+     * @see #TIMEOUT_PROPERTY
+     */
+    public int getTimeout() {
+        return Math.max(0, getIntProperty(TIMEOUT_PROPERTY, 0));
+    }
+
+    /**
+     * Creates a limiter of concurrent requests for a new session.
+     *
+     * @return new limiter, or <code>null</code> if the limit is disabled
+     * @see #LIMIT_ENABLED_PROPERTY
+     * @see #LIMIT_INITIAL_PROPERTY
+     */
+    public ConcurrencyLimiter createLimiter() {
+        if (!Boolean.valueOf(getProperty(LIMIT_ENABLED_PROPERTY, "false")).booleanValue()) {
+            return null;
+        }
+        final int min = Math.max(1, getIntProperty(LIMIT_MIN_PROPERTY, DEFAULT_LIMIT_MIN));
+        final int max = Math.max(min, getIntProperty(LIMIT_MAX_PROPERTY, DEFAULT_LIMIT_MAX));
+        return new ConcurrencyLimiter(getIntProperty(LIMIT_INITIAL_PROPERTY, DEFAULT_LIMIT_INITIAL), min, max);
+    }
+
+    /**
+     * Creates a hedger of idempotent reads for a new session.
+     *
+     * @param limiter the limiter of concurrent requests of the session, or <code>null</code>
+     * @return new hedger, or <code>null</code> if hedging is disabled
+     * @see #HEDGE_PERCENTILE_PROPERTY
+     */
+    public RequestHedger createHedger(final ConcurrencyLimiter limiter) {
+        final int percentile = getIntProperty(HEDGE_PERCENTILE_PROPERTY, 0);
+        if (percentile <= 0 || percentile >= 100) {
+            return null;
+        }
+        return new RequestHedger(percentile, limiter, getHedgeExecutor());
+    }
+
+    /**
+     * Returns the executor of hedged requests, shared by all sessions.
+     *
+     * @return executor of hedged requests
+     */
+    private synchronized ExecutorService getHedgeExecutor() {
+        if (fHedgeExecutor == null) {
+            // each request has at most two attempts in flight
+            fHedgeExecutor = RequestHedger.createExecutor(2 * Math.max(1, getIntProperty(LIMIT_MAX_PROPERTY,
+                    DEFAULT_LIMIT_MAX)));
+        }
+        return fHedgeExecutor;
+    }
+
+    /**
+     * Releases the connections of all sessions created by this factory.
+     */
+    private void disposeSessions() {
+        final List sessions;
+        synchronized (fSessions) {
+            sessions = new ArrayList(fSessions.keySet());
+            fSessions.clear();
+        }
+        final Iterator iterator = sessions.iterator();
+        while (iterator.hasNext()) {
+            ((SessionHttp) iterator.next()).dispose();
+        }
+    }
+
+    /**
+     * Stops the threads of hedged requests. Later requests are not hedged.
+     */
+    private synchronized void shutdownHedgeExecutor() {
+        if (fHedgeExecutor != null) {
+            fHedgeExecutor.shutdownNow();
+        }
+    }
+
     /**
      * @see DNotesFactory#gc()
      * @deprecated only use this method for testing
@@ -132,7 +350,9 @@ public final class NotesHttpFactory extends DNotesFactory implements MonitorEnab
      * @see DNotesFactory#disposeInstance(boolean)
      */
     public void disposeInstance(final boolean force) throws DNotesRuntimeException {
-        // TODO Auto-generated method stub
+        closeSessionPool();
+        disposeSessions();
+        shutdownHedgeExecutor();
     }
 
     /**
@@ -140,7 +360,9 @@ public final class NotesHttpFactory extends DNotesFactory implements MonitorEnab
      * @see DNotesFactory#disposeInstance()
      */
     public void disposeInstance() throws DNotesRuntimeException {
-        // TODO Auto-generated method stub
+        closeSessionPool();
+        disposeSessions();
+        shutdownHedgeExecutor();
     }
 
     // //////////////////////////////////////////////
@@ -173,7 +395,9 @@ public final class NotesHttpFactory extends DNotesFactory implements MonitorEnab
      */
     public DSession getSession(final String host, final String user, final String passwd) throws DNotesRuntimeException {
         try {
-            return SessionHttp.getInstance(this, host, user, passwd, getMonitor());
+            final DSession session = SessionHttp.getInstance(this, host, user, passwd, getMonitor());
+            fSessions.put(session, null);
+            return session;
         } catch (IOException e) {
             throw new NotesHttpRuntimeException(e.getMessage(), e);
         }
@@ -0,0 +1,353 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.http;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces concurrent identical read requests to a Domino server.
+ *
+ * <p>Requests are identified by a key, made of the identity of the session
+ * and the {@link #normalize(String) normalized} URL. While a request is in
+ * flight, all callers with the same key wait for it and share its result,
+ * so that a burst of identical reads, e.g. after a cache expiry, results in a
+ * single request to the server. Optionally, a successful result is kept for
+ * a time-to-live after completion and returned to later callers as well.
+ * Failures are never kept.</p>
+ *
+ * <p>Waiting callers can be cancelled by interrupting their thread, or by a
+ * timeout. A cancelled caller stops waiting with an
+ * {@link InterruptedIOException}, the request continues for all other
+ * callers.</p>
+ */
+public final class RequestCoalescer {
+
+    /** Kept results and requests in flight by key. */
+    private final ConcurrentMap fRequests = new ConcurrentHashMap();
+
+    /** Time-to-live of results after completion in milliseconds, <tt>0</tt> to share only requests in flight. */
+    private final long fTimeToLive;
+
+    /** Maximum time to wait for a request of another caller in milliseconds, <tt>0</tt> to wait without limit. */
+    private final long fTimeout;
+
+    /** Number of requests executed. */
+    private final AtomicLong fExecuted = new AtomicLong();
+
+    /** Number of calls that shared the result of another call. */
+    private final AtomicLong fCoalesced = new AtomicLong();
+
+    /**
+     * Creates a new coalescer.
+     *
+     * @param timeToLive time-to-live of results after completion in milliseconds,
+     *            <tt>0</tt> to share only requests in flight
+     * @param timeout maximum time to wait for a request of another caller in
+     *            milliseconds, <tt>0</tt> to wait without limit
+     */
+    public RequestCoalescer(final long timeToLive, final long timeout) {
+        if (timeToLive < 0 || timeout < 0) {
+            throw new IllegalArgumentException("Negative time-to-live or timeout");
+        }
+        fTimeToLive = timeToLive;
+        fTimeout = timeout;
+    }
+
+    /**
+     * Executes a request, unless an identical request is in flight or its
+     * result is still alive.
+     *
+     * @param key key of the request
+     * @param request the request
+     * @return result of the request
+     * @throws IOException if the request failed or the caller was cancelled
+     */
+    public Object execute(final String key, final Callable request) throws IOException {
+        while (true) {
+            final Request running = (Request) fRequests.get(key);
+            if (running != null && running.isExpired(System.currentTimeMillis())) {
+                fRequests.remove(key, running);
+                continue;
+            }
+            if (running != null) {
+                fCoalesced.incrementAndGet();
+                return getResult(running, key, true);
+            }
+            final Request created = new Request(request);
+            if (fRequests.putIfAbsent(key, created) == null) {
+                fExecuted.incrementAndGet();
+                try {
+                    created.run();
+                } finally {
+                    if (fTimeToLive == 0 || created.isFailed() || created.isInvalidated()) {
+                        fRequests.remove(key, created);
+                    }
+                }
+                return getResult(created, key, false);
+            }
+        }
+    }
+
+    /**
+     * Discards all kept results and requests in flight, e.g. after a write to
+     * the server. Callers already waiting for a request in flight still get
+     * its result, but the result is not kept, as it may have been read
+     * before the write. Later callers execute a new request.
+     */
+    public void invalidateAll() {
+        final Iterator iterator = fRequests.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry entry = (Map.Entry) iterator.next();
+            final Request request = (Request) entry.getValue();
+            request.invalidate();
+            fRequests.remove(entry.getKey(), request);
+        }
+    }
+
+    /**
+     * Returns the number of requests executed.
+     *
+     * @return number of requests executed
+     */
+    public long getExecutedCount() {
+        return fExecuted.get();
+    }
+
+    /**
+     * Returns the number of calls that shared the result of another call
+     * instead of executing a request.
+     *
+     * @return number of coalesced calls
+     */
+    public long getCoalescedCount() {
+        return fCoalesced.get();
+    }
+
+    /**
+     * Returns the time-to-live of results after completion.
+     *
+     * @return time-to-live in milliseconds
+     */
+    public long getTimeToLive() {
+        return fTimeToLive;
+    }
+
+    /**
+     * Checks if a command only reads from the server, so that identical
+     * requests can be coalesced. Read commands start with <tt>Read</tt> or
+     * <tt>Open</tt>, like <tt>ReadViewEntries</tt> or <tt>OpenDocument</tt>.
+     * <tt>OpenAgent</tt> is not a read command, as agents may change data.
+     *
+     * @param command name of a command
+     * @return <code>true</code> if the command only reads from the server
+     * @see BaseHttp#getCommand(String, String)
+     */
+    public static boolean isRead(final String command) {
+        if (command == null || "OpenAgent".equalsIgnoreCase(command)) {
+            return false;
+        }
+        return command.regionMatches(true, 0, "Read", 0, "Read".length())
+            || command.regionMatches(true, 0, "Open", 0, "Open".length());
+    }
+
+    /**
+     * Normalizes a URL, so that equivalent requests get the same key. The
+     * command and the names of arguments are converted to lower case, as
+     * Domino ignores their case, and the arguments are sorted by name.
+     *
+     * <p>Example: <tt>db.nsf/v?ReadViewEntries&amp;Start=1&amp;Count=5</tt> is
+     * normalized to <tt>db.nsf/v?readviewentries&amp;count=5&amp;start=1</tt></p>
+     *
+     * @param pathInfo path and query of a URL
+     * @return normalized path and query
+     */
+    public static String normalize(final String pathInfo) {
+        final int index = pathInfo.indexOf('?');
+        if (index < 0) {
+            return pathInfo;
+        }
+        final List arguments = new ArrayList();
+        int start = index + 1;
+        while (start <= pathInfo.length()) {
+            int end = pathInfo.indexOf('&', start);
+            if (end < 0) {
+                end = pathInfo.length();
+            }
+            final String argument = pathInfo.substring(start, end);
+            if (argument.length() > 0) {
+                final int equals = argument.indexOf('=');
+                if (equals < 0) {
+                    arguments.add(argument.toLowerCase());
+                } else {
+                    arguments.add(argument.substring(0, equals).toLowerCase() + argument.substring(equals));
+                }
+            }
+            start = end + 1;
+        }
+        if (arguments.size() > 1) {
+            Collections.sort(arguments.subList(1, arguments.size()));
+        }
+        final StringBuffer buffer = new StringBuffer(pathInfo.length());
+        buffer.append(pathInfo.substring(0, index + 1));
+        for (int i = 0; i < arguments.size(); i++) {
+            if (i > 0) {
+                buffer.append('&');
+            }
+            buffer.append(arguments.get(i));
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Waits for the result of a request.
+     *
+     * @param request the request
+     * @param key key of the request
+     * @param timed whether the configured timeout applies
+     * @return result of the request
+     * @throws IOException if the request failed or the caller was cancelled
+     */
+    private Object getResult(final Request request, final String key, final boolean timed) throws IOException {
+        try {
+            if (timed && fTimeout > 0) {
+                return request.get(fTimeout, TimeUnit.MILLISECONDS);
+            }
+            return request.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException exception = new InterruptedIOException("Interrupted while waiting for " + key);
+            exception.initCause(e);
+            throw exception;
+        } catch (TimeoutException e) {
+            final InterruptedIOException exception = new InterruptedIOException("Timeout while waiting for " + key);
+            exception.initCause(e);
+            throw exception;
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            final IOException exception = new IOException("Request failed: " + key);
+            exception.initCause(cause);
+            throw exception;
+        }
+    }
+
+    /**
+     * A request in flight or its kept result.
+     */
+    private final class Request extends FutureTask {
+
+        /** Time of completion in milliseconds, <tt>0</tt> while in flight. */
+        private volatile long fCompleted;
+
+        /** Whether the request failed. */
+        private volatile boolean fFailed;
+
+        /** Whether the result must not be kept, e.g. because of a write in the meantime. */
+        private volatile boolean fInvalidated;
+
+        /**
+         * Creates a new request.
+         *
+         * @param callable the request
+         */
+        Request(final Callable callable) {
+            super(callable);
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see FutureTask#setException(java.lang.Throwable)
+         */
+        protected void setException(final Throwable t) {
+            fFailed = true;
+            super.setException(t);
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see FutureTask#done()
+         */
+        protected void done() {
+            fCompleted = System.currentTimeMillis();
+        }
+
+        /**
+         * Checks if the request failed.
+         *
+         * @return <code>true</code> if the request failed
+         */
+        boolean isFailed() {
+            return fFailed;
+        }
+
+        /**
+         * Marks the result of the request as not to be kept.
+         */
+        void invalidate() {
+            fInvalidated = true;
+        }
+
+        /**
+         * Checks if the result of the request must not be kept.
+         *
+         * @return <code>true</code> if the request was invalidated
+         */
+        boolean isInvalidated() {
+            return fInvalidated;
+        }
+
+        /**
+         * Checks if the result of the request has expired.
+         *
+         * @param now current time in milliseconds
+         * @return <code>true</code> if the result has expired
+         */
+        boolean isExpired(final long now) {
+            return fInvalidated || fCompleted > 0 && (fFailed || now - fCompleted >= fTimeToLive);
+        }
+    }
+}
@@ -0,0 +1,395 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.http;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.jakop.lotus.domingo.metrics.Histogram;
+import de.jakop.lotus.domingo.metrics.Metrics;
+
+/**
+ * Sends hedged requests: if a request takes longer than a given percentile
+ * of the recent latencies of its command, the same request is sent a second
+ * time and the first response wins. The other attempt is aborted.
+ *
+ * <p>Only idempotent requests must be hedged. A hedge is only sent if the
+ * {@link ConcurrencyLimiter} has spare capacity, so hedging never adds load
+ * to an overloaded server. If one attempt fails while the other is still
+ * running, the other one is waited for.</p>
+ *
+ * <p>Hedging starts after {@link #MIN_SAMPLES} requests of a command were
+ * observed. Until then and for requests without a hedge, the request is
+ * executed in the calling thread.</p>
+ *
+ * <p>The attempts run on an executor that is shared by all sessions of a
+ * factory and owned by the factory, see {@link #createExecutor(int)}. If the
+ * executor is saturated, the request is executed in the calling thread
+ * without a hedge.</p>
+ */
+public final class RequestHedger {
+
+    /** Minimum number of observed latencies before a command is hedged. */
+    public static final int MIN_SAMPLES = 20;
+
+    /** Number of latencies after which the latency window of a command is restarted. */
+    private static final int WINDOW_SIZE = 1000;
+
+    /** Metrics counter of hedges sent. */
+    private static final String HEDGED = "http.hedged";
+
+    /** Metrics counter of hedges that won. */
+    private static final String HEDGE_WINS = "http.hedgeWins";
+
+    /** Time in seconds after which idle threads of the executor terminate. */
+    private static final long KEEP_ALIVE = 60;
+
+    /** Percentile of the latency after which a hedge is sent. */
+    private final double fPercentile;
+
+    /** Limiter of concurrent requests. */
+    private final ConcurrencyLimiter fLimiter;
+
+    /** Latency windows by command. */
+    private final ConcurrentMap fLatencies = new ConcurrentHashMap();
+
+    /** Executor running the attempts of hedged requests. */
+    private final ExecutorService fExecutor;
+
+    /** Number of hedges sent. */
+    private final AtomicLong fHedged = new AtomicLong();
+
+    /** Number of hedges that won. */
+    private final AtomicLong fHedgeWins = new AtomicLong();
+
+    /**
+     * Creates a new hedger.
+     *
+     * @param percentile percentile of the latency after which a hedge is sent, e.g. <tt>95</tt>
+     * @param limiter limiter of concurrent requests, or <code>null</code>
+     * @param executor executor running the attempts of hedged requests
+     */
+    public RequestHedger(final double percentile, final ConcurrencyLimiter limiter, final ExecutorService executor) {
+        fPercentile = percentile;
+        fLimiter = limiter;
+        fExecutor = executor;
+    }
+
+    /**
+     * Creates a bounded executor for the attempts of hedged requests. Idle
+     * threads terminate after a while; the caller must shut the executor down
+     * when it is no longer needed.
+     *
+     * @param maxThreads maximum number of threads
+     * @return new executor
+     */
+    public static ExecutorService createExecutor(final int maxThreads) {
+        return new ThreadPoolExecutor(0, maxThreads, KEEP_ALIVE, TimeUnit.SECONDS, new SynchronousQueue(),
+                new ThreadFactory() {
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable, "domingo-http-hedge");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+    }
+
+    /**
+     * Executes a request, sending a hedge if the first attempt is slow.
+     *
+     * @param command command of the request, e.g. <tt>ReadViewEntries</tt>
+     * @param attempt first attempt
+     * @param hedge second attempt, or <code>null</code> if the request must not be hedged
+     * @return the response of the first successful attempt
+     * @throws IOException if all attempts failed
+     */
+    public Object execute(final String command, final HttpAttempt attempt, final HttpAttempt hedge)
+            throws IOException {
+        final long delay = getHedgeDelay(command);
+        if (hedge == null || delay < 0 || fExecutor.isShutdown()) {
+            return timed(command, attempt);
+        }
+        final CompletionService service = new ExecutorCompletionService(fExecutor);
+        final Future first;
+        try {
+            first = service.submit(callable(command, attempt));
+        } catch (RejectedExecutionException e) {
+            return timed(command, attempt);
+        }
+        Future second = null;
+        try {
+            Future done = service.poll(delay, TimeUnit.NANOSECONDS);
+            if (done == null && (fLimiter == null || fLimiter.hasCapacity())) {
+                second = submit(service, command, hedge);
+            }
+            if (done == null) {
+                done = service.take();
+            }
+            if (second != null && isFailed(done)) {
+                // the other attempt is still running or has already succeeded
+                done = service.take();
+            }
+            final Object result = getResult(done);
+            if (done == second) {
+                fHedgeWins.incrementAndGet();
+                count(HEDGE_WINS);
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException exception = new InterruptedIOException("Interrupted while waiting for "
+                + command);
+            exception.initCause(e);
+            throw exception;
+        } finally {
+            abort(first, attempt);
+            if (second != null) {
+                abort(second, hedge);
+            }
+        }
+    }
+
+    /**
+     * Returns the delay after which a request of a command is hedged.
+     *
+     * @param command command of the request
+     * @return delay in nanoseconds, or <tt>-1</tt> if not enough latencies were observed
+     */
+    public long getHedgeDelay(final String command) {
+        final LatencyWindow window = (LatencyWindow) fLatencies.get(command);
+        return window == null ? -1 : window.getPercentile(fPercentile);
+    }
+
+    /**
+     * Returns the number of hedges sent.
+     *
+     * @return number of hedges sent
+     */
+    public long getHedgedCount() {
+        return fHedged.get();
+    }
+
+    /**
+     * Returns the number of hedges that returned before the first attempt.
+     *
+     * @return number of hedges that won
+     */
+    public long getHedgeWinCount() {
+        return fHedgeWins.get();
+    }
+
+    /**
+     * Submits a hedge, unless the executor is saturated or shut down.
+     *
+     * @param service completion service of the request
+     * @param command command of the request
+     * @param hedge the hedge
+     * @return future of the hedge, or <code>null</code> if it was not submitted
+     */
+    private Future submit(final CompletionService service, final String command, final HttpAttempt hedge) {
+        try {
+            final Future future = service.submit(callable(command, hedge));
+            fHedged.incrementAndGet();
+            count(HEDGED);
+            return future;
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Executes an attempt and records its latency.
+     *
+     * @param command command of the request
+     * @param attempt the attempt
+     * @return the response
+     * @throws IOException if the attempt failed
+     */
+    private Object timed(final String command, final HttpAttempt attempt) throws IOException {
+        final long start = System.nanoTime();
+        final Object result = attempt.execute();
+        getWindow(command).record(System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Creates a callable executing an attempt and recording its latency.
+     *
+     * @param command command of the request
+     * @param attempt the attempt
+     * @return callable
+     */
+    private Callable callable(final String command, final HttpAttempt attempt) {
+        return new Callable() {
+            public Object call() throws IOException {
+                return timed(command, attempt);
+            }
+        };
+    }
+
+    /**
+     * Returns the latency window of a command, creating it if needed.
+     *
+     * @param command command of a request
+     * @return latency window
+     */
+    private LatencyWindow getWindow(final String command) {
+        LatencyWindow window = (LatencyWindow) fLatencies.get(command);
+        if (window == null) {
+            fLatencies.putIfAbsent(command, new LatencyWindow());
+            window = (LatencyWindow) fLatencies.get(command);
+        }
+        return window;
+    }
+
+    /**
+     * Checks if a completed attempt failed.
+     *
+     * @param future a completed attempt
+     * @return <code>true</code> if the attempt failed
+     * @throws InterruptedException never, the future is completed
+     */
+    private static boolean isFailed(final Future future) throws InterruptedException {
+        try {
+            future.get();
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Returns the result of a completed attempt.
+     *
+     * @param future a completed attempt
+     * @return the response
+     * @throws IOException if the attempt failed
+     * @throws InterruptedException never, the future is completed
+     */
+    private static Object getResult(final Future future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            final IOException exception = new IOException("Request failed");
+            exception.initCause(cause);
+            throw exception;
+        }
+    }
+
+    /**
+     * Aborts an attempt unless it is completed.
+     *
+     * @param future future of the attempt
+     * @param attempt the attempt
+     */
+    private static void abort(final Future future, final HttpAttempt attempt) {
+        if (!future.isDone()) {
+            attempt.abort();
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * Increments a metrics counter, if metrics are enabled.
+     *
+     * @param name name of the counter
+     */
+    private static void count(final String name) {
+        if (Metrics.isEnabled()) {
+            Metrics.getRegistry().counter(name).increment();
+        }
+    }
+
+    /**
+     * Recent latencies of a command. Latencies are recorded in a histogram
+     * that is restarted after {@link RequestHedger#WINDOW_SIZE} values; until
+     * the new histogram has enough values, the previous one is used.
+     */
+    private static final class LatencyWindow {
+
+        /** Current histogram. */
+        private volatile Histogram fCurrent = new Histogram();
+
+        /** Previous histogram, or <code>null</code>. */
+        private volatile Histogram fPrevious;
+
+        /**
+         * Records a latency.
+         *
+         * @param nanos latency in nanoseconds
+         */
+        void record(final long nanos) {
+            final Histogram current = fCurrent;
+            current.record(nanos);
+            if (current.getCount() >= WINDOW_SIZE) {
+                synchronized (this) {
+                    if (fCurrent == current) {
+                        fPrevious = current;
+                        fCurrent = new Histogram();
+                    }
+                }
+            }
+        }
+
+        /**
+         * Returns a percentile of the recent latencies.
+         *
+         * @param percentile the percentile
+         * @return latency in nanoseconds, or <tt>-1</tt> if not enough latencies were recorded
+         */
+        long getPercentile(final double percentile) {
+            Histogram histogram = fCurrent;
+            if (histogram.getCount() < MIN_SAMPLES) {
+                histogram = fPrevious;
+            }
+            if (histogram == null) {
+                return -1;
+            }
+            return histogram.getValueAtPercentile(percentile);
+        }
+    }
+}
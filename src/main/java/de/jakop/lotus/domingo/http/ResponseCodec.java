@@ -0,0 +1,67 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.http;
+
+import java.io.IOException;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Codec for responses of Domino URL commands like <tt>ReadViewEntries</tt>.
+ *
+ * <p>A codec reports the content of a response as SAX events to a handler,
+ * independent of the format of the response. Therefore all formats fill the
+ * same structures, like {@link ViewEntryHttp} and {@link ItemHttp}.</p>
+ */
+public interface ResponseCodec {
+
+    /**
+     * Returns the URL argument that requests responses in the format of this
+     * codec, e.g. <tt>&amp;OutputFormat=JSON</tt>.
+     *
+     * @return URL argument, or an empty string if no argument is needed
+     */
+    String getFormatArgument();
+
+    /**
+     * Checks if a response is in the format of this codec.
+     *
+     * @param response response from the server
+     * @return <code>true</code> if the response can be parsed by this codec
+     */
+    boolean accepts(String response);
+
+    /**
+     * Parses a response and reports its content to a SAX handler.
+     *
+     * @param response response from the server
+     * @param rootElement name of the root element, for formats without named root elements
+     * @param handler SAX handler receiving the content
+     * @throws IOException if the response cannot be read
+     * @throws SAXException if the response cannot be parsed
+     */
+    void parse(String response, String rootElement, DefaultHandler handler) throws IOException, SAXException;
+}
@@ -29,6 +29,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.TimeZone;
 
+import org.apache.commons.httpclient.HttpStatus;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
 import de.jakop.lotus.domingo.DAgentContext;
 import de.jakop.lotus.domingo.DBase;
 import de.jakop.lotus.domingo.DBaseDocument;
@@ -41,6 +45,8 @@ import de.jakop.lotus.domingo.DNotesRuntimeException;
 import de.jakop.lotus.domingo.DSession;
 import de.jakop.lotus.domingo.DView;
 import de.jakop.lotus.domingo.DViewEntry;
+import de.jakop.lotus.domingo.metrics.Metrics;
+import de.jakop.lotus.domingo.metrics.Timer;
 import de.jakop.lotus.domingo.proxy.BaseProxy;
 
 /**
@@ -61,6 +67,24 @@ public final class SessionHttp extends BaseHttp implements DSession {
 
     private DominoHttpClient fHttpClient;
 
+    /** Codec for XML responses. */
+    private final ResponseCodec fXmlCodec;
+
+    /** Codec for JSON responses. */
+    private final ResponseCodec fJsonCodec = new JsonResponseCodec();
+
+    /** Codec for view entries, negotiated with the server. */
+    private volatile ResponseCodec fViewEntriesCodec;
+
+    /** Deadline of requests in milliseconds, <tt>0</tt> for no deadline. */
+    private final int fTimeout;
+
+    /** Limiter of concurrent requests. */
+    private final ConcurrencyLimiter fLimiter;
+
+    /** Hedger of idempotent reads, or <code>null</code> if hedging is disabled. */
+    private final RequestHedger fHedger;
+
     /**
      * Constructor.
      *
@@ -69,8 +93,27 @@ public final class SessionHttp extends BaseHttp implements DSession {
     private SessionHttp(final NotesHttpFactory theFactory, final String host, final String user, final String passwd,
             final DNotesMonitor monitor) throws IOException {
         super(theFactory, null, monitor);
-        fHttpClient = new DominoHttpClient(getMonitor(), host, user, passwd);
-        fHttpClient.login();
+        fXmlCodec = new XmlResponseCodec(theFactory.getSAXParserFactory());
+        if (NotesHttpFactory.OUTPUT_FORMAT_XML.equals(theFactory.getOutputFormat())) {
+            fViewEntriesCodec = fXmlCodec;
+        } else {
+            fViewEntriesCodec = fJsonCodec;
+        }
+        fTimeout = theFactory.getTimeout();
+        fLimiter = theFactory.createLimiter();
+        fHedger = theFactory.createHedger(fLimiter);
+        fHttpClient = new DominoHttpClient(getMonitor(), host, user, passwd, theFactory.createTransport());
+        fHttpClient.configureConnections(NotesHttpFactory.getIntProperty(NotesHttpFactory.LIMIT_MAX_PROPERTY,
+                NotesHttpFactory.DEFAULT_LIMIT_MAX), fTimeout);
+        try {
+            fHttpClient.login();
+        } catch (IOException e) {
+            fHttpClient.shutdown();
+            throw e;
+        } catch (RuntimeException e) {
+            fHttpClient.shutdown();
+            throw e;
+        }
     }
 
     /**
@@ -312,8 +355,7 @@ public final class SessionHttp extends BaseHttp implements DSession {
      * @see DSession#isValid()
      */
     public boolean isValid() {
-        // TODO
-        return false;
+        return fHttpClient.isSessionValid();
     }
 
     /**
@@ -472,7 +514,7 @@ public final class SessionHttp extends BaseHttp implements DSession {
      * @param pathInfo path_info of the method
      * @return Http GET method
      */
-    public DominoGetMethod createGetMethod(final String pathInfo) {
+    public DominoHttpMethod createGetMethod(final String pathInfo) {
         return fHttpClient.createGetMethod(pathInfo);
     }
 
@@ -481,7 +523,7 @@ public final class SessionHttp extends BaseHttp implements DSession {
      * @param pathInfo path_info of the method
      * @return Http POST method
      */
-    public DominoPostMethod createPostMethod(final String pathInfo) {
+    public DominoHttpMethod createPostMethod(final String pathInfo) {
         return fHttpClient.createPost(pathInfo);
     }
 
@@ -495,7 +537,154 @@ public final class SessionHttp extends BaseHttp implements DSession {
      *             exceptions can be recovered from.
      */
     protected int executeMethod(final DominoHttpMethod method) throws IOException {
-        return fHttpClient.executeMethod(method);
+        final String command = getCommand(method.getName(), method.getQueryString());
+        if (fLimiter != null) {
+            fLimiter.acquire(fTimeout);
+        }
+        final long start = System.nanoTime();
+        boolean success = false;
+        try {
+            final int statusCode = executeTimed(method, command);
+            success = statusCode < HttpStatus.SC_INTERNAL_SERVER_ERROR;
+            return statusCode;
+        } finally {
+            if (fLimiter != null && method.isAborted()) {
+                fLimiter.release();
+            } else if (fLimiter != null) {
+                fLimiter.release(command, System.nanoTime() - start, success);
+            }
+            if (!RequestCoalescer.isRead(command)) {
+                getFactory().getRequestCoalescer().invalidateAll();
+            }
+        }
+    }
+
+    /**
+     * Executes the given {@link DominoHttpMethod HTTP method} and records its
+     * duration, if metrics are enabled.
+     *
+     * @param method the {@link DominoHttpMethod HTTP method} to execute
+     * @param command command of the method, used to name its metrics
+     * @return the method's response code
+     * @throws IOException If an I/O (transport) error occurs
+     */
+    private int executeTimed(final DominoHttpMethod method, final String command) throws IOException {
+        if (!Metrics.isEnabled()) {
+            return fHttpClient.executeMethod(method);
+        }
+        final Timer timer = Metrics.timer("http." + command);
+        final long start = timer.start();
+        try {
+            return fHttpClient.executeMethod(method);
+        } catch (IOException e) {
+            if (!method.isAborted()) {
+                timer.error();
+            }
+            throw e;
+        } finally {
+            timer.stop(start);
+        }
+    }
+
+    /**
+     * Executes a request, hedged with a second attempt if hedging is enabled.
+     *
+     * @param command command of the request
+     * @param attempt first attempt
+     * @param hedge second attempt, or <code>null</code> if the request must not be hedged
+     * @return the response
+     * @throws IOException if the request fails
+     * @see RequestHedger
+     */
+    Object execute(final String command, final HttpAttempt attempt, final HttpAttempt hedge) throws IOException {
+        if (fHedger == null) {
+            return attempt.execute();
+        }
+        return fHedger.execute(command, attempt, hedge);
+    }
+
+    /**
+     * Releases the connections of this session. The session must not be used
+     * afterwards.
+     */
+    void dispose() {
+        fHttpClient.shutdown();
+    }
+
+    /**
+     * Returns the limiter of concurrent requests of this session.
+     *
+     * @return limiter of concurrent requests
+     */
+    public ConcurrencyLimiter getLimiter() {
+        return fLimiter;
+    }
+
+    /**
+     * Returns the hedger of idempotent reads of this session.
+     *
+     * @return hedger, or <code>null</code> if hedging is disabled
+     */
+    public RequestHedger getHedger() {
+        return fHedger;
+    }
+
+    /**
+     * Returns the identity of the session, made of user name, host and port.
+     * Sessions with the same identity have the same access rights and share
+     * the results of coalesced reads.
+     *
+     * @return identity of the session
+     * @see RequestCoalescer
+     */
+    String getIdentity() {
+        return fHttpClient.getUserName() + "@" + fHttpClient.getHost() + ":" + fHttpClient.getPort();
+    }
+
+    /**
+     * Returns the codec for XML responses.
+     *
+     * @return XML codec
+     */
+    ResponseCodec getXmlCodec() {
+        return fXmlCodec;
+    }
+
+    /**
+     * Returns the codec to request view entries with. Unless configured
+     * otherwise, JSON is requested until the server answered with XML.
+     *
+     * @return codec for view entries
+     * @see NotesHttpFactory#OUTPUT_FORMAT_PROPERTY
+     */
+    ResponseCodec getViewEntriesCodec() {
+        return fViewEntriesCodec;
+    }
+
+    /**
+     * Parses a response with the codec matching its format. If view entries
+     * were requested as JSON but the server answered with XML, the server
+     * does not support JSON and all further view entries are requested as XML.
+     *
+     * @param requested the codec the response was requested with
+     * @param response response from the server
+     * @param rootElement name of the root element
+     * @param handler SAX handler receiving the content
+     * @throws IOException if the response cannot be read
+     * @throws SAXException if the response cannot be parsed
+     */
+    void parse(final ResponseCodec requested, final String response, final String rootElement,
+            final DefaultHandler handler) throws IOException, SAXException {
+        ResponseCodec codec = requested;
+        if (!codec.accepts(response) && codec == fJsonCodec && fXmlCodec.accepts(response)) {
+            codec = fXmlCodec;
+            if (fViewEntriesCodec == fJsonCodec
+                    && NotesHttpFactory.OUTPUT_FORMAT_AUTO.equals(getFactory().getOutputFormat())) {
+                getMonitor().info("Server does not support JSON output, using XML");
+                fViewEntriesCodec = fXmlCodec;
+            }
+        }
+        codec.parse(response, rootElement, handler);
     }
 
     /**
@@ -0,0 +1,707 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package de.jakop.lotus.domingo.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.codec.binary.Base64;
+
+import de.jakop.lotus.domingo.util.XMLUtil;
+
+/**
+ * Transport based on the {@link HttpURLConnection} of the JDK.
+ *
+ * <p>Connections are kept alive and reused by the JDK; the number of idle
+ * connections per server is configured with the system property
+ * <tt>http.maxConnections</tt>. The response body of a method can be read
+ * as a stream without buffering it.</p>
+ *
+ * <p>Like the commons client, credentials are not sent before the server
+ * requests basic authentication with a <tt>401</tt> response. After the
+ * first challenge, they are sent with every request.</p>
+ *
+ * @see NotesHttpFactory#TRANSPORT_PROPERTY
+ */
+public final class UrlConnectionTransport implements HttpTransport {
+
+    /** Name of this transport in the transport property. */
+    public static final String NAME = "urlconnection";
+
+    /** Encoding of form parameters and request bodies. */
+    private static final String REQUEST_CHARSET = "UTF-8";
+
+    /** Default charset of text responses. */
+    private static final String DEFAULT_CHARSET = "ISO-8859-1";
+
+    /** Size of the buffer to read response bodies. */
+    private static final int BUFFER_SIZE = 4096;
+
+    /** Formats of the expiry date of cookies. */
+    private static final String[] COOKIE_DATE_FORMATS = {"EEE, dd-MMM-yyyy HH:mm:ss zzz", "EEE, dd MMM yyyy HH:mm:ss zzz"};
+
+    /** Cookies of the server, mapping names to {@link UrlCookie}s. */
+    private final Map fCookies = new ConcurrentHashMap();
+
+    /** Value of the authorization header, or <code>null</code>. */
+    private volatile String fAuthorization;
+
+    /** Whether the server has requested basic authentication. */
+    private volatile boolean fChallenged;
+
+    /** Connect and read timeout in milliseconds. */
+    private volatile int fTimeout;
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see HttpTransport#init(java.lang.String, int)
+     */
+    public void init(final String host, final int port) {
+        // URLs of methods are absolute
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>Concurrent requests are bounded by the session, idle connections by
+     * the JDK.</p>
+     *
+     * @see HttpTransport#configure(int, int)
+     */
+    public void configure(final int maxConnections, final int timeout) {
+        fTimeout = timeout;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see HttpTransport#setCredentials(java.lang.String, java.lang.String)
+     */
+    public void setCredentials(final String username, final String password) {
+        try {
+            final byte[] credentials = (username + ":" + password).getBytes(DEFAULT_CHARSET);
+            fAuthorization = "Basic " + new String(Base64.encodeBase64(credentials), "US-ASCII");
+        } catch (UnsupportedEncodingException e) {
+            throw new NotesHttpRuntimeException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see HttpTransport#addCookie(java.lang.String, java.lang.String)
+     */
+    public void addCookie(final String name, final String value) {
+        fCookies.put(name, new UrlCookie(value, 0));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see HttpTransport#getCookies()
+     */
+    public Map getCookies() {
+        final long now = System.currentTimeMillis();
+        final Map map = new HashMap();
+        final Iterator iterator = fCookies.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry entry = (Map.Entry) iterator.next();
+            final UrlCookie cookie = (UrlCookie) entry.getValue();
+            if (!cookie.isExpired(now)) {
+                map.put(entry.getKey(), cookie.fValue);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see HttpTransport#createGetMethod(java.lang.String)
+     */
+    public DominoHttpMethod createGetMethod(final String url) {
+        return new UrlConnectionMethod("GET", url);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see HttpTransport#createPostMethod(java.lang.String)
+     */
+    public DominoHttpMethod createPostMethod(final String url) {
+        return new UrlConnectionMethod("POST", url);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see HttpTransport#executeMethod(DominoHttpMethod)
+     */
+    public int executeMethod(final DominoHttpMethod method) throws IOException {
+        if (!(method instanceof UrlConnectionMethod)) {
+            throw new IllegalArgumentException("Method not created by this transport: " + method.getURL());
+        }
+        return ((UrlConnectionMethod) method).execute();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see HttpTransport#shutdown()
+     */
+    public void shutdown() {
+        fCookies.clear();
+    }
+
+    /**
+     * Returns the value of the cookie header for a request.
+     *
+     * @return cookie header or <code>null</code> if no cookie is available
+     */
+    private String getCookieHeader() {
+        final Map cookies = getCookies();
+        if (cookies.isEmpty()) {
+            return null;
+        }
+        final StringBuffer buffer = new StringBuffer();
+        final Iterator iterator = cookies.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry entry = (Map.Entry) iterator.next();
+            if (buffer.length() > 0) {
+                buffer.append("; ");
+            }
+            buffer.append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Checks if a response requests basic authentication.
+     *
+     * @param connection connection with a response
+     * @return <code>true</code> if the response is a basic authentication challenge
+     * @throws IOException if an I/O error occurs
+     */
+    private static boolean isBasicChallenge(final HttpURLConnection connection) throws IOException {
+        if (connection.getResponseCode() != HttpURLConnection.HTTP_UNAUTHORIZED) {
+            return false;
+        }
+        final String challenge = connection.getHeaderField("WWW-Authenticate");
+        return challenge != null && challenge.trim().toLowerCase(Locale.ENGLISH).startsWith("basic");
+    }
+
+    /**
+     * Reads and closes the response body of a connection, so that the JDK
+     * can reuse the connection.
+     *
+     * @param connection connection with a response
+     */
+    private static void discard(final HttpURLConnection connection) {
+        final InputStream in = connection.getErrorStream();
+        if (in == null) {
+            return;
+        }
+        try {
+            try {
+                final byte[] buffer = new byte[BUFFER_SIZE];
+                while (in.read(buffer) >= 0) {
+                    // skip
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Stores the cookies set by a response.
+     *
+     * @param connection connection with a response
+     */
+    private void storeCookies(final HttpURLConnection connection) {
+        for (int i = 1; connection.getHeaderField(i) != null; i++) {
+            if ("Set-Cookie".equalsIgnoreCase(connection.getHeaderFieldKey(i))) {
+                storeCookie(connection.getHeaderField(i));
+            }
+        }
+    }
+
+    /**
+     * Stores a cookie from a <tt>Set-Cookie</tt> header. Expired cookies are
+     * removed.
+     *
+     * @param header value of a <tt>Set-Cookie</tt> header
+     */
+    private void storeCookie(final String header) {
+        final String[] parts = header.split(";");
+        final int index = parts[0].indexOf('=');
+        if (index <= 0) {
+            return;
+        }
+        final String name = parts[0].substring(0, index).trim();
+        final String value = parts[0].substring(index + 1).trim();
+        long expiry = 0;
+        for (int i = 1; i < parts.length; i++) {
+            final String attribute = parts[i].trim();
+            final String lowerCase = attribute.toLowerCase(Locale.US);
+            if (lowerCase.startsWith("max-age=")) {
+                try {
+                    expiry = System.currentTimeMillis() + Long.parseLong(attribute.substring(8).trim()) * 1000;
+                    break;
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+            } else if (lowerCase.startsWith("expires=")) {
+                expiry = parseCookieDate(attribute.substring(8).trim());
+            }
+        }
+        final UrlCookie cookie = new UrlCookie(value, expiry);
+        if (cookie.isExpired(System.currentTimeMillis())) {
+            fCookies.remove(name);
+        } else {
+            fCookies.put(name, cookie);
+        }
+    }
+
+    /**
+     * Parses the expiry date of a cookie.
+     *
+     * @param date the date
+     * @return milliseconds of the date, or <tt>0</tt> if the date cannot be parsed
+     */
+    private static long parseCookieDate(final String date) {
+        for (int i = 0; i < COOKIE_DATE_FORMATS.length; i++) {
+            try {
+                return new SimpleDateFormat(COOKIE_DATE_FORMATS[i], Locale.US).parse(date).getTime();
+            } catch (ParseException e) {
+                continue;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the charset of a content type.
+     *
+     * @param contentType the content type, may be <code>null</code>
+     * @return charset of the content type or the default charset
+     */
+    private static String getCharset(final String contentType) {
+        final int index = contentType == null ? -1 : contentType.toLowerCase(Locale.US).indexOf("charset=");
+        if (index < 0) {
+            return DEFAULT_CHARSET;
+        }
+        String charset = contentType.substring(index + "charset=".length());
+        final int end = charset.indexOf(';');
+        if (end >= 0) {
+            charset = charset.substring(0, end);
+        }
+        charset = charset.trim();
+        if (charset.startsWith("\"") && charset.endsWith("\"") && charset.length() > 1) {
+            charset = charset.substring(1, charset.length() - 1);
+        }
+        return charset;
+    }
+
+    ////////////////////////////////////////////////
+    //    inner classes
+    ////////////////////////////////////////////////
+
+    /**
+     * A cookie of the server.
+     */
+    private static final class UrlCookie {
+
+        /** Value of the cookie. */
+        private final String fValue;
+
+        /** Expiry in milliseconds, <tt>0</tt> for a session cookie. */
+        private final long fExpiry;
+
+        /**
+         * Creates a new cookie.
+         *
+         * @param value value of the cookie
+         * @param expiry expiry in milliseconds, <tt>0</tt> for a session cookie
+         */
+        UrlCookie(final String value, final long expiry) {
+            fValue = value;
+            fExpiry = expiry;
+        }
+
+        /**
+         * Checks if the cookie is expired.
+         *
+         * @param now current time in milliseconds
+         * @return <code>true</code> if the cookie is expired
+         */
+        boolean isExpired(final long now) {
+            return fExpiry != 0 && fExpiry <= now;
+        }
+    }
+
+    /**
+     * An Http method executed with an {@link HttpURLConnection}.
+     */
+    private final class UrlConnectionMethod implements DominoHttpMethod {
+
+        /** Name of the method. */
+        private final String fName;
+
+        /** URL of the method. */
+        private final String fUrl;
+
+        /** Form parameters of a POST method. */
+        private final StringBuffer fParameters = new StringBuffer();
+
+        /** Request body of a POST method, or <code>null</code>. */
+        private String fRequestBody;
+
+        /** Connection of the executed method. */
+        private volatile HttpURLConnection fConnection;
+
+        /** Whether the method was aborted. */
+        private volatile boolean fAborted;
+
+        /** Status code of the response. */
+        private int fStatusCode;
+
+        /** Status text of the response. */
+        private String fStatusText;
+
+        /** Stream of the response body, if opened. */
+        private InputStream fResponseStream;
+
+        /** Response body, if read. */
+        private byte[] fResponseBody;
+
+        /**
+         * Creates a new method.
+         *
+         * @param name name of the method
+         * @param url URL of the method
+         */
+        UrlConnectionMethod(final String name, final String url) {
+            fName = name;
+            fUrl = url;
+        }
+
+        /**
+         * Executes the method. If the server requests basic authentication
+         * and credentials are available, the method is sent again with the
+         * credentials.
+         *
+         * @return status code of the response
+         * @throws IOException if an I/O error occurs
+         */
+        int execute() throws IOException {
+            final boolean authorize = fChallenged && fAuthorization != null;
+            HttpURLConnection connection = send(authorize);
+            if (!authorize && fAuthorization != null && isBasicChallenge(connection)) {
+                fChallenged = true;
+                discard(connection);
+                connection = send(true);
+            }
+            fStatusCode = connection.getResponseCode();
+            fStatusText = connection.getResponseMessage();
+            return fStatusCode;
+        }
+
+        /**
+         * Sends the request and reads the status line and headers of the response.
+         *
+         * @param authorize whether to send the credentials
+         * @return connection with the response
+         * @throws IOException if an I/O error occurs
+         */
+        private HttpURLConnection send(final boolean authorize) throws IOException {
+            final HttpURLConnection connection = (HttpURLConnection) new URL(fUrl).openConnection();
+            fConnection = connection;
+            if (fAborted) {
+                throw new InterruptedIOException("Request aborted: " + fUrl);
+            }
+            connection.setInstanceFollowRedirects(false);
+            connection.setUseCaches(false);
+            connection.setConnectTimeout(fTimeout);
+            connection.setReadTimeout(fTimeout);
+            connection.setRequestMethod(fName);
+            if (authorize) {
+                connection.setRequestProperty("Authorization", fAuthorization);
+            }
+            final String cookies = getCookieHeader();
+            if (cookies != null) {
+                connection.setRequestProperty("Cookie", cookies);
+            }
+            if ("POST".equals(fName)) {
+                writeRequestBody(connection);
+            }
+            connection.getResponseCode();
+            storeCookies(connection);
+            return connection;
+        }
+
+        /**
+         * Writes the request body of a POST method.
+         *
+         * @param connection the connection
+         * @throws IOException if an I/O error occurs
+         */
+        private void writeRequestBody(final HttpURLConnection connection) throws IOException {
+            final byte[] body;
+            if (fRequestBody != null) {
+                connection.setRequestProperty("Content-Type", "text/xml; charset=" + REQUEST_CHARSET);
+                body = fRequestBody.getBytes(REQUEST_CHARSET);
+            } else {
+                connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded; charset="
+                    + REQUEST_CHARSET);
+                body = fParameters.toString().getBytes("US-ASCII");
+            }
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(body.length);
+            final OutputStream out = connection.getOutputStream();
+            try {
+                out.write(body);
+            } finally {
+                out.close();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see DominoHttpMethod#getName()
+         */
+        public String getName() {
+            return fName;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see DominoHttpMethod#getURL()
+         */
+        public String getURL() {
+            return fUrl;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see DominoHttpMethod#getQueryString()
+         */
+        public String getQueryString() {
+            final int index = fUrl.indexOf('?');
+            return index < 0 ? null : fUrl.substring(index + 1);
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see DominoHttpMethod#addParameter(java.lang.String, java.lang.String)
+         */
+        public void addParameter(final String name, final String value) {
+            if (!"POST".equals(fName)) {
+                throw new UnsupportedOperationException("Parameters are not supported by " + fName + " methods");
+            }
+            try {
+                if (fParameters.length() > 0) {
+                    fParameters.append('&');
+                }
+                fParameters.append(URLEncoder.encode(name, REQUEST_CHARSET));
+                fParameters.append('=');
+                fParameters.append(URLEncoder.encode(value, REQUEST_CHARSET));
+            } catch (UnsupportedEncodingException e) {
+                throw new NotesHttpRuntimeException(e);
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see DominoHttpMethod#setRequestBody(java.lang.String)
+         */
+        public void setRequestBody(final String body) {
+            if (!"POST".equals(fName)) {
+                throw new UnsupportedOperationException("A request body is not supported by " + fName + " methods");
+            }
+            fRequestBody = body;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see DominoHttpMethod#getStatusCode()
+         */
+        public int getStatusCode() {
+            return fStatusCode;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see DominoHttpMethod#getStatusText()
+         */
+        public String getStatusText() {
+            return fStatusText;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see DominoHttpMethod#getResponseHeaderValue(java.lang.String)
+         */
+        public String getResponseHeaderValue(final String name) {
+            final HttpURLConnection connection = fConnection;
+            return connection == null ? null : connection.getHeaderField(name);
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see DominoHttpMethod#getResponseBody()
+         */
+        public byte[] getResponseBody() throws IOException {
+            if (fResponseBody == null) {
+                final InputStream in = getResponseBodyAsStream();
+                if (in == null) {
+                    return null;
+                }
+                try {
+                    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    final byte[] buffer = new byte[BUFFER_SIZE];
+                    int count;
+                    while ((count = in.read(buffer)) >= 0) {
+                        out.write(buffer, 0, count);
+                    }
+                    fResponseBody = out.toByteArray();
+                } finally {
+                    in.close();
+                    fResponseStream = null;
+                }
+            }
+            return fResponseBody;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see DominoHttpMethod#getResponseBodyAsStream()
+         */
+        public InputStream getResponseBodyAsStream() throws IOException {
+            if (fResponseBody != null) {
+                return new ByteArrayInputStream(fResponseBody);
+            }
+            final HttpURLConnection connection = fConnection;
+            if (connection == null || fStatusCode == 0) {
+                return null;
+            }
+            if (fResponseStream == null) {
+                if (fStatusCode >= HttpURLConnection.HTTP_BAD_REQUEST) {
+                    fResponseStream = connection.getErrorStream();
+                } else {
+                    fResponseStream = connection.getInputStream();
+                }
+            }
+            return fResponseStream;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see DominoHttpMethod#getResponseBodyString()
+         */
+        public String getResponseBodyString() throws IOException {
+            final byte[] body = getResponseBody();
+            if (body == null) {
+                return null;
+            }
+            final String contentType = getResponseHeaderValue("Content-Type");
+            if (contentType != null && contentType.startsWith("text/xml")) {
+                return XMLUtil.parse(body);
+            }
+            return new String(body, getCharset(contentType));
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * <p>Closes the response stream; the connection is kept alive by the
+         * JDK if the response was read completely.</p>
+         *
+         * @see DominoHttpMethod#releaseConnection()
+         */
+        public void releaseConnection() {
+            final InputStream in = fResponseStream;
+            fResponseStream = null;
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    // the connection is discarded by the JDK
+                    fConnection.disconnect();
+                }
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see DominoHttpMethod#abort()
+         */
+        public void abort() {
+            fAborted = true;
+            final HttpURLConnection connection = fConnection;
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see DominoHttpMethod#isAborted()
+         */
+        public boolean isAborted() {
+            return fAborted;
+        }
+    }
+}
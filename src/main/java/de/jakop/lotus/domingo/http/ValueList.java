@@ -0,0 +1,235 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package de.jakop.lotus.domingo.http;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+
+import de.jakop.lotus.domingo.DDocumentSnapshot;
+import de.jakop.lotus.domingo.util.DateUtil;
+
+/**
+ * List of parsed item or column values.
+ *
+ * <p>Numbers and date/times are stored as primitives. The corresponding
+ * <code>Double</code> and <code>Calendar</code> objects are only created
+ * when an element is requested with {@link #get(int)}. Callers that only
+ * need primitive values can use {@link #getDouble(int)} and
+ * {@link #getMillis(int)} instead.</p>
+ */
+final class ValueList extends AbstractList implements Serializable {
+
+    /** serial version ID for serialization. */
+    private static final long serialVersionUID = 4839163290556125712L;
+
+    /** Type of a value stored as object. */
+    private static final byte TYPE_OBJECT = 0;
+
+    /** Type of a number value stored as primitive. */
+    private static final byte TYPE_NUMBER = 1;
+
+    /** Type of a date/time value stored as primitive. */
+    private static final byte TYPE_DATETIME = 2;
+
+    /** Initial capacity. */
+    private static final int INITIAL_CAPACITY = 4;
+
+    /** Values stored as objects or created from primitives. */
+    private Object[] fObjects = new Object[INITIAL_CAPACITY];
+
+    /** Primitive values; raw bits of doubles or milliseconds. */
+    private long[] fPrimitives = new long[INITIAL_CAPACITY];
+
+    /** Type of each value. */
+    private byte[] fTypes = new byte[INITIAL_CAPACITY];
+
+    /** Number of values. */
+    private int fSize = 0;
+
+    /**
+     * Adds a number value.
+     *
+     * @param value the number
+     */
+    void addNumber(final double value) {
+        ensureCapacity(fSize + 1);
+        fObjects[fSize] = null;
+        fPrimitives[fSize] = Double.doubleToLongBits(value);
+        fTypes[fSize] = TYPE_NUMBER;
+        fSize++;
+        modCount++;
+    }
+
+    /**
+     * Adds a date/time value.
+     *
+     * @param millis milliseconds since the epoch or {@link DDocumentSnapshot#NO_DATE}
+     */
+    void addDateTime(final long millis) {
+        ensureCapacity(fSize + 1);
+        fObjects[fSize] = null;
+        fPrimitives[fSize] = millis;
+        fTypes[fSize] = TYPE_DATETIME;
+        fSize++;
+        modCount++;
+    }
+
+    /**
+     * Returns a value as number without creating a <code>Double</code>.
+     *
+     * @param index index of the value
+     * @return the number or <code>NaN</code> if the value is not a number
+     */
+    double getDouble(final int index) {
+        checkIndex(index);
+        if (fTypes[index] == TYPE_NUMBER) {
+            return Double.longBitsToDouble(fPrimitives[index]);
+        } else if (fObjects[index] instanceof Number) {
+            return ((Number) fObjects[index]).doubleValue();
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Returns a value as milliseconds since the epoch without creating a
+     * <code>Calendar</code>.
+     *
+     * @param index index of the value
+     * @return milliseconds or {@link DDocumentSnapshot#NO_DATE} if the value is not a date/time
+     */
+    long getMillis(final int index) {
+        checkIndex(index);
+        if (fTypes[index] == TYPE_DATETIME) {
+            return fPrimitives[index];
+        } else if (fTypes[index] == TYPE_NUMBER) {
+            return DDocumentSnapshot.NO_DATE;
+        }
+        return DateUtil.getMillis(fObjects[index]);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see java.util.AbstractList#get(int)
+     */
+    public Object get(final int index) {
+        checkIndex(index);
+        Object object = fObjects[index];
+        if (object == null) {
+            if (fTypes[index] == TYPE_NUMBER) {
+                object = new Double(Double.longBitsToDouble(fPrimitives[index]));
+            } else if (fTypes[index] == TYPE_DATETIME) {
+                object = ValueParser.toCalendar(fPrimitives[index]);
+            }
+            fObjects[index] = object;
+        }
+        return object;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see java.util.AbstractCollection#size()
+     */
+    public int size() {
+        return fSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see java.util.AbstractList#set(int, java.lang.Object)
+     */
+    public Object set(final int index, final Object element) {
+        final Object old = get(index);
+        fObjects[index] = element;
+        fTypes[index] = TYPE_OBJECT;
+        return old;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see java.util.AbstractList#add(int, java.lang.Object)
+     */
+    public void add(final int index, final Object element) {
+        if (index < 0 || index > fSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + fSize);
+        }
+        ensureCapacity(fSize + 1);
+        final int moved = fSize - index;
+        System.arraycopy(fObjects, index, fObjects, index + 1, moved);
+        System.arraycopy(fPrimitives, index, fPrimitives, index + 1, moved);
+        System.arraycopy(fTypes, index, fTypes, index + 1, moved);
+        fObjects[index] = element;
+        fTypes[index] = TYPE_OBJECT;
+        fSize++;
+        modCount++;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see java.util.AbstractList#remove(int)
+     */
+    public Object remove(final int index) {
+        final Object old = get(index);
+        final int moved = fSize - index - 1;
+        System.arraycopy(fObjects, index + 1, fObjects, index, moved);
+        System.arraycopy(fPrimitives, index + 1, fPrimitives, index, moved);
+        System.arraycopy(fTypes, index + 1, fTypes, index, moved);
+        fSize--;
+        fObjects[fSize] = null;
+        modCount++;
+        return old;
+    }
+
+    /**
+     * Checks that an index is within the range of this list.
+     *
+     * @param index the index
+     * @throws IndexOutOfBoundsException if the index is out of range
+     */
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= fSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + fSize);
+        }
+    }
+
+    /**
+     * Ensures that the list can hold the given number of values.
+     *
+     * @param capacity required capacity
+     */
+    private void ensureCapacity(final int capacity) {
+        if (capacity <= fObjects.length) {
+            return;
+        }
+        final int newCapacity = Math.max(capacity, fObjects.length * 2);
+        final Object[] objects = new Object[newCapacity];
+        final long[] primitives = new long[newCapacity];
+        final byte[] types = new byte[newCapacity];
+        System.arraycopy(fObjects, 0, objects, 0, fSize);
+        System.arraycopy(fPrimitives, 0, primitives, 0, fSize);
+        System.arraycopy(fTypes, 0, types, 0, fSize);
+        fObjects = objects;
+        fPrimitives = primitives;
+        fTypes = types;
+    }
+}
@@ -0,0 +1,286 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package de.jakop.lotus.domingo.http;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import de.jakop.lotus.domingo.DDocumentSnapshot;
+
+/**
+ * Parses values of view entries and documents directly from the character
+ * buffers of a SAX parser.
+ *
+ * <p>Numbers and date/times are decoded into primitives without creating
+ * intermediate strings. Values that cannot be handled by the fast path are
+ * parsed with the standard Java methods.</p>
+ */
+final class ValueParser {
+
+    /** Number of characters of the date part <tt>yyyyMMdd</tt>. */
+    private static final int DATE_LENGTH = 8;
+
+    /** Start index of the hour component. */
+    private static final int HOUR_START = DATE_LENGTH + 1;
+
+    /** Start index of the minute component. */
+    private static final int MINUTE_START = HOUR_START + 2;
+
+    /** Start index of the second component. */
+    private static final int SECOND_START = MINUTE_START + 2;
+
+    /** Index of the separator of the hundredth seconds. */
+    private static final int FRACTION_START = SECOND_START + 2;
+
+    /** First year computed without a calendar; earlier dates are Julian dates in Java. */
+    private static final int FIRST_GREGORIAN_YEAR = 1583;
+
+    /** Number of months per year. */
+    private static final int MONTHS_PER_YEAR = 12;
+
+    /** Milli seconds per second. */
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    /** Milli seconds per minute. */
+    private static final long MILLIS_PER_MINUTE = 60L * MILLIS_PER_SECOND;
+
+    /** Milli seconds per hour. */
+    private static final long MILLIS_PER_HOUR = 60L * MILLIS_PER_MINUTE;
+
+    /** Milli seconds per day. */
+    private static final long MILLIS_PER_DAY = 24L * MILLIS_PER_HOUR;
+
+    /** Largest mantissa that is exactly representable as a double. */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /** Maximum number of decimal digits collected by the fast path. */
+    private static final int MAX_DIGITS = 17;
+
+    /** Powers of ten that are exactly representable as a double. */
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22,
+    };
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private ValueParser() {
+    }
+
+    /**
+     * Parses a number.
+     *
+     * <p>Plain decimal numbers with up to 17 digits are computed directly and
+     * yield exactly the same value as <code>Double.parseDouble()</code>. All
+     * other formats are delegated to <code>Double.parseDouble()</code>.</p>
+     *
+     * @param ch character buffer
+     * @param offset start of the number
+     * @param length number of characters
+     * @return the parsed number
+     * @throws NumberFormatException if the characters are not a number
+     */
+    static double parseNumber(final char[] ch, final int offset, final int length) {
+        int start = offset;
+        int end = offset + length;
+        while (start < end && ch[start] <= ' ') {
+            start++;
+        }
+        while (end > start && ch[end - 1] <= ' ') {
+            end--;
+        }
+        int i = start;
+        boolean negative = false;
+        if (i < end && (ch[i] == '-' || ch[i] == '+')) {
+            negative = ch[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean point = false;
+        boolean any = false;
+        for (; i < end; i++) {
+            final char c = ch[i];
+            if (c >= '0' && c <= '9') {
+                if (digits >= MAX_DIGITS) {
+                    return Double.parseDouble(new String(ch, offset, length));
+                }
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) {
+                    digits++;
+                }
+                if (point) {
+                    scale++;
+                }
+                any = true;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                return Double.parseDouble(new String(ch, offset, length));
+            }
+        }
+        if (!any || mantissa > MAX_EXACT_MANTISSA || scale >= POWERS_OF_TEN.length) {
+            return Double.parseDouble(new String(ch, offset, length));
+        }
+        final double value = scale == 0 ? (double) mantissa : mantissa / POWERS_OF_TEN[scale];
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses a date/time in the format as used in view entries and DXL.
+     *
+     * <p>Format: <tt>yyyyMMdd[Thhmmss[,nn][+zz]]</tt></p>
+     *
+     * <p>Example: <tt>20070119T155258,93+01</tt></p>
+     *
+     * <p>The date/time is interpreted in the given time zone, the zone suffix
+     * is ignored.</p>
+     *
+     * @param ch character buffer
+     * @param offset start of the date/time
+     * @param length number of characters
+     * @param zone the time zone of the date/time
+     * @return milliseconds since the epoch or {@link DDocumentSnapshot#NO_DATE}
+     *         if the value is empty
+     * @throws NumberFormatException if the characters are not a valid date/time
+     */
+    static long parseDateTime(final char[] ch, final int offset, final int length, final TimeZone zone) {
+        if (length == 0) {
+            return DDocumentSnapshot.NO_DATE;
+        }
+        if (length < DATE_LENGTH) {
+            throw new NumberFormatException("Invalid date/time: " + new String(ch, offset, length));
+        }
+        final int year = parseDigits(ch, offset, 4);
+        final int month = parseDigits(ch, offset + 4, 2);
+        final int day = parseDigits(ch, offset + 6, 2);
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int millis = 0;
+        if (length > HOUR_START) {
+            if (length < FRACTION_START) {
+                throw new NumberFormatException("Invalid date/time: " + new String(ch, offset, length));
+            }
+            hour = parseDigits(ch, offset + HOUR_START, 2);
+            minute = parseDigits(ch, offset + MINUTE_START, 2);
+            second = parseDigits(ch, offset + SECOND_START, 2);
+            if (length > FRACTION_START + 2 && ch[offset + FRACTION_START] == ',') {
+                millis = parseDigits(ch, offset + FRACTION_START + 1, 2) * 10;
+            }
+        }
+        return toMillis(year, month, day, hour, minute, second, millis, zone);
+    }
+
+    /**
+     * Creates a calendar for a date/time in milliseconds.
+     *
+     * @param millis milliseconds since the epoch
+     * @return new calendar in the default time zone or <code>null</code> if
+     *         millis is {@link DDocumentSnapshot#NO_DATE}
+     */
+    static Calendar toCalendar(final long millis) {
+        if (millis == DDocumentSnapshot.NO_DATE) {
+            return null;
+        }
+        final Calendar calendar = new GregorianCalendar();
+        calendar.setTimeInMillis(millis);
+        return calendar;
+    }
+
+    /**
+     * Converts local date/time components into milliseconds since the epoch.
+     * The result is the same as computed by a lenient <code>GregorianCalendar</code>.
+     *
+     * @param year the year
+     * @param month the month, 1 to 12
+     * @param day the day of month
+     * @param hour the hour of day
+     * @param minute the minute
+     * @param second the second
+     * @param millis the milli seconds
+     * @param zone the time zone of the components
+     * @return milliseconds since the epoch
+     */
+    static long toMillis(final int year, final int month, final int day, final int hour, final int minute,
+            final int second, final int millis, final TimeZone zone) {
+        if (year >= FIRST_GREGORIAN_YEAR && month >= 1 && month <= MONTHS_PER_YEAR) {
+            final long local = daysFromCivil(year, month, day) * MILLIS_PER_DAY + hour * MILLIS_PER_HOUR
+                + minute * MILLIS_PER_MINUTE + second * MILLIS_PER_SECOND + millis;
+            final int offset = zone.getOffset(local - zone.getRawOffset());
+            final long result = local - offset;
+            if (zone.getOffset(result) == offset) {
+                return result;
+            }
+            // within a daylight saving transition; let the calendar resolve it
+        }
+        final Calendar calendar = new GregorianCalendar(zone);
+        calendar.clear();
+        calendar.set(year, month - 1, day, hour, minute, second);
+        calendar.set(Calendar.MILLISECOND, millis);
+        return calendar.getTimeInMillis();
+    }
+
+    /**
+     * Computes the number of days since January 1st, 1970 of a date in the
+     * Gregorian calendar.
+     *
+     * @param year the year
+     * @param month the month, 1 to 12
+     * @param day the day of month, values exceeding the month roll over
+     * @return days since the epoch
+     */
+    private static long daysFromCivil(final int year, final int month, final int day) {
+        final int y = month <= 2 ? year - 1 : year;
+        final int era = (y >= 0 ? y : y - 399) / 400;
+        final int yearOfEra = y - era * 400;
+        final int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097L + dayOfEra - 719468L;
+    }
+
+    /**
+     * Parses a fixed number of decimal digits.
+     *
+     * @param ch character buffer
+     * @param start index of the first digit
+     * @param count number of digits
+     * @return the parsed number
+     * @throws NumberFormatException if a character is not a digit
+     */
+    private static int parseDigits(final char[] ch, final int start, final int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            final char c = ch[i];
+            if (c < '0' || c > '9') {
+                throw new NumberFormatException("Invalid digit '" + c + "' in date/time");
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
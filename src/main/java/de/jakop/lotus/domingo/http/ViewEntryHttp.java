@@ -31,8 +31,10 @@ import org.xml.sax.SAXException;
 
 import de.jakop.lotus.domingo.DBase;
 import de.jakop.lotus.domingo.DDocument;
+import de.jakop.lotus.domingo.DDocumentSnapshot;
 import de.jakop.lotus.domingo.DNotesMonitor;
 import de.jakop.lotus.domingo.DViewEntry;
+import de.jakop.lotus.domingo.util.DateUtil;
 
 /**
  *
@@ -120,6 +122,28 @@ public final class ViewEntryHttp extends BaseHttp implements DViewEntry {
         return fColumnValues;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @see DViewEntry#getColumnValuesMillis()
+     */
+    public long[] getColumnValuesMillis() {
+        if (fColumnValues == null) {
+            return new long[0];
+        }
+        final long[] result = new long[fColumnValues.size()];
+        for (int i = 0; i < result.length; i++) {
+            final Object value = fColumnValues.get(i);
+            if (value instanceof ValueList) {
+                final ValueList values = (ValueList) value;
+                result[i] = values.size() > 0 ? values.getMillis(0) : DDocumentSnapshot.NO_DATE;
+            } else {
+                result[i] = DateUtil.getMillis(value);
+            }
+        }
+        return result;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -217,8 +241,14 @@ public final class ViewEntryHttp extends BaseHttp implements DViewEntry {
      * @see DViewEntry#getIndentLevel()
      */
     public int getIndentLevel() {
-        // TODO Auto-generated method stub
-        return 0;
+        if (fPosition == null) {
+            return 0;
+        }
+        int level = 0;
+        for (int i = fPosition.indexOf('.'); i >= 0; i = fPosition.indexOf('.', i + 1)) {
+            level++;
+        }
+        return level;
     }
 
     /**
@@ -254,6 +284,9 @@ public final class ViewEntryHttp extends BaseHttp implements DViewEntry {
      */
     class ViewEntryParser extends BaseHandler {
 
+        /** Number of the column of the current value. */
+        private int fColumnNumber;
+
         /**
          * @see org.xml.sax.ContentHandler#startElement(java.lang.String,
          *      java.lang.String, java.lang.String, org.xml.sax.Attributes)
@@ -262,6 +295,7 @@ public final class ViewEntryHttp extends BaseHttp implements DViewEntry {
                 throws SAXException {
             if ("viewentry".equals(qName)) {
                 fUniversalId = atts.getValue("unid");
+                fNoteId = atts.getValue("noteid");
                 fDescendents = parseInt(atts, "descendents");
                 fSibblings = parseInt(atts, "sibblings");
                 fChildren = parseInt(atts, "children");
@@ -269,6 +303,7 @@ public final class ViewEntryHttp extends BaseHttp implements DViewEntry {
                 fColumnValues = new ArrayList();
             } else if ("entrydata".equals(qName)) {
                 reset();
+                fColumnNumber = parseInt(atts, "columnnumber");
                 if ("true".equals(atts.getValue("category"))) {
                     fCategory = true;
                 }
@@ -283,8 +318,13 @@ public final class ViewEntryHttp extends BaseHttp implements DViewEntry {
          */
         public void endElement(final String uri, final String localName, final String qName) throws SAXException {
             if ("viewentry".equals(qName)) {
+                fDocument = !fCategory && fUniversalId != null;
                 return;
             } else if ("entrydata".equals(qName)) {
+                // category entries only contain their own column, keep the index of the column
+                while (fColumnValues.size() < fColumnNumber) {
+                    fColumnValues.add("");
+                }
                 fColumnValues.add(getValues());
             } else {
                 super.endElement(uri, localName, qName);
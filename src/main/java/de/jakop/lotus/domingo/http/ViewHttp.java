@@ -23,27 +23,38 @@
 
 package de.jakop.lotus.domingo.http;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-
 import org.xml.sax.Attributes;
 import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
 
 import de.jakop.lotus.domingo.DBase;
 import de.jakop.lotus.domingo.DDatabase;
 import de.jakop.lotus.domingo.DDocument;
+import de.jakop.lotus.domingo.DDocumentSnapshot;
 import de.jakop.lotus.domingo.DNotesMonitor;
 import de.jakop.lotus.domingo.DView;
 import de.jakop.lotus.domingo.DViewColumn;
+import de.jakop.lotus.domingo.DViewDesign;
 import de.jakop.lotus.domingo.DViewEntry;
+import de.jakop.lotus.domingo.util.DateUtil;
+import de.jakop.lotus.domingo.util.ViewColumnDesign;
+import de.jakop.lotus.domingo.util.ViewDesign;
 
 /**
  * Http implementation of a Domingo view.
@@ -55,8 +66,61 @@ public final class ViewHttp extends BaseHttp implements DView {
     /** serial version ID for serialization. */
     private static final long serialVersionUID = 1484836582323425207L;
 
+    /** Number of view entries read with one request by iterators. */
+    private static final int DEFAULT_COUNT = 50;
+
+    /** Number of view entries read with one request by single key lookups. */
+    private static final int ENTRY_COUNT = 10;
+
+    /** Maximum number of keys looked up with one request by {@link #lookupAll(Collection)}. */
+    private static final int LOOKUP_RANGE_SIZE = 50;
+
+    /**
+     * Number of view entries per key read with one request by
+     * {@link #lookupAll(Collection)}. Keys of ranges with more entries are
+     * looked up one by one.
+     */
+    private static final int LOOKUP_SCAN_RATIO = 16;
+
+    /** Order of normalized keys of the same type. */
+    private static final Comparator KEY_ORDER = new Comparator() {
+        public int compare(final Object o1, final Object o2) {
+            return ((Comparable) normalizeKey(o1)).compareTo(normalizeKey(o2));
+        }
+    };
+
+    /** Key type of text keys. */
+    private static final String KEY_TYPE_TEXT = "text";
+
+    /** Key type of number keys. */
+    private static final String KEY_TYPE_NUMBER = "number";
+
+    /** Key type of date keys. */
+    private static final String KEY_TYPE_TIME = "time";
+
+    /** Date format of keys with key type <tt>time</tt>. */
+    private static final String KEY_DATE_FORMAT = "yyyyMMdd'T'HHmmss";
+
+    /** Decision of an entry filter: the entry is returned. */
+    private static final int ACCEPT = 0;
+
+    /** Decision of an entry filter: the entry is skipped. */
+    private static final int SKIP = 1;
+
+    /** Decision of an entry filter: the entry and all following entries are skipped. */
+    private static final int STOP = 2;
+
+    /** Argument to read all entries of a view, including those below categories. */
+    private static final String EXPAND_VIEW = "ExpandView";
+
+    /** Argument to read the top level entries of a view only. */
+    private static final String COLLAPSE_VIEW = "CollapseView";
+
     private String fName;
 
+    /** Design of the view, read on first use. */
+    private DViewDesign fDesign = null;
+
     /**
      * Private Constructor for this class.
      *
@@ -119,7 +183,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#refresh()
      */
     public void refresh() {
-        // TODO Auto-generated method stub
+        // nothing to do, every request reads the current state of the view
     }
 
     /**
@@ -137,8 +201,8 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getDocumentByKey(String, boolean)
      */
     public DDocument getDocumentByKey(final String key, final boolean exact) {
-        // TODO Auto-generated method stub
-        return null;
+        final DViewEntry entry = getEntryByKey(key, exact);
+        return entry == null ? null : entry.getDocument();
     }
 
     /**
@@ -147,8 +211,8 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getDocumentByKey(List, boolean)
      */
     public DDocument getDocumentByKey(final List keys, final boolean exact) {
-        // TODO Auto-generated method stub
-        return null;
+        final DViewEntry entry = getEntryByKey(keys, exact);
+        return entry == null ? null : entry.getDocument();
     }
 
     /**
@@ -157,8 +221,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getAllDocumentsByKey(String)
      */
     public Iterator getAllDocumentsByKey(final String key) {
-        // TODO Auto-generated method stub
-        return null;
+        return getAllDocumentsByKey(key, false);
     }
 
     /**
@@ -167,8 +230,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getAllDocumentsByKey(List)
      */
     public Iterator getAllDocumentsByKey(final List keys) {
-        // TODO Auto-generated method stub
-        return null;
+        return getAllDocumentsByKey(keys, false);
     }
 
     /**
@@ -177,8 +239,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getAllDocumentsByKey(String, boolean)
      */
     public Iterator getAllDocumentsByKey(final String key, final boolean exact) {
-        // TODO Auto-generated method stub
-        return null;
+        return new DocumentIteratorHttp(getAllEntriesByKey(key, exact));
     }
 
     /**
@@ -187,8 +248,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getAllDocumentsByKey(List, boolean)
      */
     public Iterator getAllDocumentsByKey(final List keys, final boolean exact) {
-        // TODO Auto-generated method stub
-        return null;
+        return new DocumentIteratorHttp(getAllEntriesByKey(keys, exact));
     }
 
     /**
@@ -224,8 +284,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getAllDocumentsByKey(java.util.Calendar, boolean)
      */
     public Iterator getAllDocumentsByKey(final Calendar key, final boolean exact) {
-        // TODO Auto-generated method stub
-        return null;
+        return new DocumentIteratorHttp(getAllEntriesByKey(Collections.singletonList(key), exact));
     }
 
     /**
@@ -234,8 +293,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getAllDocumentsByKey(double, boolean)
      */
     public Iterator getAllDocumentsByKey(final double key, final boolean exact) {
-        // TODO Auto-generated method stub
-        return null;
+        return new DocumentIteratorHttp(getAllEntriesByKey(Collections.singletonList(new Double(key)), exact));
     }
 
     /**
@@ -244,8 +302,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getAllDocumentsByKey(int, boolean)
      */
     public Iterator getAllDocumentsByKey(final int key, final boolean exact) {
-        // TODO Auto-generated method stub
-        return null;
+        return new DocumentIteratorHttp(getAllEntriesByKey(Collections.singletonList(new Integer(key)), exact));
     }
 
     /**
@@ -254,8 +311,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getAllDocuments()
      */
     public Iterator getAllDocuments() {
-        // TODO Auto-generated method stub
-        return null;
+        return new DocumentIteratorHttp(getAllEntries());
     }
 
     /**
@@ -264,7 +320,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getAllEntries()
      */
     public Iterator getAllEntries() {
-        return new ViewEntryIteratorHttp();
+        return new ViewEntryIteratorHttp(EXPAND_VIEW, "Start=1", "", null, DEFAULT_COUNT);
     }
 
     /**
@@ -273,31 +329,64 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getAllEntriesReverse()
      */
     public Iterator getAllEntriesReverse() {
-        return new ViewEntryIteratorHttp();
+        return getAllEntries();
     }
 
+    /**
+     * Iterator over view entries that reads the entries page by page with the
+     * <tt>ReadViewEntries</tt> command. The first page is read with a given set
+     * of arguments, e.g. a <tt>StartKey</tt>, all following pages start after the
+     * position of the last entry read. All pages are read in the same mode,
+     * expanded or collapsed.
+     */
     private final class ViewEntryIteratorHttp implements Iterator {
 
-        private static final int DEFAULT_COUNT = 50;
+        /** Mode of all requests, {@link ViewHttp#EXPAND_VIEW} or {@link ViewHttp#COLLAPSE_VIEW}. */
+        private final String fMode;
+
+        /** Arguments of the first request. */
+        private final String fFirstPage;
+
+        /** Arguments added to each following request, e.g. an <tt>UntilKey</tt>. */
+        private final String fArguments;
+
+        /** Filter for entries, or <code>null</code> if all entries are returned. */
+        private final EntryFilter fFilter;
 
-        /** Current position in view. */
-        private String fStart = "1";
+        /** Number of entries to read with one request. */
+        private final int fCount;
 
         /** Current position in cache array. */
         private int fCachePosition = 0;
 
         /** Position of last read entry. */
-        private String fLastPosition = "0";
+        private String fLastPosition;
 
         /** List of cached entries. */
-        private List fViewEntries;
+        private List fViewEntries = Collections.EMPTY_LIST;
 
-        public ViewEntryIteratorHttp() {
-            readNextPage(null);
-        }
+        /** Whether the last page of the view has been read. */
+        private boolean fExhausted = false;
+
+        /** Next entry to return. */
+        private DViewEntry fNext;
 
-        public ViewEntryIteratorHttp(final String startKey) {
-            readNextPage(startKey);
+        /**
+         * Creates a new iterator.
+         *
+         * @param mode mode of all requests, {@link ViewHttp#EXPAND_VIEW} or {@link ViewHttp#COLLAPSE_VIEW}
+         * @param firstPage arguments of the first request
+         * @param arguments arguments added to each following request
+         * @param filter filter for entries or <code>null</code>
+         * @param count number of entries to read with one request
+         */
+        public ViewEntryIteratorHttp(final String mode, final String firstPage, final String arguments,
+                final EntryFilter filter, final int count) {
+            fMode = mode;
+            fFirstPage = firstPage;
+            fArguments = arguments;
+            fFilter = filter;
+            fCount = count;
         }
 
         /**
@@ -306,10 +395,25 @@ public final class ViewHttp extends BaseHttp implements DView {
          * @see Iterator#hasNext()
          */
         public boolean hasNext() {
-            if (fCachePosition >= fViewEntries.size()) {
-                readNextPage(null);
+            while (fNext == null) {
+                if (fCachePosition >= fViewEntries.size()) {
+                    if (fExhausted) {
+                        return false;
+                    }
+                    readNextPage();
+                    continue;
+                }
+                final DViewEntry entry = (DViewEntry) fViewEntries.get(fCachePosition++);
+                final int decision = fFilter == null ? ACCEPT : fFilter.accept(entry);
+                if (decision == ACCEPT) {
+                    fNext = entry;
+                } else if (decision == STOP) {
+                    fExhausted = true;
+                    fViewEntries = Collections.EMPTY_LIST;
+                    return false;
+                }
             }
-            return fCachePosition < fViewEntries.size();
+            return true;
         }
 
         /**
@@ -321,7 +425,9 @@ public final class ViewHttp extends BaseHttp implements DView {
             if (!hasNext()) {
                 throw new NoSuchElementException();
             }
-            return fViewEntries.get(fCachePosition++);
+            final DViewEntry entry = fNext;
+            fNext = null;
+            return entry;
         }
 
         /**
@@ -335,40 +441,616 @@ public final class ViewHttp extends BaseHttp implements DView {
 
         /**
          * Reads the next page of view entries from the view.
+         */
+        private void readNextPage() {
+            final String arguments;
+            if (fLastPosition == null) {
+                arguments = fMode + "&" + fFirstPage + "&Count=" + fCount;
+            } else {
+                arguments = fMode + "&Start=" + increase(fLastPosition) + fArguments + "&Count=" + fCount;
+            }
+            fViewEntries = readViewEntries(arguments);
+            fExhausted = fViewEntries.size() < fCount;
+            if (fViewEntries.size() > 0) {
+                DViewEntry viewEntry = (DViewEntry) fViewEntries.get(fViewEntries.size() - 1);
+                fLastPosition = viewEntry.getPosition('.');
+            }
+            fCachePosition = 0;
+        }
+    }
+
+    /**
+     * Iterator over the documents of an iterator over view entries. Entries
+     * that are not documents, e.g. categories, are skipped.
+     */
+    private static final class DocumentIteratorHttp implements Iterator {
+
+        /** Iterator over view entries. */
+        private final Iterator fEntries;
+
+        /** Next document entry. */
+        private DViewEntry fNext;
+
+        /**
+         * Creates a new iterator.
          *
-         * @throws IOException if the next page cannot be read
+         * @param entries iterator over view entries
          */
-        private void readNextPage(final String startKey) {
-            final String path = getDatabase().getFilePath();
-            try {
-                final String arguments;
-                if (startKey != null && startKey.length() > 0) {
-                    arguments = "StartKey=" + startKey;
-                } else {
-                    fStart = increase(fLastPosition);
-                    arguments = "Start=" + fStart + "&Count=" + DEFAULT_COUNT;
+        public DocumentIteratorHttp(final Iterator entries) {
+            fEntries = entries;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see Iterator#hasNext()
+         */
+        public boolean hasNext() {
+            while (fNext == null && fEntries.hasNext()) {
+                final DViewEntry entry = (DViewEntry) fEntries.next();
+                if (entry.isDocument()) {
+                    fNext = entry;
                 }
-                final String bs = execute(path + "/" + fName, "ReadViewEntries&expandview&" + arguments);
-                final SAXParser parser = getDSession().getFactory().getSAXParserFactory().newSAXParser();
-                final ViewEntriesParser viewEntriesParser = new ViewEntriesParser();
-                // TODO before parsing, check that answer is valid to parse as XML
-                // todo e.g. check if content-tyoe is XML
-                // todo e.g. check if it is a login form (has FORM tag with action arg containing 'Login'
-                parser.parse(new ByteArrayInputStream(bs.getBytes()), viewEntriesParser);
-                // todo catch parser exception here and signal error
-                fViewEntries = viewEntriesParser.getViewEntries();
-                if (fViewEntries.size() > 0) {
-                    DViewEntry viewEntry = (DViewEntry) fViewEntries.get(fViewEntries.size() - 1);
-                    fLastPosition = viewEntry.getPosition('.');
+            }
+            return fNext != null;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see Iterator#next()
+         */
+        public Object next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final DDocument document = fNext.getDocument();
+            fNext = null;
+            return document;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see Iterator#remove()
+         */
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Filter for view entries read by a {@link ViewEntryIteratorHttp}.
+     */
+    private interface EntryFilter {
+
+        /**
+         * Decides whether an entry is returned.
+         *
+         * @param entry a view entry
+         * @return one of {@link ViewHttp#ACCEPT}, {@link ViewHttp#SKIP} or {@link ViewHttp#STOP}
+         */
+        int accept(DViewEntry entry);
+    }
+
+    /**
+     * Base class of filters that match the column values of document entries.
+     * Category entries are never returned, but entries below a category
+     * without a value in the categorized column get the decision of the category.
+     */
+    private abstract static class ColumnFilter implements EntryFilter {
+
+        /** Index of the column compared first, usually the first sorted column. */
+        private final int fColumn;
+
+        /** Decision for the last entry with a value in the column. */
+        private int fLastDecision = SKIP;
+
+        /**
+         * Creates a new filter.
+         *
+         * @param column index of the column compared first
+         */
+        protected ColumnFilter(final int column) {
+            fColumn = column;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see EntryFilter#accept(DViewEntry)
+         */
+        public final int accept(final DViewEntry entry) {
+            final List values = entry.getColumnValues();
+            final Object value = getColumnValue(values, fColumn);
+            if (value != null) {
+                fLastDecision = decide(value, values);
+            }
+            if (fLastDecision == ACCEPT && entry.isCategory()) {
+                return SKIP;
+            }
+            return fLastDecision;
+        }
+
+        /**
+         * Decides whether an entry with the given column values is returned.
+         *
+         * @param value value of the column compared first, never <code>null</code>
+         * @param values all column values
+         * @return one of {@link ViewHttp#ACCEPT}, {@link ViewHttp#SKIP} or {@link ViewHttp#STOP}
+         */
+        protected abstract int decide(final Object value, final List values);
+    }
+
+    /**
+     * Filter for entries that match a list of keys, one key per sorted column.
+     */
+    private static final class KeyFilter extends ColumnFilter {
+
+        /** List of keys. */
+        private final List fKeys;
+
+        /** Whether keys must match exactly or as prefix. */
+        private final boolean fExact;
+
+        /** Indexes of the columns compared with the keys. */
+        private final int[] fColumns;
+
+        /**
+         * Creates a new filter.
+         *
+         * @param keys list of keys
+         * @param exact whether keys must match exactly or as prefix
+         * @param columns indexes of the sorted columns compared with the keys
+         */
+        public KeyFilter(final List keys, final boolean exact, final int[] columns) {
+            super(columns[0]);
+            fKeys = keys;
+            fExact = exact;
+            fColumns = columns;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see ColumnFilter#decide(Object, List)
+         */
+        protected int decide(final Object value, final List values) {
+            final int result = compareKey(value, fKeys.get(0), fExact);
+            if (result != 0) {
+                return result > 0 ? STOP : SKIP;
+            }
+            for (int i = 1; i < fKeys.size(); i++) {
+                final Object columnValue = getColumnValue(values, fColumns[i]);
+                if (columnValue != null && compareKey(columnValue, fKeys.get(i), fExact) != 0) {
+                    return SKIP;
                 }
-                fCachePosition  = 0;
-            } catch (IOException e) {
-                throw new NotesHttpRuntimeException(e);
-            } catch (ParserConfigurationException e) {
-                throw new NotesHttpRuntimeException(e);
-            } catch (SAXException e) {
-                throw new NotesHttpRuntimeException(e);
             }
+            return ACCEPT;
+        }
+    }
+
+    /**
+     * Filter for entries with a date in the first sorted column within a date range.
+     */
+    private static final class DateRangeFilter extends ColumnFilter {
+
+        /** Start of range in milliseconds. */
+        private final long fStart;
+
+        /** End of range in milliseconds. */
+        private final long fEnd;
+
+        /**
+         * Creates a new filter.
+         *
+         * @param start start of range
+         * @param end end of range
+         * @param column index of the first sorted column
+         */
+        public DateRangeFilter(final Calendar start, final Calendar end, final int column) {
+            super(column);
+            fStart = start.getTimeInMillis();
+            fEnd = end.getTimeInMillis();
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see ColumnFilter#decide(Object, List)
+         */
+        protected int decide(final Object value, final List values) {
+            final long millis = DateUtil.getMillis(value);
+            if (millis == DDocumentSnapshot.NO_DATE || millis < fStart) {
+                return SKIP;
+            }
+            return millis > fEnd ? STOP : ACCEPT;
+        }
+    }
+
+    /**
+     * Filter for entries with a value in the first sorted column that
+     * matches one of the keys of a range, up to the last key of the range.
+     * The entries of the last matching key are available to the caller.
+     */
+    private static final class RangeFilter extends ColumnFilter {
+
+        /** Map of normalized keys to lists of entries. */
+        private final Map fIndex;
+
+        /** Last key of the range. */
+        private final Object fLast;
+
+        /** Entries of the key matched last, or <code>null</code>. */
+        private List fEntries;
+
+        /**
+         * Creates a new filter.
+         *
+         * @param index map of normalized keys to lists of entries
+         * @param last last key of the range
+         * @param column index of the first sorted column
+         */
+        public RangeFilter(final Map index, final Object last, final int column) {
+            super(column);
+            fIndex = index;
+            fLast = last;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see ColumnFilter#decide(Object, List)
+         */
+        protected int decide(final Object value, final List values) {
+            if (compareKey(value, fLast, true) > 0) {
+                return STOP;
+            }
+            if (fLast instanceof Calendar) {
+                fEntries = (List) fIndex.get(new Long(DateUtil.getMillis(value)));
+            } else {
+                fEntries = (List) fIndex.get(normalizeKey(value));
+            }
+            return fEntries == null ? SKIP : ACCEPT;
+        }
+
+        /**
+         * Returns the entries of the key matched last.
+         *
+         * @return list of entries, or <code>null</code> if the last value matched no key
+         */
+        public List getEntries() {
+            return fEntries;
+        }
+    }
+
+    /**
+     * Filter for category entries up to a given indent level.
+     */
+    private static final class CategoryFilter implements EntryFilter {
+
+        /** Maximum indent level. */
+        private final int fLevel;
+
+        /**
+         * Creates a new filter.
+         *
+         * @param level maximum indent level
+         */
+        public CategoryFilter(final int level) {
+            fLevel = level;
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see EntryFilter#accept(DViewEntry)
+         */
+        public int accept(final DViewEntry entry) {
+            return entry.isCategory() && entry.getIndentLevel() <= fLevel ? ACCEPT : SKIP;
+        }
+    }
+
+    /**
+     * Returns an iterator over all entries matching a list of keys. The first
+     * key is passed to the server as <tt>StartKey</tt>, text keys additionally
+     * as <tt>UntilKey</tt>, so that only the matching range of the view is read.
+     *
+     * @param keys list of keys, one key per sorted column
+     * @param exact whether keys must match exactly or as prefix
+     * @param count number of entries to read with one request
+     * @return iterator over matching entries
+     */
+    private Iterator getEntriesByKey(final List keys, final boolean exact, final int count) {
+        if (keys == null || keys.size() == 0) {
+            throw new IllegalArgumentException("At least one key is required");
+        }
+        final Object key = keys.get(0);
+        final String firstPage = "StartKey=" + encode(formatKey(key));
+        final KeyFilter filter = new KeyFilter(keys, exact, getSortedColumns(keys.size()));
+        if (key instanceof Calendar) {
+            return new ViewEntryIteratorHttp(EXPAND_VIEW, firstPage + "&KeyType=time", "", filter, count);
+        } else if (key instanceof Number) {
+            return new ViewEntryIteratorHttp(EXPAND_VIEW, firstPage + "&KeyType=number", "", filter, count);
+        }
+        final String until = "&UntilKey=" + encode(formatKey(key) + '\uffff');
+        return new ViewEntryIteratorHttp(EXPAND_VIEW, firstPage + until, until, filter, count);
+    }
+
+    /**
+     * Returns the indexes of the sorted columns of the view, which the server
+     * compares with the keys of a lookup. If the view has fewer sorted
+     * columns than keys, the following columns are used.
+     *
+     * @param count number of keys
+     * @return zero-based indexes of the columns to compare with the keys
+     */
+    private int[] getSortedColumns(final int count) {
+        final int[] columns = new int[count];
+        final List designColumns = getDesign().getColumns();
+        int n = 0;
+        for (int i = 0; i < designColumns.size() && n < count; i++) {
+            if (((DViewColumn) designColumns.get(i)).isSorted()) {
+                columns[n++] = i;
+            }
+        }
+        for (; n < count; n++) {
+            columns[n] = n == 0 ? 0 : columns[n - 1] + 1;
+        }
+        return columns;
+    }
+
+    /**
+     * Returns the value of a column of a view entry. Multiple values are
+     * reduced to the first value, empty values are returned as <code>null</code>.
+     *
+     * @param values column values of a view entry
+     * @param index index of column
+     * @return column value or <code>null</code>
+     */
+    private static Object getColumnValue(final List values, final int index) {
+        if (values == null || index >= values.size()) {
+            return null;
+        }
+        Object value = values.get(index);
+        if (value instanceof List) {
+            value = ((List) value).size() > 0 ? ((List) value).get(0) : null;
+        }
+        if (value == null || "".equals(value)) {
+            return null;
+        }
+        return value;
+    }
+
+    /**
+     * Compares a column value with a key.
+     *
+     * @param value a column value
+     * @param key a key
+     * @param exact whether text keys must match exactly or as prefix
+     * @return <tt>0</tt> if the value matches the key, a positive number if
+     *         the value is a number or date greater than the key and a
+     *         negative number otherwise
+     */
+    private static int compareKey(final Object value, final Object key, final boolean exact) {
+        if (key instanceof Calendar) {
+            final long millis = DateUtil.getMillis(value);
+            final long keyMillis = ((Calendar) key).getTimeInMillis();
+            if (millis == DDocumentSnapshot.NO_DATE) {
+                return -1;
+            }
+            return millis < keyMillis ? -1 : (millis == keyMillis ? 0 : 1);
+        } else if (key instanceof Number) {
+            if (!(value instanceof Number)) {
+                return -1;
+            }
+            final double number = ((Number) value).doubleValue();
+            final double keyNumber = ((Number) key).doubleValue();
+            return number < keyNumber ? -1 : (number == keyNumber ? 0 : 1);
+        }
+        // text is not compared, the sort order of the server is not known
+        final String text = value.toString().toLowerCase();
+        final String prefix = String.valueOf(key).toLowerCase();
+        return (exact ? text.equals(prefix) : text.startsWith(prefix)) ? 0 : -1;
+    }
+
+    /**
+     * Formats a key as expected by the <tt>StartKey</tt> argument.
+     *
+     * @param key a key
+     * @return formatted key
+     */
+    private static String formatKey(final Object key) {
+        if (key instanceof Calendar) {
+            final SimpleDateFormat format = new SimpleDateFormat(KEY_DATE_FORMAT);
+            format.setTimeZone(((Calendar) key).getTimeZone());
+            return format.format(((Calendar) key).getTime());
+        } else if (key instanceof Number) {
+            final double number = ((Number) key).doubleValue();
+            if (number == Math.floor(number) && !Double.isInfinite(number)) {
+                return String.valueOf((long) number);
+            }
+            return String.valueOf(number);
+        }
+        return String.valueOf(key);
+    }
+
+    /**
+     * Reads view entries with the <tt>ReadViewEntries</tt> command. Concurrent
+     * identical reads share one request, but each caller parses the response
+     * itself, so that the entries belong to this view and its session.
+     *
+     * @param arguments URL arguments, e.g. <tt>ExpandView&amp;Start=1&amp;Count=50</tt>
+     * @return list of view entries
+     */
+    private List readViewEntries(final String arguments) {
+        final SessionHttp session = getDSession();
+        final ResponseCodec codec = session.getViewEntriesCodec();
+        final String pathInfo = getDatabase().getFilePath() + "/" + fName + "?ReadViewEntries&" + arguments
+                + codec.getFormatArgument();
+        try {
+            final String bs = executeUrl(pathInfo);
+            final ViewEntriesParser viewEntriesParser = new ViewEntriesParser();
+            session.parse(codec, bs, "viewentries", viewEntriesParser);
+            final List entries = viewEntriesParser.getViewEntries();
+            return entries == null ? Collections.EMPTY_LIST : entries;
+        } catch (IOException e) {
+            throw new NotesHttpRuntimeException(e);
+        } catch (SAXException e) {
+            throw new NotesHttpRuntimeException(e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The keys are grouped by type and sorted. Ranges of up to
+     * {@link #LOOKUP_RANGE_SIZE} consecutive keys are read with one
+     * <tt>ReadViewEntries</tt> request each, starting at the first key with
+     * the <tt>StartKey</tt> argument and the <tt>KeyType</tt> of the keys.
+     * Ranges of text end at the <tt>UntilKey</tt> of the last key, ranges of
+     * numbers and dates at the first greater value. Entries are matched by
+     * the value of the first sorted column. Keys that are equal except for
+     * the case of text or the type of numbers are looked up once.</p>
+     *
+     * <p>As the sort order of text on the server is not known, text keys
+     * without entries in their range are looked up again one by one. If a
+     * range has more than {@link #LOOKUP_SCAN_RATIO} entries per key, the
+     * keys whose entries were not read completely are looked up one by one,
+     * too.</p>
+     *
+     * @see DView#lookupAll(java.util.Collection)
+     */
+    public Map lookupAll(final Collection keys) {
+        final Map lookups = new HashMap();
+        final Map keysByType = new HashMap();
+        Iterator iterator = keys.iterator();
+        while (iterator.hasNext()) {
+            final Object key = iterator.next();
+            final Object normalizedKey = normalizeKey(key);
+            if (!lookups.containsKey(normalizedKey)) {
+                lookups.put(normalizedKey, new ArrayList());
+                final String keyType = getKeyType(key);
+                List sameType = (List) keysByType.get(keyType);
+                if (sameType == null) {
+                    sameType = new ArrayList();
+                    keysByType.put(keyType, sameType);
+                }
+                sameType.add(key);
+            }
+        }
+        iterator = keysByType.values().iterator();
+        while (iterator.hasNext()) {
+            final List sameType = (List) iterator.next();
+            Collections.sort(sameType, KEY_ORDER);
+            for (int i = 0; i < sameType.size(); i += LOOKUP_RANGE_SIZE) {
+                lookupRange(sameType.subList(i, Math.min(i + LOOKUP_RANGE_SIZE, sameType.size())), lookups);
+            }
+        }
+        final Map result = new LinkedHashMap();
+        iterator = keys.iterator();
+        while (iterator.hasNext()) {
+            final Object key = iterator.next();
+            if (!result.containsKey(key)) {
+                result.put(key, new ArrayList((List) lookups.get(normalizeKey(key))));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the entries of a range of sorted keys of the same type with one
+     * request and looks up the keys one by one whose entries may be missing.
+     *
+     * @param keys sorted keys of the same type
+     * @param lookups map of normalized keys to lists of entries to fill
+     */
+    private void lookupRange(final List keys, final Map lookups) {
+        final Object last = keys.get(keys.size() - 1);
+        final String keyType = getKeyType(last);
+        final int count = keys.size() * LOOKUP_SCAN_RATIO;
+        String arguments = EXPAND_VIEW + "&StartKey=" + encode(formatKey(keys.get(0))) + "&Count=" + count;
+        if (KEY_TYPE_TEXT.equals(keyType)) {
+            arguments += "&UntilKey=" + encode(formatKey(last) + '\uffff');
+        } else {
+            arguments += "&KeyType=" + keyType;
+        }
+        final Map index = new HashMap();
+        for (int i = 0; i < keys.size(); i++) {
+            final Object normalizedKey = normalizeKey(keys.get(i));
+            index.put(normalizedKey, lookups.get(normalizedKey));
+        }
+        final RangeFilter filter = new RangeFilter(index, last, getSortedColumns(1)[0]);
+        final List entries = readViewEntries(arguments);
+        boolean stopped = false;
+        for (int i = 0; i < entries.size() && !stopped; i++) {
+            final DViewEntry entry = (DViewEntry) entries.get(i);
+            final int decision = filter.accept(entry);
+            if (decision == ACCEPT) {
+                filter.getEntries().add(entry);
+            }
+            stopped = decision == STOP;
+        }
+        final boolean complete = stopped || entries.size() < count;
+        if (!complete && filter.getEntries() != null) {
+            // the entries of the last key read may continue after the range
+            filter.getEntries().clear();
+        }
+        if (complete && !KEY_TYPE_TEXT.equals(keyType)) {
+            return;
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            final List keyEntries = (List) index.get(normalizeKey(keys.get(i)));
+            if (keyEntries.isEmpty()) {
+                final Iterator matches = getEntriesByKey(Collections.singletonList(keys.get(i)), true, DEFAULT_COUNT);
+                while (matches.hasNext()) {
+                    keyEntries.add(matches.next());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the <tt>KeyType</tt> argument of a key.
+     *
+     * @param key a key
+     * @return one of <tt>text</tt>, <tt>number</tt> and <tt>time</tt>
+     */
+    private static String getKeyType(final Object key) {
+        if (key instanceof Calendar) {
+            return KEY_TYPE_TIME;
+        } else if (key instanceof Number) {
+            return KEY_TYPE_NUMBER;
+        }
+        return KEY_TYPE_TEXT;
+    }
+
+    /**
+     * Normalizes a key, so that keys matching the same entries are equal.
+     *
+     * @param key a key
+     * @return lower-case text, a <tt>Double</tt> or the milliseconds of a calendar
+     */
+    private static Object normalizeKey(final Object key) {
+        if (key instanceof Calendar) {
+            return new Long(((Calendar) key).getTimeInMillis());
+        } else if (key instanceof Number) {
+            return new Double(((Number) key).doubleValue());
+        }
+        return String.valueOf(key).toLowerCase();
+    }
+
+    /**
+     * URL-encodes a view key.
+     *
+     * @param key a key
+     * @return encoded key
+     */
+    private static String encode(final String key) {
+        try {
+            return URLEncoder.encode(key, "UTF-8").replaceAll("\\+", "%20");
+        } catch (UnsupportedEncodingException e) {
+            throw new NotesHttpRuntimeException(e);
         }
     }
 
@@ -457,8 +1139,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getEntryByKey(String)
      */
     public DViewEntry getEntryByKey(final String key) {
-        // TODO Auto-generated method stub
-        return null;
+        return getEntryByKey(key, false);
     }
 
     /**
@@ -467,8 +1148,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getEntryByKey(String, boolean)
      */
     public DViewEntry getEntryByKey(final String key, final boolean exact) {
-        // TODO Auto-generated method stub
-        return null;
+        return getEntryByKey(Collections.singletonList(key), exact);
     }
 
     /**
@@ -477,8 +1157,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getEntryByKey(List)
      */
     public DViewEntry getEntryByKey(final List keys) {
-        // TODO Auto-generated method stub
-        return null;
+        return getEntryByKey(keys, false);
     }
 
     /**
@@ -487,8 +1166,8 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getEntryByKey(List, boolean)
      */
     public DViewEntry getEntryByKey(final List keys, final boolean exact) {
-        // TODO Auto-generated method stub
-        return null;
+        final Iterator entries = getEntriesByKey(keys, exact, ENTRY_COUNT);
+        return entries.hasNext() ? (DViewEntry) entries.next() : null;
     }
 
     /**
@@ -497,8 +1176,10 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getAllEntries(DViewEntry)
      */
     public Iterator getAllEntries(final DViewEntry entry) {
-        // TODO Auto-generated method stub
-        return null;
+        if (entry == null) {
+            return Collections.EMPTY_LIST.iterator();
+        }
+        return new ViewEntryIteratorHttp(EXPAND_VIEW, "Start=" + entry.getPosition('.'), "", null, DEFAULT_COUNT);
     }
 
     /**
@@ -507,7 +1188,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getAllEntriesByKey(String)
      */
     public Iterator getAllEntriesByKey(final String key) {
-        return new ViewEntryIteratorHttp(key);
+        return getAllEntriesByKey(key, false);
     }
 
     /**
@@ -516,8 +1197,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getAllEntriesByKey(String, boolean)
      */
     public Iterator getAllEntriesByKey(final String key, final boolean exact) {
-        // TODO Auto-generated method stub
-        return null;
+        return getAllEntriesByKey(Collections.singletonList(key), exact);
     }
 
     /**
@@ -526,8 +1206,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getAllEntriesByKey(List)
      */
     public Iterator getAllEntriesByKey(final List key) {
-        // TODO Auto-generated method stub
-        return null;
+        return getAllEntriesByKey(key, false);
     }
 
     /**
@@ -536,8 +1215,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getAllEntriesByKey(List, boolean)
      */
     public Iterator getAllEntriesByKey(final List key, final boolean exact) {
-        // TODO Auto-generated method stub
-        return null;
+        return getEntriesByKey(key, exact, DEFAULT_COUNT);
     }
 
     /**
@@ -546,8 +1224,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getAllCategories()
      */
     public Iterator getAllCategories() {
-        // TODO Auto-generated method stub
-        return null;
+        return getAllCategories(0);
     }
 
     /**
@@ -556,8 +1233,8 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getAllCategories(int)
      */
     public Iterator getAllCategories(final int level) {
-        // TODO Auto-generated method stub
-        return null;
+        final String mode = level == 0 ? COLLAPSE_VIEW : EXPAND_VIEW;
+        return new ViewEntryIteratorHttp(mode, "Start=1", "", new CategoryFilter(level), DEFAULT_COUNT);
     }
 
     /**
@@ -567,8 +1244,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @deprecated
      */
     public Iterator getAllCategoriesByKey(final String key) {
-        // TODO Auto-generated method stub
-        return null;
+        return getAllCategoriesByKey(key, 0, false);
     }
 
     /**
@@ -578,8 +1254,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @deprecated
      */
     public Iterator getAllCategoriesByKey(final String key, final int level) {
-        // TODO Auto-generated method stub
-        return null;
+        return getAllCategoriesByKey(key, level, false);
     }
 
     /**
@@ -589,8 +1264,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @deprecated
      */
     public Iterator getAllCategoriesByKey(final String key, final boolean exact) {
-        // TODO Auto-generated method stub
-        return null;
+        return getAllCategoriesByKey(key, 0, exact);
     }
 
     /**
@@ -600,8 +1274,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @deprecated
      */
     public Iterator getAllCategoriesByKey(final String key, final int level, final boolean exact) {
-        // TODO Auto-generated method stub
-        return null;
+        return getAllCategoriesByKey(Collections.singletonList(key), level, exact);
     }
 
     /**
@@ -611,8 +1284,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @deprecated
      */
     public Iterator getAllCategoriesByKey(final List key) {
-        // TODO Auto-generated method stub
-        return null;
+        return getAllCategoriesByKey(key, 0, false);
     }
 
     /**
@@ -622,8 +1294,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @deprecated
      */
     public Iterator getAllCategoriesByKey(final List key, final int level) {
-        // TODO Auto-generated method stub
-        return null;
+        return getAllCategoriesByKey(key, level, false);
     }
 
     /**
@@ -633,8 +1304,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @deprecated
      */
     public Iterator getAllCategoriesByKey(final List key, final boolean exact) {
-        // TODO Auto-generated method stub
-        return null;
+        return getAllCategoriesByKey(key, 0, exact);
     }
 
     /**
@@ -644,8 +1314,16 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @deprecated
      */
     public Iterator getAllCategoriesByKey(final List key, final int level, final boolean exact) {
-        // TODO Auto-generated method stub
-        return null;
+        final StringBuffer category = new StringBuffer();
+        for (int i = 0; i < key.size(); i++) {
+            if (i > 0) {
+                category.append('\\');
+            }
+            category.append(formatKey(key.get(i)));
+        }
+        final String restriction = "&RestrictToCategory=" + encode(category.toString());
+        return new ViewEntryIteratorHttp(EXPAND_VIEW, "Start=1" + restriction, restriction,
+                new CategoryFilter(level), DEFAULT_COUNT);
     }
 
     /**
@@ -701,8 +1379,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getColumn(int)
      */
     public DViewColumn getColumn(final int i) {
-        // TODO Auto-generated method stub
-        return null;
+        return getDesign().getColumn(i);
     }
 
     /**
@@ -710,8 +1387,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getColumnCount()
      */
     public int getColumnCount() {
-        // TODO Auto-generated method stub
-        return 0;
+        return getDesign().getColumnCount();
     }
 
     /**
@@ -719,8 +1395,7 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getColumnNames()
      */
     public List getColumnNames() {
-        // TODO Auto-generated method stub
-        return null;
+        return getDesign().getColumnNames();
     }
 
     /**
@@ -728,8 +1403,141 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getColumns()
      */
     public List getColumns() {
-        // TODO Auto-generated method stub
-        return null;
+        return getDesign().getColumns();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * <p>The design is read once with the <tt>ReadDesign</tt> command, which
+     * only returns the basic attributes of the columns. The universal ID,
+     * aliases, selection formula and modification date of the view are not
+     * available over HTTP.</p>
+     *
+     * @see DView#getDesign()
+     */
+    public DViewDesign getDesign() {
+        if (fDesign == null) {
+            final SessionHttp session = getDSession();
+            final String pathInfo = getDatabase().getFilePath() + "/" + fName + "?ReadDesign";
+            try {
+                final String bs = executeUrl(pathInfo);
+                final ViewDesignParser parser = new ViewDesignParser();
+                session.parse(session.getXmlCodec(), bs, "viewdesign", parser);
+                fDesign = parser.getDesign();
+            } catch (IOException e) {
+                throw new NotesHttpRuntimeException(e);
+            } catch (SAXException e) {
+                throw new NotesHttpRuntimeException(e);
+            }
+        }
+        return fDesign;
+    }
+
+    /**
+     * Parser for the response of the <tt>ReadDesign</tt> command.
+     */
+    private final class ViewDesignParser extends DefaultHandler {
+
+        /** Parsed columns. */
+        private final List fColumns = new ArrayList();
+
+        /** Combination of view flags. */
+        private int fFlags = 0;
+
+        /**
+         * @see org.xml.sax.ContentHandler#startElement(java.lang.String,
+         *      java.lang.String, java.lang.String, org.xml.sax.Attributes)
+         */
+        public void startElement(final String namespaceURI, final String localName, final String qName,
+                final Attributes atts) {
+            if (!"column".equals(qName)) {
+                return;
+            }
+            int flags = 0;
+            if (isTrue(atts, "sortcategorize")) {
+                flags |= ViewColumnDesign.SORTED | ViewColumnDesign.CATEGORY;
+                fFlags |= ViewDesign.CATEGORIZED;
+            }
+            if (isTrue(atts, "sortascending")) {
+                flags |= ViewColumnDesign.SORTED;
+            }
+            if (isTrue(atts, "sortdescending")) {
+                flags |= ViewColumnDesign.SORTED | ViewColumnDesign.SORT_DESCENDING;
+            }
+            if (isTrue(atts, "response")) {
+                flags |= ViewColumnDesign.RESPONSE;
+                fFlags |= ViewDesign.HIERARCHICAL;
+            }
+            if (isTrue(atts, "hidden")) {
+                flags |= ViewColumnDesign.HIDDEN;
+            }
+            if (isTrue(atts, "twistie")) {
+                flags |= ViewColumnDesign.SHOW_TWISTIE;
+            }
+            if (isTrue(atts, "resortascending")) {
+                flags |= ViewColumnDesign.RESORT_ASCENDING;
+            }
+            if (isTrue(atts, "resortdescending")) {
+                flags |= ViewColumnDesign.RESORT_DESCENDING;
+            }
+            fColumns.add(new ViewColumnDesign(fColumns.size() + 1, atts.getValue("title"), atts.getValue("name"),
+                    parseWidth(atts.getValue("width")), parseListSep(atts.getValue("listseparator")), flags));
+        }
+
+        /**
+         * Returns the parsed design. Only call this method after parsing is
+         * completed.
+         *
+         * @return design of the view
+         */
+        public DViewDesign getDesign() {
+            return new ViewDesign(fName, null, null, null, 0, fFlags, fColumns);
+        }
+
+        /**
+         * Checks if a boolean attribute is <tt>true</tt>.
+         *
+         * @param atts attributes of an element
+         * @param name name of the attribute
+         * @return <code>true</code> if the attribute is <tt>true</tt>
+         */
+        private boolean isTrue(final Attributes atts, final String name) {
+            return "true".equalsIgnoreCase(atts.getValue(name));
+        }
+
+        /**
+         * Parses the width of a column.
+         *
+         * @param width width attribute
+         * @return width, <tt>0</tt> if unknown
+         */
+        private int parseWidth(final String width) {
+            try {
+                return width == null ? 0 : Integer.parseInt(width);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        /**
+         * Parses the list separator of a column.
+         *
+         * @param separator list separator attribute, e.g. <tt>comma</tt>
+         * @return one of the <code>SEP_*</code> constants of {@link DViewColumn}
+         */
+        private int parseListSep(final String separator) {
+            if ("space".equals(separator)) {
+                return DViewColumn.SEP_SPACE;
+            } else if ("comma".equals(separator)) {
+                return DViewColumn.SEP_COMMA;
+            } else if ("semicolon".equals(separator)) {
+                return DViewColumn.SEP_SEMICOLON;
+            } else if ("newline".equals(separator)) {
+                return DViewColumn.SEP_NEWLINE;
+            }
+            return DViewColumn.SEP_NONE;
+        }
     }
 
     /**
@@ -737,7 +1545,8 @@ public final class ViewHttp extends BaseHttp implements DView {
      * @see DView#getAllEntriesByKey(java.util.Calendar, java.util.Calendar, boolean)
      */
     public Iterator getAllEntriesByKey(final Calendar start, final Calendar end, final boolean exact) {
-        // TODO Auto-generated method stub
-        return null;
+        final String arguments = "StartKey=" + encode(formatKey(start)) + "&KeyType=time";
+        final DateRangeFilter filter = new DateRangeFilter(start, end, getSortedColumns(1)[0]);
+        return new ViewEntryIteratorHttp(EXPAND_VIEW, arguments, "", filter, DEFAULT_COUNT);
     }
 }
@@ -0,0 +1,104 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.http;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Codec for XML responses, the default format of Domino URL commands.
+ */
+public final class XmlResponseCodec implements ResponseCodec {
+
+    /** SAX parser factory. */
+    private final SAXParserFactory fFactory;
+
+    /**
+     * Creates a new XML codec.
+     *
+     * @param factory SAX parser factory
+     */
+    public XmlResponseCodec(final SAXParserFactory factory) {
+        fFactory = factory;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see ResponseCodec#getFormatArgument()
+     */
+    public String getFormatArgument() {
+        return "";
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see ResponseCodec#accepts(java.lang.String)
+     */
+    public boolean accepts(final String response) {
+        return firstCharacter(response) == '<';
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see ResponseCodec#parse(java.lang.String, java.lang.String, org.xml.sax.helpers.DefaultHandler)
+     */
+    public void parse(final String response, final String rootElement, final DefaultHandler handler)
+            throws IOException, SAXException {
+        try {
+            // TODO before parsing, check that answer is valid to parse as XML
+            // todo e.g. check if it is a login form (has FORM tag with action arg containing 'Login'
+            // the response is already decoded, so it is read as characters
+            fFactory.newSAXParser().parse(new InputSource(new StringReader(response)), handler);
+        } catch (ParserConfigurationException e) {
+            throw new SAXException(e);
+        }
+    }
+
+    /**
+     * Returns the first non-whitespace character of a response.
+     *
+     * @param response a response
+     * @return first non-whitespace character or <tt>0</tt> if the response is empty
+     */
+    static char firstCharacter(final String response) {
+        for (int i = 0; i < response.length(); i++) {
+            final char c = response.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                return c;
+            }
+        }
+        return 0;
+    }
+}
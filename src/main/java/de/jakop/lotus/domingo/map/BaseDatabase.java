@@ -23,15 +23,21 @@
 
 package de.jakop.lotus.domingo.map;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 
 import de.jakop.lotus.domingo.DDatabase;
 import de.jakop.lotus.domingo.DDocument;
 import de.jakop.lotus.domingo.DNotesException;
 import de.jakop.lotus.domingo.DNotesFactory;
+import de.jakop.lotus.domingo.DNotesRuntimeException;
 import de.jakop.lotus.domingo.DSession;
 import de.jakop.lotus.domingo.DViewEntry;
+import de.jakop.lotus.domingo.mock.MockDocument;
+import de.jakop.lotus.domingo.pool.SessionPool;
 
 /**
  * Abstract base class for concrete databases.
@@ -48,6 +54,12 @@ public abstract class BaseDatabase {
 
     private Map persistence = new HashMap();
 
+    /** Pool the session was borrowed from or <code>null</code>. */
+    private SessionPool mSessionPool;
+
+    /** Session borrowed from the pool or <code>null</code>. */
+    private DSession mPooledSession;
+
     /**
      * Constructor.
      *
@@ -85,6 +97,33 @@ public abstract class BaseDatabase {
         registerMappers();
     }
 
+    /**
+     * Constructor.
+     *
+     * <p>The session is borrowed from a session pool and must be given back
+     * by calling {@link #close()} when the database is no longer needed.</p>
+     *
+     * @param pool a session pool
+     * @param location location of database.
+     * @throws DNotesException if the uri is invalid or the database cannot be
+     *             opened
+     */
+    public BaseDatabase(final SessionPool pool, final NotesLocation location) throws DNotesException {
+        final DSession session = pool.borrowSession(location);
+        try {
+            initDatabase(session, location);
+            registerMappers();
+        } catch (DNotesException e) {
+            pool.returnSession(session);
+            throw e;
+        } catch (RuntimeException e) {
+            pool.invalidateSession(session);
+            throw e;
+        }
+        mSessionPool = pool;
+        mPooledSession = session;
+    }
+
     /**
      * Constructor.
      *
@@ -118,6 +157,21 @@ public abstract class BaseDatabase {
         }
     }
 
+    /**
+     * Returns the session to the session pool if the database was created
+     * with a session pool; does nothing otherwise. The database must not be
+     * used after closing.
+     */
+    public final void close() {
+        if (mSessionPool != null) {
+            final SessionPool pool = mSessionPool;
+            mSessionPool = null;
+            mDatabase = null;
+            pool.returnSession(mPooledSession);
+            mPooledSession = null;
+        }
+    }
+
     /**
      * Initializes the database.
      */
@@ -190,6 +244,43 @@ public abstract class BaseDatabase {
         document.save(true, false);
     }
 
+    /**
+     * Saves a list of new business objects with a single call to the
+     * database.
+     *
+     * <p>The objects are mapped to in-memory documents first, then all
+     * documents are created with {@link DDatabase#createDocuments(List)}. A
+     * failure of a single object doesn't affect the other objects.</p>
+     *
+     * @param objects list of business objects
+     * @return list with one element per object, either the universal ID of
+     *         the new document or the <code>RuntimeException</code> that
+     *         prevented the object from being saved
+     * @see de.jakop.lotus.domingo.util.BulkWriter
+     */
+    public final List saveAll(final List objects) {
+        final List results = new ArrayList(objects.size());
+        final List itemMaps = new ArrayList(objects.size());
+        for (int i = 0; i < objects.size(); i++) {
+            final Object object = objects.get(i);
+            final MockDocument document = new MockDocument();
+            try {
+                mapperFactory.getInstanceMapper(object.getClass()).map(object, document);
+                itemMaps.add(document.getItemValues());
+                results.add(null);
+            } catch (MappingException e) {
+                results.add(new DNotesRuntimeException("Cannot map object " + object, e));
+            }
+        }
+        final Iterator created = mDatabase.createDocuments(itemMaps).iterator();
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) {
+                results.set(i, created.next());
+            }
+        }
+        return results;
+    }
+
     /**
      * Maps a business object to a domingo document.
      *
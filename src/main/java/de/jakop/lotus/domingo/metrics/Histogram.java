@@ -0,0 +1,195 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of non negative long values with log-linear buckets.
+ *
+ * <p>Like a HDR histogram, each power of two range is split into
+ * {@link #SUB_BUCKETS} linear sub buckets, so every recorded value is
+ * reproduced with a relative error of at most 1/{@link #SUB_BUCKETS},
+ * independent of its magnitude. The memory footprint is fixed and recording
+ * a value never allocates or locks.</p>
+ */
+public final class Histogram {
+
+    /** Number of bits used for the linear sub buckets. */
+    private static final int SUB_BUCKET_BITS = 4;
+
+    /** Number of linear sub buckets per power of two. */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** Total number of buckets, enough for all positive long values. */
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    /** Percentage base. */
+    private static final double HUNDRED = 100.0;
+
+    /** Counts per bucket. */
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    /** Number of recorded values. */
+    private final StripedCounter count = new StripedCounter();
+
+    /** Sum of all recorded values. */
+    private final StripedCounter total = new StripedCounter();
+
+    /** Largest recorded value. */
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a value. Negative values are recorded as zero.
+     *
+     * @param value the value to record
+     */
+    public void record(final long value) {
+        final long v = value < 0 ? 0 : value;
+        buckets.incrementAndGet(getBucketIndex(v));
+        count.increment();
+        total.add(v);
+        long current = max.get();
+        while (v > current) {
+            if (max.compareAndSet(current, v)) {
+                break;
+            }
+            current = max.get();
+        }
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return number of values
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Returns the sum of all recorded values.
+     *
+     * @return sum of values
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return maximum value or <code>0</code> if no value was recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the arithmetic mean of all recorded values.
+     *
+     * @return mean value or <code>0</code> if no value was recorded
+     */
+    public double getMean() {
+        final long n = getCount();
+        if (n == 0) {
+            return 0;
+        }
+        return (double) getTotal() / n;
+    }
+
+    /**
+     * Returns an upper bound of the value below which the given percentage
+     * of all recorded values fall.
+     *
+     * @param percentile percentile between <code>0</code> and <code>100</code>
+     * @return value at the percentile or <code>0</code> if no value was recorded
+     */
+    public long getValueAtPercentile(final double percentile) {
+        long n = 0;
+        final long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            n += counts[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+        final double p = Math.min(Math.max(percentile, 0), HUNDRED);
+        final long target = Math.max(1, (long) Math.ceil(p / HUNDRED * n));
+        long cumulated = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            cumulated += counts[i];
+            if (cumulated >= target) {
+                return Math.min(getBucketUpperBound(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Resets the histogram.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        total.reset();
+        max.set(0);
+    }
+
+    /**
+     * Returns the index of the bucket of a non negative value.
+     *
+     * @param value the value
+     * @return bucket index
+     */
+    static int getBucketIndex(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = magnitude - SUB_BUCKET_BITS;
+        final int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+        return (shift + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the largest value that is counted in a bucket.
+     *
+     * @param index bucket index
+     * @return upper bound of the bucket
+     */
+    static long getBucketUpperBound(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int shift = index / SUB_BUCKETS - 1;
+        final long subBucket = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
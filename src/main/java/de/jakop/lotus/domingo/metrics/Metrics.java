@@ -0,0 +1,177 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Global access to the metrics of domingo.
+ *
+ * <p>The default registry is registered at the platform MBean server with
+ * the object name {@link #OBJECT_NAME}. Recording can be disabled with
+ * the system property <code>de.jakop.lotus.domingo.metrics=false</code>
+ * or at runtime via JMX.</p>
+ *
+ * <p>The following names are used:</p>
+ * <ul>
+ * <li><code>service.&lt;interface&gt;.&lt;method&gt;</code> - timer per interface method</li>
+ * <li><code>http.&lt;command&gt;</code> - timer per URL command of the HTTP implementation</li>
+ * <li><code>threadpool.queueWait</code> - timer of the time tasks wait in the thread pool queue</li>
+ * <li><code>recycle.&lt;type&gt;</code> - counter of recycled Notes objects per type</li>
+ * <li><code>live.&lt;type&gt;</code> - gauge of live proxies holding a Notes handle per type</li>
+ * </ul>
+ */
+public final class Metrics {
+
+    /** JMX object name of the default registry. */
+    public static final String OBJECT_NAME = "de.jakop.lotus.domingo:type=Metrics";
+
+    /** Name of the system property to disable metrics. */
+    public static final String ENABLED_PROPERTY = "de.jakop.lotus.domingo.metrics";
+
+    /** Name of the thread pool queue wait timer. */
+    public static final String QUEUE_WAIT = "threadpool.queueWait";
+
+    /** The default registry. */
+    private static final MetricsRegistry REGISTRY = new MetricsRegistry();
+
+    /** Timers by method. */
+    private static final ConcurrentMap METHOD_TIMERS = new ConcurrentHashMap();
+
+    /** Recycle counters by class. */
+    private static final ConcurrentMap RECYCLE_COUNTERS = new ConcurrentHashMap();
+
+    /** Live gauges by class. */
+    private static final ConcurrentMap LIVE_GAUGES = new ConcurrentHashMap();
+
+    static {
+        REGISTRY.setEnabled(!"false".equalsIgnoreCase(System.getProperty(ENABLED_PROPERTY)));
+        registerMBean();
+    }
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private Metrics() {
+    }
+
+    /**
+     * Registers the default registry at the platform MBean server.
+     * Any error, e.g. missing permissions or an already registered registry
+     * from another class loader, is ignored.
+     */
+    private static void registerMBean() {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(REGISTRY, name);
+            }
+        } catch (Exception e) {
+            // metrics are still available via getRegistry()
+        } catch (LinkageError e) {
+            // JMX not available
+        }
+    }
+
+    /**
+     * Returns the default registry.
+     *
+     * @return default registry
+     */
+    public static MetricsRegistry getRegistry() {
+        return REGISTRY;
+    }
+
+    /**
+     * Indicates whether metrics are recorded.
+     *
+     * @return <code>true</code> if metrics are recorded, else <code>false</code>
+     */
+    public static boolean isEnabled() {
+        return REGISTRY.isEnabled();
+    }
+
+    /**
+     * Returns the timer with the given name.
+     *
+     * @param name name of the timer
+     * @return timer
+     */
+    public static Timer timer(final String name) {
+        return REGISTRY.timer(name);
+    }
+
+    /**
+     * Returns the timer of an interface method.
+     *
+     * @param method the method
+     * @return timer
+     */
+    public static Timer timer(final Method method) {
+        Timer timer = (Timer) METHOD_TIMERS.get(method);
+        if (timer == null) {
+            timer = REGISTRY.timer("service." + method.getDeclaringClass().getSimpleName() + "." + method.getName());
+            METHOD_TIMERS.putIfAbsent(method, timer);
+        }
+        return timer;
+    }
+
+    /**
+     * Returns the counter of recycled objects of a class.
+     *
+     * @param type class of the recycled objects
+     * @return counter
+     */
+    public static StripedCounter recycleCounter(final Class type) {
+        StripedCounter counter = (StripedCounter) RECYCLE_COUNTERS.get(type);
+        if (counter == null) {
+            counter = REGISTRY.counter("recycle." + type.getSimpleName());
+            RECYCLE_COUNTERS.putIfAbsent(type, counter);
+        }
+        return counter;
+    }
+
+    /**
+     * Returns the gauge of live objects of a class.
+     *
+     * @param type class of the live objects
+     * @return gauge
+     */
+    public static StripedCounter liveGauge(final Class type) {
+        StripedCounter gauge = (StripedCounter) LIVE_GAUGES.get(type);
+        if (gauge == null) {
+            gauge = REGISTRY.gauge("live." + type.getSimpleName());
+            LIVE_GAUGES.putIfAbsent(type, gauge);
+        }
+        return gauge;
+    }
+}
@@ -0,0 +1,271 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of named timers, counters and gauges.
+ *
+ * <p>Timers and counters are reset with {@link #reset()}, gauges track
+ * live values like the number of objects in use and are never reset.
+ * Lookups by name are lock-free; callers on hot paths should nevertheless
+ * keep a reference to the returned object instead of looking it up on
+ * every call.</p>
+ */
+public final class MetricsRegistry implements MetricsRegistryMBean {
+
+    /** Nano seconds per milli second. */
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    /** Percentile used in reports. */
+    private static final double PERCENTILE_99 = 99.0;
+
+    /** Map of timers by name. */
+    private final ConcurrentMap timers = new ConcurrentHashMap();
+
+    /** Map of counters by name. */
+    private final ConcurrentMap counters = new ConcurrentHashMap();
+
+    /** Map of gauges by name. */
+    private final ConcurrentMap gauges = new ConcurrentHashMap();
+
+    /** Indicates whether metrics are recorded. */
+    private volatile boolean enabled = true;
+
+    /**
+     * Returns the timer with the given name, creating it if needed.
+     *
+     * @param name name of the timer
+     * @return timer
+     */
+    public Timer timer(final String name) {
+        Timer timer = (Timer) timers.get(name);
+        if (timer == null) {
+            timer = new Timer(name);
+            final Timer existing = (Timer) timers.putIfAbsent(name, timer);
+            if (existing != null) {
+                timer = existing;
+            }
+        }
+        return timer;
+    }
+
+    /**
+     * Returns the counter with the given name, creating it if needed.
+     *
+     * @param name name of the counter
+     * @return counter
+     */
+    public StripedCounter counter(final String name) {
+        return getOrCreate(counters, name);
+    }
+
+    /**
+     * Returns the gauge with the given name, creating it if needed.
+     *
+     * @param name name of the gauge
+     * @return gauge
+     */
+    public StripedCounter gauge(final String name) {
+        return getOrCreate(gauges, name);
+    }
+
+    /**
+     * Returns a striped counter from a map, creating it if needed.
+     *
+     * @param map the map
+     * @param name name of the counter
+     * @return counter
+     */
+    private StripedCounter getOrCreate(final ConcurrentMap map, final String name) {
+        StripedCounter counter = (StripedCounter) map.get(name);
+        if (counter == null) {
+            counter = new StripedCounter();
+            final StripedCounter existing = (StripedCounter) map.putIfAbsent(name, counter);
+            if (existing != null) {
+                counter = existing;
+            }
+        }
+        return counter;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see MetricsRegistryMBean#isEnabled()
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see MetricsRegistryMBean#setEnabled(boolean)
+     */
+    public void setEnabled(final boolean isEnabled) {
+        enabled = isEnabled;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see MetricsRegistryMBean#getTimerNames()
+     */
+    public String[] getTimerNames() {
+        return getNames(timers);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see MetricsRegistryMBean#getCounterNames()
+     */
+    public String[] getCounterNames() {
+        final List names = new ArrayList(counters.keySet());
+        names.addAll(gauges.keySet());
+        final String[] array = (String[]) names.toArray(new String[names.size()]);
+        Arrays.sort(array);
+        return array;
+    }
+
+    /**
+     * Returns the sorted keys of a map.
+     *
+     * @param map the map
+     * @return sorted names
+     */
+    private static String[] getNames(final ConcurrentMap map) {
+        final String[] names = (String[]) map.keySet().toArray(new String[0]);
+        Arrays.sort(names);
+        return names;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see MetricsRegistryMBean#getReport()
+     */
+    public String[] getReport() {
+        final List lines = new ArrayList();
+        final String[] timerNames = getTimerNames();
+        for (int i = 0; i < timerNames.length; i++) {
+            final Timer timer = (Timer) timers.get(timerNames[i]);
+            final Histogram histogram = timer.getHistogram();
+            lines.add(timerNames[i] + ": count=" + timer.getCount() + ", errors=" + timer.getErrorCount()
+                + ", mean=" + toMillis(histogram.getMean()) + "ms, p99="
+                + toMillis(histogram.getValueAtPercentile(PERCENTILE_99)) + "ms, max="
+                + toMillis(histogram.getMax()) + "ms");
+        }
+        final String[] counterNames = getCounterNames();
+        for (int i = 0; i < counterNames.length; i++) {
+            lines.add(counterNames[i] + ": " + getCounterValue(counterNames[i]));
+        }
+        return (String[]) lines.toArray(new String[lines.size()]);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see MetricsRegistryMBean#getCallCount(java.lang.String)
+     */
+    public long getCallCount(final String name) {
+        final Timer timer = (Timer) timers.get(name);
+        return timer != null ? timer.getCount() : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see MetricsRegistryMBean#getErrorCount(java.lang.String)
+     */
+    public long getErrorCount(final String name) {
+        final Timer timer = (Timer) timers.get(name);
+        return timer != null ? timer.getErrorCount() : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see MetricsRegistryMBean#getMeanMillis(java.lang.String)
+     */
+    public double getMeanMillis(final String name) {
+        final Timer timer = (Timer) timers.get(name);
+        return timer != null ? toMillis(timer.getHistogram().getMean()) : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see MetricsRegistryMBean#getMaxMillis(java.lang.String)
+     */
+    public double getMaxMillis(final String name) {
+        final Timer timer = (Timer) timers.get(name);
+        return timer != null ? toMillis(timer.getHistogram().getMax()) : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see MetricsRegistryMBean#getPercentileMillis(java.lang.String, double)
+     */
+    public double getPercentileMillis(final String name, final double percentile) {
+        final Timer timer = (Timer) timers.get(name);
+        return timer != null ? toMillis(timer.getHistogram().getValueAtPercentile(percentile)) : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see MetricsRegistryMBean#getCounterValue(java.lang.String)
+     */
+    public long getCounterValue(final String name) {
+        StripedCounter counter = (StripedCounter) counters.get(name);
+        if (counter == null) {
+            counter = (StripedCounter) gauges.get(name);
+        }
+        return counter != null ? counter.sum() : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see MetricsRegistryMBean#reset()
+     */
+    public void reset() {
+        final Iterator timerIterator = timers.values().iterator();
+        while (timerIterator.hasNext()) {
+            ((Timer) timerIterator.next()).reset();
+        }
+        final Iterator counterIterator = counters.values().iterator();
+        while (counterIterator.hasNext()) {
+            ((StripedCounter) counterIterator.next()).reset();
+        }
+    }
+
+    /**
+     * Converts nano seconds to milli seconds.
+     *
+     * @param nanos nano seconds
+     * @return milli seconds
+     */
+    private static double toMillis(final double nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.metrics;
+
+/**
+ * JMX management interface of the domingo metrics.
+ *
+ * <p>All durations are reported in milli seconds.</p>
+ */
+public interface MetricsRegistryMBean {
+
+    /**
+     * Indicates whether metrics are recorded.
+     *
+     * @return <code>true</code> if metrics are recorded, else <code>false</code>
+     */
+    boolean isEnabled();
+
+    /**
+     * Enables or disables the recording of metrics.
+     *
+     * @param enabled <code>true</code> to record metrics
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * Returns the names of all timers.
+     *
+     * @return sorted array of timer names
+     */
+    String[] getTimerNames();
+
+    /**
+     * Returns the names of all counters.
+     *
+     * @return sorted array of counter names
+     */
+    String[] getCounterNames();
+
+    /**
+     * Returns a report with one line per timer and counter.
+     *
+     * @return report lines
+     */
+    String[] getReport();
+
+    /**
+     * Returns the number of calls of a timer.
+     *
+     * @param name name of the timer
+     * @return number of calls
+     */
+    long getCallCount(String name);
+
+    /**
+     * Returns the number of failed calls of a timer.
+     *
+     * @param name name of the timer
+     * @return number of failed calls
+     */
+    long getErrorCount(String name);
+
+    /**
+     * Returns the mean latency of a timer.
+     *
+     * @param name name of the timer
+     * @return mean latency in milli seconds
+     */
+    double getMeanMillis(String name);
+
+    /**
+     * Returns the maximum latency of a timer.
+     *
+     * @param name name of the timer
+     * @return maximum latency in milli seconds
+     */
+    double getMaxMillis(String name);
+
+    /**
+     * Returns the latency of a timer at a percentile.
+     *
+     * @param name name of the timer
+     * @param percentile percentile between <code>0</code> and <code>100</code>
+     * @return latency in milli seconds
+     */
+    double getPercentileMillis(String name, double percentile);
+
+    /**
+     * Returns the value of a counter.
+     *
+     * @param name name of the counter
+     * @return value of the counter
+     */
+    long getCounterValue(String name);
+
+    /**
+     * Resets all timers and counters.
+     */
+    void reset();
+}
@@ -0,0 +1,130 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free counter that spreads updates over several padded cells.
+ *
+ * <p>Each thread updates the cell selected by its thread id, so concurrent
+ * threads rarely contend on the same cache line. Reading the value sums up
+ * all cells and is therefore more expensive than updating it.</p>
+ */
+public final class StripedCounter {
+
+    /** Number of longs between two used cells to avoid false sharing. */
+    private static final int PADDING = 8;
+
+    /** Maximum number of stripes. */
+    private static final int MAX_STRIPES = 64;
+
+    /** Cells of the counter, only every {@link #PADDING}th entry is used. */
+    private final AtomicLongArray cells;
+
+    /** Mask to map a hash code to a stripe. */
+    private final int mask;
+
+    /**
+     * Constructor.
+     */
+    public StripedCounter() {
+        int stripes = 1;
+        final int processors = Runtime.getRuntime().availableProcessors();
+        while (stripes < processors * 2 && stripes < MAX_STRIPES) {
+            stripes <<= 1;
+        }
+        mask = stripes - 1;
+        cells = new AtomicLongArray(stripes * PADDING);
+    }
+
+    /**
+     * Adds a value to the counter.
+     *
+     * @param value the value to add, may be negative
+     */
+    public void add(final long value) {
+        cells.addAndGet(index(), value);
+    }
+
+    /**
+     * Increments the counter by one.
+     */
+    public void increment() {
+        cells.incrementAndGet(index());
+    }
+
+    /**
+     * Decrements the counter by one.
+     */
+    public void decrement() {
+        cells.decrementAndGet(index());
+    }
+
+    /**
+     * Returns the current value of the counter.
+     *
+     * <p>The result is not an atomic snapshot if the counter is updated
+     * concurrently.</p>
+     *
+     * @return sum of all cells
+     */
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < cells.length(); i += PADDING) {
+            sum += cells.get(i);
+        }
+        return sum;
+    }
+
+    /**
+     * Resets the counter to zero.
+     */
+    public void reset() {
+        for (int i = 0; i < cells.length(); i += PADDING) {
+            cells.set(i, 0);
+        }
+    }
+
+    /**
+     * Returns the index of the cell of the current thread.
+     *
+     * @return index of a cell
+     */
+    private int index() {
+        long id = Thread.currentThread().getId();
+        id ^= id >>> 16;
+        id *= 0x9E3779B9L;
+        return ((int) (id >>> 16) & mask) * PADDING;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see java.lang.Object#toString()
+     */
+    public String toString() {
+        return String.valueOf(sum());
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.metrics;
+
+/**
+ * Call counter and latency histogram of a single operation.
+ *
+ * <p>Durations are recorded in nano seconds as returned by
+ * {@link System#nanoTime()}.</p>
+ *
+ * <pre>
+ * final long start = timer.start();
+ * try {
+ *     // do the work
+ * } catch (Exception e) {
+ *     timer.error();
+ *     throw e;
+ * } finally {
+ *     timer.stop(start);
+ * }
+ * </pre>
+ */
+public final class Timer {
+
+    /** Name of the timer. */
+    private final String name;
+
+    /** Latencies of all calls. */
+    private final Histogram histogram = new Histogram();
+
+    /** Number of failed calls. */
+    private final StripedCounter errors = new StripedCounter();
+
+    /**
+     * Constructor.
+     *
+     * @param theName name of the timer
+     */
+    public Timer(final String theName) {
+        name = theName;
+    }
+
+    /**
+     * Returns the name of the timer.
+     *
+     * @return name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the start time of a new call.
+     *
+     * @return current value of the nano second timer
+     */
+    public long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records a call that started at the given time.
+     *
+     * @param startNanos start time as returned by {@link #start()}
+     */
+    public void stop(final long startNanos) {
+        histogram.record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records a call with the given duration.
+     *
+     * @param nanos duration in nano seconds
+     */
+    public void record(final long nanos) {
+        histogram.record(nanos);
+    }
+
+    /**
+     * Counts a failed call.
+     */
+    public void error() {
+        errors.increment();
+    }
+
+    /**
+     * Returns the number of recorded calls.
+     *
+     * @return number of calls
+     */
+    public long getCount() {
+        return histogram.getCount();
+    }
+
+    /**
+     * Returns the number of failed calls.
+     *
+     * @return number of errors
+     */
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    /**
+     * Returns the latency histogram in nano seconds.
+     *
+     * @return histogram
+     */
+    public Histogram getHistogram() {
+        return histogram;
+    }
+
+    /**
+     * Resets the timer.
+     */
+    public void reset() {
+        histogram.reset();
+        errors.reset();
+    }
+}
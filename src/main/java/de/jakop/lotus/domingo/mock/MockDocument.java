@@ -26,6 +26,7 @@ package de.jakop.lotus.domingo.mock;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.Iterator;
 import java.util.List;
@@ -37,10 +38,14 @@ import de.jakop.lotus.domingo.DBaseItem;
 import de.jakop.lotus.domingo.DDatabase;
 import de.jakop.lotus.domingo.DDateRange;
 import de.jakop.lotus.domingo.DDocument;
+import de.jakop.lotus.domingo.DDocumentSnapshot;
 import de.jakop.lotus.domingo.DEmbeddedObject;
 import de.jakop.lotus.domingo.DItem;
 import de.jakop.lotus.domingo.DRichTextItem;
 import de.jakop.lotus.domingo.DView;
+import de.jakop.lotus.domingo.util.BulkWriter;
+import de.jakop.lotus.domingo.util.DateUtil;
+import de.jakop.lotus.domingo.util.DocumentSnapshot;
 
 /**
  * Transient mock implementation of interface DDocument.
@@ -355,6 +360,19 @@ h     */
         return new MockItem();
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @see DBaseDocument#replaceItemValues(java.util.Map)
+     */
+    public void replaceItemValues(final Map values) {
+        final Iterator iterator = values.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry entry = (Map.Entry) iterator.next();
+            BulkWriter.replaceItemValue(this, (String) entry.getKey(), entry.getValue());
+        }
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -482,6 +500,15 @@ h     */
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @see DBaseDocument#getItemValueDateMillis(java.lang.String)
+     */
+    public long getItemValueDateMillis(final String name) {
+        return DateUtil.getMillis(items.get(name.toLowerCase()));
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -525,6 +552,15 @@ h     */
         return items.containsKey(name.toLowerCase());
     }
 
+    /**
+     * Returns the values of all items.
+     *
+     * @return map of lower case item names to lists of values
+     */
+    public Map getItemValues() {
+        return new HashMap(items);
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -865,6 +901,15 @@ h     */
         throw new UnsupportedOperationException("not supported in MockDocument");
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @see DBaseDocument#getItemValueDateTimeArrayMillis(java.lang.String)
+     */
+    public long[] getItemValueDateTimeArrayMillis(final String name) {
+        return DateUtil.getMillisArray((List) items.get(name.toLowerCase()));
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -1165,4 +1210,31 @@ h     */
         throw new UnsupportedOperationException("not supported in MockDocument");
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @see DDocument#snapshot(java.lang.String[])
+     */
+    public DDocumentSnapshot snapshot(final String[] itemNames) {
+        final List names = new ArrayList(itemNames.length);
+        final List values = new ArrayList(itemNames.length);
+        for (int i = 0; i < itemNames.length; i++) {
+            final List valueList = (List) items.get(itemNames[i].toLowerCase());
+            if (valueList != null) {
+                names.add(itemNames[i]);
+                values.add(DocumentSnapshot.toCompactValues(valueList));
+            }
+        }
+        return new DocumentSnapshot(null, DDocumentSnapshot.NO_DATE,
+            (String[]) names.toArray(new String[names.size()]), values.toArray());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see DDocument#snapshot()
+     */
+    public DDocumentSnapshot snapshot() {
+        return snapshot((String[]) items.keySet().toArray(new String[items.size()]));
+    }
 }
@@ -28,6 +28,7 @@ import java.util.List;
 
 import de.jakop.lotus.domingo.DDocument;
 import de.jakop.lotus.domingo.DViewEntry;
+import de.jakop.lotus.domingo.util.DateUtil;
 
 /**
  * Transient mock implementation of interface DViewEntry.
@@ -121,6 +122,22 @@ public final class MockViewEntry implements DViewEntry {
         return mColumnValues;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @see DViewEntry#getColumnValuesMillis()
+     */
+    public long[] getColumnValuesMillis() {
+        if (mColumnValues == null) {
+            return new long[0];
+        }
+        final long[] result = new long[mColumnValues.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = DateUtil.getMillis(mColumnValues.get(i));
+        }
+        return result;
+    }
+
     /**
      * {@inheritDoc}
      *
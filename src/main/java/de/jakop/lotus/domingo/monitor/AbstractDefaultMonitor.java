@@ -37,6 +37,21 @@ import de.jakop.lotus.domingo.DNotesMonitor;
  */
 public abstract class AbstractDefaultMonitor extends AbstractMonitor {
 
+    /** Prefix of debug messages. */
+    private static final String DEBUG_PREFIX = "DEBUG: ";
+
+    /** Prefix of info messages. */
+    private static final String INFO_PREFIX = "INFO:  ";
+
+    /** Prefix of warn messages. */
+    private static final String WARN_PREFIX = "WARN:  ";
+
+    /** Prefix of error messages. */
+    private static final String ERROR_PREFIX = "ERROR: ";
+
+    /** Prefix of fatal error messages. */
+    private static final String FATAL_PREFIX = "FATAL: ";
+
     /**
      * Default constructor.
      */
@@ -64,7 +79,7 @@ public abstract class AbstractDefaultMonitor extends AbstractMonitor {
      */
     public final void debug(final String s) {
         if (isDebugEnabled()) {
-            monitor("DEBUG: " + s);
+            monitor(DEBUG_PREFIX, s);
         }
     }
 
@@ -74,8 +89,7 @@ public abstract class AbstractDefaultMonitor extends AbstractMonitor {
      */
     public final void debug(final String s, final Throwable throwable) {
         if (isDebugEnabled()) {
-            monitor("DEBUG: " + s);
-            monitor(throwable);
+            monitor(DEBUG_PREFIX, s, throwable);
         }
     }
 
@@ -85,7 +99,7 @@ public abstract class AbstractDefaultMonitor extends AbstractMonitor {
      */
     public final void info(final String s) {
         if (isInfoEnabled()) {
-            monitor("INFO:  " + s);
+            monitor(INFO_PREFIX, s);
         }
     }
 
@@ -95,8 +109,7 @@ public abstract class AbstractDefaultMonitor extends AbstractMonitor {
      */
     public final void info(final String s, final Throwable throwable) {
         if (isInfoEnabled()) {
-            monitor("INFO:  " + s);
-            monitor(throwable);
+            monitor(INFO_PREFIX, s, throwable);
         }
     }
 
@@ -106,7 +119,7 @@ public abstract class AbstractDefaultMonitor extends AbstractMonitor {
      */
     public final void warn(final String s) {
         if (isWarnEnabled()) {
-            monitor("WARN:  " + s);
+            monitor(WARN_PREFIX, s);
         }
     }
 
@@ -116,8 +129,7 @@ public abstract class AbstractDefaultMonitor extends AbstractMonitor {
      */
     public final void warn(final String s, final Throwable throwable) {
         if (isWarnEnabled()) {
-            monitor("WARN:  " + s);
-            monitor(throwable);
+            monitor(WARN_PREFIX, s, throwable);
         }
     }
 
@@ -127,7 +139,7 @@ public abstract class AbstractDefaultMonitor extends AbstractMonitor {
      */
     public final void error(final String s) {
         if (isErrorEnabled()) {
-            monitor("ERROR: " + s);
+            monitor(ERROR_PREFIX, s);
         }
     }
 
@@ -137,8 +149,7 @@ public abstract class AbstractDefaultMonitor extends AbstractMonitor {
      */
     public final void error(final String s, final Throwable throwable) {
         if (isErrorEnabled()) {
-            monitor("ERROR: " + s);
-            monitor(throwable);
+            monitor(ERROR_PREFIX, s, throwable);
         }
     }
 
@@ -148,7 +159,7 @@ public abstract class AbstractDefaultMonitor extends AbstractMonitor {
      */
     public final void fatalError(final String s) {
         if (isFatalErrorEnabled()) {
-            monitor("FATAL: " + s);
+            monitor(FATAL_PREFIX, s);
         }
     }
 
@@ -158,11 +169,40 @@ public abstract class AbstractDefaultMonitor extends AbstractMonitor {
      */
     public final void fatalError(final String s, final Throwable throwable) {
         if (isFatalErrorEnabled()) {
-            monitor("FATAL: " + s);
-            monitor(throwable);
+            monitor(FATAL_PREFIX, s, throwable);
         }
     }
 
+    /**
+     * Monitors a message with a level prefix.
+     *
+     * <p>The default implementation concatenates prefix and message.
+     * Subclasses can override this method to write both parts without
+     * creating an intermediate string.</p>
+     *
+     * @param prefix the level prefix
+     * @param message a message to monitor
+     */
+    protected void monitor(final String prefix, final String message) {
+        monitor(prefix + message);
+    }
+
+    /**
+     * Monitors a message with a level prefix together with a throwable.
+     *
+     * <p>The default implementation monitors the message and the throwable
+     * one after the other. Subclasses can override this method to handle
+     * both as a single event.</p>
+     *
+     * @param prefix the level prefix
+     * @param message a message to monitor
+     * @param throwable a throwable to monitor
+     */
+    protected void monitor(final String prefix, final String message, final Throwable throwable) {
+        monitor(prefix, message);
+        monitor(throwable);
+    }
+
     /**
      * Abstract monitoring method, must be implemented by concrete monitors.
      *
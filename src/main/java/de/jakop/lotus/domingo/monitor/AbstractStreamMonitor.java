@@ -37,6 +37,9 @@ public abstract class AbstractStreamMonitor extends AbstractDefaultMonitor {
     /** Date format used to format dates in log output. */
     private final SimpleDateFormat dateFormat;
 
+    /** Buffer for formatting messages, reused for all messages. */
+    private final StringBuffer buffer = new StringBuffer();
+
     /** Reference to the output stream for monitoring. */
     private PrintStream stream;
 
@@ -56,10 +59,18 @@ public abstract class AbstractStreamMonitor extends AbstractDefaultMonitor {
      * @param message the message
      */
     protected final synchronized void monitor(final String message) {
-        final StringBuffer buffer = new StringBuffer();
-        buffer.append("[" + dateFormat.format(new Date()) + "] ");
-        buffer.append(Thread.currentThread().getName() + ": " + message);
-        stream.println(buffer.toString());
+        monitor("", message);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see AbstractDefaultMonitor#monitor(java.lang.String, java.lang.String)
+     */
+    protected final synchronized void monitor(final String prefix, final String message) {
+        buffer.setLength(0);
+        buffer.append('[').append(dateFormat.format(new Date())).append("] ");
+        buffer.append(Thread.currentThread().getName()).append(": ").append(prefix).append(message);
+        stream.println(buffer);
     }
 
     /**
@@ -0,0 +1,425 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package de.jakop.lotus.domingo.monitor;
+
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Asynchronous monitor, logs everything to a <code>PrintWriter</code> from
+ * a background thread.
+ *
+ * <p>Calling threads only copy the event into a bounded, preallocated ring
+ * buffer; formatting and writing is done in batches by a daemon thread. If the
+ * buffer is full, the overflow policy decides what happens:</p>
+ * <ul>
+ * <li>{@link #OVERFLOW_DROP} drops the new event,</li>
+ * <li>{@link #OVERFLOW_BLOCK} blocks the calling thread until space is available,</li>
+ * <li>{@link #OVERFLOW_SAMPLE} accepts only every n-th event once the buffer is
+ * filled to three quarters and drops events if the buffer is full.</li>
+ * </ul>
+ *
+ * <p>The number of dropped events is available with {@link #getDroppedCount()}.
+ * The monitor must be closed with {@link #close()} to write all pending events.</p>
+ */
+public class AsyncMonitor extends AbstractDefaultMonitor {
+
+    /** Overflow policy: drop new events if the buffer is full. */
+    public static final int OVERFLOW_DROP = 0;
+
+    /** Overflow policy: block the calling thread until the buffer has space. */
+    public static final int OVERFLOW_BLOCK = 1;
+
+    /** Overflow policy: sample events if the buffer is filling up, drop if full. */
+    public static final int OVERFLOW_SAMPLE = 2;
+
+    /** Default capacity of the ring buffer. */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /** Default sample rate of policy {@link #OVERFLOW_SAMPLE}. */
+    public static final int DEFAULT_SAMPLE_RATE = 10;
+
+    /** Maximum time in milliseconds to wait for the writer thread on close. */
+    private static final long CLOSE_TIMEOUT = 5000;
+
+    /** Date format used to format dates in log output. */
+    private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy.MM.dd HH:mm:ss");
+
+    /** Buffer for formatting messages, only used by the writer thread. */
+    private final StringBuffer buffer = new StringBuffer();
+
+    /** Reference to the output writer for monitoring. */
+    private final PrintWriter writer;
+
+    /** Preallocated events of the ring buffer. */
+    private final Event[] events;
+
+    /** Overflow policy. */
+    private final int policy;
+
+    /** Number of events that are accepted before sampling starts. */
+    private final int sampleThreshold;
+
+    /** Only every n-th event is accepted while sampling. */
+    private volatile int sampleRate = DEFAULT_SAMPLE_RATE;
+
+    /** Guards the state of the ring buffer. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Signalled if events are available. */
+    private final Condition notEmpty = lock.newCondition();
+
+    /** Signalled if space in the ring buffer is available. */
+    private final Condition notFull = lock.newCondition();
+
+    /** Index of the oldest event. */
+    private int head = 0;
+
+    /** Number of events in the ring buffer, including events currently written. */
+    private int size = 0;
+
+    /** Number of events offered while sampling. */
+    private long sampleCounter = 0;
+
+    /** Number of dropped events. */
+    private long droppedCount = 0;
+
+    /** Number of written events. */
+    private long writtenCount = 0;
+
+    /** Whether the monitor is closed. */
+    private boolean closed = false;
+
+    /** Background thread that writes the events. */
+    private final Thread writerThread;
+
+    /**
+     * Creates an asynchronous monitor for an output stream with default
+     * capacity and overflow policy {@link #OVERFLOW_DROP}.
+     *
+     * @param stream the output stream for monitoring
+     */
+    public AsyncMonitor(final OutputStream stream) {
+        this(new PrintWriter(stream), DEFAULT_CAPACITY, OVERFLOW_DROP);
+    }
+
+    /**
+     * Creates an asynchronous monitor for a writer with default capacity and
+     * overflow policy {@link #OVERFLOW_DROP}.
+     *
+     * @param theWriter the writer for monitoring
+     */
+    public AsyncMonitor(final Writer theWriter) {
+        this(theWriter, DEFAULT_CAPACITY, OVERFLOW_DROP);
+    }
+
+    /**
+     * Creates an asynchronous monitor for a writer.
+     *
+     * @param theWriter the writer for monitoring
+     * @param capacity maximum number of pending events
+     * @param thePolicy overflow policy, one of {@link #OVERFLOW_DROP},
+     *            {@link #OVERFLOW_BLOCK} or {@link #OVERFLOW_SAMPLE}
+     */
+    public AsyncMonitor(final Writer theWriter, final int capacity, final int thePolicy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        if (thePolicy != OVERFLOW_DROP && thePolicy != OVERFLOW_BLOCK && thePolicy != OVERFLOW_SAMPLE) {
+            throw new IllegalArgumentException("unknown overflow policy: " + thePolicy);
+        }
+        writer = theWriter instanceof PrintWriter ? (PrintWriter) theWriter : new PrintWriter(theWriter);
+        policy = thePolicy;
+        events = new Event[capacity];
+        for (int i = 0; i < capacity; i++) {
+            events[i] = new Event();
+        }
+        sampleThreshold = Math.max(1, capacity - capacity / 4);
+        writerThread = new Thread(new Runnable() {
+            public void run() {
+                writeEvents();
+            }
+        }, "domingo-monitor-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Sets the sample rate for overflow policy {@link #OVERFLOW_SAMPLE}.
+     *
+     * @param rate every n-th event is accepted while sampling
+     */
+    public final void setSampleRate(final int rate) {
+        sampleRate = Math.max(1, rate);
+    }
+
+    /**
+     * Returns the number of events dropped because of a full buffer, sampling
+     * or after the monitor was closed.
+     *
+     * @return number of dropped events
+     */
+    public final long getDroppedCount() {
+        lock.lock();
+        try {
+            return droppedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of events written so far.
+     *
+     * @return number of written events
+     */
+    public final long getWrittenCount() {
+        lock.lock();
+        try {
+            return writtenCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of pending events.
+     *
+     * @return number of events not yet written
+     */
+    public final int getPendingCount() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes all pending events and stops the writer thread. Events monitored
+     * after closing are dropped.
+     */
+    public final void close() {
+        lock.lock();
+        try {
+            closed = true;
+            notEmpty.signalAll();
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writerThread.join(CLOSE_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer.flush();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see AbstractDefaultMonitor#monitor(java.lang.String)
+     */
+    protected final void monitor(final String message) {
+        publish("", message, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see AbstractDefaultMonitor#monitor(java.lang.String, java.lang.String)
+     */
+    protected final void monitor(final String prefix, final String message) {
+        publish(prefix, message, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see AbstractDefaultMonitor#monitor(java.lang.String, java.lang.String, java.lang.Throwable)
+     */
+    protected final void monitor(final String prefix, final String message, final Throwable throwable) {
+        publish(prefix, message, throwable);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see AbstractDefaultMonitor#monitor(java.lang.Throwable)
+     */
+    protected final void monitor(final Throwable throwable) {
+        if (throwable != null) {
+            publish(null, null, throwable);
+        }
+    }
+
+    /**
+     * Copies an event into the ring buffer.
+     *
+     * @param prefix the level prefix
+     * @param message the message
+     * @param throwable the throwable
+     */
+    private void publish(final String prefix, final String message, final Throwable throwable) {
+        final long time = System.currentTimeMillis();
+        final String threadName = Thread.currentThread().getName();
+        lock.lock();
+        try {
+            if (!accept()) {
+                droppedCount++;
+                return;
+            }
+            final Event event = events[(head + size) % events.length];
+            event.time = time;
+            event.threadName = threadName;
+            event.prefix = prefix;
+            event.message = message;
+            event.throwable = throwable;
+            size++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Decides according to the overflow policy if a new event can be added.
+     * Must be called while holding the lock.
+     *
+     * @return <code>true</code> if the event can be added, else <code>false</code>
+     */
+    private boolean accept() {
+        if (closed) {
+            return false;
+        }
+        if (policy == OVERFLOW_BLOCK) {
+            while (size == events.length && !closed) {
+                try {
+                    notFull.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+            return !closed;
+        }
+        if (size == events.length) {
+            return false;
+        }
+        if (policy == OVERFLOW_SAMPLE && size >= sampleThreshold) {
+            return sampleCounter++ % sampleRate == 0;
+        }
+        sampleCounter = 0;
+        return true;
+    }
+
+    /**
+     * Main loop of the writer thread. Waits for events and writes all
+     * available events in one batch without holding the lock.
+     */
+    private void writeEvents() {
+        while (true) {
+            final int start;
+            final int count;
+            lock.lock();
+            try {
+                while (size == 0 && !closed) {
+                    try {
+                        notEmpty.await(1, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        closed = true;
+                    }
+                }
+                if (size == 0) {
+                    return;
+                }
+                start = head;
+                count = size;
+            } finally {
+                lock.unlock();
+            }
+            for (int i = 0; i < count; i++) {
+                write(events[(start + i) % events.length]);
+            }
+            writer.flush();
+            lock.lock();
+            try {
+                head = (start + count) % events.length;
+                size -= count;
+                writtenCount += count;
+                notFull.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Writes a single event and releases its references. An event has a
+     * message, a throwable or both; the message is written before the stack
+     * trace of the throwable.
+     *
+     * @param event the event
+     */
+    private void write(final Event event) {
+        if (event.prefix != null) {
+            buffer.setLength(0);
+            buffer.append('[').append(dateFormat.format(new Date(event.time))).append("] ");
+            buffer.append(event.threadName).append(": ").append(event.prefix).append(event.message);
+            writer.println(buffer);
+        }
+        if (event.throwable != null) {
+            event.throwable.printStackTrace(writer);
+        }
+        event.threadName = null;
+        event.prefix = null;
+        event.message = null;
+        event.throwable = null;
+    }
+
+    /**
+     * Preallocated slot of the ring buffer.
+     */
+    private static final class Event {
+
+        /** Time of the event. */
+        private long time;
+
+        /** Name of the thread that created the event. */
+        private String threadName;
+
+        /** Level prefix. */
+        private String prefix;
+
+        /** The message. */
+        private String message;
+
+        /** The throwable. */
+        private Throwable throwable;
+    }
+}
@@ -0,0 +1,383 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package de.jakop.lotus.domingo.monitor;
+
+import de.jakop.lotus.domingo.DNotesMonitor;
+
+/**
+ * Parameterized and lazily formatted output to a monitor.
+ *
+ * <p>All methods first check the level of the monitor and return
+ * immediately if the level is disabled. Only if the level is enabled, the
+ * message is formatted. Messages are patterns where each <code>{}</code> is
+ * replaced by the string representation of the next argument:</p>
+ *
+ * <pre>
+ * MonitorUtil.debug(getMonitor(), "baseCache.size = {}; recycle queue now", size);
+ * </pre>
+ *
+ * <p>The methods work with any implementation of {@link DNotesMonitor}.</p>
+ */
+public final class MonitorUtil {
+
+    /** Placeholder for arguments in message patterns. */
+    private static final String PLACEHOLDER = "{}";
+
+    /** Additional capacity reserved for arguments when formatting a message. */
+    private static final int ARGUMENT_CAPACITY = 32;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private MonitorUtil() {
+    }
+
+    /**
+     * debug output with one argument.
+     *
+     * @param monitor the monitor
+     * @param pattern message pattern with <code>{}</code> placeholders
+     * @param arg the argument
+     */
+    public static void debug(final DNotesMonitor monitor, final String pattern, final Object arg) {
+        if (monitor.isDebugEnabled()) {
+            monitor.debug(format(pattern, arg, null, 1));
+        }
+    }
+
+    /**
+     * debug output with one numeric argument; the number is not boxed if
+     * debug output is disabled.
+     *
+     * @param monitor the monitor
+     * @param pattern message pattern with <code>{}</code> placeholders
+     * @param arg the argument
+     */
+    public static void debug(final DNotesMonitor monitor, final String pattern, final long arg) {
+        if (monitor.isDebugEnabled()) {
+            monitor.debug(format(pattern, String.valueOf(arg), null, 1));
+        }
+    }
+
+    /**
+     * debug output with two arguments.
+     *
+     * @param monitor the monitor
+     * @param pattern message pattern with <code>{}</code> placeholders
+     * @param arg1 the first argument
+     * @param arg2 the second argument
+     */
+    public static void debug(final DNotesMonitor monitor, final String pattern, final Object arg1, final Object arg2) {
+        if (monitor.isDebugEnabled()) {
+            monitor.debug(format(pattern, arg1, arg2, 2));
+        }
+    }
+
+    /**
+     * debug output with any number of arguments.
+     *
+     * @param monitor the monitor
+     * @param pattern message pattern with <code>{}</code> placeholders
+     * @param args the arguments
+     */
+    public static void debug(final DNotesMonitor monitor, final String pattern, final Object[] args) {
+        if (monitor.isDebugEnabled()) {
+            monitor.debug(format(pattern, args));
+        }
+    }
+
+    /**
+     * debug output of a message that is computed on demand.
+     *
+     * @param monitor the monitor
+     * @param supplier supplier of the message
+     */
+    public static void debug(final DNotesMonitor monitor, final MessageSupplier supplier) {
+        if (monitor.isDebugEnabled()) {
+            monitor.debug(supplier.getMessage());
+        }
+    }
+
+    /**
+     * info output with one argument.
+     *
+     * @param monitor the monitor
+     * @param pattern message pattern with <code>{}</code> placeholders
+     * @param arg the argument
+     */
+    public static void info(final DNotesMonitor monitor, final String pattern, final Object arg) {
+        if (monitor.isInfoEnabled()) {
+            monitor.info(format(pattern, arg, null, 1));
+        }
+    }
+
+    /**
+     * info output with one numeric argument; the number is not boxed if
+     * info output is disabled.
+     *
+     * @param monitor the monitor
+     * @param pattern message pattern with <code>{}</code> placeholders
+     * @param arg the argument
+     */
+    public static void info(final DNotesMonitor monitor, final String pattern, final long arg) {
+        if (monitor.isInfoEnabled()) {
+            monitor.info(format(pattern, String.valueOf(arg), null, 1));
+        }
+    }
+
+    /**
+     * info output with two arguments.
+     *
+     * @param monitor the monitor
+     * @param pattern message pattern with <code>{}</code> placeholders
+     * @param arg1 the first argument
+     * @param arg2 the second argument
+     */
+    public static void info(final DNotesMonitor monitor, final String pattern, final Object arg1, final Object arg2) {
+        if (monitor.isInfoEnabled()) {
+            monitor.info(format(pattern, arg1, arg2, 2));
+        }
+    }
+
+    /**
+     * info output with any number of arguments.
+     *
+     * @param monitor the monitor
+     * @param pattern message pattern with <code>{}</code> placeholders
+     * @param args the arguments
+     */
+    public static void info(final DNotesMonitor monitor, final String pattern, final Object[] args) {
+        if (monitor.isInfoEnabled()) {
+            monitor.info(format(pattern, args));
+        }
+    }
+
+    /**
+     * info output of a message that is computed on demand.
+     *
+     * @param monitor the monitor
+     * @param supplier supplier of the message
+     */
+    public static void info(final DNotesMonitor monitor, final MessageSupplier supplier) {
+        if (monitor.isInfoEnabled()) {
+            monitor.info(supplier.getMessage());
+        }
+    }
+
+    /**
+     * warn output with one argument.
+     *
+     * @param monitor the monitor
+     * @param pattern message pattern with <code>{}</code> placeholders
+     * @param arg the argument
+     */
+    public static void warn(final DNotesMonitor monitor, final String pattern, final Object arg) {
+        if (monitor.isWarnEnabled()) {
+            monitor.warn(format(pattern, arg, null, 1));
+        }
+    }
+
+    /**
+     * warn output with one numeric argument; the number is not boxed if
+     * warn output is disabled.
+     *
+     * @param monitor the monitor
+     * @param pattern message pattern with <code>{}</code> placeholders
+     * @param arg the argument
+     */
+    public static void warn(final DNotesMonitor monitor, final String pattern, final long arg) {
+        if (monitor.isWarnEnabled()) {
+            monitor.warn(format(pattern, String.valueOf(arg), null, 1));
+        }
+    }
+
+    /**
+     * warn output with two arguments.
+     *
+     * @param monitor the monitor
+     * @param pattern message pattern with <code>{}</code> placeholders
+     * @param arg1 the first argument
+     * @param arg2 the second argument
+     */
+    public static void warn(final DNotesMonitor monitor, final String pattern, final Object arg1, final Object arg2) {
+        if (monitor.isWarnEnabled()) {
+            monitor.warn(format(pattern, arg1, arg2, 2));
+        }
+    }
+
+    /**
+     * warn output with any number of arguments.
+     *
+     * @param monitor the monitor
+     * @param pattern message pattern with <code>{}</code> placeholders
+     * @param args the arguments
+     */
+    public static void warn(final DNotesMonitor monitor, final String pattern, final Object[] args) {
+        if (monitor.isWarnEnabled()) {
+            monitor.warn(format(pattern, args));
+        }
+    }
+
+    /**
+     * warn output of a message that is computed on demand.
+     *
+     * @param monitor the monitor
+     * @param supplier supplier of the message
+     */
+    public static void warn(final DNotesMonitor monitor, final MessageSupplier supplier) {
+        if (monitor.isWarnEnabled()) {
+            monitor.warn(supplier.getMessage());
+        }
+    }
+
+    /**
+     * error output with one argument.
+     *
+     * @param monitor the monitor
+     * @param pattern message pattern with <code>{}</code> placeholders
+     * @param arg the argument
+     */
+    public static void error(final DNotesMonitor monitor, final String pattern, final Object arg) {
+        if (monitor.isErrorEnabled()) {
+            monitor.error(format(pattern, arg, null, 1));
+        }
+    }
+
+    /**
+     * error output with one numeric argument; the number is not boxed if
+     * error output is disabled.
+     *
+     * @param monitor the monitor
+     * @param pattern message pattern with <code>{}</code> placeholders
+     * @param arg the argument
+     */
+    public static void error(final DNotesMonitor monitor, final String pattern, final long arg) {
+        if (monitor.isErrorEnabled()) {
+            monitor.error(format(pattern, String.valueOf(arg), null, 1));
+        }
+    }
+
+    /**
+     * error output with two arguments.
+     *
+     * @param monitor the monitor
+     * @param pattern message pattern with <code>{}</code> placeholders
+     * @param arg1 the first argument
+     * @param arg2 the second argument
+     */
+    public static void error(final DNotesMonitor monitor, final String pattern, final Object arg1, final Object arg2) {
+        if (monitor.isErrorEnabled()) {
+            monitor.error(format(pattern, arg1, arg2, 2));
+        }
+    }
+
+    /**
+     * error output with any number of arguments.
+     *
+     * @param monitor the monitor
+     * @param pattern message pattern with <code>{}</code> placeholders
+     * @param args the arguments
+     */
+    public static void error(final DNotesMonitor monitor, final String pattern, final Object[] args) {
+        if (monitor.isErrorEnabled()) {
+            monitor.error(format(pattern, args));
+        }
+    }
+
+    /**
+     * error output of a message that is computed on demand.
+     *
+     * @param monitor the monitor
+     * @param supplier supplier of the message
+     */
+    public static void error(final DNotesMonitor monitor, final MessageSupplier supplier) {
+        if (monitor.isErrorEnabled()) {
+            monitor.error(supplier.getMessage());
+        }
+    }
+
+    /**
+     * Formats a message pattern by replacing each <code>{}</code> with the
+     * next argument. Surplus placeholders are kept, surplus arguments are ignored.
+     *
+     * @param pattern message pattern with <code>{}</code> placeholders
+     * @param args the arguments, can be <code>null</code>
+     * @return formatted message
+     */
+    public static String format(final String pattern, final Object[] args) {
+        if (args == null || args.length == 0) {
+            return pattern;
+        }
+        if (pattern == null) {
+            return null;
+        }
+        final StringBuffer buffer = new StringBuffer(pattern.length() + ARGUMENT_CAPACITY * args.length);
+        int start = 0;
+        for (int i = 0; i < args.length; i++) {
+            final int index = pattern.indexOf(PLACEHOLDER, start);
+            if (index < 0) {
+                break;
+            }
+            buffer.append(pattern, start, index);
+            buffer.append(args[i]);
+            start = index + PLACEHOLDER.length();
+        }
+        buffer.append(pattern, start, pattern.length());
+        return buffer.toString();
+    }
+
+    /**
+     * Formats a message pattern with up to two arguments without creating an
+     * argument array.
+     *
+     * @param pattern message pattern with <code>{}</code> placeholders
+     * @param arg1 the first argument
+     * @param arg2 the second argument
+     * @param count number of arguments, 1 or 2
+     * @return formatted message
+     */
+    private static String format(final String pattern, final Object arg1, final Object arg2, final int count) {
+        if (pattern == null) {
+            return null;
+        }
+        final int index1 = pattern.indexOf(PLACEHOLDER);
+        if (index1 < 0) {
+            return pattern;
+        }
+        final StringBuffer buffer = new StringBuffer(pattern.length() + ARGUMENT_CAPACITY * count);
+        buffer.append(pattern, 0, index1);
+        buffer.append(arg1);
+        int start = index1 + PLACEHOLDER.length();
+        if (count > 1) {
+            final int index2 = pattern.indexOf(PLACEHOLDER, start);
+            if (index2 >= 0) {
+                buffer.append(pattern, start, index2);
+                buffer.append(arg2);
+                start = index2 + PLACEHOLDER.length();
+            }
+        }
+        buffer.append(pattern, start, pattern.length());
+        return buffer.toString();
+    }
+}
@@ -37,6 +37,9 @@ public class WriterMonitor extends AbstractDefaultMonitor {
     /** Date format used to format dates in log output. */
     private final SimpleDateFormat dateFormat;
 
+    /** Buffer for formatting messages, reused for all messages. */
+    private final StringBuffer buffer = new StringBuffer();
+
     /** Reference to the output stream for monitoring. */
     private PrintWriter writer;
 
@@ -55,10 +58,18 @@ public class WriterMonitor extends AbstractDefaultMonitor {
      * @see AbstractDefaultMonitor#monitor(java.lang.String)
      */
     protected final synchronized void monitor(final String message) {
-        final StringBuffer buffer = new StringBuffer();
-        buffer.append("[" + dateFormat.format(new Date()) + "] ");
-        buffer.append(Thread.currentThread().getName() + ": " + message);
-        writer.println(buffer.toString());
+        monitor("", message);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see AbstractDefaultMonitor#monitor(java.lang.String, java.lang.String)
+     */
+    protected final synchronized void monitor(final String prefix, final String message) {
+        buffer.setLength(0);
+        buffer.append('[').append(dateFormat.format(new Date())).append("] ");
+        buffer.append(Thread.currentThread().getName()).append(": ").append(prefix).append(message);
+        writer.println(buffer);
     }
 
     /**
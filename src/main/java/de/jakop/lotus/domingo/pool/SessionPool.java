@@ -0,0 +1,496 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.pool;
+
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import de.jakop.lotus.domingo.DNotesException;
+import de.jakop.lotus.domingo.DNotesFactory;
+import de.jakop.lotus.domingo.DNotesRuntimeException;
+import de.jakop.lotus.domingo.DSession;
+import de.jakop.lotus.domingo.map.NotesLocation;
+import de.jakop.lotus.domingo.monitor.AbstractMonitorEnabled;
+
+/**
+ * Pool of Notes sessions, partitioned by server and credentials.
+ *
+ * <p>Creating a remote session costs a DIIOP handshake or a Http login.
+ * The pool keeps sessions once created and hands them out again to later
+ * callers with the same location and credentials. A session is used by a
+ * single borrower at a time; it must be returned with
+ * {@link #returnSession(DSession)} when no longer needed, typically in a
+ * <code>finally</code> block:</p>
+ *
+ * <pre>
+ * SessionPool pool = factory.getSessionPool();
+ * DSession session = pool.borrowSession(location);
+ * try {
+ *     ...
+ * } finally {
+ *     pool.returnSession(session);
+ * }
+ * </pre>
+ *
+ * <p>Idle sessions are validated with {@link DSession#isValid()} before they
+ * are handed out and discarded if invalid. A background thread discards
+ * sessions that have been idle longer than the idle timeout, but keeps at
+ * least the configured minimum number of idle sessions per partition and
+ * creates new sessions for partitions below this minimum.</p>
+ *
+ * <p>The pool is configured with the following properties, see
+ * {@link DNotesFactory#getProperty(String, String)}:</p>
+ * <ul>
+ * <li><tt>de.jakop.lotus.domingo.pool.min</tt> - minimum number of idle
+ * sessions per partition, default 0</li>
+ * <li><tt>de.jakop.lotus.domingo.pool.max</tt> - maximum number of sessions
+ * per partition, default 8</li>
+ * <li><tt>de.jakop.lotus.domingo.pool.idletimeout</tt> - milliseconds after
+ * which an idle session is discarded, default 300000</li>
+ * <li><tt>de.jakop.lotus.domingo.pool.maxwait</tt> - milliseconds to wait for
+ * a session if all sessions are in use, default 30000</li>
+ * </ul>
+ *
+ * <p>This class is thread-safe.</p>
+ */
+public final class SessionPool extends AbstractMonitorEnabled {
+
+    /** Default minimum number of idle sessions per partition. */
+    private static final int DEFAULT_MIN_IDLE = 0;
+
+    /** Default maximum number of sessions per partition. */
+    private static final int DEFAULT_MAX_TOTAL = 8;
+
+    /** Default idle timeout in milliseconds. */
+    private static final long DEFAULT_IDLE_TIMEOUT = 300000;
+
+    /** Default maximum wait time in milliseconds. */
+    private static final long DEFAULT_MAX_WAIT = 30000;
+
+    /** Minimum interval of the idle eviction in milliseconds. */
+    private static final long MIN_EVICTION_INTERVAL = 1000;
+
+    private final DNotesFactory fFactory;
+
+    private final int fMinIdle;
+
+    private final int fMaxTotal;
+
+    private final long fIdleTimeout;
+
+    private final long fMaxWait;
+
+    /** Partitions by key. */
+    private final Map fPartitions = new ConcurrentHashMap();
+
+    /** Partitions of borrowed sessions, by identity of the session. */
+    private final Map fBorrowed = new IdentityHashMap();
+
+    private final ScheduledExecutorService fEvictor;
+
+    private volatile boolean fClosed = false;
+
+    /**
+     * Creates a new session pool for a factory, configured by properties.
+     *
+     * @param factory the factory to create sessions with
+     */
+    public SessionPool(final DNotesFactory factory) {
+        this(factory, DNotesFactory.getIntProperty("de.jakop.lotus.domingo.pool.min", DEFAULT_MIN_IDLE),
+                DNotesFactory.getIntProperty("de.jakop.lotus.domingo.pool.max", DEFAULT_MAX_TOTAL),
+                getLongProperty("de.jakop.lotus.domingo.pool.idletimeout", DEFAULT_IDLE_TIMEOUT),
+                getLongProperty("de.jakop.lotus.domingo.pool.maxwait", DEFAULT_MAX_WAIT));
+    }
+
+    /**
+     * Creates a new session pool for a factory.
+     *
+     * @param factory the factory to create sessions with
+     * @param minIdle minimum number of idle sessions per partition kept by
+     *            the idle eviction
+     * @param maxTotal maximum number of borrowed and idle sessions per
+     *            partition
+     * @param idleTimeout milliseconds after which an idle session is
+     *            discarded
+     * @param maxWait milliseconds to wait for a session if all sessions of
+     *            a partition are in use
+     */
+    public SessionPool(final DNotesFactory factory, final int minIdle, final int maxTotal, final long idleTimeout,
+            final long maxWait) {
+        if (maxTotal < 1) {
+            throw new IllegalArgumentException("maxTotal must be at least 1: " + maxTotal);
+        }
+        fFactory = factory;
+        fMinIdle = Math.max(0, Math.min(minIdle, maxTotal));
+        fMaxTotal = maxTotal;
+        fIdleTimeout = idleTimeout;
+        fMaxWait = maxWait;
+        fEvictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "domingo-session-evictor");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        final long interval = Math.max(MIN_EVICTION_INTERVAL, idleTimeout / 2);
+        fEvictor.scheduleWithFixedDelay(new Runnable() {
+            public void run() {
+                evict();
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a session for a location. Remote locations are pooled by host
+     * and credentials, local locations share a single partition.
+     *
+     * @param location location of a Notes database
+     * @return a session for exclusive use until returned
+     * @throws DNotesException if no session can be obtained within the
+     *             maximum wait time or the location is invalid
+     */
+    public DSession borrowSession(final NotesLocation location) throws DNotesException {
+        if (location.isIIOP() || location.isHttp()) {
+            return borrowSession(location.getHost(), location.getUsername(), location.getPassword());
+        } else if (location.isLocal()) {
+            return borrowSession(null, null, null);
+        }
+        throw new DNotesException("Invalid notes uri: " + location);
+    }
+
+    /**
+     * Borrows a session for a server and credentials.
+     *
+     * @param serverUrl URL of server or <code>null</code> for a local session
+     * @param user user name for authentication
+     * @param password password for authentication
+     * @return a session for exclusive use until returned
+     * @throws DNotesException if no session can be obtained within the
+     *             maximum wait time
+     */
+    public DSession borrowSession(final String serverUrl, final String user, final String password)
+            throws DNotesException {
+        if (fClosed) {
+            throw new DNotesException("Session pool is closed");
+        }
+        final Partition partition = getPartition(new Key(serverUrl, user, password));
+        try {
+            if (!partition.fPermits.tryAcquire(fMaxWait, TimeUnit.MILLISECONDS)) {
+                throw new DNotesException("Timeout waiting for a session to " + partition.fKey);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DNotesException("Interrupted while waiting for a session to " + partition.fKey, e);
+        }
+        try {
+            DSession session;
+            while ((session = partition.pollIdle()) != null) {
+                if (isValid(session)) {
+                    break;
+                }
+            }
+            if (session == null) {
+                session = partition.fKey.createSession(fFactory);
+            }
+            synchronized (fBorrowed) {
+                fBorrowed.put(session, partition);
+            }
+            return session;
+        } catch (DNotesRuntimeException e) {
+            partition.fPermits.release();
+            throw new DNotesException("Cannot create session to " + partition.fKey, e);
+        } catch (RuntimeException e) {
+            partition.fPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a borrowed session to the pool.
+     *
+     * @param session a session borrowed from this pool
+     */
+    public void returnSession(final DSession session) {
+        final Partition partition = removeBorrowed(session);
+        if (!fClosed) {
+            partition.addIdle(session);
+        }
+        partition.fPermits.release();
+    }
+
+    /**
+     * Discards a borrowed session instead of returning it to the pool, e.g.
+     * after a communication error.
+     *
+     * @param session a session borrowed from this pool
+     */
+    public void invalidateSession(final DSession session) {
+        final Partition partition = removeBorrowed(session);
+        partition.fPermits.release();
+    }
+
+    /**
+     * Returns the number of idle sessions in all partitions.
+     *
+     * @return number of idle sessions
+     */
+    public int getIdleCount() {
+        int count = 0;
+        final Iterator iterator = fPartitions.values().iterator();
+        while (iterator.hasNext()) {
+            count += ((Partition) iterator.next()).getIdleCount();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of borrowed sessions in all partitions.
+     *
+     * @return number of borrowed sessions
+     */
+    public int getActiveCount() {
+        synchronized (fBorrowed) {
+            return fBorrowed.size();
+        }
+    }
+
+    /**
+     * Discards idle sessions that exceeded the idle timeout, keeping at least
+     * the minimum number of idle sessions per partition, and creates new
+     * sessions for partitions below the minimum. Called periodically by a
+     * background thread. If a session cannot be created, the error is logged
+     * and the remaining partitions are still processed.
+     */
+    public void evict() {
+        final long idleSince = System.currentTimeMillis() - fIdleTimeout;
+        final Iterator iterator = fPartitions.values().iterator();
+        while (iterator.hasNext() && !fClosed) {
+            final Partition partition = (Partition) iterator.next();
+            partition.removeExpired(idleSince, fMinIdle);
+            while (partition.getIdleCount() < fMinIdle && partition.fPermits.tryAcquire()) {
+                try {
+                    partition.addIdle(partition.fKey.createSession(fFactory));
+                } catch (RuntimeException e) {
+                    getMonitor().error("Cannot create idle session for " + partition.fKey, e);
+                    break;
+                } finally {
+                    partition.fPermits.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes the pool. Idle sessions are discarded, borrowed sessions are
+     * discarded when returned.
+     */
+    public void close() {
+        fClosed = true;
+        fEvictor.shutdownNow();
+        final Iterator iterator = fPartitions.values().iterator();
+        while (iterator.hasNext()) {
+            ((Partition) iterator.next()).clear();
+        }
+    }
+
+    private Partition getPartition(final Key key) {
+        Partition partition = (Partition) fPartitions.get(key);
+        if (partition == null) {
+            synchronized (fPartitions) {
+                partition = (Partition) fPartitions.get(key);
+                if (partition == null) {
+                    partition = new Partition(key, fMaxTotal);
+                    fPartitions.put(key, partition);
+                }
+            }
+        }
+        return partition;
+    }
+
+    private Partition removeBorrowed(final DSession session) {
+        final Partition partition;
+        synchronized (fBorrowed) {
+            partition = (Partition) fBorrowed.remove(session);
+        }
+        if (partition == null) {
+            throw new IllegalArgumentException("Session not borrowed from this pool: " + session);
+        }
+        return partition;
+    }
+
+    private static boolean isValid(final DSession session) {
+        try {
+            return session.isValid();
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static long getLongProperty(final String key, final long defaultValue) {
+        final String value = DNotesFactory.getProperty(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Identifies a partition by server and credentials.
+     */
+    private static final class Key {
+
+        private final String fServerUrl;
+
+        private final String fUser;
+
+        private final String fPassword;
+
+        Key(final String serverUrl, final String user, final String password) {
+            fServerUrl = serverUrl;
+            fUser = user;
+            fPassword = password;
+        }
+
+        DSession createSession(final DNotesFactory factory) {
+            if (fServerUrl == null) {
+                return factory.getSession();
+            }
+            return factory.getSession(fServerUrl, fUser, fPassword);
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.lang.Object#equals(java.lang.Object)
+         */
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return equals(fServerUrl, other.fServerUrl) && equals(fUser, other.fUser)
+                    && equals(fPassword, other.fPassword);
+        }
+
+        /**
+         * {@inheritDoc}
+         *
+         * @see java.lang.Object#hashCode()
+         */
+        public int hashCode() {
+            int hash = fServerUrl != null ? fServerUrl.hashCode() : 0;
+            hash = hash * 31 + (fUser != null ? fUser.hashCode() : 0);
+            return hash * 31 + (fPassword != null ? fPassword.hashCode() : 0);
+        }
+
+        /**
+         * Returns server and user, but never the password.
+         *
+         * @see java.lang.Object#toString()
+         */
+        public String toString() {
+            return fServerUrl == null ? "local" : fUser + "@" + fServerUrl;
+        }
+
+        private static boolean equals(final String s1, final String s2) {
+            return s1 == null ? s2 == null : s1.equals(s2);
+        }
+    }
+
+    /**
+     * Idle and borrowed sessions of a single server and user.
+     */
+    private static final class Partition {
+
+        private final Key fKey;
+
+        /** Limits the number of borrowed sessions. */
+        private final Semaphore fPermits;
+
+        /** Idle sessions, most recently returned last. */
+        private final LinkedList fIdle = new LinkedList();
+
+        Partition(final Key key, final int maxTotal) {
+            fKey = key;
+            fPermits = new Semaphore(maxTotal, true);
+        }
+
+        synchronized DSession pollIdle() {
+            if (fIdle.isEmpty()) {
+                return null;
+            }
+            return ((IdleSession) fIdle.removeLast()).fSession;
+        }
+
+        synchronized void addIdle(final DSession session) {
+            fIdle.addLast(new IdleSession(session, System.currentTimeMillis()));
+        }
+
+        synchronized int getIdleCount() {
+            return fIdle.size();
+        }
+
+        /**
+         * Removes the sessions idle since a given time or longer, oldest first,
+         * as long as more than the minimum number of sessions are idle.
+         */
+        synchronized void removeExpired(final long idleSince, final int minIdle) {
+            while (fIdle.size() > minIdle && ((IdleSession) fIdle.getFirst()).fSince <= idleSince) {
+                fIdle.removeFirst();
+            }
+        }
+
+        synchronized void clear() {
+            fIdle.clear();
+        }
+    }
+
+    /**
+     * An idle session and the time it was returned to the pool.
+     */
+    private static final class IdleSession {
+
+        private final DSession fSession;
+
+        private final long fSince;
+
+        IdleSession(final DSession session, final long since) {
+            fSession = session;
+            fSince = since;
+        }
+    }
+}
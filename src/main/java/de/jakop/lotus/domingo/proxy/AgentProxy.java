@@ -93,6 +93,23 @@ public final class AgentProxy extends BaseProxy implements DAgent {
         return (Agent) getNotesObject();
     }
 
+    /**
+     * Checks if the Notes agent is still valid and, if not, removes it from
+     * the cache of its database.
+     *
+     * @param e the NotesException
+     * @see BaseProxy#notesErrorOccurred(NotesException)
+     */
+    protected void notesErrorOccurred(final NotesException e) {
+        try {
+            getAgent().getName();
+        } catch (NotesException ne) {
+            if (getParent() instanceof DatabaseProxy) {
+                ((DatabaseProxy) getParent()).removeHandle(this);
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      * @see DAgent#getComment()
@@ -30,6 +30,7 @@ import java.util.Calendar;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.TimeZone;
 import java.util.Vector;
 
@@ -49,12 +50,15 @@ import de.jakop.lotus.domingo.DBaseItem;
 import de.jakop.lotus.domingo.DDatabase;
 import de.jakop.lotus.domingo.DDateRange;
 import de.jakop.lotus.domingo.DDocument;
+import de.jakop.lotus.domingo.DDocumentSnapshot;
 import de.jakop.lotus.domingo.DEmbeddedObject;
 import de.jakop.lotus.domingo.DItem;
 import de.jakop.lotus.domingo.DNotesException;
 import de.jakop.lotus.domingo.DNotesMonitor;
 import de.jakop.lotus.domingo.DProfileDocument;
 import de.jakop.lotus.domingo.DRichTextItem;
+import de.jakop.lotus.domingo.monitor.MonitorUtil;
+import de.jakop.lotus.domingo.util.BulkWriter;
 import de.jakop.lotus.domingo.util.DateUtil;
 import de.jakop.lotus.domingo.util.GregorianDateTimeRange;
 import de.jakop.lotus.domingo.util.Timezones;
@@ -256,11 +260,11 @@ public abstract class BaseDocumentProxy extends BaseProxy implements DBaseDocume
     public final DItem replaceItemValue(final String name, final TimeZone value) {
         String s = EMPTY_STRING;
         if (value == null) {
-            getMonitor().warn("time zone is null; storing an empty string in item " + name);
+            MonitorUtil.warn(getMonitor(), "time zone is null; storing an empty string in item {}", name);
         } else {
             s = Timezones.getLotusTimeZoneString(value);
             if (s.startsWith("Unknown")) {
-                getMonitor().warn("Unknown time zone identifier (using default): " + s);
+                MonitorUtil.warn(getMonitor(), "Unknown time zone identifier (using default): {}", s);
                 s = TimeZone.getDefault().getID();
                 s = Timezones.getLotusTimeZoneString(s);
             }
@@ -320,6 +324,20 @@ public abstract class BaseDocumentProxy extends BaseProxy implements DBaseDocume
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @see DBaseDocument#replaceItemValues(java.util.Map)
+     */
+    public final void replaceItemValues(final Map values) {
+        getFactory().preprocessMethod();
+        final Iterator iterator = values.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry entry = (Map.Entry) iterator.next();
+            BulkWriter.replaceItemValue(this, (String) entry.getKey(), entry.getValue());
+        }
+    }
+
     /**
      * {@inheritDoc}
      * @see DBaseDocument#save(boolean)
@@ -498,6 +516,33 @@ public abstract class BaseDocumentProxy extends BaseProxy implements DBaseDocume
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * @see DBaseDocument#getItemValueDateMillis(java.lang.String)
+     */
+    public final long getItemValueDateMillis(final String name) {
+        getFactory().preprocessMethod();
+        try {
+            Vector vector = ((Document) getNotesObject()).getItemValueDateTimeArray(name);
+            long millis = DDocumentSnapshot.NO_DATE;
+            if (vector != null && vector.size() > 0) {
+                final Object object = vector.get(0);
+                if (object instanceof DateRange) {
+                    millis = getMillis(((DateRange) object).getStartDateTime());
+                } else if (object instanceof DateTime) {
+                    millis = getMillis((DateTime) object);
+                }
+                recycleDateTimeList(vector);
+            }
+            return millis;
+        } catch (NotesException e) {
+            if (e.id == NotesError.NOTES_ERR_NOT_A_DATE_ITEM) {
+                return DDocumentSnapshot.NO_DATE;
+            }
+            throw newRuntimeException(RESOURCES.getString("basedocument.cannot.get.value.calendar.1", name), e);
+        }
+    }
+
     /**
      * {@inheritDoc}
      * @see DBaseDocument#getItemValueDateRange(java.lang.String)
@@ -1085,6 +1130,22 @@ public abstract class BaseDocumentProxy extends BaseProxy implements DBaseDocume
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * @see DBaseDocument#getItemValueDateTimeArrayMillis(java.lang.String)
+     */
+    public final long[] getItemValueDateTimeArrayMillis(final String name) {
+        getFactory().preprocessMethod();
+        try {
+            Vector vector = ((Document) getNotesObject()).getItemValueDateTimeArray(name);
+            final long[] millis = convertNotesDateTimesToMillis(vector);
+            recycleDateTimeList(vector);
+            return millis;
+        } catch (NotesException e) {
+            throw newRuntimeException(RESOURCES.getString("basedocument.cannot.get.datetimearray"), e);
+        }
+    }
+
     /**
      * {@inheritDoc}
      * @see DBaseDocument#getLockHolders()
@@ -32,6 +32,8 @@ import java.util.Vector;
 
 import de.jakop.lotus.domingo.DDocument;
 import de.jakop.lotus.domingo.exception.DominoException;
+import de.jakop.lotus.domingo.metrics.Metrics;
+import de.jakop.lotus.domingo.metrics.StripedCounter;
 import de.jakop.lotus.domingo.monitor.AbstractMonitorEnabled;
 import lotus.domino.Base;
 import lotus.domino.DateRange;
@@ -95,6 +97,9 @@ public abstract class BaseProxy extends AbstractMonitorEnabled implements DBase
     /** Reference to the factory which controls this instance. */
     private final NotesProxyFactory factory;
 
+    /** Gauge of live instances of this class or <code>null</code> if metrics are disabled. */
+    private final StripedCounter liveGauge;
+
     ////////////////////////////////////////////////
     // creation
     ////////////////////////////////////////////////
@@ -113,6 +118,12 @@ public abstract class BaseProxy extends AbstractMonitorEnabled implements DBase
         this.factory = theFactory;
         this.parent = theParent;
         this.ref = object;
+        if (Metrics.isEnabled()) {
+            liveGauge = Metrics.liveGauge(getClass());
+            liveGauge.increment();
+        } else {
+            liveGauge = null;
+        }
         //getMonitor().debug("initialize " + super.toString());
     }
 
@@ -235,15 +246,36 @@ public abstract class BaseProxy extends AbstractMonitorEnabled implements DBase
         if (list == null) {
             return null;
         }
-        final List result = new ArrayList();
+        return convertNotesDateTimesToCalendar(list, getDSession().getInternational(), true);
+    }
+
+    /**
+     * Converts every occurrence of a <code>DateTime</code> object to a
+     * <code>java.util.Calendar</code> instance using a given international
+     * proxy. Only the first date/time of a list is checked for a parent
+     * session, as all values of a list are created by the same session.
+     *
+     * @param list the list to convert its content
+     * @param international international proxy used for conversion
+     * @param check whether the next date/time must be checked for a parent session
+     * @return List a new List with the same elements in same order,
+     *         but converted dates
+     */
+    private List convertNotesDateTimesToCalendar(final List list, final InternationalProxy international,
+            final boolean check) {
+        boolean checkNext = check;
+        final List result = new ArrayList(list.size());
         for (int i = 0; i < list.size(); i++) {
             final Object object = list.get(i);
             if (object instanceof DateTime) {
                 final DateTime dateTime = (DateTime) object;
-                checkSession(dateTime);
-                result.add(createCalendar(dateTime));
+                if (checkNext) {
+                    checkSession(dateTime);
+                    checkNext = false;
+                }
+                result.add(international.createCalendar(dateTime));
             } else if (object instanceof List) {
-                result.add(convertNotesDateTimesToCalendar((List) object));
+                result.add(convertNotesDateTimesToCalendar((List) object, international, checkNext));
             } else {
                 result.add(object);
             }
@@ -251,6 +283,48 @@ public abstract class BaseProxy extends AbstractMonitorEnabled implements DBase
         return Collections.unmodifiableList(result);
     }
 
+    /**
+     * Converts all <code>DateTime</code> and <code>DateRange</code> objects
+     * of a list into milliseconds since the epoch. A date range contributes
+     * its start and end value. All other objects are ignored.
+     *
+     * <p>No calendar objects are created. The DateTime objects of the list must
+     * still get recycled by the caller with method recycleDateTimeList().</p>
+     *
+     * @param list the list to convert its content
+     * @return array of milliseconds, never <code>null</code>
+     * @throws NotesException if the start or end of a date range cannot be read
+     * @see InternationalProxy#getMillis(DateTime)
+     */
+    protected final long[] convertNotesDateTimesToMillis(final List list) throws NotesException {
+        if (list == null || list.size() == 0) {
+            return new long[0];
+        }
+        final InternationalProxy international = getDSession().getInternational();
+        long[] result = new long[list.size()];
+        int count = 0;
+        for (int i = 0; i < list.size(); i++) {
+            final Object object = list.get(i);
+            if (object instanceof DateTime) {
+                result[count++] = international.getMillis((DateTime) object);
+            } else if (object instanceof DateRange) {
+                if (count + 2 > result.length) {
+                    final long[] grown = new long[result.length + list.size()];
+                    System.arraycopy(result, 0, grown, 0, count);
+                    result = grown;
+                }
+                result[count++] = international.getMillis(((DateRange) object).getStartDateTime());
+                result[count++] = international.getMillis(((DateRange) object).getEndDateTime());
+            }
+        }
+        if (count == result.length) {
+            return result;
+        }
+        final long[] trimmed = new long[count];
+        System.arraycopy(result, 0, trimmed, 0, count);
+        return trimmed;
+    }
+
     /**
      * Converts every occurrence of a <code>java.util.Calendar</code> or
      * <code>java.util.Date</code> in a List to a <code>DateTime</code> instance.
@@ -370,6 +444,22 @@ public abstract class BaseProxy extends AbstractMonitorEnabled implements DBase
         return getDSession().getInternational().createCalendar(dateTime);
     }
 
+    /**
+     * Converts a Notes DateTime object into milliseconds since the epoch
+     * without creating a Calendar.
+     * <p>Milli seconds are cleared in all cases.</p>
+     *
+     * Adapter to InternationalProxy.
+     *
+     * @param dateTime a Notes DateTime object
+     * @return milliseconds since the epoch or {@link de.jakop.lotus.domingo.DDocumentSnapshot#NO_DATE}
+     *         if the date/time is invalid
+     * @see InternationalProxy#getMillis(DateTime)
+     */
+    protected final long getMillis(final DateTime dateTime) {
+        return getDSession().getInternational().getMillis(dateTime);
+    }
+
     /**
      * Checks and monitors an error if a <code>DateTime</code> object doesn't
      * have a parent session.
@@ -396,6 +486,9 @@ public abstract class BaseProxy extends AbstractMonitorEnabled implements DBase
      * @throws Throwable the <code>Exception</code> raised by this method
      */
     protected final void finalize() throws Throwable {
+        if (liveGauge != null) {
+            liveGauge.decrement();
+        }
         factory.getBaseCache().remove(getNotesObject());
         getFactory().recycleLater(this);
         super.finalize();
@@ -623,6 +716,9 @@ public abstract class BaseProxy extends AbstractMonitorEnabled implements DBase
      * @return new DNotesException
      */
     protected final DNotesException newException(final String message, final NotesException e) {
+        if (e != null) {
+            notesErrorOccurred(e);
+        }
         final DominoException d = e != null ? new DominoException(e) : null;
         return new NotesProxyException(getFullMessage(message, d), d);
     }
@@ -653,10 +749,27 @@ public abstract class BaseProxy extends AbstractMonitorEnabled implements DBase
      * @return new DNotesRuntimeException
      */
     protected final DNotesRuntimeException newRuntimeException(final String message, final Exception e) {
+        if (e instanceof NotesException) {
+            notesErrorOccurred((NotesException) e);
+        }
         final Exception cause = e instanceof NotesException ? new DominoException((NotesException) e) : e;
         return new NotesProxyRuntimeException(getFullMessage(message, cause), cause);
     }
 
+    /**
+     * Called when a Notes operation on this object failed, before the exception
+     * for the caller is created.
+     *
+     * <p>Objects kept in caches override this method to check if their Notes
+     * object is still valid and to remove themselves from the caches if not.
+     * Validity is only checked here, so cache hits cost no Notes call.</p>
+     *
+     * @param e the NotesException
+     */
+    protected void notesErrorOccurred(final NotesException e) {
+        // nothing to do by default
+    }
+
     /**
      * Returns a message for a domino exception.
      * @param message a message string
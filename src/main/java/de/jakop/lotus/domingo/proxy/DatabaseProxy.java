@@ -23,7 +23,6 @@
 
 package de.jakop.lotus.domingo.proxy;
 
-import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collections;
@@ -44,12 +43,14 @@ import de.jakop.lotus.domingo.DDatabase;
 import de.jakop.lotus.domingo.DDocument;
 import de.jakop.lotus.domingo.DForm;
 import de.jakop.lotus.domingo.DNotesException;
+import de.jakop.lotus.domingo.DNotesFactory;
 import de.jakop.lotus.domingo.DNotesMonitor;
 import de.jakop.lotus.domingo.DProfileDocument;
 import de.jakop.lotus.domingo.DSession;
 import de.jakop.lotus.domingo.DView;
 import de.jakop.lotus.domingo.cache.Cache;
-import de.jakop.lotus.domingo.cache.SimpleCache;
+import de.jakop.lotus.domingo.cache.LRUCache;
+import de.jakop.lotus.domingo.util.BulkWriter;
 
 /**
  * Represents a Notes database.
@@ -61,13 +62,30 @@ public final class DatabaseProxy extends BaseProxy implements DDatabase {
     /** serial version ID for serialization. */
     private static final long serialVersionUID = 3834028048088380976L;
 
+    /** Default maximum number of views, forms and agents cached per database. */
+    private static final int DEFAULT_HANDLE_CACHE_SIZE = 100;
+
     /**
-     * Cache of all views of a database.
+     * Cache of views of a database.
      *
-     * <p>viewName -> WeakReference(View)</p>
+     * <p>viewName -> View</p>
      */
     private final Cache viewCache;
 
+    /**
+     * Cache of forms of a database.
+     *
+     * <p>formName -> Form</p>
+     */
+    private final Cache formCache;
+
+    /**
+     * Cache of agents of a database.
+     *
+     * <p>agentName -> Agent</p>
+     */
+    private final Cache agentCache;
+
     /** Flag, if the Notes database was found and is open. */
     private boolean databaseNotFound;
 
@@ -90,7 +108,11 @@ public final class DatabaseProxy extends BaseProxy implements DDatabase {
     private DatabaseProxy(final NotesProxyFactory theFactory, final DSession session,
                           final Database database, final DNotesMonitor monitor, final boolean forceOpen) {
         super(theFactory, session, database, monitor);
-        this.viewCache = new SimpleCache();
+        final int handleCacheSize = Math.max(1, DNotesFactory.getIntProperty(
+                "de.jakop.lotus.domingo.cache.handles", DEFAULT_HANDLE_CACHE_SIZE));
+        this.viewCache = new LRUCache(handleCacheSize);
+        this.formCache = new LRUCache(handleCacheSize);
+        this.agentCache = new LRUCache(handleCacheSize);
         getFactory().preprocessMethod();
         server = getServerIntern();
         filePath = getFilePathIntern();
@@ -254,21 +276,79 @@ public final class DatabaseProxy extends BaseProxy implements DDatabase {
      */
     public DView getView(final String viewName) {
         getFactory().preprocessMethod();
-        final WeakReference weakReference = (WeakReference) viewCache.get(viewName);
-        final DView cachedView = (weakReference == null) ? null : (DView) weakReference.get();
+        final DView cachedView = (DView) viewCache.get(viewName);
         if (cachedView != null) {
             return cachedView;
         }
         try {
             final View notesView = getDatabase().getView(viewName);
             final DView view = ViewProxy.getInstance(getFactory(), this, notesView, getMonitor());
-            viewCache.put(viewName, new WeakReference(view));
+            if (view != null) {
+                viewCache.put(viewName, view);
+            }
             return view;
         } catch (NotesException e) {
             throw newRuntimeException(RESOURCES.getString("database.cannot.get.view.1", viewName), e);
         }
     }
 
+    /**
+     * Removes a view, form or agent from the caches of this database, e.g.
+     * after its Notes object was found to be invalid.
+     *
+     * @param handle the view, form or agent to remove
+     */
+    void removeHandle(final BaseProxy handle) {
+        removeValue(viewCache, handle);
+        removeValue(formCache, handle);
+        removeValue(agentCache, handle);
+    }
+
+    /**
+     * Removes all entries with a given value from a cache.
+     *
+     * <p>The values are iterated while holding the lock of the cache and
+     * removed through the iterator. Calling <code>get</code> while iterating
+     * is not allowed, because it reorders an access-ordered cache.</p>
+     *
+     * @param cache the cache
+     * @param value the value to remove
+     */
+    static void removeValue(final Cache cache, final Object value) {
+        synchronized (cache) {
+            final Iterator iterator = cache.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next() == value) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if the Notes database is still open and, if not, removes it and
+     * all its views, forms and agents from the caches.
+     *
+     * @param e the NotesException
+     * @see BaseProxy#notesErrorOccurred(NotesException)
+     */
+    protected void notesErrorOccurred(final NotesException e) {
+        boolean valid;
+        try {
+            valid = getDatabase().isOpen();
+        } catch (NotesException ne) {
+            valid = false;
+        }
+        if (!valid) {
+            viewCache.clear();
+            formCache.clear();
+            agentCache.clear();
+            if (getParent() instanceof SessionProxy) {
+                ((SessionProxy) getParent()).removeDatabase(this);
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      * @see DDatabase#createDocument()
@@ -283,6 +363,15 @@ public final class DatabaseProxy extends BaseProxy implements DDatabase {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * @see DDatabase#createDocuments(java.util.List)
+     */
+    public List createDocuments(final List itemMaps) {
+        getFactory().preprocessMethod();
+        return BulkWriter.createDocuments(this, itemMaps);
+    }
+
     /**
      * {@inheritDoc}
      * @see DDatabase#getDocumentByID(java.lang.String)
@@ -429,9 +518,17 @@ public final class DatabaseProxy extends BaseProxy implements DDatabase {
      */
     public DAgent getAgent(final String name) {
         getFactory().preprocessMethod();
+        final DAgent cachedAgent = (DAgent) agentCache.get(name);
+        if (cachedAgent != null) {
+            return cachedAgent;
+        }
         try {
             final Agent agent = getDatabase().getAgent(name);
-            return AgentProxy.getInstance(getFactory(), this, agent, getMonitor());
+            final DAgent proxy = AgentProxy.getInstance(getFactory(), this, agent, getMonitor());
+            if (proxy != null) {
+                agentCache.put(name, proxy);
+            }
+            return proxy;
 
         } catch (NotesException e) {
             throw newRuntimeException(RESOURCES.getString("database.cannot.get.agent.1", name), e);
@@ -797,9 +894,17 @@ public final class DatabaseProxy extends BaseProxy implements DDatabase {
      */
     public DForm getForm(final String formName) {
         getFactory().preprocessMethod();
+        final DForm cachedForm = (DForm) formCache.get(formName);
+        if (cachedForm != null) {
+            return cachedForm;
+        }
         try {
             final Form notesForm = getDatabase().getForm(formName);
-            return FormProxy.getInstance(getFactory(), this, notesForm, getMonitor());
+            final DForm form = FormProxy.getInstance(getFactory(), this, notesForm, getMonitor());
+            if (form != null) {
+                formCache.put(formName, form);
+            }
+            return form;
         } catch (NotesException e) {
             throw newRuntimeException(RESOURCES.getString("database.cannot.get.from.1", formName), e);
         }
@@ -23,12 +23,17 @@
 
 package de.jakop.lotus.domingo.proxy;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Vector;
 
 import lotus.domino.Database;
+import lotus.domino.DateRange;
+import lotus.domino.DateTime;
 import lotus.domino.Document;
 import lotus.domino.DocumentCollection;
+import lotus.domino.Item;
 import lotus.domino.MIMEEntity;
 import lotus.domino.NotesException;
 import lotus.domino.Session;
@@ -37,8 +42,10 @@ import lotus.domino.View;
 import de.jakop.lotus.domingo.DBase;
 import de.jakop.lotus.domingo.DDatabase;
 import de.jakop.lotus.domingo.DDocument;
+import de.jakop.lotus.domingo.DDocumentSnapshot;
 import de.jakop.lotus.domingo.DNotesMonitor;
 import de.jakop.lotus.domingo.DView;
+import de.jakop.lotus.domingo.util.DocumentSnapshot;
 
 /**
  * Represents a document in a database.
@@ -483,4 +490,153 @@ public final class DocumentProxy extends BaseDocumentProxy implements DDocument
             throw newRuntimeException("Cannot get Http URL", e);
         }
     }
+
+    /**
+     * {@inheritDoc}
+     * @see DDocument#snapshot(java.lang.String[])
+     */
+    public DDocumentSnapshot snapshot(final String[] itemNames) {
+        getFactory().preprocessMethod();
+        try {
+            final Document document = getDocument();
+            final List names = new ArrayList(itemNames.length);
+            final List values = new ArrayList(itemNames.length);
+            for (int i = 0; i < itemNames.length; i++) {
+                final Item item = document.getFirstItem(itemNames[i]);
+                if (item != null) {
+                    try {
+                        names.add(itemNames[i]);
+                        values.add(getCompactValues(item));
+                    } finally {
+                        getFactory().recycle(item);
+                    }
+                }
+            }
+            return createSnapshot(document, names, values);
+        } catch (NotesException e) {
+            throw newRuntimeException("Cannot create snapshot", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDocument#snapshot()
+     */
+    public DDocumentSnapshot snapshot() {
+        getFactory().preprocessMethod();
+        try {
+            final Document document = getDocument();
+            final Vector items = document.getItems();
+            final int size = items == null ? 0 : items.size();
+            final List names = new ArrayList(size);
+            final List values = new ArrayList(size);
+            try {
+                for (int i = 0; i < size; i++) {
+                    final Item item = (Item) items.get(i);
+                    names.add(item.getName());
+                    values.add(getCompactValues(item));
+                }
+            } finally {
+                for (int i = 0; i < size; i++) {
+                    getFactory().recycle(items.get(i));
+                }
+            }
+            return createSnapshot(document, names, values);
+        } catch (NotesException e) {
+            throw newRuntimeException("Cannot create snapshot", e);
+        }
+    }
+
+    /**
+     * Creates a snapshot with the given items of a document.
+     *
+     * @param document the Notes document
+     * @param names list of item names
+     * @param values list of compact item values, parallel to names
+     * @return new snapshot
+     * @throws NotesException if the document cannot be accessed
+     */
+    private DDocumentSnapshot createSnapshot(final Document document, final List names, final List values)
+            throws NotesException {
+        long lastModified = DDocumentSnapshot.NO_DATE;
+        if (!document.isNewNote()) {
+            final DateTime dateTime = document.getLastModified();
+            if (dateTime != null) {
+                lastModified = getMillis(dateTime);
+                getFactory().recycle(dateTime);
+            }
+        }
+        return new DocumentSnapshot(universalID, lastModified, (String[]) names.toArray(new String[names.size()]),
+            values.toArray());
+    }
+
+    /**
+     * Converts Notes date/times and date ranges into the compact
+     * representation of a snapshot. Date ranges are recycled.
+     *
+     * @param vector list of Notes date/times and date ranges
+     * @return <code>long[]</code>, or <code>long[][]</code> if the list contains date ranges
+     * @throws NotesException if a date range cannot be read
+     * @see DocumentSnapshot
+     */
+    private Object getCompactDateTimes(final Vector vector) throws NotesException {
+        boolean ranges = false;
+        for (int i = 0; i < vector.size(); i++) {
+            ranges |= vector.get(i) instanceof DateRange;
+        }
+        if (!ranges) {
+            final long[] result = new long[vector.size()];
+            for (int i = 0; i < vector.size(); i++) {
+                result[i] = getMillis((DateTime) vector.get(i));
+            }
+            return result;
+        }
+        final long[][] result = new long[vector.size()][];
+        for (int i = 0; i < vector.size(); i++) {
+            final Object object = vector.get(i);
+            if (object instanceof DateRange) {
+                final DateRange range = (DateRange) object;
+                final DateTime start = range.getStartDateTime();
+                final DateTime end = range.getEndDateTime();
+                result[i] = new long[] {getMillis(start), getMillis(end)};
+                getFactory().recycle(start);
+                getFactory().recycle(end);
+                getFactory().recycle(range);
+            } else {
+                result[i] = new long[] {getMillis((DateTime) object)};
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Reads the values of an item into the compact representation of a snapshot.
+     *
+     * @param item a Notes item
+     * @return <code>String[]</code>, <code>double[]</code>, <code>long[]</code>
+     *         or <code>long[][]</code> if date/times contain date ranges
+     * @throws NotesException if the item cannot be read
+     * @see DocumentSnapshot
+     */
+    private Object getCompactValues(final Item item) throws NotesException {
+        final int type = item.getType();
+        if (type == Item.DATETIMES) {
+            final Vector vector = item.getValueDateTimeArray();
+            if (vector == null) {
+                return new long[0];
+            }
+            try {
+                return getCompactDateTimes(vector);
+            } finally {
+                recycleDateTimeList(vector);
+            }
+        } else if (type == Item.NUMBERS) {
+            return DocumentSnapshot.toCompactValues(item.getValues());
+        } else if (type == Item.TEXT || type == Item.NAMES || type == Item.AUTHORS || type == Item.READERS) {
+            return DocumentSnapshot.toCompactValues(item.getValues());
+        } else {
+            final String text = item.getText();
+            return new String[] {text != null ? text : EMPTY_STRING};
+        }
+    }
 }
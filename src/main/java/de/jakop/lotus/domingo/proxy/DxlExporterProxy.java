@@ -23,6 +23,11 @@
 
 package de.jakop.lotus.domingo.proxy;
 
+import java.io.OutputStream;
+import java.io.Writer;
+
+import org.xml.sax.ContentHandler;
+
 import lotus.domino.Base;
 import lotus.domino.Database;
 import lotus.domino.Document;
@@ -142,6 +147,99 @@ public final class DxlExporterProxy extends BaseProxy implements DDxlExporter {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * @see DDxlExporter#exportDxl(DDatabase, java.io.Writer)
+     */
+    public void exportDxl(final DDatabase database, final Writer writer) throws DNotesException {
+        process(database, writer);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDxlExporter#exportDxl(DDatabase, java.io.OutputStream)
+     */
+    public void exportDxl(final DDatabase database, final OutputStream outputStream) throws DNotesException {
+        process(database, outputStream);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDxlExporter#exportDxl(DDatabase, org.xml.sax.ContentHandler)
+     */
+    public void exportDxl(final DDatabase database, final ContentHandler handler) throws DNotesException {
+        process(database, handler);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDxlExporter#exportDxl(DDocument, java.io.Writer)
+     */
+    public void exportDxl(final DDocument document, final Writer writer) throws DNotesException {
+        process(document, writer);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDxlExporter#exportDxl(DDocument, java.io.OutputStream)
+     */
+    public void exportDxl(final DDocument document, final OutputStream outputStream) throws DNotesException {
+        process(document, outputStream);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDxlExporter#exportDxl(DDocument, org.xml.sax.ContentHandler)
+     */
+    public void exportDxl(final DDocument document, final ContentHandler handler) throws DNotesException {
+        process(document, handler);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDxlExporter#exportDxl(DDocumentCollection, java.io.Writer)
+     */
+    public void exportDxl(final DDocumentCollection documentCollection, final Writer writer) throws DNotesException {
+        process(documentCollection, writer);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDxlExporter#exportDxl(DDocumentCollection, java.io.OutputStream)
+     */
+    public void exportDxl(final DDocumentCollection documentCollection, final OutputStream outputStream) throws DNotesException {
+        process(documentCollection, outputStream);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDxlExporter#exportDxl(DDocumentCollection, org.xml.sax.ContentHandler)
+     */
+    public void exportDxl(final DDocumentCollection documentCollection, final ContentHandler handler) throws DNotesException {
+        process(documentCollection, handler);
+    }
+
+    /**
+     * Exports Domino data to an output using the pipelining API of the
+     * Notes DXL exporter, so that the DXL is never held in memory as a whole.
+     *
+     * @param source the Domino data to export
+     * @param output a writer, output stream or SAX content handler
+     */
+    private void process(final DBase source, final Object output) {
+        if (!(source instanceof BaseProxy)) {
+            throw newRuntimeException("Cannot export DXL", new ClassCastException(source.getClass().getName()));
+        }
+        try {
+            final DxlExporter exporter = getDxlExporter();
+            exporter.setInput(((BaseProxy) source).getNotesObject());
+            exporter.setOutput(output);
+            exporter.process();
+        } catch (NotesException e) {
+            throw newRuntimeException("Cannot export DXL", e);
+        }
+    }
+
     /**
      * {@inheritDoc}
      * @see DDxlExporter#getOutputDOCTYPE()
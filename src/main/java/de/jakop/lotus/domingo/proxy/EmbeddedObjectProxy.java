@@ -23,11 +23,16 @@
 
 package de.jakop.lotus.domingo.proxy;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+
 import lotus.domino.EmbeddedObject;
 import lotus.domino.NotesException;
 import de.jakop.lotus.domingo.DBase;
 import de.jakop.lotus.domingo.DEmbeddedObject;
 import de.jakop.lotus.domingo.DNotesMonitor;
+import de.jakop.lotus.domingo.util.StreamUtil;
 
 /**
  * This class represents the Domino-Class <code>EmbeddedObject</code>.
@@ -96,6 +101,41 @@ public final class EmbeddedObjectProxy extends BaseProxy implements DEmbeddedObj
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * @see DEmbeddedObject#getInputStream()
+     */
+    public InputStream getInputStream() {
+        getFactory().preprocessMethod();
+        try {
+            return getEmbeddedObject().getInputStream();
+        } catch (NotesException e) {
+            throw newRuntimeException("Cannot get input stream", e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DEmbeddedObject#transferTo(java.nio.channels.WritableByteChannel)
+     */
+    public long transferTo(final WritableByteChannel target) {
+        final InputStream in = getInputStream();
+        if (in == null) {
+            return 0;
+        }
+        try {
+            return StreamUtil.transfer(in, target);
+        } catch (IOException e) {
+            throw newRuntimeException("Cannot transfer embedded object", e);
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+                getMonitor().warn("Cannot close input stream of embedded object", e);
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      * @see DEmbeddedObject#getName()
@@ -90,6 +90,23 @@ public final class FormProxy extends BaseProxy implements DForm {
         return (Form) getNotesObject();
     }
 
+    /**
+     * Checks if the Notes form is still valid and, if not, removes it from
+     * the cache of its database.
+     *
+     * @param e the NotesException
+     * @see BaseProxy#notesErrorOccurred(NotesException)
+     */
+    protected void notesErrorOccurred(final NotesException e) {
+        try {
+            getForm().getName();
+        } catch (NotesException ne) {
+            if (getParent() instanceof DatabaseProxy) {
+                ((DatabaseProxy) getParent()).removeHandle(this);
+            }
+        }
+    }
+
     /**
      * {@inheritDoc}
      * @see BaseProxy#toString()
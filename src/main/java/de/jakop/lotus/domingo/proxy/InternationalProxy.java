@@ -28,6 +28,7 @@ import java.util.Calendar;
 import java.util.Date;
 import java.util.TimeZone;
 
+import de.jakop.lotus.domingo.DDocumentSnapshot;
 import de.jakop.lotus.domingo.DNotesFactory;
 import de.jakop.lotus.domingo.exception.DominoException;
 import lotus.domino.DateRange;
@@ -68,6 +69,15 @@ public final class InternationalProxy implements Serializable {
     /** Milli seconds per hour. */
     private static final int MILLIS_PER_HOUR = MILLIS_PER_MINUTE * MINUTES_PER_HOUR;
 
+    /** Milli seconds per day. */
+    private static final long MILLIS_PER_DAY = 24L * MILLIS_PER_HOUR;
+
+    /** Marker for missing or invalid date/time values. */
+    private static final long NO_DATE = DDocumentSnapshot.NO_DATE;
+
+    /** The GMT time zone. */
+    private static final TimeZone GMT = TimeZone.getTimeZone("GMT");
+
     /** Internationalized resources. */
     private static final Resources RESOURCES = ResourceManager.getPackageResources(NotesProxyFactory.class);
 
@@ -122,6 +132,15 @@ public final class InternationalProxy implements Serializable {
     /** Associated session (local call or IIOP). */
     private Session session;
 
+    /** Class of the last converted Notes date/time. */
+    private transient Class fLastDateTimeClass = null;
+
+    /** Whether the last converted Notes date/time was a remote (DIIOP) instance. */
+    private transient boolean fRemote = false;
+
+    /** Last computed Notes time zone value. */
+    private transient ZoneValue fLastZoneValue = null;
+
     /**
      * Constructor.
      *
@@ -154,12 +173,12 @@ public final class InternationalProxy implements Serializable {
     protected DateTime createDateTime(final Calendar calendar) {
         final Calendar correct = (Calendar) calendar.clone();
         try {
-            TimeZone gmtZone = TimeZone.getTimeZone("GMT");
-            correct.setTimeZone(gmtZone);
-            TimeZone timeZone = calendar.getTimeZone();
+            final TimeZone timeZone = calendar.getTimeZone();
+            final long millis = calendar.getTimeInMillis();
+            correct.setTimeZone(GMT);
             correct.add(Calendar.SECOND, -timeZone.getOffset(correct.getTimeInMillis()) / MILLIS_PER_SECOND);
             final DateTime dateTime = session.createDateTime(correct);
-            int zoneValue = getNotesTimeZoneValue(timeZone, calendar.getTimeInMillis());
+            final int zoneValue = getCachedNotesTimeZoneValue(timeZone, millis);
             dateTime.convertToZone(zoneValue, timeZone.inDaylightTime(calendar.getTime()));
             if (!isDateSet(correct)) {
                 dateTime.setAnyDate();
@@ -181,26 +200,98 @@ public final class InternationalProxy implements Serializable {
      * @return a Calendar
      */
     protected Calendar createCalendar(final DateTime dateTime) {
-        final Date date = createDate(dateTime);
-        if (date == null) {
+        final long javaMillis = getJavaMillis(dateTime);
+        if (javaMillis == NO_DATE) {
             return null;
         }
-        TimeZone zone = getTimeZone(dateTime);
-        Calendar calendar = Calendar.getInstance(zone);
-        calendar.setTime(date);
+        final TimeZone zone = getTimeZone(dateTime);
+        if (!isTimeSet(dateTime)) {
+            return new GregorianDate(new Date(toDateOnly(javaMillis, zone)));
+        } else if (!isDateSet(dateTime)) {
+            return new GregorianTime(new Date(toTimeOnly(javaMillis, zone)));
+        } else {
+            return new GregorianDateTime(new Date(toDateTime(javaMillis, getOffset(dateTime), zone)), zone);
+        }
+    }
+
+    /**
+     * Converts a Notes DateTime object into milliseconds since the epoch.
+     *
+     * <p>The result is identical to <code>createCalendar(dateTime).getTimeInMillis()</code>,
+     * but no intermediate calendar objects are created. Date-only values are
+     * returned as midnight GMT, time-only values as a time on January 1st, 1970 GMT.
+     * Milli seconds are cleared in all cases.</p>
+     *
+     * @param dateTime a Notes DateTime object
+     * @return milliseconds since the epoch or {@link DDocumentSnapshot#NO_DATE} if
+     *         the date/time is <code>null</code> or invalid
+     * @see #createCalendar(DateTime)
+     */
+    protected long getMillis(final DateTime dateTime) {
+        final long javaMillis = getJavaMillis(dateTime);
+        if (javaMillis == NO_DATE) {
+            return NO_DATE;
+        }
+        final TimeZone zone = getTimeZone(dateTime);
         if (!isTimeSet(dateTime)) {
-            calendar.add(Calendar.MILLISECOND, zone.getOffset(calendar.getTimeInMillis()));
-            return new GregorianDate(calendar.getTime());
+            return toDateOnly(javaMillis, zone);
         } else if (!isDateSet(dateTime)) {
-            calendar.add(Calendar.MILLISECOND, zone.getOffset(calendar.getTimeInMillis()));
-            return new GregorianTime(calendar);
+            return toTimeOnly(javaMillis, zone);
         } else {
-            calendar.add(Calendar.MILLISECOND, -getOffset(dateTime));
-            calendar.add(Calendar.MILLISECOND, -zone.getOffset(calendar.getTimeInMillis()));
-            return new GregorianDateTime(calendar);
+            return toDateTime(javaMillis, getOffset(dateTime), zone);
         }
     }
 
+    /**
+     * Computes the milliseconds of a date-only value, i.e. midnight GMT of
+     * the local date.
+     *
+     * @param javaMillis milliseconds as returned by the Notes date/time
+     * @param zone time zone of the Java date returned by the Notes date/time
+     * @return milliseconds of midnight GMT
+     */
+    static long toDateOnly(final long javaMillis, final TimeZone zone) {
+        return floor(javaMillis + zone.getOffset(javaMillis), MILLIS_PER_DAY);
+    }
+
+    /**
+     * Computes the milliseconds of a time-only value, i.e. the local time on
+     * January 1st, 1970 GMT.
+     *
+     * @param javaMillis milliseconds as returned by the Notes date/time
+     * @param zone time zone of the Java date returned by the Notes date/time
+     * @return milliseconds of the time on January 1st, 1970 GMT
+     */
+    static long toTimeOnly(final long javaMillis, final TimeZone zone) {
+        final long local = javaMillis + zone.getOffset(javaMillis);
+        return floor(local - floor(local, MILLIS_PER_DAY), MILLIS_PER_SECOND);
+    }
+
+    /**
+     * Computes the milliseconds of a full date/time value.
+     *
+     * @param javaMillis milliseconds as returned by the Notes date/time
+     * @param notesOffset offset of the Notes date/time as computed by {@link #getOffset(DateTime)}
+     * @param zone time zone of the Java date returned by the Notes date/time
+     * @return milliseconds since the epoch with cleared milli seconds
+     */
+    static long toDateTime(final long javaMillis, final int notesOffset, final TimeZone zone) {
+        final long millis = javaMillis - notesOffset;
+        return floor(millis - zone.getOffset(millis), MILLIS_PER_SECOND);
+    }
+
+    /**
+     * Rounds a value down to the nearest multiple of a unit, also for negative values.
+     *
+     * @param value the value
+     * @param unit the unit
+     * @return largest multiple of unit less or equal to value
+     */
+    private static long floor(final long value, final long unit) {
+        final long remainder = value % unit;
+        return remainder < 0 ? value - remainder - unit : value - remainder;
+    }
+
     /**
      * Returns the Java time zone as expected when converting a given Notes
      * date/time instance to a Java date..
@@ -212,11 +303,32 @@ public final class InternationalProxy implements Serializable {
      * @return The time zone of the date/time instance when converted to Java
      */
     private TimeZone getTimeZone(final DateTime dateTime) {
-        TimeZone zone = TimeZone.getDefault();
-        if (dateTime.getClass().getName().equals("lotus.domino.cso.DateTime")) {
-            zone = TimeZone.getTimeZone("GMT");
+        final Class clazz = dateTime.getClass();
+        if (clazz != fLastDateTimeClass) {
+            fRemote = clazz.getName().equals("lotus.domino.cso.DateTime");
+            fLastDateTimeClass = clazz;
         }
-        return zone;
+        return fRemote ? GMT : TimeZone.getDefault();
+    }
+
+    /**
+     * Returns the Notes time zone value for a Java time zone. The value of
+     * the last used time zone is cached, as typically all values of a session
+     * are converted with the same time zone.
+     *
+     * @param zone a Java time zone
+     * @param date a reference date for computing the zone
+     * @return the Notes time zone value
+     * @see #getNotesTimeZoneValue(TimeZone, long)
+     */
+    private int getCachedNotesTimeZoneValue(final TimeZone zone, final long date) {
+        final ZoneValue cached = fLastZoneValue;
+        if (cached != null && cached.fZone == zone && cached.fRawOffset == zone.getRawOffset()) {
+            return cached.fValue;
+        }
+        final int value = getNotesTimeZoneValue(zone, date);
+        fLastZoneValue = new ZoneValue(zone, value);
+        return value;
     }
 
     /**
@@ -353,22 +465,23 @@ public final class InternationalProxy implements Serializable {
     }
 
     /**
-     * Converts a Notes DateTime into a <code>java.util.Calendar</code>. For
-     * invalid dates (e.g. no date- and no time-component available) a null
-     * value is returned.
+     * Returns the milliseconds of the Java date of a Notes DateTime. For
+     * invalid dates (e.g. no date- and no time-component available)
+     * {@link DDocumentSnapshot#NO_DATE} is returned.
      *
      * @param dateTime a Notes DateTime object
-     * @return a <code>java.util.Calendar</code> object or <code>null</code>
+     * @return milliseconds of the Java date or {@link DDocumentSnapshot#NO_DATE}
      *         if dateTime is invalid
      */
-    private Date createDate(final DateTime dateTime) {
+    private long getJavaMillis(final DateTime dateTime) {
         if (dateTime == null) {
-            return null;
+            return NO_DATE;
         }
         try {
-            return dateTime.toJavaDate();
+            final Date date = dateTime.toJavaDate();
+            return date == null ? NO_DATE : date.getTime();
         } catch (NotesException e) {
-            return null;
+            return NO_DATE;
         }
     }
 
@@ -401,4 +514,31 @@ public final class InternationalProxy implements Serializable {
     protected void warn(final String message, final NotesException e) {
         getMonitor().warn(this.getClass().getName() + ":" + message, new DominoException(e));
     }
+
+    /**
+     * Immutable cache entry of a Notes time zone value.
+     */
+    private static final class ZoneValue {
+
+        /** Java time zone. */
+        private final TimeZone fZone;
+
+        /** Raw offset of the time zone when the value was computed. */
+        private final int fRawOffset;
+
+        /** Notes time zone value. */
+        private final int fValue;
+
+        /**
+         * Constructor.
+         *
+         * @param zone Java time zone
+         * @param value Notes time zone value
+         */
+        private ZoneValue(final TimeZone zone, final int value) {
+            fZone = zone;
+            fRawOffset = zone.getRawOffset();
+            fValue = value;
+        }
+    }
 }
@@ -45,6 +45,7 @@ import de.jakop.lotus.domingo.DDocument;
 import de.jakop.lotus.domingo.DItem;
 import de.jakop.lotus.domingo.DNotesMonitor;
 import de.jakop.lotus.domingo.DNotesRuntimeException;
+import de.jakop.lotus.domingo.monitor.MonitorUtil;
 import de.jakop.lotus.domingo.util.GregorianDateTimeRange;
 import de.jakop.lotus.domingo.util.Timezones;
 
@@ -980,7 +981,7 @@ public final class ItemProxy extends BaseItemProxy implements DItem {
         } else {
             s = Timezones.getLotusTimeZoneString(value);
             if (s.startsWith("Unknown")) {
-                getMonitor().warn("Unknown time zone identifier (using default): " + value.getID());
+                MonitorUtil.warn(getMonitor(), "Unknown time zone identifier (using default): {}", value.getID());
                 s = TimeZone.getDefault().getID();
                 s = Timezones.getLotusTimeZoneString(s);
             }
@@ -33,6 +33,7 @@ import java.util.Map;
 
 import de.jakop.lotus.domingo.exception.DominoException;
 import de.jakop.lotus.domingo.monitor.MonitorEnabled;
+import de.jakop.lotus.domingo.monitor.MonitorUtil;
 import de.jakop.lotus.domingo.monitor.NullMonitor;
 import lotus.domino.NotesError;
 import lotus.domino.NotesException;
@@ -141,7 +142,7 @@ public final class NotesProxyFactory extends DNotesFactory implements MonitorEna
         public void run() {
             try {
                 getMonitor().debug(RESOURCES.getString("shutdownhook.starting"));
-                getMonitor().debug("baseCache.size = " + getBaseCache().size());
+                MonitorUtil.debug(getMonitor(), "baseCache.size = {}", getBaseCache().size());
                 DNotesFactory.dispose();
                 getMonitor().debug(RESOURCES.getString("shutdownhook.finished"));
             } catch (DNotesRuntimeException e) {
@@ -230,6 +231,7 @@ public final class NotesProxyFactory extends DNotesFactory implements MonitorEna
      * @see java.lang.ref.WeakReference
      */
     public void disposeInstance(final boolean force) {
+        closeSessionPool();
         System.gc();
         recycleQueue();
         fInternalSession = null;
@@ -252,7 +254,7 @@ public final class NotesProxyFactory extends DNotesFactory implements MonitorEna
             }
         }
         if (getMonitor().isDebugEnabled()) {
-            getMonitor().debug("DateTime counter is " + BaseProxy.getCountDateTime());
+            MonitorUtil.debug(getMonitor(), "DateTime counter is {}", BaseProxy.getCountDateTime());
         }
     }
 
@@ -264,7 +266,7 @@ public final class NotesProxyFactory extends DNotesFactory implements MonitorEna
         int tries = 0;
         while (fBaseCache.size() > 0 && tries < MAX_DISPOSE_TRIES) {
             tries++;
-            getMonitor().debug("Waiting for notes disposal. (" + fBaseCache.size() + " objects in queue)");
+            MonitorUtil.debug(getMonitor(), "Waiting for notes disposal. ({} objects in queue)", fBaseCache.size());
             System.gc();
             recycleQueue();
             sleep(TIME_WAIT_FOR_GC);
@@ -638,11 +640,15 @@ public final class NotesProxyFactory extends DNotesFactory implements MonitorEna
         } else {
             monitor.info(RESOURCES.getString("connect.to.notes.1", currentVersion));
         }
+        if (!monitor.isDebugEnabled()) {
+            return;
+        }
         monitor.debug(RESOURCES.getString("local.session.established"));
-        monitor.debug("    " + RESOURCES.getString("notes.user") + ": " + session.getUserName());
-        monitor.debug("    " + RESOURCES.getString("notes.version") + ": " + session.getNotesVersion());
-        monitor.debug("    " + RESOURCES.getString("notes.platform") + ": " + session.getPlatform());
-        monitor.debug("    " + RESOURCES.getString("notes.data") + ": " + session.getEnvironmentString("Directory", true));
+        MonitorUtil.debug(monitor, "    {}: {}", RESOURCES.getString("notes.user"), session.getUserName());
+        MonitorUtil.debug(monitor, "    {}: {}", RESOURCES.getString("notes.version"), session.getNotesVersion());
+        MonitorUtil.debug(monitor, "    {}: {}", RESOURCES.getString("notes.platform"), session.getPlatform());
+        MonitorUtil.debug(monitor, "    {}: {}", RESOURCES.getString("notes.data"),
+            session.getEnvironmentString("Directory", true));
     }
 
     /**
@@ -680,14 +686,14 @@ public final class NotesProxyFactory extends DNotesFactory implements MonitorEna
         final int size1 = getBaseCache().size();
         if (fCacheThreshold != 0) {
             if (size1 > fCacheThreshold) {
-                getMonitor().debug("baseCache.size = " + size1 + "; recycle queue now");
+                MonitorUtil.debug(getMonitor(), "baseCache.size = {}; recycle queue now", size1);
                 System.gc();
             }
         }
         recycleQueue();
         final int size2 = getBaseCache().size();
         if (size1 != size2) {
-            getMonitor().debug("baseCache.size = " + size2 + "; after recycling queue");
+            MonitorUtil.debug(getMonitor(), "baseCache.size = {}; after recycling queue", size2);
         }
     }
 
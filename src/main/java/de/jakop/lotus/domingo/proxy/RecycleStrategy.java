@@ -24,7 +24,9 @@
 package de.jakop.lotus.domingo.proxy;
 
 import de.jakop.lotus.domingo.exception.DominoException;
+import de.jakop.lotus.domingo.metrics.Metrics;
 import de.jakop.lotus.domingo.monitor.AbstractMonitorEnabled;
+import de.jakop.lotus.domingo.monitor.MonitorUtil;
 import de.jakop.lotus.domingo.queue.Queue;
 import lotus.domino.Agent;
 import lotus.domino.AgentContext;
@@ -109,25 +111,25 @@ public final class RecycleStrategy extends AbstractMonitorEnabled implements Not
             if (notesBase == null) {
                 return; // ignore null values
             } else if (notesBase instanceof Session) {
-                notesBase.recycle();
+                recycleBase(notesBase);
             } else if (notesBase instanceof DbDirectory) {
-                notesBase.recycle();
+                recycleBase(notesBase);
             } else if (notesBase instanceof Database) {
-                notesBase.recycle();
+                recycleBase(notesBase);
             } else if (notesBase instanceof Log) {
                 return; // TODO Check how a Log must be recycled properly. notesBase.recycle();
             } else if (notesBase instanceof View) {
-                notesBase.recycle();
+                recycleBase(notesBase);
             } else if (notesBase instanceof ViewNavigator) {
-                notesBase.recycle();
+                recycleBase(notesBase);
             } else if (notesBase instanceof ViewEntryCollection) {
                 return; // don't recycle entry collections
             } else if (notesBase instanceof ViewEntry) {
-                notesBase.recycle();
+                recycleBase(notesBase);
             } else if (notesBase instanceof DocumentCollection) {
-                notesBase.recycle();
+                recycleBase(notesBase);
             } else if (notesBase instanceof Document) {
-                notesBase.recycle();
+                recycleBase(notesBase);
             } else if (notesBase instanceof Item) {
                 return; // don't recycle items
             } else if (notesBase instanceof RichTextItem) {
@@ -135,18 +137,18 @@ public final class RecycleStrategy extends AbstractMonitorEnabled implements Not
             } else if (notesBase instanceof EmbeddedObject) {
                 return; // don't recycle embedded objects
             } else if (notesBase instanceof Form) {
-                notesBase.recycle();
+                recycleBase(notesBase);
             } else if (notesBase instanceof Agent) {
-                notesBase.recycle();
+                recycleBase(notesBase);
             } else if (notesBase instanceof AgentContext) {
-                notesBase.recycle();
+                recycleBase(notesBase);
             } else if (notesBase instanceof DateTime) {
                 recycleDateTime((DateTime) notesBase);
             } else if (notesBase instanceof DateRange) {
-                notesBase.recycle();
+                recycleBase(notesBase);
             } else {
-                getMonitor().debug("No explicit recycle strategy found for class " + notesBase.getClass().getName());
-                notesBase.recycle();
+                MonitorUtil.debug(getMonitor(), "No explicit recycle strategy found for class {}", notesBase.getClass().getName());
+                recycleBase(notesBase);
             }
         } catch (NotesException e) {
             getMonitor().warn("Cannot recycle " + notesBase.getClass().getName(), new DominoException(e));
@@ -177,13 +179,26 @@ public final class RecycleStrategy extends AbstractMonitorEnabled implements Not
                     getMonitor().fatalError("recycle a DateTime object without parent session.");
                 }
             } else {
-                dateTime.recycle();
+                recycleBase(dateTime);
             }
         } catch (NotesException e) {
             getMonitor().warn("recycle DateTime with parent session not available.", new DominoException(e));
         }
     }
 
+    /**
+     * Recycles a Notes object and counts it in the metrics.
+     *
+     * @param notesBase the Notes object
+     * @throws NotesException if the object cannot be recycled
+     */
+    private void recycleBase(final Base notesBase) throws NotesException {
+        notesBase.recycle();
+        if (Metrics.isEnabled()) {
+            Metrics.recycleCounter(notesBase.getClass()).increment();
+        }
+    }
+
     /**
      * Given any object (might be a Domingo object or a Notes object) returns
      * the base notes object if available.
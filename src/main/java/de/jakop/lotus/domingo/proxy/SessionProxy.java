@@ -56,10 +56,11 @@ import de.jakop.lotus.domingo.DDocument;
 import de.jakop.lotus.domingo.DDxlExporter;
 import de.jakop.lotus.domingo.DLog;
 import de.jakop.lotus.domingo.DNotesException;
+import de.jakop.lotus.domingo.DNotesFactory;
 import de.jakop.lotus.domingo.DNotesMonitor;
 import de.jakop.lotus.domingo.DSession;
 import de.jakop.lotus.domingo.cache.Cache;
-import de.jakop.lotus.domingo.cache.SimpleCache;
+import de.jakop.lotus.domingo.cache.LRUCache;
 
 /**
  * Notes session.
@@ -71,9 +72,17 @@ public final class SessionProxy extends BaseProxy implements DSession {
     /** serial version ID for serialization. */
     private static final long serialVersionUID = 3617290125554628918L;
 
+    /** Default maximum number of databases kept open per session. */
+    private static final int DEFAULT_DATABASE_CACHE_SIZE = 100;
+
     /** Cache of all databases within a session.
-     * <p>Maps database file names to database proxies.</p>*/
-    private final Cache databaseCache = new SimpleCache();
+     * <p>Maps database file names to database proxies. The databases are held
+     * strongly; the least recently used database is removed if the capacity
+     * given by property <tt>de.jakop.lotus.domingo.cache.databases</tt> is
+     * exceeded.</p>*/
+    private final Cache databaseCache = new LRUCache(
+            Math.max(1, DNotesFactory.getIntProperty("de.jakop.lotus.domingo.cache.databases",
+                    DEFAULT_DATABASE_CACHE_SIZE)));
 
     /** Reference to the international settings of a session. */
     private final InternationalProxy international;
@@ -167,13 +176,14 @@ public final class SessionProxy extends BaseProxy implements DSession {
         getFactory().preprocessMethod();
         final String dbKey = DatabaseProxy.getDatabaseKey(serverName, databaseName);
         DDatabase database = (DDatabase) databaseCache.get(dbKey);
-        String userName;
-        try {
-            userName = getCanonicalUserName();
-        } catch (RuntimeException re) {
-            userName = null;
-        }
         if (database == null) {
+            // the user name is only needed for messages and is cached by the session
+            String userName;
+            try {
+                userName = getCanonicalUserName();
+            } catch (RuntimeException re) {
+                userName = null;
+            }
             try {
                 database = getDatabaseIntern(serverName, databaseName, dbKey, userName);
                 databaseCache.put(dbKey, database);
@@ -292,13 +302,25 @@ public final class SessionProxy extends BaseProxy implements DSession {
         try {
             final DbDirectory directory = getSession().getDbDirectory(serverName);
             final Database newDatabase = directory.createDatabase(databaseName, true);
-            databaseCache.put(DatabaseProxy.getDatabaseKey(serverName, databaseName), newDatabase);
-            return DatabaseProxy.getInstance(getFactory(), this, newDatabase, getMonitor(), true);
+            final DDatabase database = DatabaseProxy.getInstance(getFactory(), this, newDatabase, getMonitor(), true);
+            databaseCache.put(DatabaseProxy.getDatabaseKey(serverName, databaseName), database);
+            return database;
         } catch (NotesException e) {
             throw newRuntimeException(RESOURCES.getString("session.cannot.create.database"), e);
         }
     }
 
+    /**
+     * Removes a database from the cache of this session, e.g. after its Notes
+     * database was found to be invalid. The next call of
+     * {@link #getDatabase(String, String)} opens the database again.
+     *
+     * @param database the database to remove
+     */
+    void removeDatabase(final DatabaseProxy database) {
+        DatabaseProxy.removeValue(databaseCache, database);
+    }
+
     /**
      * {@inheritDoc}
      * @see DSession#getCommonUserName()
@@ -27,11 +27,14 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Vector;
 
+import lotus.domino.DateRange;
+import lotus.domino.DateTime;
 import lotus.domino.Document;
 import lotus.domino.NotesException;
 import lotus.domino.ViewEntry;
 import de.jakop.lotus.domingo.DBase;
 import de.jakop.lotus.domingo.DDocument;
+import de.jakop.lotus.domingo.DDocumentSnapshot;
 import de.jakop.lotus.domingo.DNotesMonitor;
 import de.jakop.lotus.domingo.DViewEntry;
 
@@ -108,6 +111,40 @@ public final class ViewEntryProxy extends BaseProxy implements DViewEntry {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     * @see DViewEntry#getColumnValuesMillis()
+     */
+    public long[] getColumnValuesMillis() {
+        getFactory().preprocessMethod();
+        try {
+            final Vector vector = getViewEntry().getColumnValues();
+            if (vector == null) {
+                return new long[0];
+            }
+            final InternationalProxy international = getDSession().getInternational();
+            final long[] result = new long[vector.size()];
+            for (int i = 0; i < result.length; i++) {
+                Object value = vector.get(i);
+                if (value instanceof List && ((List) value).size() > 0) {
+                    value = ((List) value).get(0);
+                }
+                if (value instanceof DateRange) {
+                    value = ((DateRange) value).getStartDateTime();
+                }
+                if (value instanceof DateTime) {
+                    result[i] = international.getMillis((DateTime) value);
+                } else {
+                    result[i] = DDocumentSnapshot.NO_DATE;
+                }
+            }
+            recycleDateTimeList(vector);
+            return result;
+        } catch (NotesException e) {
+            throw newRuntimeException("Cannot get column values", e);
+        }
+    }
+
     /**
      * {@inheritDoc}
      * @see DViewEntry#getDocument()
@@ -23,9 +23,15 @@
 
 package de.jakop.lotus.domingo.proxy;
 
+import java.text.Collator;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Vector;
 
@@ -47,7 +53,10 @@ import de.jakop.lotus.domingo.DNotesMonitor;
 import de.jakop.lotus.domingo.DNotesRuntimeException;
 import de.jakop.lotus.domingo.DView;
 import de.jakop.lotus.domingo.DViewColumn;
+import de.jakop.lotus.domingo.DViewDesign;
 import de.jakop.lotus.domingo.DViewEntry;
+import de.jakop.lotus.domingo.util.ViewColumnDesign;
+import de.jakop.lotus.domingo.util.ViewDesign;
 
 /**
  * Represents the Domino-Class <code>View</code>.
@@ -59,9 +68,18 @@ public final class ViewProxy extends BaseCollectionProxy implements DView {
     /** serial version ID for serialization. */
     private static final long serialVersionUID = 3832616283597780788L;
 
+    /**
+     * Below this ratio of view entries per key, {@link #lookupAll(Collection)}
+     * reads the whole view instead of searching each key.
+     */
+    private static final int LOOKUP_SCAN_RATIO = 16;
+
     /** The name of the view for fast access. */
     private String name = null;
 
+    /** Cached design of the view. */
+    private ViewDesign design = null;
+
     /**
      * Constructor.
      *
@@ -108,6 +126,23 @@ public final class ViewProxy extends BaseCollectionProxy implements DView {
         return (View) getNotesObject();
     }
 
+    /**
+     * Checks if the Notes view is still valid and, if not, removes it from
+     * the cache of its database.
+     *
+     * @param e the NotesException
+     * @see BaseProxy#notesErrorOccurred(NotesException)
+     */
+    protected void notesErrorOccurred(final NotesException e) {
+        try {
+            getView().getName();
+        } catch (NotesException ne) {
+            if (getParent() instanceof DatabaseProxy) {
+                ((DatabaseProxy) getParent()).removeHandle(this);
+            }
+        }
+    }
+
     /**
      * @see DView#refresh()
      */
@@ -754,6 +789,277 @@ public final class ViewProxy extends BaseCollectionProxy implements DView {
         }
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If there are many keys compared to the number of entries in the view,
+     * the view is read once with a <code>ViewNavigator</code> and each
+     * document entry is matched against a hash index of the keys; otherwise
+     * each key is searched. Both run in a single call on the Notes thread.
+     * When reading the view, text is compared with a collator that is as
+     * sensitive to case and accents as the sorting of the first sorted
+     * column, like <code>getAllEntriesByKey</code> compares it.</p>
+     *
+     * @see DView#lookupAll(java.util.Collection)
+     */
+    public Map lookupAll(final Collection keys) {
+        getFactory().preprocessMethod();
+        final Map result = new LinkedHashMap();
+        final Iterator iterator = keys.iterator();
+        while (iterator.hasNext()) {
+            final Object key = iterator.next();
+            if (!result.containsKey(key)) {
+                result.put(key, new ArrayList());
+            }
+        }
+        if (result.isEmpty()) {
+            return result;
+        }
+        try {
+            final ViewNavigator navigator = getView().createViewNav();
+            try {
+                if (navigator.getCount() > result.size() * LOOKUP_SCAN_RATIO) {
+                    searchAll(result);
+                } else {
+                    scanAll(navigator, result);
+                }
+            } finally {
+                getFactory().recycle(navigator);
+            }
+        } catch (NotesException e) {
+            throw newRuntimeException("Cannot look up entries of view " + name, e);
+        }
+        return result;
+    }
+
+    /**
+     * Searches the entries of each key separately.
+     *
+     * @param result map of keys to lists of entries to fill
+     * @throws NotesException if the view cannot be searched
+     */
+    private void searchAll(final Map result) throws NotesException {
+        final Iterator iterator = result.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry mapEntry = (Map.Entry) iterator.next();
+            final List entries = (List) mapEntry.getValue();
+            final Object key = mapEntry.getKey();
+            final Object notesKey = key instanceof Calendar ? createDateTime((Calendar) key) : key;
+            final ViewEntryCollection coll = getView().getAllEntriesByKey(notesKey, true);
+            ViewEntry entry = coll.getFirstEntry();
+            while (entry != null) {
+                entries.add(ViewEntryProxy.getInstance(getFactory(), this, entry, getMonitor()));
+                entry = coll.getNextEntry(entry);
+            }
+            getFactory().recycle(coll);
+            if (notesKey != key) {
+                getFactory().recycle(notesKey);
+            }
+        }
+    }
+
+    /**
+     * Reads all document entries of the view once and collects the entries
+     * whose value in the first sorted column matches a key.
+     *
+     * @param navigator navigator over the view
+     * @param result map of keys to lists of entries to fill
+     * @throws NotesException if the view cannot be read
+     */
+    private void scanAll(final ViewNavigator navigator, final Map result) throws NotesException {
+        final ViewColumn sortedColumn = getFirstSortedColumn();
+        // column values of constant columns are omitted, so the position of the column does not fit
+        final int column = sortedColumn == null ? 0 : sortedColumn.getColumnValuesIndex();
+        final Collator collator = createCollator(sortedColumn);
+        final Map index = createIndex(result, collator);
+        ViewEntry entry = navigator.getFirstDocument();
+        while (entry != null) {
+            final Vector values = entry.getColumnValues();
+            final Object value = values != null && values.size() > column ? values.get(column) : null;
+            final List targets;
+            if (value instanceof Vector) {
+                targets = findTargets(index, (Vector) value, collator);
+            } else {
+                targets = getTargets(index, value, collator);
+            }
+            final ViewEntry next = navigator.getNextDocument();
+            if (targets != null) {
+                final Object proxy = ViewEntryProxy.getInstance(getFactory(), this, entry, getMonitor());
+                for (int i = 0; i < targets.size(); i++) {
+                    ((List) targets.get(i)).add(proxy);
+                }
+            } else {
+                getFactory().recycle(entry);
+            }
+            entry = next;
+        }
+    }
+
+    /**
+     * Creates a hash index of the keys to look up.
+     *
+     * @param result map of keys to lists of entries to fill
+     * @param collator collator for text keys
+     * @return map of normalized keys to lists of the lists of entries to fill
+     */
+    private Map createIndex(final Map result, final Collator collator) {
+        final Map index = new HashMap();
+        final Iterator iterator = result.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry mapEntry = (Map.Entry) iterator.next();
+            final Object normalizedKey = normalizeKey(mapEntry.getKey(), collator);
+            if (normalizedKey != null) {
+                // keys like "ABC" and "abc" may share a slot but keep their own lists
+                List targets = (List) index.get(normalizedKey);
+                if (targets == null) {
+                    targets = new ArrayList();
+                    index.put(normalizedKey, targets);
+                }
+                targets.add(mapEntry.getValue());
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the lists of entries for the first of several column values
+     * that matches a key.
+     *
+     * @param index map of normalized keys to lists of the lists of entries
+     * @param values column values
+     * @param collator collator for text values
+     * @return lists of entries or <code>null</code> if no value matches a key
+     */
+    private List findTargets(final Map index, final Vector values, final Collator collator) {
+        for (int i = 0; i < values.size(); i++) {
+            final List targets = getTargets(index, values.get(i), collator);
+            if (targets != null) {
+                return targets;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the lists of entries for a column value.
+     *
+     * @param index map of normalized keys to lists of the lists of entries
+     * @param value a column value
+     * @param collator collator for text values
+     * @return lists of entries or <code>null</code> if the value matches no key
+     */
+    private List getTargets(final Map index, final Object value, final Collator collator) {
+        final Object normalizedValue = normalizeKey(value, collator);
+        return normalizedValue == null ? null : (List) index.get(normalizedValue);
+    }
+
+    /**
+     * Converts a key or column value to a value that can be compared by
+     * <code>equals</code>: strings to collation keys, numbers to
+     * <code>Double</code>, calendars and date/times to milliseconds.
+     *
+     * @param value a key or column value
+     * @param collator collator for text values
+     * @return normalized value, or <code>null</code> if the value is
+     *         <code>null</code> or cannot be compared, e.g. a date range
+     */
+    private Object normalizeKey(final Object value, final Collator collator) {
+        if (value instanceof String) {
+            return collator.getCollationKey((String) value);
+        } else if (value instanceof Number) {
+            return new Double(((Number) value).doubleValue());
+        } else if (value instanceof Calendar) {
+            return new Long(((Calendar) value).getTimeInMillis());
+        } else if (value instanceof DateTime) {
+            return new Long(getMillis((DateTime) value));
+        }
+        return null;
+    }
+
+    /**
+     * Returns the first sorted column of the view, which
+     * <code>getAllEntriesByKey</code> compares with a key.
+     *
+     * @return first sorted column, <code>null</code> if no column is sorted
+     * @throws NotesException if the columns cannot be read
+     */
+    private ViewColumn getFirstSortedColumn() throws NotesException {
+        final Vector columns = getView().getColumns();
+        for (int i = 0; i < columns.size(); i++) {
+            final ViewColumn column = (ViewColumn) columns.get(i);
+            if (column.isSorted()) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates a collator that compares text like the sorting of a column:
+     * case-insensitive unless the column is sorted case-sensitive, and
+     * accent-insensitive if the column is sorted accent-insensitive.
+     * A column sorted case-sensitive compares accents too.
+     *
+     * @param column a sorted column, or <code>null</code>
+     * @return collator
+     * @throws NotesException if the sort options cannot be read
+     */
+    private static Collator createCollator(final ViewColumn column) throws NotesException {
+        final Collator collator = Collator.getInstance();
+        if (column != null && column.isCaseSensitiveSort()) {
+            collator.setStrength(Collator.TERTIARY);
+        } else if (column != null && !column.isAccentSensitiveSort()) {
+            collator.setStrength(Collator.PRIMARY);
+        } else {
+            collator.setStrength(Collator.SECONDARY);
+        }
+        return collator;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DView#getDesign()
+     */
+    public DViewDesign getDesign() {
+        getFactory().preprocessMethod();
+        try {
+            final View view = getView();
+            long lastModified = 0;
+            final DateTime dateTime = view.getLastModified();
+            if (dateTime != null) {
+                lastModified = getMillis(dateTime);
+                getFactory().recycle(dateTime);
+            }
+            if (design != null && design.getLastModifiedMillis() == lastModified) {
+                return design;
+            }
+            final Vector columns = view.getColumns();
+            final List list = new ArrayList(columns.size());
+            for (int i = 0; i < columns.size(); i++) {
+                final ViewColumn column = (ViewColumn) columns.get(i);
+                list.add(new ViewColumnDesign(ViewColumnProxy.getInstance(getFactory(), this, column, getMonitor())));
+            }
+            int flags = 0;
+            if (view.isCategorized()) {
+                flags |= ViewDesign.CATEGORIZED;
+            }
+            if (view.isHierarchical()) {
+                flags |= ViewDesign.HIERARCHICAL;
+            }
+            if (view.isFolder()) {
+                flags |= ViewDesign.FOLDER;
+            }
+            if (view.isCalendar()) {
+                flags |= ViewDesign.CALENDAR;
+            }
+            design = new ViewDesign(name, view.getUniversalID(), view.getAliases(), view.getSelectionFormula(),
+                    lastModified, flags, list);
+            return design;
+        } catch (NotesException e) {
+            throw newRuntimeException("Cannot get design of view " + name, e);
+        }
+    }
+
     ////////////////////////////////////////////////
     //    Iterator classes
     ////////////////////////////////////////////////
@@ -24,6 +24,9 @@
 package de.jakop.lotus.domingo.queue;
 
 import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import de.jakop.lotus.domingo.DNotesMonitor;
 import de.jakop.lotus.domingo.monitor.ConsoleMonitor;
@@ -36,30 +39,33 @@ import de.jakop.lotus.domingo.monitor.ConsoleMonitor;
  * to the queue while other threads add to the queue.
  * <p>
  * Non blocking and timeout based modes of access are possible as well.
+ * Waiting threads do not hold a monitor and can be interrupted.
  *
  * @author <a href="mailto:kriede@users.sourceforge.net">Kurt Riede</a>
  */
 public final class MTQueue implements Queue {
 
-    /** Default amount of time to wait for a task from the queue in milli seconds. */
-    private static final long DEFAULT_TIMEOUT = 1000;
-
     /** List of queued objects. */
-    private LinkedList list = new LinkedList();
+    private final LinkedList list = new LinkedList();
 
     /** Reference to the associated monitor. */
     private final DNotesMonitor monitor;
 
-    private Object fMutex = new Object();
+    /** Lock guarding the list. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Signalled when an object is added or waiting threads are woken up. */
+    private final Condition changed = lock.newCondition();
+
+    /** Incremented by {@link #wakeUp()} to release waiting threads. */
+    private long wakeUps = 0;
 
     /**
      * Constructor.
      *
-     * @param mutex a mutex for syncronization
      * @param theMonitor the monitor
      */
-    public MTQueue(final Object mutex, final DNotesMonitor theMonitor) {
-        fMutex = mutex;
+    public MTQueue(final DNotesMonitor theMonitor) {
         if (theMonitor != null) {
             monitor = theMonitor;
         } else {
@@ -67,13 +73,27 @@ public final class MTQueue implements Queue {
         }
     }
 
+    /**
+     * Constructor.
+     *
+     * @param mutex ignored, the queue uses its own lock
+     * @param theMonitor the monitor
+     * @deprecated use {@link #MTQueue(DNotesMonitor)} instead
+     */
+    public MTQueue(final Object mutex, final DNotesMonitor theMonitor) {
+        this(theMonitor);
+    }
+
     /**
      * {@inheritDoc}
      * @see Queue#size()
      */
     public int size() {
-        synchronized (fMutex) {
+        lock.lock();
+        try {
             return list.size();
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -82,41 +102,58 @@ public final class MTQueue implements Queue {
      * @see Queue#isEmpty()
      */
     public boolean isEmpty() {
-        synchronized (fMutex) {
-            return size() == 0;
-        }
+        return size() == 0;
     }
+
     /**
      * Adds a new object to the end of the queue.
      * At least one thread will be notified.
      * @param object the object to add to the queue
      */
     public void enqueue(final Object object) {
-        synchronized (fMutex) {
+        lock.lock();
+        try {
             list.add(object);
-            fMutex.notifyAll();
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wakes up all threads waiting for an object. Threads waiting with a
+     * timeout return <code>null</code>, e.g. to check if they should stop.
+     */
+    public void wakeUp() {
+        lock.lock();
+        try {
+            wakeUps++;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
         }
     }
 
     /**
      * Removes the first object from the queue, blocking until one is available.
-     * Note that this method will never return <code>null</code> and could block forever.
+     * Note that this method will only return <code>null</code> if the
+     * current thread is interrupted; the interrupt status is preserved.
      *
      * @return next object from the queue
      */
     public Object dequeue() {
-        synchronized (fMutex) {
-            while (true) {
-                final Object answer = dequeueNoWait();
-                if (answer != null) {
-                    return answer;
-                }
-                try {
-                    fMutex.wait(DEFAULT_TIMEOUT);
-                } catch (InterruptedException e) {
-                    monitor.fatalError(e.getMessage(), e);
-                }
+        lock.lock();
+        try {
+            while (list.isEmpty()) {
+                changed.await();
             }
+            return list.removeFirst();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            monitor.debug("Interrupted while waiting for an object from the queue");
+            return null;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -124,27 +161,31 @@ public final class MTQueue implements Queue {
      * Removes the first object from the queue, blocking only up to the given
      * timeout time.
      *
-     * A thread can also wake up without being notified, interrupted, or
-     * timing out, a so-called <i>spurious wakeup</i>.  This will rarely
-     * occur in practice, but it can occur and in such a case, this method
-     * will not wait upto the timeout, but come back earlier without a
-     * dequeued object.
+     * Spurious wakeups are handled; this method returns earlier without a
+     * dequeued object only if waiting threads are {@link #wakeUp() woken up}
+     * or the current thread is interrupted. The interrupt status is preserved.
      *
-     * @param timeout maximum time to wait for an object from the queue
-     * @return next object from the queue
+     * @param timeout maximum time to wait for an object from the queue in milliseconds
+     * @return next object from the queue or <code>null</code>
      */
     public Object dequeue(final long timeout) {
-        synchronized (fMutex) {
-            Object answer = dequeueNoWait();
-            if (answer == null) {
-                try {
-                    fMutex.wait(timeout);
-                } catch (InterruptedException e) {
-                    monitor.fatalError(e.getMessage(), e);
+        lock.lock();
+        try {
+            final long wakeUp = wakeUps;
+            long nanos = TimeUnit.MILLISECONDS.toNanos(timeout);
+            while (list.isEmpty()) {
+                if (nanos <= 0 || wakeUp != wakeUps) {
+                    return null;
                 }
-                answer = dequeueNoWait();
+                nanos = changed.awaitNanos(nanos);
             }
-            return answer;
+            return list.removeFirst();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            monitor.debug("Interrupted while waiting for an object from the queue");
+            return null;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -156,11 +197,14 @@ public final class MTQueue implements Queue {
      * queue is empty
      */
     public Object dequeueNoWait() {
-        synchronized (fMutex) {
+        lock.lock();
+        try {
             if (!list.isEmpty()) {
                 return list.removeFirst();
             }
             return null;
+        } finally {
+            lock.unlock();
         }
     }
 }
@@ -55,7 +55,7 @@ public abstract class BaseCommand implements Command {
      * @return parameter value
      */
     protected final String getParameterString(final Map parameters, final String name) {
-        Object value = parameters.get("cmd");
+        Object value = parameters.get(name);
         if (value instanceof String) {
             return (String) value;
         }
@@ -27,6 +27,8 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.Map;
 
+import de.jakop.lotus.domingo.DDatabase;
+import de.jakop.lotus.domingo.DDxlExporter;
 import de.jakop.lotus.domingo.DNotesException;
 import de.jakop.lotus.domingo.DSession;
 
@@ -35,7 +37,7 @@ import de.jakop.lotus.domingo.DSession;
  *
  * @author <a href=mailto:kriede@users.sourceforge.net>Kurt Riede</a>
  */
-public class ReadDatabaseCommand implements Command {
+public class ReadDatabaseCommand extends BaseCommand implements Command {
 
     /**
      * {@inheritDoc}
@@ -45,6 +47,12 @@ public class ReadDatabaseCommand implements Command {
      */
     public void execute(final DSession session, final Map parameters, final PrintWriter printWriter) throws DNotesException,
             IOException {
-        // TODO Auto-generated method stub
+        String filename = getParameterString(parameters, "file");
+        DDatabase database = session.getDatabase("", filename);
+        DDxlExporter exporter = session.createDxlExporter();
+        exporter.setOutputDoctype(false);
+        printWriter.println("Content-type: text/xml");
+        exporter.exportDxl(database, printWriter);
+        printWriter.flush();
     }
 }
@@ -51,7 +51,8 @@ public final class ReadDocumentCommand extends BaseCommand implements Command {
         DDxlExporter exporter = session.createDxlExporter();
         String unid = (String) parameters.get("unid");
         exporter.setOutputDoctype(false);
-        printWriter.print("Content-type: text/xml");
-        printWriter.print(exporter.exportDxl(database.getDocumentByUNID(unid)));
+        printWriter.println("Content-type: text/xml");
+        exporter.exportDxl(database.getDocumentByUNID(unid), printWriter);
+        printWriter.flush();
     }
 }
@@ -25,6 +25,9 @@ package de.jakop.lotus.domingo.service;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Invocation task for worker thread.
@@ -33,31 +36,46 @@ import java.lang.reflect.Method;
  * interface where the <code>run()</code> method executes a method on an
  * object with an array of arguments.</p>
  * <p>This task is used to delegate method calls to worker threads in a generic
- * way.</p>
+ * way. Callers wait for completion with {@link #await(long)}, which does not
+ * block on a monitor and can be interrupted; a task that has not yet started
+ * can be {@link #cancel() cancelled}.</p>
  *
  * @author <a href=mailto:kriede@users.sourceforge.net>Kurt Riede</a>
  */
 public final class InvocationTask implements Runnable {
 
+    /** State of a task waiting to be run. */
+    private static final int NEW = 0;
+
+    /** State of a running task. */
+    private static final int RUNNING = 1;
+
+    /** State of a completed task. */
+    private static final int COMPLETED = 2;
+
+    /** State of a cancelled task. */
+    private static final int CANCELLED = 3;
+
     /** Object to invoke method on. */
-    private Object fObject = null;
+    private final Object fObject;
 
     /** Method to invoke. */
-    private Method fMethod = null;
+    private final Method fMethod;
 
     /** Arguments to the method invocation. */
-    private Object[] fArgs = null;
+    private final Object[] fArgs;
 
     /** Result of the method invocation. */
-    private Object fResult = null;
+    private volatile Object fResult = null;
 
     /** Optionally thrown Throwable of the method invocation. */
-    private Throwable fThrowable = null;
+    private volatile Throwable fThrowable = null;
 
-    /** Indicates if the task is completed. */
-    private boolean fCompleted = false;
+    /** State of the task. */
+    private final AtomicInteger fState = new AtomicInteger(NEW);
 
-    private Object mutex = new Object();
+    /** Released when the task is completed or cancelled. */
+    private final CountDownLatch fDone = new CountDownLatch(1);
 
     /**
      * Constructor.
@@ -78,9 +96,7 @@ public final class InvocationTask implements Runnable {
      * @return result from invoked method
      */
     public Object getResult() {
-        synchronized (mutex) {
-            return fResult;
-        }
+        return fResult;
     }
 
     /**
@@ -93,23 +109,55 @@ public final class InvocationTask implements Runnable {
     }
 
     /**
-     * Invokes the method.
+     * Invokes the method, unless the task was cancelled.
      *
      * @see java.lang.Runnable#run()
      */
     public void run() {
-        synchronized (mutex) {
-            try {
-                fResult = fMethod.invoke(fObject, fArgs);
-            } catch (InvocationTargetException e) {
-                fThrowable = e.getTargetException();
-            } catch (Throwable t) {
-                fThrowable = t;
-            } finally {
-                fCompleted = true;
-                mutex.notifyAll();
-            }
+        if (!fState.compareAndSet(NEW, RUNNING)) {
+            return;
+        }
+        try {
+            fResult = fMethod.invoke(fObject, fArgs);
+        } catch (InvocationTargetException e) {
+            fThrowable = e.getTargetException();
+        } catch (Throwable t) {
+            fThrowable = t;
+        } finally {
+            fState.set(COMPLETED);
+            fDone.countDown();
+        }
+    }
+
+    /**
+     * Waits until the task is completed.
+     *
+     * @param timeout maximum time to wait in milliseconds, <code>0</code> to
+     * wait without limit
+     * @return <code>true</code> if the task is completed, <code>false</code>
+     * if the timeout elapsed
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    boolean await(final long timeout) throws InterruptedException {
+        if (timeout <= 0) {
+            fDone.await();
+            return true;
+        }
+        return fDone.await(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Cancels the task if it has not yet started.
+     *
+     * @return <code>true</code> if the task was cancelled and will never run,
+     * <code>false</code> if it is running or completed
+     */
+    boolean cancel() {
+        if (fState.compareAndSet(NEW, CANCELLED)) {
+            fDone.countDown();
+            return true;
         }
+        return fState.get() == CANCELLED;
     }
 
     /**
@@ -119,6 +167,6 @@ public final class InvocationTask implements Runnable {
      * <code>false</code>
      */
     public boolean isCompleted() {
-        return fCompleted;
+        return fState.get() == COMPLETED;
     }
 }
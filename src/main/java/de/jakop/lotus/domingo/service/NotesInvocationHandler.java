@@ -28,10 +28,17 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import de.jakop.lotus.domingo.DDateRange;
+import de.jakop.lotus.domingo.DDocumentSnapshot;
 import de.jakop.lotus.domingo.DNotesFactory;
+import de.jakop.lotus.domingo.DViewDesign;
+import de.jakop.lotus.domingo.metrics.Metrics;
+import de.jakop.lotus.domingo.metrics.Timer;
 
 /**
  * Invocation handler for all dynamic proxies of interfaces of the
@@ -84,12 +91,21 @@ public final class NotesInvocationHandler implements InvocationHandler {
         final NotesServiceFactory factory = (NotesServiceFactory) DNotesFactory.getInstance();
         final Object result;
         final Object[] extractedArgs = extractArguments(args);
+        final Timer timer = Metrics.isEnabled() ? Metrics.timer(method) : null;
+        final long start = timer != null ? timer.start() : 0;
         try {
             result = factory.invoke(object, method, extractedArgs);
         } catch (Throwable t) {
+            if (timer != null) {
+                timer.error();
+                timer.stop(start);
+            }
             NotesJavaWriter.getInstance().logInvocation(null, object, method, extractedArgs, t);
             throw t;
         }
+        if (timer != null) {
+            timer.stop(start);
+        }
         NotesJavaWriter.getInstance().logInvocation(result, object, method, extractedArgs, null);
         return packObject(result);
     }
@@ -147,6 +163,10 @@ public final class NotesInvocationHandler implements InvocationHandler {
             return obj;
         } else if (obj instanceof DDateRange) {
             return obj;
+        } else if (obj instanceof DDocumentSnapshot) {
+            return obj;
+        } else if (obj instanceof DViewDesign) {
+            return obj;
         } else if (obj.getClass().getPackage().getName().startsWith("de.jakop.lotus.domingo")) {
             return wrapObject(obj);
         } else if (obj instanceof List) {
@@ -158,10 +178,37 @@ public final class NotesInvocationHandler implements InvocationHandler {
                     }
                 }
             }
+        } else if (obj instanceof Map) {
+            return packMap((Map) obj);
         }
         return obj;
     }
 
+    /**
+     * Packs the values of a map, where each value is an object or a list of
+     * objects, e.g. the result of {@link de.jakop.lotus.domingo.DView#lookupAll(java.util.Collection)}.
+     *
+     * @param map a map
+     * @return new map with packed values
+     */
+    private Map packMap(final Map map) {
+        final Map packed = new LinkedHashMap();
+        final Iterator iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry entry = (Map.Entry) iterator.next();
+            if (entry.getValue() instanceof List) {
+                final List list = new ArrayList((List) entry.getValue());
+                for (int i = 0; i < list.size(); i++) {
+                    list.set(i, packObject(list.get(i)));
+                }
+                packed.put(entry.getKey(), list);
+            } else {
+                packed.put(entry.getKey(), packObject(entry.getValue()));
+            }
+        }
+        return packed;
+    }
+
     private void set(final List list, final int i) {
         Object obj = list.get(i);
         Object pack = packObject(obj);
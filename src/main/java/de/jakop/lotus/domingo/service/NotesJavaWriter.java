@@ -23,40 +23,46 @@
 
 package de.jakop.lotus.domingo.service;
 
-import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.BufferedWriter;
 import java.io.FileOutputStream;
-import java.io.PrintStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
-import java.util.Calendar;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
-import lotus.domino.Session;
 import de.jakop.lotus.domingo.DDatabase;
 import de.jakop.lotus.domingo.DDocument;
 import de.jakop.lotus.domingo.DItem;
 import de.jakop.lotus.domingo.DNotesFactory;
-import de.jakop.lotus.domingo.DSession;
 import de.jakop.lotus.domingo.DView;
 import de.jakop.lotus.domingo.DViewEntry;
 import de.jakop.lotus.domingo.exception.ExceptionUtil;
-import de.jakop.lotus.domingo.proxy.BaseProxy;
 import de.jakop.lotus.domingo.proxy.ViewProxy.ViewEntriesIterator;
 
 
 /**
- * Creates Java source code of all Notes Java-API calls.
+ * Records Notes Java-API calls, either as Java source code or in a compact
+ * trace format that can be replayed with the {@link TraceReplayer}.
+ *
+ * <p>Calls are captured in the calling thread and written asynchronously by
+ * a background thread into a buffered file. If the recorder cannot keep up,
+ * calls are dropped instead of slowing down the application. With a sample
+ * rate of <i>n</i> only every <i>n</i>-th thread is recorded, so that the
+ * recorded calls of a thread always form a complete, replayable sequence.</p>
  *
  * @author <a href="mailto:kriede@users.sourceforge.net">Kurt Riede</a>
  */
 public final class NotesJavaWriter {
 
     // todo getFirstEntry() is not called after creating an Iterator of a ViewEntryCollection
-    // todo code for list arguments is not correct Java code
 
     /** Default file name to log java calls. */
     private static final String DEFAULT_JAVA_LOGFILE = ""; // "notes-java-calls.log";
@@ -64,14 +70,69 @@ public final class NotesJavaWriter {
     /** Name of property of java log file. */
     public static final String JAVA_LOGFILE = "de.jakop.lotus.domingo.java.logfile";
 
+    /** Name of property of the trace file in compact format. */
+    public static final String TRACE_FILE = "de.jakop.lotus.domingo.java.tracefile";
+
+    /** Name of property of the sample rate, only every n-th thread is recorded. */
+    public static final String SAMPLE_RATE = "de.jakop.lotus.domingo.java.samplerate";
+
+    /** Name of property of the maximum number of calls waiting to be written. */
+    public static final String QUEUE_SIZE = "de.jakop.lotus.domingo.java.queuesize";
+
+    /** First line of a trace file in compact format. */
+    static final String TRACE_HEADER = "#domingo-trace 1";
+
+    /** Default maximum number of calls waiting to be written. */
+    private static final int DEFAULT_QUEUE_SIZE = 10000;
+
+    /** Maximum time to wait for the writer thread in milli seconds. */
+    private static final long MAX_WAIT_FOR_WRITER = 1000;
+
+    /** Size of the output buffer. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Nano seconds per milli second. */
+    private static final long NANOS_PER_MILLI = 1000000L;
+
     /** Map from domingo types to corresponding Lotus types. */
     private static final Map TYPES = new HashMap();
 
     /** Singleton instance. */
-    private static NotesJavaWriter instance = null;
+    private static final NotesJavaWriter INSTANCE;
+
+    /** Writer for Java source code or <code>null</code>. */
+    private Writer javaWriter = null;
+
+    /** Writer for the compact trace format or <code>null</code>. */
+    private Writer traceWriter = null;
+
+    /** Calls waiting to be written. */
+    private final BlockingQueue queue;
+
+    /** Only every n-th thread is recorded. */
+    private final int sampleRate;
+
+    /** Number of threads that made a call. */
+    private final AtomicLong threadCount = new AtomicLong();
+
+    /** Indicates for each thread whether it is recorded. */
+    private final ThreadLocal sampled = new ThreadLocal() {
+        protected Object initialValue() {
+            return Boolean.valueOf(threadCount.getAndIncrement() % sampleRate == 0);
+        }
+    };
 
-    /** Reference to the output stream. */
-    private PrintStream stream = null;
+    /** Number of calls dropped because the queue was full. */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /** Start time of the recording in nano seconds. */
+    private final long startNanos = System.nanoTime();
+
+    /** Background thread writing the calls. */
+    private Thread writerThread;
+
+    /** Indicates that the recorder is closed. */
+    private volatile boolean closed = false;
 
     static {
         // Initializing the TYPES map
@@ -86,6 +147,7 @@ public final class NotesJavaWriter {
         TYPES.put(Integer.class, "Integer");
         TYPES.put(Double.class, "Double");
         TYPES.put(List.class, "List");
+        INSTANCE = new NotesJavaWriter();
     }
 
     /**
@@ -93,22 +155,69 @@ public final class NotesJavaWriter {
      *
      * <p>The <code>de.jakop.lotus.domingo.java.logfile</code> property from the
      * resource file <code>de/bea/domingo/domingo.properties</code>
-     * is used to determine the output file for java logging. If this
-     * property is empty or not set, no output is generated.</p>
+     * is used to determine the output file for java logging, the property
+     * <code>de.jakop.lotus.domingo.java.tracefile</code> determines the output
+     * file for the compact trace format. If both properties are empty or
+     * not set, no output is generated.</p>
      */
     private NotesJavaWriter() {
+        sampleRate = Math.max(1, DNotesFactory.getIntProperty(SAMPLE_RATE, 1));
+        queue = new ArrayBlockingQueue(Math.max(1, DNotesFactory.getIntProperty(QUEUE_SIZE, DEFAULT_QUEUE_SIZE)));
         final String javaLogfile = DNotesFactory.getProperty(JAVA_LOGFILE, DEFAULT_JAVA_LOGFILE);
         if (javaLogfile != null && !"".equals(javaLogfile)) {
-            final File file = new File(javaLogfile);
-            try {
-                stream = new PrintStream(new FileOutputStream(file));
-                stream.println("NotesThread.sinitThread();");
-                stream.println("Session session = NotesFactory.createSession();");
-                stream.println("Map map = new HashMap();");
-            } catch (FileNotFoundException e) {
-                System.out.println("Cannot open java-logfile: " + javaLogfile);
+            javaWriter = open(javaLogfile);
+            if (javaWriter != null) {
+                try {
+                    javaWriter.write("NotesThread.sinitThread();\n");
+                    javaWriter.write("Session session = NotesFactory.createSession();\n");
+                    javaWriter.write("Map map = new HashMap();\n");
+                } catch (IOException e) {
+                    System.out.println("Cannot write java-logfile: " + javaLogfile);
+                    javaWriter = null;
+                }
+            }
+        }
+        final String traceFile = DNotesFactory.getProperty(TRACE_FILE, "");
+        if (traceFile != null && !"".equals(traceFile)) {
+            traceWriter = open(traceFile);
+            if (traceWriter != null) {
+                try {
+                    traceWriter.write(TRACE_HEADER + "\n");
+                } catch (IOException e) {
+                    System.out.println("Cannot write trace file: " + traceFile);
+                    traceWriter = null;
+                }
             }
         }
+        if (isEnabled()) {
+            writerThread = new Thread(new Runnable() {
+                public void run() {
+                    writeCalls();
+                }
+            }, "domingo-java-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(new Runnable() {
+                public void run() {
+                    close();
+                }
+            }, "domingo-java-writer-shutdown"));
+        }
+    }
+
+    /**
+     * Opens a buffered writer on a file.
+     *
+     * @param fileName name of the file
+     * @return writer or <code>null</code> if the file cannot be opened
+     */
+    private static Writer open(final String fileName) {
+        try {
+            return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(fileName), "UTF-8"), BUFFER_SIZE);
+        } catch (IOException e) {
+            System.out.println("Cannot open java-logfile: " + fileName);
+            return null;
+        }
     }
 
     /**
@@ -116,10 +225,62 @@ public final class NotesJavaWriter {
      * @return singleton instance of this class
      */
     public static NotesJavaWriter getInstance() {
-        if (instance == null) {
-            instance = new NotesJavaWriter();
+        return INSTANCE;
+    }
+
+    /**
+     * Indicates whether calls are recorded.
+     *
+     * @return <code>true</code> if calls are recorded, else <code>false</code>
+     */
+    public boolean isEnabled() {
+        return !closed && (javaWriter != null || traceWriter != null);
+    }
+
+    /**
+     * Returns the number of calls dropped because the writer could not keep up.
+     *
+     * @return number of dropped calls
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes all pending calls and closes the output files.
+     * Calls logged after closing are ignored.
+     */
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (writerThread != null) {
+            try {
+                writerThread.join(MAX_WAIT_FOR_WRITER);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            closeWriter(javaWriter);
+            closeWriter(traceWriter);
+        }
+    }
+
+    /**
+     * Closes a writer, ignoring all errors.
+     *
+     * @param writer the writer or <code>null</code>
+     */
+    private static void closeWriter(final Writer writer) {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                // nothing to do
+            }
         }
-        return instance;
     }
 
     /**
@@ -143,7 +304,9 @@ public final class NotesJavaWriter {
      */
     public void logInvocation(final Object result, final Object object, final Method method, final Object[] args,
             final Throwable throwable) {
-        logInvocation(result, object, method.getName(), args, throwable);
+        if (isEnabled()) {
+            record(result, object, method.getDeclaringClass(), method.getName(), args, throwable);
+        }
     }
 
     /**
@@ -163,19 +326,113 @@ public final class NotesJavaWriter {
      */
     public void logInvocation(final Object result, final Object object, final String method, final Object[] args,
             final Throwable throwable) {
-        if (stream ==  null) {
+        if (isEnabled()) {
+            final Class[] interfaces = object != null ? object.getClass().getInterfaces() : new Class[0];
+            record(result, object, interfaces.length > 0 ? interfaces[0] : null, method, args, throwable);
+        }
+    }
+
+    /**
+     * Captures a call and hands it over to the writer thread.
+     *
+     * @param result the return value of the method call
+     * @param object the object that the method was invoked on
+     * @param type the declaring interface of the method
+     * @param method name of the method
+     * @param args arguments of the call or <code>null</code>
+     * @param throwable an optional throwable that occurred during method call
+     */
+    private void record(final Object result, final Object object, final Class type, final String method,
+            final Object[] args, final Throwable throwable) {
+        if (!((Boolean) sampled.get()).booleanValue()) {
             return;
         }
-        final StringBuffer arguments = new StringBuffer();
-        if (args != null) {
-            for (int i = 0; i < args.length; i++) {
-                final Object arg = args[i];
-                if (i > 0) {
-                    arguments.append(", ");
+        final TraceValue[] values = new TraceValue[args == null ? 0 : args.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = TraceValue.of(args[i]);
+        }
+        final long time = (System.nanoTime() - startNanos) / NANOS_PER_MILLI;
+        final TraceCall call = new TraceCall(time, Thread.currentThread().getId(), TraceCall.getTypeName(type),
+                method, TraceValue.of(object), values, TraceValue.of(result),
+                throwable != null ? String.valueOf(throwable.getMessage()) : null, throwable);
+        if (!queue.offer(call)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * Main loop of the writer thread. Writes calls from the queue until
+     * the recorder is closed and the queue is empty. Output is flushed
+     * whenever the queue runs empty.
+     */
+    private void writeCalls() {
+        final StringBuffer buffer = new StringBuffer();
+        while (!closed || !queue.isEmpty()) {
+            TraceCall call;
+            try {
+                call = (TraceCall) queue.poll(MAX_WAIT_FOR_WRITER, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                call = null;
+            }
+            synchronized (this) {
+                try {
+                    if (call != null) {
+                        write(call, buffer);
+                    }
+                    if (queue.isEmpty()) {
+                        flush();
+                    }
+                } catch (IOException e) {
+                    System.out.println("Cannot write java-logfile: " + e.getMessage());
+                    closed = true;
                 }
-                arguments.append(objectToString(arg));
             }
         }
+    }
+
+    /**
+     * Writes a call to all outputs.
+     *
+     * @param call the call
+     * @param buffer a reusable buffer
+     * @throws IOException if the call cannot be written
+     */
+    private void write(final TraceCall call, final StringBuffer buffer) throws IOException {
+        if (traceWriter != null) {
+            buffer.setLength(0);
+            call.encode(buffer);
+            buffer.append('\n');
+            traceWriter.write(buffer.toString());
+        }
+        if (javaWriter != null) {
+            buffer.setLength(0);
+            appendJava(call, buffer);
+            javaWriter.write(buffer.toString());
+        }
+    }
+
+    /**
+     * Flushes all outputs.
+     *
+     * @throws IOException if an output cannot be flushed
+     */
+    private void flush() throws IOException {
+        if (traceWriter != null) {
+            traceWriter.flush();
+        }
+        if (javaWriter != null) {
+            javaWriter.flush();
+        }
+    }
+
+    /**
+     * Appends a call as Java source code to a buffer.
+     *
+     * @param call the call
+     * @param buffer the buffer
+     */
+    private void appendJava(final TraceCall call, final StringBuffer buffer) {
+        final String method = call.getMethod();
         final String methodName;
         if (method.equals("hasNext")) {
             methodName = null;
@@ -185,11 +442,21 @@ public final class NotesJavaWriter {
             methodName = method;
         }
         if (methodName != null) {
-            stream.println(setObjectString(result, objectToString(object) + "." + methodName + "("
-                    + arguments.toString() + ")") + ";" + commentObject(result, throwable));
+            final StringBuffer expression = new StringBuffer();
+            expression.append(objectToString(call.getTarget())).append('.').append(methodName).append('(');
+            final TraceValue[] args = call.getArgs();
+            for (int i = 0; i < args.length; i++) {
+                if (i > 0) {
+                    expression.append(", ");
+                }
+                expression.append(objectToString(args[i]));
+            }
+            expression.append(')');
+            buffer.append(setObjectString(call.getResult(), expression.toString())).append(';');
+            buffer.append(commentObject(call.getResult(), call.getThrowable())).append('\n');
         }
-        if (object instanceof Session && method.equals("recycle")) {
-            stream.println("NotesThread.stermThread();");
+        if (call.getTarget().getKind() == TraceValue.SESSION && method.equals("recycle")) {
+            buffer.append("NotesThread.stermThread();\n");
         }
     }
 
@@ -199,23 +466,26 @@ public final class NotesJavaWriter {
      * @param throwable an optional throwable that occurred during method call
      * @return Java comment for the object
      */
-    private String commentObject(final Object obj, final Throwable throwable) {
+    private String commentObject(final TraceValue obj, final Throwable throwable) {
         if (throwable != null) {
             return " //* throws " + throwable.getMessage() + "\n" + ExceptionUtil.getStackTrace(throwable) + "\n */";
-        } else if (obj == null) {
+        }
+        switch (obj.getKind()) {
+        case TraceValue.NULL:
             return " // returns null";
-        } else if (obj instanceof String && "".equals(obj)) {
-            return " // returns empty string";
-        } else if (obj instanceof String) {
-            return " // returns \"" + obj + "\"";
-        } else if (obj instanceof Number) {
-            return " // returns " + obj;
-        } else if (obj instanceof Calendar) {
-            return " // returns " + obj;
-        } else if (obj instanceof BaseProxy) {
-            return " // return " + ((BaseProxy) obj).refereceHashCode();
-        } else {
-            return " // returns " + obj.hashCode();
+        case TraceValue.STRING:
+            if ("".equals(obj.getLiteral())) {
+                return " // returns empty string";
+            }
+            return " // returns \"" + obj.getLiteral() + "\"";
+        case TraceValue.INTEGER:
+        case TraceValue.LONG:
+        case TraceValue.DOUBLE:
+        case TraceValue.BOOLEAN:
+        case TraceValue.CALENDAR:
+            return " // returns " + obj.getLiteral();
+        default:
+            return " // returns " + obj.getId();
         }
     }
 
@@ -227,25 +497,15 @@ public final class NotesJavaWriter {
      * @param expression the expression
      * @return statement to set expression in a map
      */
-    private String setObjectString(final Object obj, final String expression) {
-        if (obj == null) {
-            return expression;
-        } else if (obj instanceof String) {
-            return expression;
-        } else if (obj instanceof Double) {
-            return expression;
-        } else if (obj instanceof Long) {
-            return expression;
-        } else if (obj instanceof Integer) {
-            return expression;
-        } else if (obj instanceof Calendar) {
-            return expression;
-        } else if (obj instanceof DSession) {
+    private String setObjectString(final TraceValue obj, final String expression) {
+        switch (obj.getKind()) {
+        case TraceValue.SESSION:
             return "session";
-        } else if (obj instanceof BaseProxy) {
-            return "map.put(\"" + ((BaseProxy) obj).refereceHashCode() + "\", " + expression + ")";
-        } else {
-            return "map.put(\"" + obj.hashCode() + "\", " + expression + ")";
+        case TraceValue.OBJECT:
+        case TraceValue.UNKNOWN:
+            return "map.put(\"" + obj.getId() + "\", " + expression + ")";
+        default:
+            return expression;
         }
     }
 
@@ -255,27 +515,34 @@ public final class NotesJavaWriter {
      * @param obj the object
      * @return a Java expression for that object
      */
-    private String objectToString(final Object obj) {
-        if (obj == null) {
+    private String objectToString(final TraceValue obj) {
+        switch (obj.getKind()) {
+        case TraceValue.NULL:
             return "null";
-        }
-        if (obj instanceof String) {
-            return "\"" + obj.toString().replace('\\', '/') + "\"";
-        } else if (obj instanceof Number) {
-            return obj.toString();
-        } else if (obj instanceof Boolean) {
-            return obj.toString();
-        } else if (obj instanceof Session) {
+        case TraceValue.STRING:
+            return "\"" + obj.getLiteral().toString().replace('\\', '/') + "\"";
+        case TraceValue.INTEGER:
+        case TraceValue.DOUBLE:
+        case TraceValue.BOOLEAN:
+            return obj.getLiteral().toString();
+        case TraceValue.LONG:
+            return obj.getLiteral() + "L";
+        case TraceValue.SESSION:
             return "session";
-        } else if (Proxy.isProxyClass(obj.getClass())) {
-            return "error(" + obj.getClass().getName() + ")";
-        } else if (obj instanceof List) {
-            return obj.toString();
-        } else if (obj instanceof BaseProxy) {
-            final BaseProxy proxy = (BaseProxy) obj;
-            return "((" + getType(obj) + ") map.get(\"" + proxy.refereceHashCode() + "\"))";
-        } else {
-            return "((" + getType(obj) + ") map.get(\"" + obj.hashCode() + "\"))";
+        case TraceValue.UNKNOWN:
+            return "error(" + obj.getType().getName() + ")";
+        case TraceValue.LIST:
+            final TraceValue[] values = (TraceValue[]) obj.getLiteral();
+            final StringBuffer buffer = new StringBuffer("Arrays.asList(new Object[] {");
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    buffer.append(", ");
+                }
+                buffer.append(objectToString(values[i]));
+            }
+            return buffer.append("})").toString();
+        default:
+            return "((" + getType(obj.getType()) + ") map.get(\"" + obj.getId() + "\"))";
         }
     }
 
@@ -285,18 +552,27 @@ public final class NotesJavaWriter {
      * @return type of the object
      */
     static String getType(final Object obj) {
+        return getType(obj.getClass());
+    }
+
+    /**
+     * Returns the type of a class as to be used e.g. in a cast operator.
+     * @param clazz the class
+     * @return type of the class
+     */
+    static String getType(final Class clazz) {
         Iterator iterator = TYPES.keySet().iterator();
         while (iterator.hasNext()) {
-            Class clazz = (Class) iterator.next();
-            if (clazz.isAssignableFrom(obj.getClass())) {
-                return (String) TYPES.get(clazz);
+            Class type = (Class) iterator.next();
+            if (type.isAssignableFrom(clazz)) {
+                return (String) TYPES.get(type);
             }
         }
-        if (obj.getClass().getName().startsWith("lotus.")) {
-            final String className = obj.getClass().getName();
+        if (clazz.getName().startsWith("lotus.")) {
+            final String className = clazz.getName();
             return className.substring(className.lastIndexOf('.') + 1);
         } else {
-            return "unknown." + obj.getClass().getName();
+            return "unknown." + clazz.getName();
         }
     }
 }
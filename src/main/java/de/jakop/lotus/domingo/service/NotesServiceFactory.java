@@ -26,6 +26,7 @@ package de.jakop.lotus.domingo.service;
 import java.applet.Applet;
 import java.lang.reflect.Array;
 import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import de.jakop.lotus.domingo.DNotesFactory;
 import de.jakop.lotus.domingo.DNotesMonitor;
@@ -90,7 +91,12 @@ public final class NotesServiceFactory extends DNotesFactory {
     /** Array of argument values for reflection: <code>{  Boolean.FALSE }</code>. */
     private static final Object[] ARGS_FALSE = { Boolean.FALSE};
 
-    /** Default timeout. */
+    /**
+     * Default timeout.
+     *
+     * @deprecated invocations wait without limit unless the property
+     * <tt>de.jakop.lotus.domingo.service.timeout</tt> is set
+     */
     public static final long DEFAULT_TIMEOUT = 10000;
 
     /** Default number of threads in thread pool. */
@@ -119,6 +125,9 @@ public final class NotesServiceFactory extends DNotesFactory {
     /** Associated thread factory. */
     private NotesThreadFactory threadFactory;
 
+    /** Maximum time to wait for an invocation in milliseconds, <code>0</code> to wait without limit. */
+    private long timeout = 0;
+
     // //////////////////////////////////////////////
     // creation
     // //////////////////////////////////////////////
@@ -286,6 +295,7 @@ public final class NotesServiceFactory extends DNotesFactory {
      * @see DNotesFactory#disposeInstance(boolean)
      */
     public void disposeInstance(final boolean force) throws DNotesRuntimeException {
+        closeSessionPool();
         try {
             final Object[] args = force ? ARGS_TRUE : ARGS_FALSE;
             invoke(factory, DNotesFactory.class.getMethod("disposeInstance", PARAMS_BOOLEAN), args);
@@ -314,6 +324,7 @@ public final class NotesServiceFactory extends DNotesFactory {
             return;
         }
         final int threadPoolSize = getIntProperty("de.jakop.lotus.domingo.threadpool.size", DEFAULT_THREADPOOL_SIZE);
+        timeout = Math.max(0, getIntProperty("de.jakop.lotus.domingo.service.timeout", 0));
         threadFactory = new NotesThreadFactory();
         try {
             threadPool = new SimpleThreadPool(getMonitor(), threadFactory, threadPoolSize);
@@ -348,6 +359,12 @@ public final class NotesServiceFactory extends DNotesFactory {
     /**
      * Invokes a method within a Thread from the thread pool.
      *
+     * <p>The calling thread waits without holding a monitor, so many callers,
+     * e.g. virtual threads, can wait for a few Notes threads. If the caller is
+     * interrupted or the configured timeout elapses, an invocation that has
+     * not yet started is cancelled; a running invocation completes in the
+     * background and its result is discarded.</p>
+     *
      * @param object the object to invoke the method on
      * @param method the method to invoke
      * @param args the arguments for the method
@@ -358,21 +375,14 @@ public final class NotesServiceFactory extends DNotesFactory {
             throws Throwable {
         final InvocationTask task = new InvocationTask(object, method, args);
         threadPool.invokeLater(task);
-        while (!task.isCompleted()) {
-            try {
-                synchronized (task) {
-                    // We need to check for completeness here inside the
-                    // synchronized block again, because on some Operating
-                    // systems the task might be completed while waiting for
-                    // the monitor for synchronization. In this case we would
-                    // every time wait at least once the whole timeout if we
-                    // don't check for completeness again.
-                    if (!task.isCompleted()) {
-                        task.wait(DEFAULT_TIMEOUT);
-                    }
-                }
-            } catch (InterruptedException e) {
-                continue;
+        try {
+            if (!task.await(timeout) && !isCompletedAfterAbort(task)) {
+                throw new NotesServiceRuntimeException(RESOURCES.getString("invocation.timeout.1", method.getName()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (!isCompletedAfterAbort(task)) {
+                throw new NotesServiceRuntimeException(RESOURCES.getString("invocation.interrupted.1", method.getName()), e);
             }
         }
         final Throwable t = task.getThrowable();
@@ -390,6 +400,16 @@ public final class NotesServiceFactory extends DNotesFactory {
         return task.getResult();
     }
 
+    /**
+     * Aborts waiting for a task. A task that has not yet started is cancelled.
+     *
+     * @param task the task
+     * @return <code>true</code> if the task completed nevertheless
+     */
+    private static boolean isCompletedAfterAbort(final InvocationTask task) {
+        return !task.cancel() && task.isCompleted();
+    }
+
     /**
      * @see DNotesFactory#sinitThread()
      */
@@ -433,7 +453,7 @@ public final class NotesServiceFactory extends DNotesFactory {
     private final class NotesThreadFactory implements ThreadFactory {
 
         /** For auto-numbering anonymous threads. */
-        private int threadInitNumber = 0;
+        private final AtomicInteger threadInitNumber = new AtomicInteger();
 
         /** The first throwable that occurs in a thread. */
         private Throwable firstThrowable = null;
@@ -475,8 +495,8 @@ public final class NotesServiceFactory extends DNotesFactory {
          *
          * @return next free number for a thread
          */
-        private synchronized int nextThreadNum() {
-            return threadInitNumber++;
+        private int nextThreadNum() {
+            return threadInitNumber.getAndIncrement();
         }
 
         /**
@@ -0,0 +1,169 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.service;
+
+import de.jakop.lotus.domingo.metrics.Histogram;
+import de.jakop.lotus.domingo.metrics.StripedCounter;
+
+/**
+ * Statistics of a replay of a recorded trace.
+ *
+ * @see TraceReplayer
+ */
+public final class ReplayResult {
+
+    /** Nano seconds per milli second. */
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    /** Latencies of all replayed calls in nano seconds. */
+    private final Histogram latency = new Histogram();
+
+    /** Number of replayed calls that failed. */
+    private final StripedCounter errors = new StripedCounter();
+
+    /** Number of recorded calls that could not be replayed. */
+    private final StripedCounter skipped = new StripedCounter();
+
+    /** Number of replayed threads. */
+    private final StripedCounter threads = new StripedCounter();
+
+    /** Duration of the replay in milli seconds. */
+    private long elapsedMillis;
+
+    /**
+     * Records a replayed call.
+     *
+     * @param nanos duration of the call in nano seconds
+     * @param failed whether the call failed
+     */
+    void recordCall(final long nanos, final boolean failed) {
+        latency.record(nanos);
+        if (failed) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Records a call that could not be replayed.
+     */
+    void recordSkipped() {
+        skipped.increment();
+    }
+
+    /**
+     * Records a replayed thread.
+     */
+    void recordThread() {
+        threads.increment();
+    }
+
+    /**
+     * Sets the duration of the replay.
+     *
+     * @param millis duration in milli seconds
+     */
+    void setElapsedMillis(final long millis) {
+        elapsedMillis = millis;
+    }
+
+    /**
+     * Returns the number of replayed calls.
+     *
+     * @return number of calls
+     */
+    public long getCallCount() {
+        return latency.getCount();
+    }
+
+    /**
+     * Returns the number of replayed calls that threw an exception.
+     *
+     * @return number of failed calls
+     */
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    /**
+     * Returns the number of recorded calls that could not be replayed, e.g.
+     * because the object they were invoked on was not available.
+     *
+     * @return number of skipped calls
+     */
+    public long getSkippedCount() {
+        return skipped.sum();
+    }
+
+    /**
+     * Returns the number of replayed threads.
+     *
+     * @return number of threads
+     */
+    public long getThreadCount() {
+        return threads.sum();
+    }
+
+    /**
+     * Returns the duration of the replay.
+     *
+     * @return duration in milli seconds
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Returns the latencies of the replayed calls in nano seconds.
+     *
+     * @return latency histogram
+     */
+    public Histogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Returns the number of replayed calls per second.
+     *
+     * @return throughput in calls per second
+     */
+    public double getThroughput() {
+        if (elapsedMillis <= 0) {
+            return 0;
+        }
+        return getCallCount() * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see java.lang.Object#toString()
+     */
+    public String toString() {
+        return "threads=" + getThreadCount() + ", calls=" + getCallCount() + ", errors=" + getErrorCount()
+            + ", skipped=" + getSkippedCount() + ", elapsed=" + elapsedMillis + "ms, throughput="
+            + Math.round(getThroughput()) + "/s, mean=" + latency.getMean() / NANOS_PER_MILLI + "ms, p99="
+            + latency.getValueAtPercentile(99.0) / NANOS_PER_MILLI + "ms, max="
+            + latency.getMax() / NANOS_PER_MILLI + "ms";
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.service;
+
+import java.util.List;
+
+/**
+ * A single recorded method call.
+ *
+ * <p>The compact trace format uses one line per call with tab separated
+ * fields:</p>
+ * <pre>
+ * time  thread  type.method  target  result  status  [argument ...]
+ * </pre>
+ * <p>where <code>time</code> is the number of milli seconds since the start
+ * of the recording, <code>thread</code> identifies the calling thread,
+ * <code>type</code> is the declaring interface without the package
+ * <code>de.jakop.lotus.domingo</code>, target, result and arguments are
+ * encoded as described in {@link TraceValue} and <code>status</code> is
+ * either <code>-</code> or <code>!</code> followed by the message of the
+ * exception thrown by the call.</p>
+ */
+final class TraceCall {
+
+    /** Package of the domingo interfaces. */
+    private static final String PACKAGE = "de.jakop.lotus.domingo.";
+
+    /** Field separator. */
+    private static final char SEPARATOR = '\t';
+
+    /** Number of fields before the arguments. */
+    private static final int FIXED_FIELDS = 6;
+
+    /** Time of the call in milli seconds since start of recording. */
+    private final long time;
+
+    /** Id of the calling thread. */
+    private final long thread;
+
+    /** Name of the declaring interface. */
+    private final String type;
+
+    /** Name of the method. */
+    private final String method;
+
+    /** The object the method was invoked on. */
+    private final TraceValue target;
+
+    /** Arguments of the call. */
+    private final TraceValue[] args;
+
+    /** Result of the call. */
+    private final TraceValue result;
+
+    /** Message of the exception thrown by the call or <code>null</code>. */
+    private final String error;
+
+    /** The exception thrown by the call, only available while recording. */
+    private final Throwable throwable;
+
+    /**
+     * Constructor.
+     *
+     * @param theTime time of the call in milli seconds since start of recording
+     * @param theThread id of the calling thread
+     * @param theType name of the declaring interface
+     * @param theMethod name of the method
+     * @param theTarget the object the method was invoked on
+     * @param theArgs arguments of the call
+     * @param theResult result of the call
+     * @param theError message of the exception thrown or <code>null</code>
+     * @param theThrowable the exception thrown or <code>null</code>
+     */
+    TraceCall(final long theTime, final long theThread, final String theType, final String theMethod,
+            final TraceValue theTarget, final TraceValue[] theArgs, final TraceValue theResult,
+            final String theError, final Throwable theThrowable) {
+        time = theTime;
+        thread = theThread;
+        type = theType;
+        method = theMethod;
+        target = theTarget;
+        args = theArgs;
+        result = theResult;
+        error = theError;
+        throwable = theThrowable;
+    }
+
+    /**
+     * Returns the short name of an interface as used in traces.
+     *
+     * @param clazz the interface
+     * @return name without the domingo package
+     */
+    static String getTypeName(final Class clazz) {
+        if (clazz == null) {
+            return "";
+        }
+        final String name = clazz.getName();
+        if (name.startsWith(PACKAGE) && name.indexOf('.', PACKAGE.length()) < 0) {
+            return name.substring(PACKAGE.length());
+        }
+        return name;
+    }
+
+    /**
+     * Returns the interface of a short name as used in traces.
+     *
+     * @param name short name of the interface
+     * @return the interface
+     * @throws ClassNotFoundException if the interface is not found
+     */
+    static Class getType(final String name) throws ClassNotFoundException {
+        if (name.indexOf('.') < 0) {
+            return Class.forName(PACKAGE + name);
+        }
+        return Class.forName(name);
+    }
+
+    /**
+     * @return time of the call in milli seconds since start of recording
+     */
+    long getTime() {
+        return time;
+    }
+
+    /**
+     * @return id of the calling thread
+     */
+    long getThread() {
+        return thread;
+    }
+
+    /**
+     * @return name of the declaring interface
+     */
+    String getType() {
+        return type;
+    }
+
+    /**
+     * @return name of the method
+     */
+    String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return the object the method was invoked on
+     */
+    TraceValue getTarget() {
+        return target;
+    }
+
+    /**
+     * @return arguments of the call
+     */
+    TraceValue[] getArgs() {
+        return args;
+    }
+
+    /**
+     * @return result of the call
+     */
+    TraceValue getResult() {
+        return result;
+    }
+
+    /**
+     * @return message of the exception thrown by the call or <code>null</code>
+     */
+    String getError() {
+        return error;
+    }
+
+    /**
+     * @return the exception thrown by the call or <code>null</code>
+     */
+    Throwable getThrowable() {
+        return throwable;
+    }
+
+    /**
+     * Appends the compact trace encoding of the call to a buffer, without a line terminator.
+     *
+     * @param buffer the buffer
+     */
+    void encode(final StringBuffer buffer) {
+        buffer.append(time).append(SEPARATOR);
+        buffer.append(thread).append(SEPARATOR);
+        buffer.append(type).append('.').append(method).append(SEPARATOR);
+        target.encode(buffer);
+        buffer.append(SEPARATOR);
+        result.encode(buffer);
+        buffer.append(SEPARATOR);
+        if (error == null) {
+            buffer.append('-');
+        } else {
+            buffer.append('!');
+            TraceValue.escape(buffer, error);
+        }
+        for (int i = 0; i < args.length; i++) {
+            buffer.append(SEPARATOR);
+            args[i].encode(buffer);
+        }
+    }
+
+    /**
+     * Decodes a call from a line of the compact trace format.
+     *
+     * @param line the line
+     * @return decoded call
+     * @throws IllegalArgumentException if the line is not a valid encoding
+     */
+    static TraceCall decode(final String line) {
+        final List fields = TraceValue.split(line, SEPARATOR);
+        if (fields.size() < FIXED_FIELDS) {
+            throw new IllegalArgumentException("invalid trace line: " + line);
+        }
+        final String name = (String) fields.get(2);
+        final int dot = name.lastIndexOf('.');
+        if (dot < 0) {
+            throw new IllegalArgumentException("invalid method: " + name);
+        }
+        final String status = (String) fields.get(5);
+        final String error = status.startsWith("!") ? TraceValue.unescape(status.substring(1)) : null;
+        final TraceValue[] args = new TraceValue[fields.size() - FIXED_FIELDS];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = TraceValue.decode((String) fields.get(FIXED_FIELDS + i));
+        }
+        try {
+            return new TraceCall(Long.parseLong((String) fields.get(0)), Long.parseLong((String) fields.get(1)),
+                    name.substring(0, dot), name.substring(dot + 1), TraceValue.decode((String) fields.get(3)),
+                    args, TraceValue.decode((String) fields.get(4)), error, null);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid trace line: " + line);
+        }
+    }
+}
@@ -0,0 +1,414 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.service;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import de.jakop.lotus.domingo.DNotesFactory;
+import de.jakop.lotus.domingo.DSession;
+
+/**
+ * Replays a trace recorded by the {@link NotesJavaWriter} against any
+ * {@link DNotesFactory}, e.g. as a load test of a new domingo version.
+ *
+ * <p>Each recorded thread is replayed in its own session and in its recorded
+ * order, objects returned by a call are used as arguments and targets of
+ * later calls. Calls that reference objects which were not recorded, e.g.
+ * because the object was created before the recording started, are skipped.
+ * Recorded threads are distributed over a configurable number of worker
+ * threads. With a speed-up factor the recorded pauses between the calls of
+ * a thread are reproduced, divided by the factor; without a speed-up factor
+ * all calls are replayed as fast as possible.</p>
+ *
+ * <pre>
+ * TraceReplayer replayer = new TraceReplayer(DNotesFactory.getInstance(), "server", "user", "password");
+ * replayer.setConcurrency(10);
+ * replayer.setSpeedUp(2.0);
+ * ReplayResult result = replayer.replay(new FileReader("notes-calls.trace"));
+ * </pre>
+ */
+public final class TraceReplayer {
+
+    /** Default number of worker threads. */
+    public static final int DEFAULT_CONCURRENCY = 1;
+
+    /** Number of positional arguments of the main method without server. */
+    private static final int MIN_ARGS = 3;
+
+    /** Number of positional arguments of the main method with server and credentials. */
+    private static final int MAX_ARGS = 6;
+
+    /** The factory to create sessions from. */
+    private final DNotesFactory factory;
+
+    /** Server to connect to or <code>null</code> for a local session. */
+    private final String serverUrl;
+
+    /** Name of the user. */
+    private final String user;
+
+    /** Password of the user. */
+    private final String password;
+
+    /** Number of worker threads. */
+    private int concurrency = DEFAULT_CONCURRENCY;
+
+    /** Factor to speed up recorded pauses, zero or less replays without pauses. */
+    private double speedUp = 0;
+
+    /** Candidate methods by type, name and number of arguments. */
+    private final ConcurrentMap methods = new ConcurrentHashMap();
+
+    /**
+     * Creates a replayer that uses local sessions.
+     *
+     * @param theFactory the factory to create sessions from
+     */
+    public TraceReplayer(final DNotesFactory theFactory) {
+        this(theFactory, null, null, null);
+    }
+
+    /**
+     * Creates a replayer that uses sessions to a server.
+     *
+     * @param theFactory the factory to create sessions from
+     * @param theServerUrl the server, or <code>null</code> for local sessions
+     * @param theUser name of the user
+     * @param thePassword password of the user
+     */
+    public TraceReplayer(final DNotesFactory theFactory, final String theServerUrl, final String theUser,
+            final String thePassword) {
+        factory = theFactory;
+        serverUrl = theServerUrl;
+        user = theUser;
+        password = thePassword;
+    }
+
+    /**
+     * Sets the number of worker threads.
+     *
+     * @param theConcurrency number of worker threads
+     */
+    public void setConcurrency(final int theConcurrency) {
+        if (theConcurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be positive: " + theConcurrency);
+        }
+        concurrency = theConcurrency;
+    }
+
+    /**
+     * Sets the factor to speed up the recorded pauses between calls.
+     *
+     * @param theSpeedUp speed-up factor, zero or less to replay without pauses
+     */
+    public void setSpeedUp(final double theSpeedUp) {
+        speedUp = theSpeedUp;
+    }
+
+    /**
+     * Replays a trace.
+     *
+     * @param reader reader of a trace in compact format
+     * @return statistics of the replay
+     * @throws IOException if the trace cannot be read
+     */
+    public ReplayResult replay(final Reader reader) throws IOException {
+        final ReplayResult result = new ReplayResult();
+        final Map threads = read(reader, result);
+        final long start = System.currentTimeMillis();
+        final ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            final List futures = new ArrayList();
+            final Iterator iterator = threads.values().iterator();
+            while (iterator.hasNext()) {
+                final List calls = (List) iterator.next();
+                futures.add(executor.submit(new Runnable() {
+                    public void run() {
+                        replayThread(calls, result);
+                    }
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    ((Future) futures.get(i)).get();
+                } catch (ExecutionException e) {
+                    throw new NotesServiceRuntimeException("Replay of thread failed", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new NotesServiceRuntimeException("Replay interrupted", e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        result.setElapsedMillis(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /**
+     * Reads a trace and groups the calls by thread.
+     *
+     * @param reader reader of a trace in compact format
+     * @param result statistics, invalid lines are counted as skipped
+     * @return map from thread id to list of calls
+     * @throws IOException if the trace cannot be read
+     */
+    static Map read(final Reader reader, final ReplayResult result) throws IOException {
+        final Map threads = new LinkedHashMap();
+        final BufferedReader in = new BufferedReader(reader);
+        String line = in.readLine();
+        while (line != null) {
+            if (line.length() > 0 && line.charAt(0) != '#') {
+                try {
+                    final TraceCall call = TraceCall.decode(line);
+                    final Long thread = new Long(call.getThread());
+                    List calls = (List) threads.get(thread);
+                    if (calls == null) {
+                        calls = new ArrayList();
+                        threads.put(thread, calls);
+                    }
+                    calls.add(call);
+                } catch (IllegalArgumentException e) {
+                    result.recordSkipped();
+                }
+            }
+            line = in.readLine();
+        }
+        return threads;
+    }
+
+    /**
+     * Replays the calls of a single recorded thread in a new session.
+     *
+     * @param calls the calls of the thread
+     * @param result statistics of the replay
+     */
+    private void replayThread(final List calls, final ReplayResult result) {
+        factory.sinitThread();
+        try {
+            final DSession session;
+            if (serverUrl == null) {
+                session = factory.getSession();
+            } else {
+                session = factory.getSession(serverUrl, user, password);
+            }
+            result.recordThread();
+            final Map objects = new HashMap();
+            final long start = System.currentTimeMillis();
+            final long firstTime = ((TraceCall) calls.get(0)).getTime();
+            for (int i = 0; i < calls.size(); i++) {
+                final TraceCall call = (TraceCall) calls.get(i);
+                if (speedUp > 0) {
+                    final long due = start + (long) ((call.getTime() - firstTime) / speedUp);
+                    final long wait = due - System.currentTimeMillis();
+                    if (wait > 0) {
+                        Thread.sleep(wait);
+                    }
+                }
+                replayCall(call, session, objects, result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            factory.stermThread();
+        }
+    }
+
+    /**
+     * Replays a single call.
+     *
+     * @param call the call
+     * @param session the session of the replayed thread
+     * @param objects map from recorded ids to replayed objects
+     * @param result statistics of the replay
+     */
+    private void replayCall(final TraceCall call, final DSession session, final Map objects,
+            final ReplayResult result) {
+        final TraceValue target = call.getTarget();
+        if (target.getKind() == TraceValue.SESSION) {
+            objects.put(new Integer(target.getId()), session);
+        }
+        final Object targetObject = objects.get(new Integer(target.getId()));
+        final Object[] args = new Object[call.getArgs().length];
+        final Method method;
+        try {
+            if (targetObject == null) {
+                throw new IllegalArgumentException("unknown target");
+            }
+            for (int i = 0; i < args.length; i++) {
+                args[i] = call.getArgs()[i].toObject(objects);
+            }
+            method = getMethod(call, args);
+        } catch (IllegalArgumentException e) {
+            result.recordSkipped();
+            return;
+        }
+        final long start = System.nanoTime();
+        try {
+            final Object returned = method.invoke(targetObject, args);
+            result.recordCall(System.nanoTime() - start, false);
+            if (returned != null && call.getResult().isReference()) {
+                objects.put(new Integer(call.getResult().getId()), returned);
+            }
+        } catch (InvocationTargetException e) {
+            result.recordCall(System.nanoTime() - start, true);
+        } catch (IllegalAccessException e) {
+            result.recordSkipped();
+        }
+    }
+
+    /**
+     * Returns the method of a call that accepts the given arguments.
+     *
+     * @param call the call
+     * @param args the arguments
+     * @return the method
+     * @throws IllegalArgumentException if no matching method is found
+     */
+    private Method getMethod(final TraceCall call, final Object[] args) {
+        final String key = call.getType() + "." + call.getMethod() + "/" + args.length;
+        Method[] candidates = (Method[]) methods.get(key);
+        if (candidates == null) {
+            final List list = new ArrayList();
+            try {
+                final Method[] all = TraceCall.getType(call.getType()).getMethods();
+                for (int i = 0; i < all.length; i++) {
+                    if (all[i].getName().equals(call.getMethod()) && all[i].getParameterTypes().length == args.length) {
+                        list.add(all[i]);
+                    }
+                }
+            } catch (ClassNotFoundException e) {
+                // no candidates
+            }
+            candidates = (Method[]) list.toArray(new Method[list.size()]);
+            methods.putIfAbsent(key, candidates);
+        }
+        for (int i = 0; i < candidates.length; i++) {
+            if (accepts(candidates[i].getParameterTypes(), args)) {
+                return candidates[i];
+            }
+        }
+        throw new IllegalArgumentException("no method found: " + key);
+    }
+
+    /**
+     * Checks if parameter types accept the given arguments.
+     *
+     * @param types the parameter types
+     * @param args the arguments
+     * @return <code>true</code> if all arguments are accepted
+     */
+    private static boolean accepts(final Class[] types, final Object[] args) {
+        for (int i = 0; i < types.length; i++) {
+            if (args[i] == null) {
+                if (types[i].isPrimitive()) {
+                    return false;
+                }
+            } else if (!getWrapperType(types[i]).isInstance(args[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the wrapper class of a primitive type.
+     *
+     * @param type a type
+     * @return the wrapper class, or the type itself if it is not primitive
+     */
+    private static Class getWrapperType(final Class type) {
+        if (!type.isPrimitive()) {
+            return type;
+        } else if (type == Integer.TYPE) {
+            return Integer.class;
+        } else if (type == Long.TYPE) {
+            return Long.class;
+        } else if (type == Double.TYPE) {
+            return Double.class;
+        } else if (type == Boolean.TYPE) {
+            return Boolean.class;
+        } else if (type == Float.TYPE) {
+            return Float.class;
+        } else if (type == Short.TYPE) {
+            return Short.class;
+        } else if (type == Byte.TYPE) {
+            return Byte.class;
+        } else {
+            return Character.class;
+        }
+    }
+
+    /**
+     * Replays a trace file as load test and prints the statistics.
+     *
+     * <pre>
+     * java de.jakop.lotus.domingo.service.TraceReplayer trace-file concurrency speed-up [server user password]
+     * </pre>
+     *
+     * @param args command line arguments
+     * @throws IOException if the trace file cannot be read
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length != MIN_ARGS && args.length != MAX_ARGS) {
+            System.out.println("usage: TraceReplayer trace-file concurrency speed-up [server user password]");
+            return;
+        }
+        final DNotesFactory factory = DNotesFactory.getInstance();
+        final TraceReplayer replayer;
+        if (args.length == MAX_ARGS) {
+            replayer = new TraceReplayer(factory, args[MIN_ARGS], args[MIN_ARGS + 1], args[MIN_ARGS + 2]);
+        } else {
+            replayer = new TraceReplayer(factory);
+        }
+        replayer.setConcurrency(Integer.parseInt(args[1]));
+        replayer.setSpeedUp(Double.parseDouble(args[2]));
+        final Reader reader = new InputStreamReader(new FileInputStream(args[0]), "UTF-8");
+        try {
+            System.out.println(replayer.replay(reader));
+        } finally {
+            reader.close();
+            DNotesFactory.dispose();
+        }
+    }
+}
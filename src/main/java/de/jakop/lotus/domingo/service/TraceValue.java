@@ -0,0 +1,426 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.service;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map;
+
+import lotus.domino.Session;
+import de.jakop.lotus.domingo.DSession;
+import de.jakop.lotus.domingo.proxy.BaseProxy;
+
+/**
+ * Immutable capture of an argument, target or result of a recorded call.
+ *
+ * <p>Values are captured in the calling thread, so that the recorder thread
+ * never touches live Notes objects. Objects are represented by an id which
+ * is equal for all calls on the same Notes object.</p>
+ *
+ * <p>In the compact trace format a value is encoded with a leading kind
+ * character followed by its data, e.g. <code>sText</code>, <code>i42</code>
+ * or <code>o12345</code>. Text is escaped, so that encoded values never
+ * contain a tab, line break or comma.</p>
+ */
+final class TraceValue {
+
+    /** Kind of <code>null</code>. */
+    static final char NULL = 'n';
+
+    /** Kind of a string. */
+    static final char STRING = 's';
+
+    /** Kind of an integer. */
+    static final char INTEGER = 'i';
+
+    /** Kind of a long. */
+    static final char LONG = 'l';
+
+    /** Kind of a double or any other number. */
+    static final char DOUBLE = 'd';
+
+    /** Kind of a boolean. */
+    static final char BOOLEAN = 'b';
+
+    /** Kind of a calendar, encoded as milli seconds. */
+    static final char CALENDAR = 'c';
+
+    /** Kind of a list of values. */
+    static final char LIST = 'L';
+
+    /** Kind of a Notes or Domingo session. */
+    static final char SESSION = 'S';
+
+    /** Kind of an object that is referenced by id. */
+    static final char OBJECT = 'o';
+
+    /** Kind of a value that cannot be reproduced. */
+    static final char UNKNOWN = '?';
+
+    /** The <code>null</code> value. */
+    static final TraceValue NULL_VALUE = new TraceValue(NULL, null, 0, null);
+
+    /** Separator of list elements. */
+    private static final char LIST_SEPARATOR = ',';
+
+    /** Kind of the value. */
+    private final char kind;
+
+    /** Literal value for simple kinds or a list of trace values. */
+    private final Object literal;
+
+    /** Id of an object. */
+    private final int id;
+
+    /** Class of the captured object. */
+    private final Class type;
+
+    /**
+     * Constructor.
+     *
+     * @param theKind kind of the value
+     * @param theLiteral literal value
+     * @param theId id of an object
+     * @param theType class of the captured object
+     */
+    private TraceValue(final char theKind, final Object theLiteral, final int theId, final Class theType) {
+        kind = theKind;
+        literal = theLiteral;
+        id = theId;
+        type = theType;
+    }
+
+    /**
+     * Captures a value.
+     *
+     * @param obj the value to capture
+     * @return captured value
+     */
+    static TraceValue of(final Object obj) {
+        if (obj == null) {
+            return NULL_VALUE;
+        } else if (obj instanceof String) {
+            return new TraceValue(STRING, obj, 0, String.class);
+        } else if (obj instanceof Integer) {
+            return new TraceValue(INTEGER, obj, 0, Integer.class);
+        } else if (obj instanceof Long) {
+            return new TraceValue(LONG, obj, 0, Long.class);
+        } else if (obj instanceof Number) {
+            return new TraceValue(DOUBLE, obj, 0, obj.getClass());
+        } else if (obj instanceof Boolean) {
+            return new TraceValue(BOOLEAN, obj, 0, Boolean.class);
+        } else if (obj instanceof Calendar) {
+            return new TraceValue(CALENDAR, ((Calendar) obj).clone(), 0, Calendar.class);
+        } else if (obj instanceof Session || obj instanceof DSession) {
+            return new TraceValue(SESSION, null, getId(obj), obj.getClass());
+        } else if (Proxy.isProxyClass(obj.getClass())) {
+            return new TraceValue(UNKNOWN, null, 0, obj.getClass());
+        } else if (obj instanceof List) {
+            final List list = (List) obj;
+            final TraceValue[] values = new TraceValue[list.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = of(list.get(i));
+            }
+            return new TraceValue(LIST, values, 0, List.class);
+        } else {
+            return new TraceValue(OBJECT, null, getId(obj), obj.getClass());
+        }
+    }
+
+    /**
+     * Returns the id of an object.
+     *
+     * @param obj the object
+     * @return id of the object
+     */
+    private static int getId(final Object obj) {
+        if (obj instanceof BaseProxy) {
+            return ((BaseProxy) obj).refereceHashCode();
+        }
+        return obj.hashCode();
+    }
+
+    /**
+     * Returns the kind of the value.
+     *
+     * @return kind of the value
+     */
+    char getKind() {
+        return kind;
+    }
+
+    /**
+     * Returns the id of an object.
+     *
+     * @return id of an object or <code>0</code> for other kinds
+     */
+    int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the class of the captured object.
+     *
+     * @return class of the captured object or <code>null</code>
+     */
+    Class getType() {
+        return type;
+    }
+
+    /**
+     * Returns the literal value.
+     *
+     * @return literal value or <code>null</code>
+     */
+    Object getLiteral() {
+        return literal;
+    }
+
+    /**
+     * Indicates whether the value is an object reference.
+     *
+     * @return <code>true</code> if the value references an object
+     */
+    boolean isReference() {
+        return kind == OBJECT || kind == SESSION;
+    }
+
+    /**
+     * Converts the value back to a Java object.
+     *
+     * @param objects map from ids to objects of a replay
+     * @return the Java object
+     * @throws IllegalArgumentException if the value cannot be reproduced
+     */
+    Object toObject(final Map objects) {
+        switch (kind) {
+        case NULL:
+        case STRING:
+        case INTEGER:
+        case LONG:
+        case DOUBLE:
+        case BOOLEAN:
+            return literal;
+        case CALENDAR:
+            return ((Calendar) literal).clone();
+        case LIST:
+            final TraceValue[] values = (TraceValue[]) literal;
+            final List list = new ArrayList(values.length);
+            for (int i = 0; i < values.length; i++) {
+                list.add(values[i].toObject(objects));
+            }
+            return list;
+        case SESSION:
+        case OBJECT:
+            final Object obj = objects.get(new Integer(id));
+            if (obj == null) {
+                throw new IllegalArgumentException("unknown object " + id);
+            }
+            return obj;
+        default:
+            throw new IllegalArgumentException("value cannot be reproduced");
+        }
+    }
+
+    /**
+     * Appends the compact trace encoding of the value to a buffer.
+     *
+     * @param buffer the buffer
+     */
+    void encode(final StringBuffer buffer) {
+        buffer.append(kind);
+        switch (kind) {
+        case STRING:
+            escape(buffer, (String) literal);
+            break;
+        case INTEGER:
+        case LONG:
+        case DOUBLE:
+        case BOOLEAN:
+            buffer.append(literal);
+            break;
+        case CALENDAR:
+            buffer.append(((Calendar) literal).getTimeInMillis());
+            break;
+        case LIST:
+            final TraceValue[] values = (TraceValue[]) literal;
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    buffer.append(LIST_SEPARATOR);
+                }
+                final StringBuffer element = new StringBuffer();
+                values[i].encode(element);
+                escape(buffer, element.toString());
+            }
+            break;
+        case SESSION:
+        case OBJECT:
+            buffer.append(id);
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Decodes a value from the compact trace format.
+     *
+     * @param text encoded value
+     * @return decoded value
+     * @throws IllegalArgumentException if the text is not a valid encoding
+     */
+    static TraceValue decode(final String text) {
+        if (text.length() == 0) {
+            throw new IllegalArgumentException("empty value");
+        }
+        final char kind = text.charAt(0);
+        final String data = text.substring(1);
+        switch (kind) {
+        case NULL:
+            return NULL_VALUE;
+        case STRING:
+            return new TraceValue(kind, unescape(data), 0, String.class);
+        case INTEGER:
+            return new TraceValue(kind, Integer.valueOf(data), 0, Integer.class);
+        case LONG:
+            return new TraceValue(kind, Long.valueOf(data), 0, Long.class);
+        case DOUBLE:
+            return new TraceValue(kind, Double.valueOf(data), 0, Double.class);
+        case BOOLEAN:
+            return new TraceValue(kind, Boolean.valueOf(data), 0, Boolean.class);
+        case CALENDAR:
+            final Calendar calendar = new GregorianCalendar();
+            calendar.setTimeInMillis(Long.parseLong(data));
+            return new TraceValue(kind, calendar, 0, Calendar.class);
+        case LIST:
+            final List elements = split(data, LIST_SEPARATOR);
+            final TraceValue[] values = new TraceValue[elements.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = decode(unescape((String) elements.get(i)));
+            }
+            return new TraceValue(kind, values, 0, List.class);
+        case SESSION:
+            return new TraceValue(kind, null, Integer.parseInt(data), DSession.class);
+        case OBJECT:
+            return new TraceValue(kind, null, Integer.parseInt(data), Object.class);
+        case UNKNOWN:
+            return new TraceValue(kind, null, 0, Object.class);
+        default:
+            throw new IllegalArgumentException("invalid value: " + text);
+        }
+    }
+
+    /**
+     * Appends an escaped string to a buffer.
+     * Backslash, tab, line breaks and comma are escaped with a backslash.
+     *
+     * @param buffer the buffer
+     * @param text the string to escape
+     */
+    static void escape(final StringBuffer buffer, final String text) {
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            switch (c) {
+            case '\\':
+                buffer.append("\\\\");
+                break;
+            case '\t':
+                buffer.append("\\t");
+                break;
+            case '\n':
+                buffer.append("\\n");
+                break;
+            case '\r':
+                buffer.append("\\r");
+                break;
+            case LIST_SEPARATOR:
+                buffer.append("\\c");
+                break;
+            default:
+                buffer.append(c);
+            }
+        }
+    }
+
+    /**
+     * Reverts the escaping of a string.
+     *
+     * @param text escaped string
+     * @return original string
+     */
+    static String unescape(final String text) {
+        if (text.indexOf('\\') < 0) {
+            return text;
+        }
+        final StringBuffer buffer = new StringBuffer(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                i++;
+                final char next = text.charAt(i);
+                if (next == 't') {
+                    buffer.append('\t');
+                } else if (next == 'n') {
+                    buffer.append('\n');
+                } else if (next == 'r') {
+                    buffer.append('\r');
+                } else if (next == 'c') {
+                    buffer.append(LIST_SEPARATOR);
+                } else {
+                    buffer.append(next);
+                }
+            } else {
+                buffer.append(c);
+            }
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * Splits a string at a separator character.
+     *
+     * @param text the string
+     * @param separator the separator
+     * @return list of strings
+     */
+    static List split(final String text, final char separator) {
+        final List list = new ArrayList();
+        if (text.length() == 0) {
+            return list;
+        }
+        int start = 0;
+        int index = text.indexOf(separator);
+        while (index >= 0) {
+            list.add(text.substring(start, index));
+            start = index + 1;
+            index = text.indexOf(separator, start);
+        }
+        list.add(text.substring(start));
+        return list;
+    }
+}
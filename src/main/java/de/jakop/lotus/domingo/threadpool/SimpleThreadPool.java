@@ -23,9 +23,14 @@
 
 package de.jakop.lotus.domingo.threadpool;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 import de.jakop.lotus.domingo.DNotesMonitor;
 import de.jakop.lotus.domingo.i18n.ResourceManager;
 import de.jakop.lotus.domingo.i18n.Resources;
+import de.jakop.lotus.domingo.metrics.Metrics;
 import de.jakop.lotus.domingo.monitor.ConsoleMonitor;
 import de.jakop.lotus.domingo.proxy.DNotesThread;
 import de.jakop.lotus.domingo.queue.MTQueue;
@@ -34,6 +39,9 @@ import de.jakop.lotus.domingo.queue.MTQueue;
  * A simple implementation of a ThreadPool which is constructed with a given
  * number of threads.
  *
+ * <p>The state of the pool is guarded by a lock; threads waiting for the
+ * pool do not hold a monitor and preserve their interrupt status.</p>
+ *
  * @author <a href="mailto:kriede@users.sourceforge.net">Kurt Riede</a>
  */
 public final class SimpleThreadPool implements Runnable, ThreadPool {
@@ -54,7 +62,7 @@ public final class SimpleThreadPool implements Runnable, ThreadPool {
     private final MTQueue queue;
 
     /** Indicates if the ThreadPool has been stopped. */
-    private boolean stopped = false;
+    private volatile boolean stopped = false;
 
     /** Number of threads that should be running. */
     private int size = 0;
@@ -62,6 +70,9 @@ public final class SimpleThreadPool implements Runnable, ThreadPool {
     /** Number of threads currently running. */
     private int threadCount = 0;
 
+    /** Number of running threads that are stopping because the pool has been shrunk. */
+    private int stopping = 0;
+
     /** Priority of threads in the pool. */
     private int threadPriority = 0;
 
@@ -76,7 +87,11 @@ public final class SimpleThreadPool implements Runnable, ThreadPool {
 
     private boolean initialized;
 
-    private Object mutex = new Object();
+    /** Lock guarding the state of the pool. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /** Signalled when a thread has started, failed to start or stopped. */
+    private final Condition threadsChanged = lock.newCondition();
 
     /**
      * Constructor.
@@ -179,7 +194,7 @@ public final class SimpleThreadPool implements Runnable, ThreadPool {
         } else {
             threadFactory = new DefaultThreadFactory(theMonitor);
         }
-        queue = new MTQueue(mutex, monitor);
+        queue = new MTQueue(monitor);
         initThreads(theNumberOfThreads, threadPriority);
     }
 
@@ -219,57 +234,75 @@ public final class SimpleThreadPool implements Runnable, ThreadPool {
      * @throws ThreadPoolException if any error occurs during starting threads
      */
     private Thread startThread(final int priority) throws ThreadPoolException {
-        initialized = false;
-        initException = null;
-        final DNotesThread thread = (DNotesThread) threadFactory.createThread(this);
-        if (priority != Thread.NORM_PRIORITY) {
-            thread.setPriority(priority);
-        }
+        lock.lock();
         try {
-            thread.start();
-        } catch (Throwable t) {
-            throw new ThreadPoolException("Thread cannot be started", t);
-        }
-        synchronized (mutex) {
-            while (!isInitialized() && !isFailed()) {
-                try {
-                    mutex.wait();
-                } catch (InterruptedException e) {
-                    // ignore the interrupt exception an continue
-                }
+            initialized = false;
+            initException = null;
+            final DNotesThread thread = (DNotesThread) threadFactory.createThread(this);
+            if (priority != Thread.NORM_PRIORITY) {
+                thread.setPriority(priority);
             }
+            try {
+                thread.start();
+            } catch (Throwable t) {
+                throw new ThreadPoolException("Thread cannot be started", t);
+            }
+            // the thread initializes quickly, so wait even if interrupted
+            while (!initialized && initException == null) {
+                threadsChanged.awaitUninterruptibly();
+            }
+            if (initException != null) {
+                throw new ThreadPoolException("Cannot start thread", initException);
+            }
+            return thread;
+        } finally {
+            lock.unlock();
         }
-        if (isFailed()) {
-            throw new ThreadPoolException("Cannot start thread", initException);
-        }
-        return thread;
     }
 
-    private boolean isInitialized() {
-        synchronized (mutex) {
-            return initialized;
+    /**
+     * Waits until the number of running threads is not greater than the
+     * given number. If the current thread is interrupted, it stops waiting
+     * and its interrupt status is preserved.
+     *
+     * @param count maximum number of running threads
+     * @param message message to log while waiting
+     */
+    private void awaitThreadCount(final int count, final String message) {
+        lock.lock();
+        try {
+            while (threadCount > count) {
+                queue.wakeUp();
+                if (!threadsChanged.await(MAX_WAIT_FOR_STOP, TimeUnit.MILLISECONDS)) {
+                    monitor.debug(message);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            lock.unlock();
         }
     }
 
-    private boolean isFailed() {
-        synchronized (mutex) {
-            return initException != null;
+    /**
+     * Unwraps a task dequeued from the queue and records its queue wait time.
+     *
+     * @param object object from the queue or <code>null</code>
+     * @return the task or <code>null</code>
+     */
+    private Runnable unwrap(final Object object) {
+        if (object instanceof QueuedTask) {
+            final QueuedTask queuedTask = (QueuedTask) object;
+            Metrics.timer(Metrics.QUEUE_WAIT).stop(queuedTask.enqueued);
+            return queuedTask.task;
         }
+        return (Runnable) object;
     }
 
     ////////////////////////////////////////////////
     //    public methods
     ////////////////////////////////////////////////
 
-    /**
-     * Returns the number of currently active threads.
-     *
-     * @return number of currently active threads
-     */
-    private int getThreadCount() {
-        return threadCount;
-    }
-
     /**
      * Returns number of runnable objects in the queue.
      * @return number of objects in the queue
@@ -291,27 +324,20 @@ public final class SimpleThreadPool implements Runnable, ThreadPool {
         if (stopped) {
             throw new IllegalStateException(RESOURCES.getString("threadpool.not.started"));
         }
-        queue.enqueue(task);
+        if (Metrics.isEnabled()) {
+            queue.enqueue(new QueuedTask(task));
+        } else {
+            queue.enqueue(task);
+        }
     }
 
     /**
      * @see ThreadPool#stop()
      */
     public void stop() {
-        synchronized (mutex) {
-            stopped = true;
-            synchronized (queue) {
-                mutex.notifyAll();
-            }
-            while (getThreadCount() > 0) {
-                try {
-                    mutex.wait(MAX_WAIT_FOR_STOP);
-                } catch (InterruptedException e) {
-                    monitor.debug(RESOURCES.getString("threadpool.wait.stop"));
-                }
-            }
-            monitor.info(RESOURCES.getString("threadpool.stopped"));
-        }
+        stopped = true;
+        awaitThreadCount(0, RESOURCES.getString("threadpool.wait.stop"));
+        monitor.info(RESOURCES.getString("threadpool.stopped"));
     }
 
     /**
@@ -319,19 +345,16 @@ public final class SimpleThreadPool implements Runnable, ThreadPool {
      * @see ThreadPool#resize(int)
      */
     public void resize(final int newSize) throws ThreadPoolException {
-        synchronized (mutex) {
+        lock.lock();
+        try {
             size = newSize;
             if (size > threadCount) {
                 initThreads(size - threadCount);
             } else if (size < threadCount) {
-                while (threadCount > size) {
-                    try {
-                        mutex.wait(MAX_WAIT_FOR_STOP);
-                    } catch (InterruptedException e) {
-                        monitor.debug(RESOURCES.getString("threadpool.wait.resize"));
-                    }
-                }
+                awaitThreadCount(size, RESOURCES.getString("threadpool.wait.resize"));
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -347,46 +370,97 @@ public final class SimpleThreadPool implements Runnable, ThreadPool {
         try {
             threadFactory.initThread();
         } catch (Throwable t) {
-            synchronized (mutex) {
+            lock.lock();
+            try {
                 initException = t;
-                mutex.notifyAll();
+                threadsChanged.signalAll();
+            } finally {
+                lock.unlock();
             }
             return;
         }
-        synchronized (mutex) {
+        lock.lock();
+        try {
             initialized = true;
             threadCount++;
-            mutex.notifyAll();
+            threadsChanged.signalAll();
+        } finally {
+            lock.unlock();
         }
+        boolean surplus = false;
         while (!stopped) {
-            synchronized (mutex) {
-                if (threadCount > size) {
-                    break;
-                }
+            if (isSurplus()) {
+                surplus = true;
+                break;
             }
-            final Runnable task = (Runnable) queue.dequeue(MAX_WAIT_FOR_TASK);
+            // an interrupt left by a task is not meant for the pool; clear it
+            // so that waiting for the next task does not return immediately
+            Thread.interrupted();
+            final Runnable task = unwrap(queue.dequeue(MAX_WAIT_FOR_TASK));
             if (task != null) {
                 try {
                     task.run();
                 } catch (Throwable t) {
                     monitor.fatalError(RESOURCES.getString("task.execute.failed"), t);
                 }
-                synchronized (task) {
-                    task.notifyAll();
-                }
             }
         }
-        synchronized (mutex) {
-            threadCount--;
-        }
         try {
             threadFactory.termThread();
         } catch (Throwable t) {
             threadFactory.handleThrowable(t);
         }
         monitor.info(RESOURCES.getString("thread.stopped"));
-        synchronized (mutex) {
-            mutex.notifyAll();
+        lock.lock();
+        try {
+            threadCount--;
+            if (surplus) {
+                stopping--;
+            }
+            threadsChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks if the current thread should stop because the pool has been
+     * shrunk. Only as many threads stop as needed to reach the new size.
+     *
+     * @return <code>true</code> if the current thread should stop
+     */
+    private boolean isSurplus() {
+        lock.lock();
+        try {
+            if (threadCount - stopping > size) {
+                stopping++;
+                return true;
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * A task in the queue together with the time it was enqueued.
+     */
+    private static final class QueuedTask {
+
+        /** The task. */
+        private final Runnable task;
+
+        /** Time when the task was enqueued in nano seconds. */
+        private final long enqueued;
+
+        /**
+         * Constructor.
+         *
+         * @param theTask the task
+         */
+        QueuedTask(final Runnable theTask) {
+            task = theTask;
+            enqueued = System.nanoTime();
         }
     }
 }
@@ -0,0 +1,256 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.util;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import de.jakop.lotus.domingo.DBaseDocument;
+import de.jakop.lotus.domingo.DDatabase;
+import de.jakop.lotus.domingo.DDateRange;
+import de.jakop.lotus.domingo.DDocument;
+
+/**
+ * Imports large numbers of documents into one or more databases.
+ *
+ * <p>Documents are given as maps of item names to item values and are
+ * passed to {@link DDatabase#createDocuments(List)} in batches, so a batch
+ * of documents costs a single call to the Notes thread or server instead
+ * of one call per document and item. Databases are written in parallel,
+ * the batches of a single database are written in order.</p>
+ *
+ * <p>Results are reported per document to a {@link Listener} as soon as a
+ * batch is written, so errors can be handled while the import continues.
+ * The listener is called from the worker threads and must be
+ * thread-safe.</p>
+ *
+ * <pre>
+ * BulkWriter writer = new BulkWriter(500, 4, listener);
+ * writer.submit(database1, records1.iterator());
+ * writer.submit(database2, records2.iterator());
+ * writer.close();
+ * </pre>
+ */
+public final class BulkWriter {
+
+    /**
+     * Receives the results of a bulk write.
+     */
+    public interface Listener {
+
+        /**
+         * Called for each saved document.
+         *
+         * @param database the database
+         * @param index index of the document in the submitted iterator
+         * @param universalId universal ID of the new document
+         */
+        void saved(DDatabase database, int index, String universalId);
+
+        /**
+         * Called for each document that could not be saved.
+         *
+         * @param database the database
+         * @param index index of the document in the submitted iterator
+         * @param items the items of the document
+         * @param e the cause of the failure
+         */
+        void failed(DDatabase database, int index, Map items, RuntimeException e);
+    }
+
+    private final int fBatchSize;
+
+    private final Listener fListener;
+
+    private final ExecutorService fExecutor;
+
+    /**
+     * Creates a new bulk writer.
+     *
+     * @param batchSize number of documents per call to the database
+     * @param parallelism number of databases written in parallel
+     * @param listener listener for the results
+     */
+    public BulkWriter(final int batchSize, final int parallelism, final Listener listener) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1: " + batchSize);
+        }
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1: " + parallelism);
+        }
+        fBatchSize = batchSize;
+        fListener = listener;
+        fExecutor = Executors.newFixedThreadPool(parallelism);
+    }
+
+    /**
+     * Submits documents to be written to a database.
+     *
+     * @param database the database to create the documents in
+     * @param itemMaps iterator over maps of item names to item values, see
+     *            {@link #replaceItemValue(DBaseDocument, String, Object)}
+     *            for supported values
+     * @return future returning the number of saved documents as
+     *         <code>Integer</code>
+     */
+    public Future submit(final DDatabase database, final Iterator itemMaps) {
+        return fExecutor.submit(new Callable() {
+            public Object call() {
+                return new Integer(write(database, itemMaps));
+            }
+        });
+    }
+
+    /**
+     * Waits until all submitted documents are written and stops the worker
+     * threads.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void close() throws InterruptedException {
+        fExecutor.shutdown();
+        while (!fExecutor.awaitTermination(1, TimeUnit.MINUTES)) {
+            continue;
+        }
+    }
+
+    private int write(final DDatabase database, final Iterator itemMaps) {
+        int saved = 0;
+        int index = 0;
+        final List batch = new ArrayList(fBatchSize);
+        while (itemMaps.hasNext()) {
+            batch.add(itemMaps.next());
+            if (batch.size() == fBatchSize || !itemMaps.hasNext()) {
+                final List results;
+                try {
+                    results = database.createDocuments(batch);
+                } catch (RuntimeException e) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        fListener.failed(database, index + i, (Map) batch.get(i), e);
+                    }
+                    index += batch.size();
+                    batch.clear();
+                    continue;
+                }
+                for (int i = 0; i < results.size(); i++) {
+                    final Object result = results.get(i);
+                    if (result instanceof RuntimeException) {
+                        fListener.failed(database, index + i, (Map) batch.get(i), (RuntimeException) result);
+                    } else {
+                        fListener.saved(database, index + i, (String) result);
+                        saved++;
+                    }
+                }
+                index += batch.size();
+                batch.clear();
+            }
+        }
+        return saved;
+    }
+
+    /**
+     * Creates and saves one document per item map. A failure of a single
+     * document doesn't affect the other documents.
+     *
+     * <p>This is the common implementation of
+     * {@link DDatabase#createDocuments(List)}.</p>
+     *
+     * @param database the database
+     * @param itemMaps list of maps of item names to item values
+     * @return list with the universal ID or the <code>RuntimeException</code>
+     *         per item map
+     */
+    public static List createDocuments(final DDatabase database, final List itemMaps) {
+        final List results = new ArrayList(itemMaps.size());
+        for (int i = 0; i < itemMaps.size(); i++) {
+            DDocument document = null;
+            try {
+                document = database.createDocument();
+                final Iterator iterator = ((Map) itemMaps.get(i)).entrySet().iterator();
+                while (iterator.hasNext()) {
+                    final Map.Entry entry = (Map.Entry) iterator.next();
+                    replaceItemValue(document, (String) entry.getKey(), entry.getValue());
+                }
+                document.save(true, false);
+                results.add(document.getUniversalID());
+            } catch (RuntimeException e) {
+                results.add(e);
+            } finally {
+                if (document != null) {
+                    try {
+                        document.recycle();
+                    } catch (RuntimeException ignored) {
+                        // exception ignored
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Replaces an item value with the appropriate method for the type of the
+     * value. Supported types are <code>String</code>, <code>Integer</code>,
+     * <code>Double</code> and other <code>Number</code>s, <code>Calendar</code>,
+     * <code>TimeZone</code>, {@link DDateRange} and <code>List</code>s of
+     * these. A <code>null</code> value replaces the item with an empty
+     * string.
+     *
+     * @param document the document
+     * @param name name of the item
+     * @param value new value of the item
+     */
+    public static void replaceItemValue(final DBaseDocument document, final String name, final Object value) {
+        if (value == null) {
+            document.replaceItemValue(name, "");
+        } else if (value instanceof String) {
+            document.replaceItemValue(name, (String) value);
+        } else if (value instanceof Integer) {
+            document.replaceItemValue(name, (Integer) value);
+        } else if (value instanceof Number) {
+            document.replaceItemValue(name, new Double(((Number) value).doubleValue()));
+        } else if (value instanceof Calendar) {
+            document.replaceItemValue(name, (Calendar) value);
+        } else if (value instanceof TimeZone) {
+            document.replaceItemValue(name, (TimeZone) value);
+        } else if (value instanceof DDateRange) {
+            document.replaceItemValue(name, (DDateRange) value);
+        } else if (value instanceof List) {
+            document.replaceItemValue(name, (List) value);
+        } else {
+            throw new IllegalArgumentException("Unsupported type of value for item " + name + ": "
+                    + value.getClass().getName());
+        }
+    }
+}
@@ -25,9 +25,14 @@ package de.jakop.lotus.domingo.util;
 
 import java.text.DateFormat;
 import java.util.Calendar;
+import java.util.Date;
 import java.util.GregorianCalendar;
+import java.util.List;
 import java.util.Locale;
 
+import de.jakop.lotus.domingo.DDateRange;
+import de.jakop.lotus.domingo.DDocumentSnapshot;
+
 /**
  * Static utility methods for date operations and conversions.
  *
@@ -230,4 +235,58 @@ public final class DateUtil {
         DateFormat format = DateFormat.getTimeInstance(DateFormat.LONG, locale);
         return format.format(calendar.getTime());
     }
+
+    /**
+     * Returns the milliseconds since the epoch of a date value.
+     *
+     * <p>Supported values are <tt>java.util.Calendar</tt>, <tt>java.util.Date</tt>,
+     * {@link DDateRange} (the start date is returned) and lists, where the first
+     * element is converted.</p>
+     *
+     * @param value a date value
+     * @return milliseconds since the epoch or {@link DDocumentSnapshot#NO_DATE}
+     *         if the value is <code>null</code> or not a date
+     */
+    public static long getMillis(final Object value) {
+        if (value instanceof Calendar) {
+            return ((Calendar) value).getTimeInMillis();
+        } else if (value instanceof Date) {
+            return ((Date) value).getTime();
+        } else if (value instanceof DDateRange) {
+            return getMillis(((DDateRange) value).getFrom());
+        } else if (value instanceof List && ((List) value).size() > 0) {
+            return getMillis(((List) value).get(0));
+        }
+        return DDocumentSnapshot.NO_DATE;
+    }
+
+    /**
+     * Returns the milliseconds since the epoch of all date values of a list.
+     *
+     * <p>A {@link DDateRange} contributes its start and end date. Values that
+     * are not dates are ignored.</p>
+     *
+     * @param values list of date values
+     * @return array of milliseconds, never <code>null</code>
+     * @see #getMillis(Object)
+     */
+    public static long[] getMillisArray(final List values) {
+        if (values == null) {
+            return new long[0];
+        }
+        final long[] result = new long[2 * values.size()];
+        int count = 0;
+        for (int i = 0; i < values.size(); i++) {
+            final Object value = values.get(i);
+            if (value instanceof DDateRange) {
+                result[count++] = getMillis(((DDateRange) value).getFrom());
+                result[count++] = getMillis(((DDateRange) value).getTo());
+            } else if (value instanceof Calendar || value instanceof Date) {
+                result[count++] = getMillis(value);
+            }
+        }
+        final long[] trimmed = new long[count];
+        System.arraycopy(result, 0, trimmed, 0, count);
+        return trimmed;
+    }
 }
@@ -0,0 +1,518 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.util;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import de.jakop.lotus.domingo.DDateRange;
+import de.jakop.lotus.domingo.DDocumentSnapshot;
+
+/**
+ * Compact implementation of a detached document snapshot.
+ *
+ * <p>Item names are kept interned in a sorted array and item values in a
+ * parallel array, where each value is a <code>String[]</code>,
+ * <code>double[]</code> or <code>long[]</code>. Date/time items that contain
+ * date ranges are kept as <code>long[][]</code>, with one array of length 1
+ * per date/time and one array of length 2 per date range. Lookups are binary
+ * searches without any allocation.</p>
+ */
+public final class DocumentSnapshot implements DDocumentSnapshot {
+
+    /** serial version ID for serialization. */
+    private static final long serialVersionUID = -3590436734187529615L;
+
+    /** Empty array of strings. */
+    private static final String[] EMPTY_STRINGS = new String[0];
+
+    /** Empty array of numbers. */
+    private static final double[] EMPTY_NUMBERS = new double[0];
+
+    /** Empty array of date/times. */
+    private static final long[] EMPTY_DATETIMES = new long[0];
+
+    /** Universal ID of the document. */
+    private final String fUniversalID;
+
+    /** Last modification date of the document. */
+    private final long fLastModified;
+
+    /** Interned item names, sorted case-insensitive. */
+    private final String[] fNames;
+
+    /** Item values, parallel to the names. */
+    private final Object[] fValues;
+
+    /**
+     * Constructor.
+     *
+     * <p>Each element of the values array must be a <code>String[]</code>,
+     * a <code>double[]</code>, a <code>long[]</code> or a <code>long[][]</code>
+     * of date/times and date ranges. The value arrays are
+     * not copied, the caller must not modify them afterwards. If an item name
+     * occurs more than once, only the first occurrence is used.</p>
+     *
+     * @param universalID universal ID of the document
+     * @param lastModified last modification of the document in milliseconds
+     *            or {@link DDocumentSnapshot#NO_DATE}
+     * @param names item names
+     * @param values item values, parallel to the names
+     */
+    public DocumentSnapshot(final String universalID, final long lastModified, final String[] names,
+            final Object[] values) {
+        if (names.length != values.length) {
+            throw new IllegalArgumentException("Number of names and values differ");
+        }
+        final Entry[] entries = new Entry[names.length];
+        for (int i = 0; i < names.length; i++) {
+            final Object value = values[i];
+            if (!(value instanceof String[] || value instanceof double[] || value instanceof long[]
+                    || value instanceof long[][])) {
+                throw new IllegalArgumentException("Unsupported value type for item " + names[i]);
+            }
+            entries[i] = new Entry(names[i].intern(), value, i);
+        }
+        Arrays.sort(entries, ENTRY_COMPARATOR);
+        int count = 0;
+        for (int i = 0; i < entries.length; i++) {
+            if (count == 0 || !entries[count - 1].fName.equalsIgnoreCase(entries[i].fName)) {
+                entries[count++] = entries[i];
+            }
+        }
+        fUniversalID = universalID;
+        fLastModified = lastModified;
+        fNames = new String[count];
+        fValues = new Object[count];
+        for (int i = 0; i < count; i++) {
+            fNames[i] = entries[i].fName;
+            fValues[i] = entries[i].fValue;
+        }
+    }
+
+    /**
+     * Converts a list of item values into the compact representation used
+     * by snapshots.
+     *
+     * <p>A list containing only numbers is converted to a <code>double[]</code>,
+     * a list containing only calendars and dates is converted to a
+     * <code>long[]</code>, and a list that also contains date ranges to a
+     * <code>long[][]</code>. All other lists are converted to a
+     * <code>String[]</code>.</p>
+     *
+     * @param list list of item values, can be <code>null</code>
+     * @return compact representation of the values
+     */
+    public static Object toCompactValues(final List list) {
+        if (list == null || list.size() == 0) {
+            return EMPTY_STRINGS;
+        }
+        final int size = list.size();
+        boolean numbers = true;
+        boolean dates = true;
+        boolean ranges = false;
+        for (int i = 0; i < size; i++) {
+            final Object value = list.get(i);
+            numbers &= value instanceof Number;
+            dates &= value instanceof Calendar || value instanceof Date || value instanceof DDateRange;
+            ranges |= value instanceof DDateRange;
+        }
+        if (numbers) {
+            final double[] result = new double[size];
+            for (int i = 0; i < size; i++) {
+                result[i] = ((Number) list.get(i)).doubleValue();
+            }
+            return result;
+        }
+        if (dates && ranges) {
+            final long[][] result = new long[size][];
+            for (int i = 0; i < size; i++) {
+                final Object value = list.get(i);
+                if (value instanceof DDateRange) {
+                    final DDateRange range = (DDateRange) value;
+                    result[i] = new long[] {DateUtil.getMillis(range.getFrom()), DateUtil.getMillis(range.getTo())};
+                } else {
+                    result[i] = new long[] {DateUtil.getMillis(value)};
+                }
+            }
+            return result;
+        }
+        if (dates) {
+            return DateUtil.getMillisArray(list);
+        }
+        final String[] result = new String[size];
+        for (int i = 0; i < size; i++) {
+            final Object value = list.get(i);
+            result[i] = value == null ? "" : value.toString();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the index of an item.
+     *
+     * @param name name of an item
+     * @return index of the item or a negative value if not contained
+     */
+    private int indexOf(final String name) {
+        if (name == null) {
+            return -1;
+        }
+        int low = 0;
+        int high = fNames.length - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int cmp = String.CASE_INSENSITIVE_ORDER.compare(fNames[mid], name);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the compact value of an item.
+     *
+     * @param name name of an item
+     * @return compact value or <code>null</code> if not contained
+     */
+    private Object getValue(final String name) {
+        final int index = indexOf(name);
+        return index < 0 ? null : fValues[index];
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDocumentSnapshot#getUniversalID()
+     */
+    public String getUniversalID() {
+        return fUniversalID;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDocumentSnapshot#getLastModified()
+     */
+    public long getLastModified() {
+        return fLastModified;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDocumentSnapshot#getItemNames()
+     */
+    public List getItemNames() {
+        return Collections.unmodifiableList(Arrays.asList(fNames));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDocumentSnapshot#hasItem(java.lang.String)
+     */
+    public boolean hasItem(final String name) {
+        return indexOf(name) >= 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDocumentSnapshot#getItemType(java.lang.String)
+     */
+    public int getItemType(final String name) {
+        final Object value = getValue(name);
+        if (value instanceof double[]) {
+            return TYPE_NUMBER;
+        } else if (value instanceof long[] || value instanceof long[][]) {
+            return TYPE_DATETIME;
+        } else if (value instanceof String[]) {
+            return TYPE_TEXT;
+        }
+        return TYPE_NONE;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDocumentSnapshot#getItemValueSize(java.lang.String)
+     */
+    public int getItemValueSize(final String name) {
+        final Object value = getValue(name);
+        if (value instanceof double[]) {
+            return ((double[]) value).length;
+        } else if (value instanceof long[]) {
+            return ((long[]) value).length;
+        } else if (value instanceof long[][]) {
+            return ((long[][]) value).length;
+        } else if (value instanceof String[]) {
+            return ((String[]) value).length;
+        }
+        return 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDocumentSnapshot#getItemValue(java.lang.String)
+     */
+    public List getItemValue(final String name) {
+        final Object value = getValue(name);
+        final List list;
+        if (value instanceof double[]) {
+            final double[] numbers = (double[]) value;
+            list = new ArrayList(numbers.length);
+            for (int i = 0; i < numbers.length; i++) {
+                list.add(new Double(numbers[i]));
+            }
+        } else if (value instanceof long[]) {
+            final long[] dates = (long[]) value;
+            list = new ArrayList(dates.length);
+            for (int i = 0; i < dates.length; i++) {
+                list.add(toCalendar(dates[i]));
+            }
+        } else if (value instanceof long[][]) {
+            final long[][] dates = (long[][]) value;
+            list = new ArrayList(dates.length);
+            for (int i = 0; i < dates.length; i++) {
+                if (dates[i].length == 2) {
+                    list.add(toDateRange(dates[i][0], dates[i][1]));
+                } else {
+                    list.add(toCalendar(dates[i][0]));
+                }
+            }
+        } else if (value instanceof String[]) {
+            list = Arrays.asList((Object[]) ((String[]) value).clone());
+        } else {
+            list = new ArrayList(0);
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDocumentSnapshot#getItemValueString(java.lang.String)
+     */
+    public String getItemValueString(final String name) {
+        final Object value = getValue(name);
+        if (value instanceof String[]) {
+            final String[] strings = (String[]) value;
+            return strings.length > 0 ? strings[0] : "";
+        } else if (value instanceof double[]) {
+            final double[] numbers = (double[]) value;
+            return numbers.length > 0 ? String.valueOf(numbers[0]) : "";
+        }
+        final long millis = getItemValueDateTime(name);
+        return millis != NO_DATE ? DateUtil.getDateTimeString(toCalendar(millis)) : "";
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDocumentSnapshot#getItemValueStrings(java.lang.String)
+     */
+    public String[] getItemValueStrings(final String name) {
+        final Object value = getValue(name);
+        if (value instanceof String[]) {
+            return (String[]) ((String[]) value).clone();
+        }
+        return EMPTY_STRINGS;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDocumentSnapshot#getItemValueDouble(java.lang.String)
+     */
+    public double getItemValueDouble(final String name) {
+        final Object value = getValue(name);
+        if (value instanceof double[] && ((double[]) value).length > 0) {
+            return ((double[]) value)[0];
+        }
+        return 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDocumentSnapshot#getItemValueInteger(java.lang.String)
+     */
+    public int getItemValueInteger(final String name) {
+        return (int) getItemValueDouble(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDocumentSnapshot#getItemValueNumbers(java.lang.String)
+     */
+    public double[] getItemValueNumbers(final String name) {
+        final Object value = getValue(name);
+        if (value instanceof double[]) {
+            return (double[]) ((double[]) value).clone();
+        }
+        return EMPTY_NUMBERS;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDocumentSnapshot#getItemValueDateTime(java.lang.String)
+     */
+    public long getItemValueDateTime(final String name) {
+        final Object value = getValue(name);
+        if (value instanceof long[] && ((long[]) value).length > 0) {
+            return ((long[]) value)[0];
+        } else if (value instanceof long[][] && ((long[][]) value).length > 0) {
+            return ((long[][]) value)[0][0];
+        }
+        return NO_DATE;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDocumentSnapshot#getItemValueDateTimes(java.lang.String)
+     */
+    public long[] getItemValueDateTimes(final String name) {
+        final Object value = getValue(name);
+        if (value instanceof long[]) {
+            return (long[]) ((long[]) value).clone();
+        } else if (value instanceof long[][]) {
+            final long[][] dates = (long[][]) value;
+            int count = 0;
+            for (int i = 0; i < dates.length; i++) {
+                count += dates[i].length;
+            }
+            final long[] result = new long[count];
+            int k = 0;
+            for (int i = 0; i < dates.length; i++) {
+                System.arraycopy(dates[i], 0, result, k, dates[i].length);
+                k += dates[i].length;
+            }
+            return result;
+        }
+        return EMPTY_DATETIMES;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DDocumentSnapshot#getItemValueDate(java.lang.String)
+     */
+    public Calendar getItemValueDate(final String name) {
+        return toCalendar(getItemValueDateTime(name));
+    }
+
+    /**
+     * Creates a calendar for the given time in milliseconds.
+     *
+     * @param millis milliseconds since January 1, 1970, 00:00:00 GMT
+     * @return new calendar or <code>null</code> if millis is {@link DDocumentSnapshot#NO_DATE}
+     */
+    private static Calendar toCalendar(final long millis) {
+        if (millis == NO_DATE) {
+            return null;
+        }
+        return new GregorianDateTime(new Date(millis));
+    }
+
+    /**
+     * Creates a date range for the given times in milliseconds.
+     *
+     * @param from start in milliseconds or {@link DDocumentSnapshot#NO_DATE}
+     * @param to end in milliseconds or {@link DDocumentSnapshot#NO_DATE}
+     * @return new date range, without start or end if unknown
+     */
+    private static DDateRange toDateRange(final long from, final long to) {
+        final GregorianDateTimeRange range = new GregorianDateTimeRange();
+        if (from != NO_DATE) {
+            range.setFrom(toCalendar(from));
+        }
+        if (to != NO_DATE) {
+            range.setTo(toCalendar(to));
+        }
+        return range;
+    }
+
+    /**
+     * Re-interns the item names after deserialization.
+     *
+     * @param in the object input stream
+     * @throws IOException if an I/O error occurs
+     * @throws ClassNotFoundException if a class of a serialized object cannot be found
+     */
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        for (int i = 0; i < fNames.length; i++) {
+            fNames[i] = fNames[i].intern();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see java.lang.Object#toString()
+     */
+    public String toString() {
+        return "[" + fUniversalID + ", " + Arrays.asList(fNames) + "]";
+    }
+
+    /** Orders entries case-insensitive by name and then by original position. */
+    private static final Comparator ENTRY_COMPARATOR = new Comparator() {
+        public int compare(final Object o1, final Object o2) {
+            final Entry e1 = (Entry) o1;
+            final Entry e2 = (Entry) o2;
+            final int cmp = String.CASE_INSENSITIVE_ORDER.compare(e1.fName, e2.fName);
+            return cmp != 0 ? cmp : e1.fPosition - e2.fPosition;
+        }
+    };
+
+    /**
+     * Temporary holder of an item during construction.
+     */
+    private static final class Entry {
+
+        /** Item name. */
+        private final String fName;
+
+        /** Compact item value. */
+        private final Object fValue;
+
+        /** Original position of the item. */
+        private final int fPosition;
+
+        /**
+         * Constructor.
+         *
+         * @param name item name
+         * @param value compact item value
+         * @param position original position of the item
+         */
+        private Entry(final String name, final Object value, final int position) {
+            fName = name;
+            fValue = value;
+            fPosition = position;
+        }
+    }
+}
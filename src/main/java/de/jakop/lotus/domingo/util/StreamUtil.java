@@ -0,0 +1,119 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.util;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Utility methods to copy streams with a bounded amount of memory.
+ *
+ * <p>If the source is a local file or the target is a file channel, the
+ * transfer is delegated to {@link FileChannel}, which lets the operating
+ * system copy the data without passing it through the Java heap.</p>
+ */
+public final class StreamUtil {
+
+    /** Size of transfer buffers and maximum number of bytes per file channel transfer. */
+    public static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private StreamUtil() {
+    }
+
+    /**
+     * Copies all bytes from an input stream to a channel.
+     * The stream and the channel are not closed.
+     *
+     * @param in the input stream
+     * @param target the target channel
+     * @return number of bytes copied
+     * @throws IOException if an I/O error occurs
+     */
+    public static long transfer(final InputStream in, final WritableByteChannel target) throws IOException {
+        if (in instanceof FileInputStream) {
+            return transfer(((FileInputStream) in).getChannel(), target);
+        }
+        return transfer(Channels.newChannel(in), target);
+    }
+
+    /**
+     * Copies all bytes from a channel to another channel.
+     * The channels are not closed.
+     *
+     * @param source the source channel
+     * @param target the target channel
+     * @return number of bytes copied
+     * @throws IOException if an I/O error occurs
+     */
+    public static long transfer(final ReadableByteChannel source, final WritableByteChannel target)
+            throws IOException {
+        if (source instanceof FileChannel) {
+            final FileChannel channel = (FileChannel) source;
+            final long start = channel.position();
+            final long size = channel.size();
+            long position = start;
+            while (position < size) {
+                final long count = channel.transferTo(position, Math.min(BUFFER_SIZE, size - position), target);
+                if (count <= 0) {
+                    break;
+                }
+                position += count;
+            }
+            channel.position(position);
+            return position - start;
+        }
+        if (target instanceof FileChannel) {
+            final FileChannel channel = (FileChannel) target;
+            final long start = channel.position();
+            long position = start;
+            long count = channel.transferFrom(source, position, BUFFER_SIZE);
+            while (count > 0) {
+                position += count;
+                count = channel.transferFrom(source, position, BUFFER_SIZE);
+            }
+            channel.position(position);
+            return position - start;
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        long total = 0;
+        while (source.read(buffer) >= 0) {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                total += target.write(buffer);
+            }
+            buffer.clear();
+        }
+        return total;
+    }
+}
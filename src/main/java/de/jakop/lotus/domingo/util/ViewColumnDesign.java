@@ -0,0 +1,1275 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.util;
+
+import java.io.Serializable;
+
+import de.jakop.lotus.domingo.DViewColumn;
+
+/**
+ * Immutable, detached copy of the design of a view column.
+ *
+ * <p>All attributes are read once from a column when the copy is created;
+ * afterwards the getters do not access the column anymore. All setters
+ * throw an <code>UnsupportedOperationException</code>.</p>
+ *
+ * @see de.jakop.lotus.domingo.DViewDesign
+ */
+public final class ViewColumnDesign implements DViewColumn, Serializable {
+
+    /** serial version ID for serialization. */
+    private static final long serialVersionUID = 7305916425730169846L;
+
+    /** Flag for sorted columns. */
+    public static final int SORTED = 1;
+
+    /** Flag for categorized columns. */
+    public static final int CATEGORY = 2;
+
+    /** Flag for columns sorted in descending order. */
+    public static final int SORT_DESCENDING = 4;
+
+    /** Flag for columns that show response documents only. */
+    public static final int RESPONSE = 8;
+
+    /** Flag for hidden columns. */
+    public static final int HIDDEN = 16;
+
+    /** Flag for columns that show a twistie. */
+    public static final int SHOW_TWISTIE = 32;
+
+    /** Flag for columns that can be resorted in ascending order. */
+    public static final int RESORT_ASCENDING = 64;
+
+    /** Flag for columns that can be resorted in descending order. */
+    public static final int RESORT_DESCENDING = 128;
+
+    /** Value of {@link DViewColumn#isHidden()}. */
+    private final boolean fHidden;
+
+    /** Value of {@link DViewColumn#getWidth()}. */
+    private final int fWidth;
+
+    /** Value of {@link DViewColumn#getTitle()}. */
+    private final String fTitle;
+
+    /** Value of {@link DViewColumn#getAlignment()}. */
+    private final int fAlignment;
+
+    /** Value of {@link DViewColumn#isResponse()}. */
+    private final boolean fResponse;
+
+    /** Value of {@link DViewColumn#isSorted()}. */
+    private final boolean fSorted;
+
+    /** Value of {@link DViewColumn#getFormula()}. */
+    private final String fFormula;
+
+    /** Value of {@link DViewColumn#getPosition()}. */
+    private final int fPosition;
+
+    /** Value of {@link DViewColumn#isField()}. */
+    private final boolean fField;
+
+    /** Value of {@link DViewColumn#isFormula()}. */
+    private final boolean fFormulaColumn;
+
+    /** Value of {@link DViewColumn#getItemName()}. */
+    private final String fItemName;
+
+    /** Value of {@link DViewColumn#getListSep()}. */
+    private final int fListSep;
+
+    /** Value of {@link DViewColumn#getHeaderAlignment()}. */
+    private final int fHeaderAlignment;
+
+    /** Value of {@link DViewColumn#getFontFace()}. */
+    private final String fFontFace;
+
+    /** Value of {@link DViewColumn#getFontStyle()}. */
+    private final int fFontStyle;
+
+    /** Value of {@link DViewColumn#getFontColor()}. */
+    private final int fFontColor;
+
+    /** Value of {@link DViewColumn#getFontPointSize()}. */
+    private final int fFontPointSize;
+
+    /** Value of {@link DViewColumn#getNumberDigits()}. */
+    private final int fNumberDigits;
+
+    /** Value of {@link DViewColumn#getNumberFormat()}. */
+    private final int fNumberFormat;
+
+    /** Value of {@link DViewColumn#getNumberAttrib()}. */
+    private final int fNumberAttrib;
+
+    /** Value of {@link DViewColumn#getDateFmt()}. */
+    private final int fDateFmt;
+
+    /** Value of {@link DViewColumn#getTimeFmt()}. */
+    private final int fTimeFmt;
+
+    /** Value of {@link DViewColumn#getTimeZoneFmt()}. */
+    private final int fTimeZoneFmt;
+
+    /** Value of {@link DViewColumn#getTimeDateFmt()}. */
+    private final int fTimeDateFmt;
+
+    /** Value of {@link DViewColumn#isCategory()}. */
+    private final boolean fCategory;
+
+    /** Value of {@link DViewColumn#isSortDescending()}. */
+    private final boolean fSortDescending;
+
+    /** Value of {@link DViewColumn#isHideDetail()}. */
+    private final boolean fHideDetail;
+
+    /** Value of {@link DViewColumn#isIcon()}. */
+    private final boolean fIcon;
+
+    /** Value of {@link DViewColumn#isResize()}. */
+    private final boolean fResize;
+
+    /** Value of {@link DViewColumn#isResortAscending()}. */
+    private final boolean fResortAscending;
+
+    /** Value of {@link DViewColumn#isResortDescending()}. */
+    private final boolean fResortDescending;
+
+    /** Value of {@link DViewColumn#isShowTwistie()}. */
+    private final boolean fShowTwistie;
+
+    /** Value of {@link DViewColumn#isResortToView()}. */
+    private final boolean fResortToView;
+
+    /** Value of {@link DViewColumn#isSecondaryResort()}. */
+    private final boolean fSecondaryResort;
+
+    /** Value of {@link DViewColumn#isSecondaryResortDescending()}. */
+    private final boolean fSecondaryResortDescending;
+
+    /** Value of {@link DViewColumn#isCaseSensitiveSort()}. */
+    private final boolean fCaseSensitiveSort;
+
+    /** Value of {@link DViewColumn#isAccentSensitiveSort()}. */
+    private final boolean fAccentSensitiveSort;
+
+    /** Value of {@link DViewColumn#getHeaderFontColor()}. */
+    private final int fHeaderFontColor;
+
+    /** Value of {@link DViewColumn#getHeaderFontFace()}. */
+    private final String fHeaderFontFace;
+
+    /** Value of {@link DViewColumn#getHeaderFontPointSize()}. */
+    private final int fHeaderFontPointSize;
+
+    /** Value of {@link DViewColumn#getHeaderFontStyle()}. */
+    private final int fHeaderFontStyle;
+
+    /** Value of {@link DViewColumn#getSecondaryResortColumnIndex()}. */
+    private final int fSecondaryResortColumnIndex;
+
+    /** Value of {@link DViewColumn#isFontBold()}. */
+    private final boolean fFontBold;
+
+    /** Value of {@link DViewColumn#isFontItalic()}. */
+    private final boolean fFontItalic;
+
+    /** Value of {@link DViewColumn#isFontUnderline()}. */
+    private final boolean fFontUnderline;
+
+    /** Value of {@link DViewColumn#isFontStrikethrough()}. */
+    private final boolean fFontStrikethrough;
+
+    /** Value of {@link DViewColumn#isHeaderFontBold()}. */
+    private final boolean fHeaderFontBold;
+
+    /** Value of {@link DViewColumn#isHeaderFontItalic()}. */
+    private final boolean fHeaderFontItalic;
+
+    /** Value of {@link DViewColumn#isHeaderFontUnderline()}. */
+    private final boolean fHeaderFontUnderline;
+
+    /** Value of {@link DViewColumn#isHeaderFontStrikethrough()}. */
+    private final boolean fHeaderFontStrikethrough;
+
+    /** Value of {@link DViewColumn#isNumberAttribParens()}. */
+    private final boolean fNumberAttribParens;
+
+    /** Value of {@link DViewColumn#isNumberAttribPunctuated()}. */
+    private final boolean fNumberAttribPunctuated;
+
+    /** Value of {@link DViewColumn#isNumberAttribPercent()}. */
+    private final boolean fNumberAttribPercent;
+
+    /** Value of {@link DViewColumn#getResortToViewName()}. */
+    private final String fResortToViewName;
+
+    /**
+     * Creates a copy of the design of a column.
+     *
+     * @param column the column to copy
+     */
+    public ViewColumnDesign(final DViewColumn column) {
+        fHidden = column.isHidden();
+        fWidth = column.getWidth();
+        fTitle = column.getTitle();
+        fAlignment = column.getAlignment();
+        fResponse = column.isResponse();
+        fSorted = column.isSorted();
+        fFormula = column.getFormula();
+        fPosition = column.getPosition();
+        fField = column.isField();
+        fFormulaColumn = column.isFormula();
+        fItemName = column.getItemName();
+        fListSep = column.getListSep();
+        fHeaderAlignment = column.getHeaderAlignment();
+        fFontFace = column.getFontFace();
+        fFontStyle = column.getFontStyle();
+        fFontColor = column.getFontColor();
+        fFontPointSize = column.getFontPointSize();
+        fNumberDigits = column.getNumberDigits();
+        fNumberFormat = column.getNumberFormat();
+        fNumberAttrib = column.getNumberAttrib();
+        fDateFmt = column.getDateFmt();
+        fTimeFmt = column.getTimeFmt();
+        fTimeZoneFmt = column.getTimeZoneFmt();
+        fTimeDateFmt = column.getTimeDateFmt();
+        fCategory = column.isCategory();
+        fSortDescending = column.isSortDescending();
+        fHideDetail = column.isHideDetail();
+        fIcon = column.isIcon();
+        fResize = column.isResize();
+        fResortAscending = column.isResortAscending();
+        fResortDescending = column.isResortDescending();
+        fShowTwistie = column.isShowTwistie();
+        fResortToView = column.isResortToView();
+        fSecondaryResort = column.isSecondaryResort();
+        fSecondaryResortDescending = column.isSecondaryResortDescending();
+        fCaseSensitiveSort = column.isCaseSensitiveSort();
+        fAccentSensitiveSort = column.isAccentSensitiveSort();
+        fHeaderFontColor = column.getHeaderFontColor();
+        fHeaderFontFace = column.getHeaderFontFace();
+        fHeaderFontPointSize = column.getHeaderFontPointSize();
+        fHeaderFontStyle = column.getHeaderFontStyle();
+        fSecondaryResortColumnIndex = column.getSecondaryResortColumnIndex();
+        fFontBold = column.isFontBold();
+        fFontItalic = column.isFontItalic();
+        fFontUnderline = column.isFontUnderline();
+        fFontStrikethrough = column.isFontStrikethrough();
+        fHeaderFontBold = column.isHeaderFontBold();
+        fHeaderFontItalic = column.isHeaderFontItalic();
+        fHeaderFontUnderline = column.isHeaderFontUnderline();
+        fHeaderFontStrikethrough = column.isHeaderFontStrikethrough();
+        fNumberAttribParens = column.isNumberAttribParens();
+        fNumberAttribPunctuated = column.isNumberAttribPunctuated();
+        fNumberAttribPercent = column.isNumberAttribPercent();
+        fResortToViewName = column.getResortToViewName();
+    }
+
+    /**
+     * Creates the design of a column from its basic attributes, e.g. as read
+     * from a server that does not provide all attributes of a column. All
+     * other attributes get their default values.
+     *
+     * @param position position of the column, where 1 is the first column
+     * @param title title of the column
+     * @param itemName programmatic name of the column
+     * @param width width of the column
+     * @param listSep list separator, one of the <code>SEP_*</code> constants of {@link DViewColumn}
+     * @param flags combination of {@link #SORTED}, {@link #CATEGORY},
+     *            {@link #SORT_DESCENDING}, {@link #RESPONSE}, {@link #HIDDEN},
+     *            {@link #SHOW_TWISTIE}, {@link #RESORT_ASCENDING} and
+     *            {@link #RESORT_DESCENDING}
+     */
+    public ViewColumnDesign(final int position, final String title, final String itemName, final int width,
+            final int listSep, final int flags) {
+        fHidden = (flags & HIDDEN) != 0;
+        fWidth = width;
+        fTitle = title;
+        fAlignment = ALIGN_LEFT;
+        fResponse = (flags & RESPONSE) != 0;
+        fSorted = (flags & SORTED) != 0;
+        fFormula = null;
+        fPosition = position;
+        fField = false;
+        fFormulaColumn = false;
+        fItemName = itemName;
+        fListSep = listSep;
+        fHeaderAlignment = ALIGN_LEFT;
+        fFontFace = null;
+        fFontStyle = 0;
+        fFontColor = 0;
+        fFontPointSize = 0;
+        fNumberDigits = 0;
+        fNumberFormat = FMT_GENERAL;
+        fNumberAttrib = 0;
+        fDateFmt = FMT_YMD;
+        fTimeFmt = 0;
+        fTimeZoneFmt = 0;
+        fTimeDateFmt = 0;
+        fCategory = (flags & CATEGORY) != 0;
+        fSortDescending = (flags & SORT_DESCENDING) != 0;
+        fHideDetail = false;
+        fIcon = false;
+        fResize = false;
+        fResortAscending = (flags & RESORT_ASCENDING) != 0;
+        fResortDescending = (flags & RESORT_DESCENDING) != 0;
+        fShowTwistie = (flags & SHOW_TWISTIE) != 0;
+        fResortToView = false;
+        fSecondaryResort = false;
+        fSecondaryResortDescending = false;
+        fCaseSensitiveSort = false;
+        fAccentSensitiveSort = false;
+        fHeaderFontColor = 0;
+        fHeaderFontFace = null;
+        fHeaderFontPointSize = 0;
+        fHeaderFontStyle = 0;
+        fSecondaryResortColumnIndex = 0;
+        fFontBold = false;
+        fFontItalic = false;
+        fFontUnderline = false;
+        fFontStrikethrough = false;
+        fHeaderFontBold = false;
+        fHeaderFontItalic = false;
+        fHeaderFontUnderline = false;
+        fHeaderFontStrikethrough = false;
+        fNumberAttribParens = false;
+        fNumberAttribPunctuated = false;
+        fNumberAttribPercent = false;
+        fResortToViewName = null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isHidden()
+     */
+    public boolean isHidden() {
+        return fHidden;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getWidth()
+     */
+    public int getWidth() {
+        return fWidth;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getTitle()
+     */
+    public String getTitle() {
+        return fTitle;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getAlignment()
+     */
+    public int getAlignment() {
+        return fAlignment;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isResponse()
+     */
+    public boolean isResponse() {
+        return fResponse;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isSorted()
+     */
+    public boolean isSorted() {
+        return fSorted;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getFormula()
+     */
+    public String getFormula() {
+        return fFormula;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getPosition()
+     */
+    public int getPosition() {
+        return fPosition;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isField()
+     */
+    public boolean isField() {
+        return fField;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isFormula()
+     */
+    public boolean isFormula() {
+        return fFormulaColumn;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getItemName()
+     */
+    public String getItemName() {
+        return fItemName;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getListSep()
+     */
+    public int getListSep() {
+        return fListSep;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getHeaderAlignment()
+     */
+    public int getHeaderAlignment() {
+        return fHeaderAlignment;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getFontFace()
+     */
+    public String getFontFace() {
+        return fFontFace;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getFontStyle()
+     */
+    public int getFontStyle() {
+        return fFontStyle;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getFontColor()
+     */
+    public int getFontColor() {
+        return fFontColor;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getFontPointSize()
+     */
+    public int getFontPointSize() {
+        return fFontPointSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getNumberDigits()
+     */
+    public int getNumberDigits() {
+        return fNumberDigits;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getNumberFormat()
+     */
+    public int getNumberFormat() {
+        return fNumberFormat;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getNumberAttrib()
+     */
+    public int getNumberAttrib() {
+        return fNumberAttrib;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getDateFmt()
+     */
+    public int getDateFmt() {
+        return fDateFmt;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getTimeFmt()
+     */
+    public int getTimeFmt() {
+        return fTimeFmt;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getTimeZoneFmt()
+     */
+    public int getTimeZoneFmt() {
+        return fTimeZoneFmt;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getTimeDateFmt()
+     */
+    public int getTimeDateFmt() {
+        return fTimeDateFmt;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isCategory()
+     */
+    public boolean isCategory() {
+        return fCategory;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isSortDescending()
+     */
+    public boolean isSortDescending() {
+        return fSortDescending;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isHideDetail()
+     */
+    public boolean isHideDetail() {
+        return fHideDetail;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isIcon()
+     */
+    public boolean isIcon() {
+        return fIcon;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isResize()
+     */
+    public boolean isResize() {
+        return fResize;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isResortAscending()
+     */
+    public boolean isResortAscending() {
+        return fResortAscending;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isResortDescending()
+     */
+    public boolean isResortDescending() {
+        return fResortDescending;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isShowTwistie()
+     */
+    public boolean isShowTwistie() {
+        return fShowTwistie;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isResortToView()
+     */
+    public boolean isResortToView() {
+        return fResortToView;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isSecondaryResort()
+     */
+    public boolean isSecondaryResort() {
+        return fSecondaryResort;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isSecondaryResortDescending()
+     */
+    public boolean isSecondaryResortDescending() {
+        return fSecondaryResortDescending;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isCaseSensitiveSort()
+     */
+    public boolean isCaseSensitiveSort() {
+        return fCaseSensitiveSort;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isAccentSensitiveSort()
+     */
+    public boolean isAccentSensitiveSort() {
+        return fAccentSensitiveSort;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getHeaderFontColor()
+     */
+    public int getHeaderFontColor() {
+        return fHeaderFontColor;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getHeaderFontFace()
+     */
+    public String getHeaderFontFace() {
+        return fHeaderFontFace;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getHeaderFontPointSize()
+     */
+    public int getHeaderFontPointSize() {
+        return fHeaderFontPointSize;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getHeaderFontStyle()
+     */
+    public int getHeaderFontStyle() {
+        return fHeaderFontStyle;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getSecondaryResortColumnIndex()
+     */
+    public int getSecondaryResortColumnIndex() {
+        return fSecondaryResortColumnIndex;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isFontBold()
+     */
+    public boolean isFontBold() {
+        return fFontBold;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isFontItalic()
+     */
+    public boolean isFontItalic() {
+        return fFontItalic;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isFontUnderline()
+     */
+    public boolean isFontUnderline() {
+        return fFontUnderline;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isFontStrikethrough()
+     */
+    public boolean isFontStrikethrough() {
+        return fFontStrikethrough;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isHeaderFontBold()
+     */
+    public boolean isHeaderFontBold() {
+        return fHeaderFontBold;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isHeaderFontItalic()
+     */
+    public boolean isHeaderFontItalic() {
+        return fHeaderFontItalic;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isHeaderFontUnderline()
+     */
+    public boolean isHeaderFontUnderline() {
+        return fHeaderFontUnderline;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isHeaderFontStrikethrough()
+     */
+    public boolean isHeaderFontStrikethrough() {
+        return fHeaderFontStrikethrough;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isNumberAttribParens()
+     */
+    public boolean isNumberAttribParens() {
+        return fNumberAttribParens;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isNumberAttribPunctuated()
+     */
+    public boolean isNumberAttribPunctuated() {
+        return fNumberAttribPunctuated;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#isNumberAttribPercent()
+     */
+    public boolean isNumberAttribPercent() {
+        return fNumberAttribPercent;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewColumn#getResortToViewName()
+     */
+    public String getResortToViewName() {
+        return fResortToViewName;
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param title ignored
+     * @see DViewColumn#setTitle(String)
+     */
+    public void setTitle(final String title) {
+        throw new UnsupportedOperationException("setTitle");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param alignment ignored
+     * @see DViewColumn#setAlignment(int)
+     */
+    public void setAlignment(final int alignment) {
+        throw new UnsupportedOperationException("setAlignment");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param flag ignored
+     * @see DViewColumn#setHidden(boolean)
+     */
+    public void setHidden(final boolean flag) {
+        throw new UnsupportedOperationException("setHidden");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setFormula(String)
+     */
+    public void setFormula(final String value) {
+        throw new UnsupportedOperationException("setFormula");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setDateFmt(int)
+     */
+    public void setDateFmt(final int value) {
+        throw new UnsupportedOperationException("setDateFmt");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setFontColor(int)
+     */
+    public void setFontColor(final int value) {
+        throw new UnsupportedOperationException("setFontColor");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setFontFace(String)
+     */
+    public void setFontFace(final String value) {
+        throw new UnsupportedOperationException("setFontFace");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setFontPointSize(int)
+     */
+    public void setFontPointSize(final int value) {
+        throw new UnsupportedOperationException("setFontPointSize");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setFontStyle(int)
+     */
+    public void setFontStyle(final int value) {
+        throw new UnsupportedOperationException("setFontStyle");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setHeaderAlignment(int)
+     */
+    public void setHeaderAlignment(final int value) {
+        throw new UnsupportedOperationException("setHeaderAlignment");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setAccentSensitiveSort(boolean)
+     */
+    public void setAccentSensitiveSort(final boolean value) {
+        throw new UnsupportedOperationException("setAccentSensitiveSort");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setCaseSensitiveSort(boolean)
+     */
+    public void setCaseSensitiveSort(final boolean value) {
+        throw new UnsupportedOperationException("setCaseSensitiveSort");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setHideDetail(boolean)
+     */
+    public void setHideDetail(final boolean value) {
+        throw new UnsupportedOperationException("setHideDetail");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setResize(boolean)
+     */
+    public void setResize(final boolean value) {
+        throw new UnsupportedOperationException("setResize");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setResortAscending(boolean)
+     */
+    public void setResortAscending(final boolean value) {
+        throw new UnsupportedOperationException("setResortAscending");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setResortDescending(boolean)
+     */
+    public void setResortDescending(final boolean value) {
+        throw new UnsupportedOperationException("setResortDescending");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setResortToView(boolean)
+     */
+    public void setResortToView(final boolean value) {
+        throw new UnsupportedOperationException("setResortToView");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setSecondaryResort(boolean)
+     */
+    public void setSecondaryResort(final boolean value) {
+        throw new UnsupportedOperationException("setSecondaryResort");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setSecondaryResortDescending(boolean)
+     */
+    public void setSecondaryResortDescending(final boolean value) {
+        throw new UnsupportedOperationException("setSecondaryResortDescending");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setShowTwistie(boolean)
+     */
+    public void setShowTwistie(final boolean value) {
+        throw new UnsupportedOperationException("setShowTwistie");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setSortDescending(boolean)
+     */
+    public void setSortDescending(final boolean value) {
+        throw new UnsupportedOperationException("setSortDescending");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setSorted(boolean)
+     */
+    public void setSorted(final boolean value) {
+        throw new UnsupportedOperationException("setSorted");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setListSep(int)
+     */
+    public void setListSep(final int value) {
+        throw new UnsupportedOperationException("setListSep");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setNumberAttrib(int)
+     */
+    public void setNumberAttrib(final int value) {
+        throw new UnsupportedOperationException("setNumberAttrib");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setNumberDigits(int)
+     */
+    public void setNumberDigits(final int value) {
+        throw new UnsupportedOperationException("setNumberDigits");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setNumberFormat(int)
+     */
+    public void setNumberFormat(final int value) {
+        throw new UnsupportedOperationException("setNumberFormat");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setTimeDateFmt(int)
+     */
+    public void setTimeDateFmt(final int value) {
+        throw new UnsupportedOperationException("setTimeDateFmt");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setTimeFmt(int)
+     */
+    public void setTimeFmt(final int value) {
+        throw new UnsupportedOperationException("setTimeFmt");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setTimeZoneFmt(int)
+     */
+    public void setTimeZoneFmt(final int value) {
+        throw new UnsupportedOperationException("setTimeZoneFmt");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setWidth(int)
+     */
+    public void setWidth(final int value) {
+        throw new UnsupportedOperationException("setWidth");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setHeaderFontColor(int)
+     */
+    public void setHeaderFontColor(final int value) {
+        throw new UnsupportedOperationException("setHeaderFontColor");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setHeaderFontFace(String)
+     */
+    public void setHeaderFontFace(final String value) {
+        throw new UnsupportedOperationException("setHeaderFontFace");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setHeaderFontPointSize(int)
+     */
+    public void setHeaderFontPointSize(final int value) {
+        throw new UnsupportedOperationException("setHeaderFontPointSize");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setHeaderFontStyle(int)
+     */
+    public void setHeaderFontStyle(final int value) {
+        throw new UnsupportedOperationException("setHeaderFontStyle");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setSecondaryResortColumnIndex(int)
+     */
+    public void setSecondaryResortColumnIndex(final int value) {
+        throw new UnsupportedOperationException("setSecondaryResortColumnIndex");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setFontBold(boolean)
+     */
+    public void setFontBold(final boolean value) {
+        throw new UnsupportedOperationException("setFontBold");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setFontItalic(boolean)
+     */
+    public void setFontItalic(final boolean value) {
+        throw new UnsupportedOperationException("setFontItalic");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setFontUnderline(boolean)
+     */
+    public void setFontUnderline(final boolean value) {
+        throw new UnsupportedOperationException("setFontUnderline");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setFontStrikethrough(boolean)
+     */
+    public void setFontStrikethrough(final boolean value) {
+        throw new UnsupportedOperationException("setFontStrikethrough");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setHeaderFontBold(boolean)
+     */
+    public void setHeaderFontBold(final boolean value) {
+        throw new UnsupportedOperationException("setHeaderFontBold");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setHeaderFontItalic(boolean)
+     */
+    public void setHeaderFontItalic(final boolean value) {
+        throw new UnsupportedOperationException("setHeaderFontItalic");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setHeaderFontUnderline(boolean)
+     */
+    public void setHeaderFontUnderline(final boolean value) {
+        throw new UnsupportedOperationException("setHeaderFontUnderline");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setHeaderFontStrikethrough(boolean)
+     */
+    public void setHeaderFontStrikethrough(final boolean value) {
+        throw new UnsupportedOperationException("setHeaderFontStrikethrough");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setNumberAttribParens(boolean)
+     */
+    public void setNumberAttribParens(final boolean value) {
+        throw new UnsupportedOperationException("setNumberAttribParens");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setNumberAttribPunctuated(boolean)
+     */
+    public void setNumberAttribPunctuated(final boolean value) {
+        throw new UnsupportedOperationException("setNumberAttribPunctuated");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setNumberAttribPercent(boolean)
+     */
+    public void setNumberAttribPercent(final boolean value) {
+        throw new UnsupportedOperationException("setNumberAttribPercent");
+    }
+
+    /**
+     * Not supported, the design is immutable.
+     *
+     * @param value ignored
+     * @see DViewColumn#setResortToViewName(String)
+     */
+    public void setResortToViewName(final String value) {
+        throw new UnsupportedOperationException("setResortToViewName");
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     * @return a string representation of the object.
+     */
+    public String toString() {
+        return "ViewColumnDesign[" + fPosition + ", " + fTitle + ", " + fItemName + "]";
+    }
+}
@@ -0,0 +1,278 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+
+package de.jakop.lotus.domingo.util;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.jakop.lotus.domingo.DViewColumn;
+import de.jakop.lotus.domingo.DViewDesign;
+
+/**
+ * Immutable implementation of a detached view design.
+ *
+ * <p>The column titles, the item names and the mapping from item names to
+ * column indexes are computed once when the design is created.</p>
+ */
+public final class ViewDesign implements DViewDesign {
+
+    /** serial version ID for serialization. */
+    private static final long serialVersionUID = -1835526780964305871L;
+
+    /** Flag for categorized views. */
+    public static final int CATEGORIZED = 1;
+
+    /** Flag for hierarchical views. */
+    public static final int HIERARCHICAL = 2;
+
+    /** Flag for folders. */
+    public static final int FOLDER = 4;
+
+    /** Flag for calendar views. */
+    public static final int CALENDAR = 8;
+
+    /** Name of the view. */
+    private final String fName;
+
+    /** Universal ID of the view. */
+    private final String fUniversalID;
+
+    /** Aliases of the view. */
+    private final List fAliases;
+
+    /** Selection formula of the view. */
+    private final String fSelectionFormula;
+
+    /** Last modification of the view design in milliseconds. */
+    private final long fLastModified;
+
+    /** Combination of the flags. */
+    private final int fFlags;
+
+    /** Immutable columns. */
+    private final List fColumns;
+
+    /** Column titles. */
+    private final List fColumnNames;
+
+    /** Column item names. */
+    private final List fColumnItemNames;
+
+    /** Lower-case item name to column index (Integer). */
+    private final Map fIndexes;
+
+    /**
+     * Constructor.
+     *
+     * <p>Columns that are not instances of {@link ViewColumnDesign} are
+     * copied.</p>
+     *
+     * @param name name of the view
+     * @param universalID universal ID of the view
+     * @param aliases list of alias names
+     * @param selectionFormula selection formula
+     * @param lastModified last modification of the view design in milliseconds
+     * @param flags combination of {@link #CATEGORIZED}, {@link #HIERARCHICAL},
+     *            {@link #FOLDER} and {@link #CALENDAR}
+     * @param columns list of {@link DViewColumn}s from left to right
+     */
+    public ViewDesign(final String name, final String universalID, final List aliases,
+            final String selectionFormula, final long lastModified, final int flags, final List columns) {
+        fName = name;
+        fUniversalID = universalID;
+        fAliases = Collections.unmodifiableList(aliases == null ? new ArrayList() : new ArrayList(aliases));
+        fSelectionFormula = selectionFormula;
+        fLastModified = lastModified;
+        fFlags = flags;
+        final List designColumns = new ArrayList(columns.size());
+        final List names = new ArrayList(columns.size());
+        final List itemNames = new ArrayList(columns.size());
+        fIndexes = new HashMap();
+        for (int i = 0; i < columns.size(); i++) {
+            final DViewColumn column = (DViewColumn) columns.get(i);
+            final DViewColumn design = column instanceof ViewColumnDesign ? column : new ViewColumnDesign(column);
+            designColumns.add(design);
+            names.add(design.getTitle());
+            itemNames.add(design.getItemName());
+            if (design.getItemName() != null) {
+                final String key = design.getItemName().toLowerCase();
+                if (!fIndexes.containsKey(key)) {
+                    fIndexes.put(key, new Integer(i));
+                }
+            }
+        }
+        fColumns = Collections.unmodifiableList(designColumns);
+        fColumnNames = Collections.unmodifiableList(names);
+        fColumnItemNames = Collections.unmodifiableList(itemNames);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewDesign#getName()
+     */
+    public String getName() {
+        return fName;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewDesign#getAliases()
+     */
+    public List getAliases() {
+        return fAliases;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewDesign#getUniversalID()
+     */
+    public String getUniversalID() {
+        return fUniversalID;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewDesign#getLastModified()
+     */
+    public Calendar getLastModified() {
+        final Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(fLastModified);
+        return calendar;
+    }
+
+    /**
+     * Returns the last modification of the view design in milliseconds.
+     *
+     * @return last modification in milliseconds since January 1, 1970, 00:00:00 GMT
+     */
+    public long getLastModifiedMillis() {
+        return fLastModified;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewDesign#getSelectionFormula()
+     */
+    public String getSelectionFormula() {
+        return fSelectionFormula;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewDesign#isCategorized()
+     */
+    public boolean isCategorized() {
+        return (fFlags & CATEGORIZED) != 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewDesign#isHierarchical()
+     */
+    public boolean isHierarchical() {
+        return (fFlags & HIERARCHICAL) != 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewDesign#isFolder()
+     */
+    public boolean isFolder() {
+        return (fFlags & FOLDER) != 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewDesign#isCalendar()
+     */
+    public boolean isCalendar() {
+        return (fFlags & CALENDAR) != 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewDesign#getColumnCount()
+     */
+    public int getColumnCount() {
+        return fColumns.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewDesign#getColumn(int)
+     */
+    public DViewColumn getColumn(final int i) {
+        return (DViewColumn) fColumns.get(i - 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewDesign#getColumns()
+     */
+    public List getColumns() {
+        return fColumns;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewDesign#getColumnNames()
+     */
+    public List getColumnNames() {
+        return fColumnNames;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewDesign#getColumnItemNames()
+     */
+    public List getColumnItemNames() {
+        return fColumnItemNames;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see DViewDesign#getColumnIndex(java.lang.String)
+     */
+    public int getColumnIndex(final String itemName) {
+        if (itemName == null) {
+            return -1;
+        }
+        final Integer index = (Integer) fIndexes.get(itemName.toLowerCase());
+        return index == null ? -1 : index.intValue();
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     * @return a string representation of the object.
+     */
+    public String toString() {
+        return "ViewDesign[" + fName + ", " + fColumnNames + "]";
+    }
+}
@@ -0,0 +1,392 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+
+import de.jakop.lotus.domingo.DDateRange;
+import de.jakop.lotus.domingo.DDocument;
+import de.jakop.lotus.domingo.DDocumentSnapshot;
+
+/**
+ * Write-behind buffer for documents.
+ *
+ * <p>A buffered document records calls of the <code>replaceItemValue</code>
+ * methods locally instead of writing each value to the underlying document.
+ * Values equal to the values loaded from the document are dropped, so mapping
+ * unchanged objects onto a document causes no writes at all. On
+ * <code>save()</code> all recorded changes are written with one call of
+ * {@link DDocument#replaceItemValues(Map)}, which is a single task on the
+ * Notes thread with the Notes backend, followed by the save itself. If
+ * nothing was changed, an existing document is not saved at all.</p>
+ *
+ * <pre>
+ * DDocument buffered = WriteBehindDocument.wrap(document);
+ * mapper.map(object, buffered);
+ * buffered.save();
+ * </pre>
+ *
+ * <p>Buffered <code>replaceItemValue</code> calls return <code>null</code>
+ * instead of an item. Reading the value of a changed item returns the
+ * recorded value; all other methods first write the recorded changes and
+ * then delegate to the underlying document. A buffered document must not be
+ * passed as argument to methods of other Domingo objects; use
+ * {@link #unwrap(DDocument)} instead. Instances are not thread-safe.</p>
+ */
+public final class WriteBehindDocument implements InvocationHandler {
+
+    /** Methods that neither read nor write items. */
+    private static final Set PASS_THROUGH = new HashSet(Arrays.asList(new String[] {
+        "getUniversalID", "getNoteID", "getParentDatabase", "getParentDocumentUNID", "getCreated",
+        "isNewNote", "isDeleted", "isValid", "getSession", "getParent", }));
+
+    /** The underlying document. */
+    private final DDocument fDocument;
+
+    /** Recorded changes: lower-case item name to change. */
+    private final Map fPending = new LinkedHashMap();
+
+    /** Values known to be stored in the document: lower-case item name to list of values. */
+    private Map fLoaded;
+
+    /** Whether the document was changed since it was wrapped or last saved. */
+    private boolean fModified;
+
+    /**
+     * Private constructor.
+     *
+     * @param document the underlying document
+     */
+    private WriteBehindDocument(final DDocument document) {
+        fDocument = document;
+    }
+
+    /**
+     * Creates a buffered view of a document.
+     *
+     * @param document the document to buffer changes for
+     * @return buffered document
+     */
+    public static DDocument wrap(final DDocument document) {
+        if (isBuffered(document)) {
+            return document;
+        }
+        return (DDocument) Proxy.newProxyInstance(WriteBehindDocument.class.getClassLoader(),
+                new Class[] {DDocument.class}, new WriteBehindDocument(document));
+    }
+
+    /**
+     * Checks if a document is a buffered document created by
+     * {@link #wrap(DDocument)}.
+     *
+     * @param document a document
+     * @return <code>true</code> if the document is buffered
+     */
+    public static boolean isBuffered(final DDocument document) {
+        return document != null && Proxy.isProxyClass(document.getClass())
+                && Proxy.getInvocationHandler(document) instanceof WriteBehindDocument;
+    }
+
+    /**
+     * Writes all recorded changes of a buffered document to the underlying
+     * document without saving it and returns the underlying document.
+     *
+     * @param document a buffered document
+     * @return the underlying document, or the given document if not buffered
+     */
+    public static DDocument unwrap(final DDocument document) {
+        if (!isBuffered(document)) {
+            return document;
+        }
+        final WriteBehindDocument handler = (WriteBehindDocument) Proxy.getInvocationHandler(document);
+        handler.flush();
+        return handler.fDocument;
+    }
+
+    /**
+     * Returns the number of recorded changes of a buffered document that are
+     * not yet written to the underlying document.
+     *
+     * @param document a buffered document
+     * @return number of changed items, <code>0</code> if not buffered
+     */
+    public static int getPendingCount(final DDocument document) {
+        if (!isBuffered(document)) {
+            return 0;
+        }
+        return ((WriteBehindDocument) Proxy.getInvocationHandler(document)).fPending.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see java.lang.reflect.InvocationHandler#invoke(java.lang.Object,
+     *      java.lang.reflect.Method, java.lang.Object[])
+     */
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        final String name = method.getName();
+        if (method.getDeclaringClass() == Object.class) {
+            return invokeObjectMethod(proxy, name, args);
+        }
+        if ("replaceItemValue".equals(name)) {
+            if (args.length == 3) {
+                record((String) args[0], new GregorianDateTimeRange((Calendar) args[1], (Calendar) args[2]));
+            } else {
+                record((String) args[0], args[1]);
+            }
+            return null;
+        }
+        if ("replaceItemValues".equals(name)) {
+            final Iterator iterator = ((Map) args[0]).entrySet().iterator();
+            while (iterator.hasNext()) {
+                final Map.Entry entry = (Map.Entry) iterator.next();
+                record((String) entry.getKey(), entry.getValue());
+            }
+            return null;
+        }
+        final String itemName = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+        final Change change = itemName != null ? (Change) fPending.get(itemName.toLowerCase()) : null;
+        if (change != null && "getItemValue".equals(name)) {
+            return new ArrayList(change.fValues);
+        }
+        if (change != null && "hasItem".equals(name)) {
+            return Boolean.TRUE;
+        }
+        if (name.startsWith("save")) {
+            flush();
+            if (!fModified && !fDocument.isNewNote()) {
+                return Boolean.TRUE;
+            }
+            final Object result = delegate(method, args);
+            fModified = false;
+            return result;
+        }
+        if ("removeItem".equals(name)) {
+            fPending.remove(itemName.toLowerCase());
+            if (fLoaded != null) {
+                fLoaded.remove(itemName.toLowerCase());
+            }
+        } else if (!PASS_THROUGH.contains(name) && (itemName == null || change != null)) {
+            // methods on other items are not affected by the recorded changes
+            flush();
+        }
+        if (!PASS_THROUGH.contains(name) && !name.startsWith("get") && !name.startsWith("has")
+                && !name.startsWith("is")) {
+            fModified = true;
+            // the method may change items in ways we cannot follow
+            fLoaded = null;
+        }
+        return delegate(method, args);
+    }
+
+    /**
+     * Records a new value of an item. If the value equals the stored value of
+     * the item, a previously recorded change is dropped.
+     *
+     * @param name name of the item
+     * @param value new value of the item
+     */
+    private void record(final String name, final Object value) {
+        final String key = name.toLowerCase();
+        final List values = toList(value);
+        if (valuesEqual(values, (List) getLoaded().get(key))) {
+            fPending.remove(key);
+        } else {
+            fPending.put(key, new Change(name, value, values));
+        }
+    }
+
+    /**
+     * Writes all recorded changes to the underlying document in one call.
+     */
+    private void flush() {
+        if (fPending.isEmpty()) {
+            return;
+        }
+        final Map values = new LinkedHashMap();
+        final Iterator iterator = fPending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry entry = (Map.Entry) iterator.next();
+            final Change change = (Change) entry.getValue();
+            values.put(change.fName, change.fValue);
+            if (fLoaded != null) {
+                fLoaded.put(entry.getKey(), change.fValues);
+            }
+        }
+        fPending.clear();
+        fDocument.replaceItemValues(values);
+        fModified = true;
+    }
+
+    /**
+     * Returns the values stored in the document, read in one pass on first
+     * access.
+     *
+     * @return map of lower-case item names to lists of values
+     */
+    private Map getLoaded() {
+        if (fLoaded == null) {
+            final DDocumentSnapshot snapshot = fDocument.snapshot();
+            final List names = snapshot.getItemNames();
+            fLoaded = new HashMap(names.size() * 2);
+            for (int i = 0; i < names.size(); i++) {
+                final String itemName = (String) names.get(i);
+                fLoaded.put(itemName.toLowerCase(), snapshot.getItemValue(itemName));
+            }
+        }
+        return fLoaded;
+    }
+
+    /**
+     * Invokes a method on the underlying document and unwraps exceptions.
+     *
+     * @param method the method
+     * @param args the arguments
+     * @return result of the method
+     * @throws Throwable exception thrown by the method
+     */
+    private Object delegate(final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(fDocument, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * Handles methods declared by <code>java.lang.Object</code>.
+     *
+     * @param proxy the proxy instance
+     * @param name name of the method
+     * @param args the arguments
+     * @return result of the method
+     */
+    private Object invokeObjectMethod(final Object proxy, final String name, final Object[] args) {
+        if ("equals".equals(name)) {
+            return Boolean.valueOf(proxy == args[0]);
+        } else if ("hashCode".equals(name)) {
+            return new Integer(System.identityHashCode(proxy));
+        } else {
+            return "WriteBehindDocument[" + fPending.size() + " pending, " + fDocument + "]";
+        }
+    }
+
+    /**
+     * Converts a value as accepted by the <code>replaceItemValue</code>
+     * methods to the list of values that is stored in the document.
+     *
+     * @param value a value
+     * @return list of values
+     */
+    private static List toList(final Object value) {
+        final List list = new ArrayList();
+        if (value == null) {
+            list.add("");
+        } else if (value instanceof List) {
+            list.addAll((List) value);
+        } else if (value instanceof DDateRange) {
+            list.add(((DDateRange) value).getFrom());
+            list.add(((DDateRange) value).getTo());
+        } else if (value instanceof TimeZone) {
+            list.add(Timezones.getLotusTimeZoneString((TimeZone) value));
+        } else {
+            list.add(value);
+        }
+        return list;
+    }
+
+    /**
+     * Compares two lists of item values. Numbers are compared by their double
+     * value and calendars by their time in milliseconds, because the backends
+     * return numbers as <code>Double</code> and may use other time zones.
+     *
+     * @param values new values
+     * @param stored stored values, may be <code>null</code>
+     * @return <code>true</code> if the values are equal
+     */
+    private static boolean valuesEqual(final List values, final List stored) {
+        if (stored == null || values.size() != stored.size()) {
+            return false;
+        }
+        for (int i = 0; i < values.size(); i++) {
+            final Object a = values.get(i);
+            final Object b = stored.get(i);
+            if (a instanceof Number && b instanceof Number) {
+                if (((Number) a).doubleValue() != ((Number) b).doubleValue()) {
+                    return false;
+                }
+            } else if (a instanceof Calendar && b instanceof Calendar) {
+                if (((Calendar) a).getTimeInMillis() != ((Calendar) b).getTimeInMillis()) {
+                    return false;
+                }
+            } else if (a == null ? b != null : !a.equals(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A recorded change of an item.
+     */
+    private static final class Change {
+
+        /** Name of the item as given by the caller. */
+        private final String fName;
+
+        /** Value as given to <code>replaceItemValue</code>. */
+        private final Object fValue;
+
+        /** Value as list of stored values. */
+        private final List fValues;
+
+        /**
+         * Constructor.
+         *
+         * @param name name of the item
+         * @param value value as given to <code>replaceItemValue</code>
+         * @param values value as list of stored values
+         */
+        Change(final String name, final Object value, final List values) {
+            fName = name;
+            fValue = value;
+            fValues = values;
+        }
+    }
+}
@@ -48,10 +48,14 @@ public final class AllStandaloneTests {
      */
     public static Test suite() {
         TestSuite suite = new TestSuite("All stand-alone tests for domingo");
+        suite.addTest(de.jakop.lotus.domingo.cache.AllTests.suite());
         suite.addTest(de.jakop.lotus.domingo.groupware.AllTests.suite());
         suite.addTest(AllTests.suite());
         suite.addTest(de.jakop.lotus.domingo.http.AllTests.suite());
         suite.addTest(de.jakop.lotus.domingo.map.AllTests.suite());
+        suite.addTest(de.jakop.lotus.domingo.metrics.AllTests.suite());
+        suite.addTest(de.jakop.lotus.domingo.monitor.AllTests.suite());
+        suite.addTest(de.jakop.lotus.domingo.pool.AllTests.suite());
         suite.addTest(de.jakop.lotus.domingo.service.AllTests.suite());
         suite.addTest(de.jakop.lotus.domingo.util.AllTests.suite());
         //$JUnit-BEGIN$
@@ -0,0 +1,53 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package de.jakop.lotus.domingo.cache;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Suite of all tests for the caches.
+ */
+public final class AllTests {
+
+    /**
+     * Private constructor to prevent instantiation.
+     */
+    private AllTests() {
+    }
+
+    /**
+     * The suite.
+     *
+     * @return Test
+     */
+    public static Test suite() {
+        TestSuite suite = new TestSuite("All tests for package de.jakop.lotus.domingo.cache");
+        //$JUnit-BEGIN$
+        suite.addTestSuite(LRUCacheTest.class);
+        suite.addTestSuite(ViewLookupCacheTest.class);
+        //$JUnit-END$
+        return suite;
+    }
+}
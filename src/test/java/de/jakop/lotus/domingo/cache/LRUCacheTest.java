@@ -0,0 +1,121 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package de.jakop.lotus.domingo.cache;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for class {@link LRUCache}.
+ */
+public final class LRUCacheTest extends TestCase {
+
+    /**
+     * @param name the name of the test
+     */
+    public LRUCacheTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * The least recently used entry is removed when the capacity is exceeded.
+     */
+    public void testEvictsLeastRecentlyUsed() {
+        final Cache cache = new LRUCache(2);
+        cache.put("a", "1");
+        cache.put("b", "2");
+        assertEquals("1", cache.get("a"));
+        cache.put("c", "3");
+        assertEquals(2, cache.size());
+        assertTrue(cache.containsKey("a"));
+        assertFalse(cache.containsKey("b"));
+        assertTrue(cache.containsKey("c"));
+    }
+
+    /**
+     * Values are held strongly.
+     */
+    public void testValuesSurviveGarbageCollection() {
+        final Cache cache = new LRUCache();
+        cache.put("a", new Object());
+        System.gc();
+        assertNotNull(cache.get("a"));
+    }
+
+    /**
+     * The key set is backed by the cache and supports removal.
+     */
+    public void testKeySetIsBacked() {
+        final Cache cache = new LRUCache();
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+        final Set keys = cache.keySet();
+        assertEquals(3, keys.size());
+        assertTrue(keys.remove("a"));
+        assertFalse(cache.containsKey("a"));
+        synchronized (cache) {
+            final Iterator iterator = keys.iterator();
+            while (iterator.hasNext()) {
+                if ("b".equals(iterator.next())) {
+                    iterator.remove();
+                }
+            }
+        }
+        assertFalse(cache.containsKey("b"));
+        cache.put("d", "4");
+        assertTrue(keys.contains("d"));
+        assertEquals(2, keys.size());
+    }
+
+    /**
+     * The values are backed by the cache and support removal.
+     */
+    public void testValuesAreBacked() {
+        final Cache cache = new LRUCache();
+        cache.put("a", "1");
+        cache.put("b", "2");
+        final Collection values = cache.values();
+        assertTrue(values.contains("2"));
+        assertTrue(values.remove("1"));
+        assertFalse(cache.containsKey("a"));
+        values.clear();
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * The capacity must be positive.
+     */
+    public void testInvalidCapacity() {
+        try {
+            new LRUCache(0);
+            fail("IllegalArgumentException expected");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package de.jakop.lotus.domingo.cache;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+import de.jakop.lotus.domingo.DView;
+import de.jakop.lotus.domingo.DViewEntry;
+
+/**
+ * Tests for class {@link ViewLookupCache}.
+ */
+public final class ViewLookupCacheTest extends TestCase {
+
+    /** Number of calls of getEntryByKey. */
+    private AtomicInteger lookups;
+
+    /** Latch that blocks getEntryByKey, <code>null</code> if not blocking. */
+    private CountDownLatch gate;
+
+    /**
+     * @param name the name of the test
+     */
+    public ViewLookupCacheTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see junit.framework.TestCase#setUp()
+     */
+    protected void setUp() throws Exception {
+        super.setUp();
+        lookups = new AtomicInteger();
+        gate = null;
+    }
+
+    /**
+     * Creates a view entry.
+     *
+     * @param key value of the first column
+     * @return view entry
+     */
+    private DViewEntry createEntry(final String key) {
+        final List values = Arrays.asList(new Object[] {key, "value of " + key});
+        return (DViewEntry) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[] {DViewEntry.class}, new InvocationHandler() {
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        if ("getColumnValues".equals(method.getName())) {
+                            return values;
+                        } else if ("isDocument".equals(method.getName())) {
+                            return Boolean.TRUE;
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * Creates a view with the entries <tt>a</tt>, <tt>b</tt> and <tt>c</tt>.
+     *
+     * @return view
+     */
+    private DView createView() {
+        return (DView) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[] {DView.class}, new InvocationHandler() {
+                    public Object invoke(final Object proxy, final Method method, final Object[] args)
+                            throws InterruptedException {
+                        if ("getEntryByKey".equals(method.getName())) {
+                            lookups.incrementAndGet();
+                            if (gate != null) {
+                                gate.await(5, TimeUnit.SECONDS);
+                            }
+                            final String key = (String) args[0];
+                            return "abc".indexOf(key) >= 0 ? createEntry(key) : null;
+                        } else if ("getAllEntries".equals(method.getName())) {
+                            final List entries = new ArrayList();
+                            entries.add(createEntry("a"));
+                            entries.add(createEntry("b"));
+                            entries.add(createEntry("c"));
+                            return entries.iterator();
+                        }
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * Rows and missing keys are cached.
+     */
+    public void testHitsAndMisses() {
+        final ViewLookupCache cache = new ViewLookupCache(createView(), 10, 60000);
+        assertEquals("value of a", cache.lookup("a", 1));
+        assertEquals("value of a", cache.lookup("A", 1));
+        assertNull(cache.lookup("x"));
+        assertNull(cache.lookup("x"));
+        assertEquals(2, lookups.get());
+        assertEquals(2, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRate(), 0.001);
+    }
+
+    /**
+     * Expired rows are read again.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testTimeToLive() throws Exception {
+        final ViewLookupCache cache = new ViewLookupCache(createView(), 10, 50);
+        cache.lookup("a");
+        Thread.sleep(80);
+        cache.lookup("a");
+        assertEquals(2, lookups.get());
+        assertEquals(2, cache.getLoadCount());
+    }
+
+    /**
+     * Concurrent misses for the same key read the view once.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testSingleFlight() throws Exception {
+        final ViewLookupCache cache = new ViewLookupCache(createView(), 10, 60000);
+        gate = new CountDownLatch(1);
+        final List results = new ArrayList();
+        final Thread[] threads = new Thread[5];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread() {
+                public void run() {
+                    final Object value = cache.lookup("b", 1);
+                    synchronized (results) {
+                        results.add(value);
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        Thread.sleep(100);
+        gate.countDown();
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].join(5000);
+        }
+        assertEquals(1, lookups.get());
+        assertEquals(5, results.size());
+        assertEquals("value of b", results.get(4));
+    }
+
+    /**
+     * Hits on old rows reload them in the background.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testRefreshAhead() throws Exception {
+        final ViewLookupCache cache = new ViewLookupCache(createView(), 10, 10000, 9950);
+        cache.lookup("c");
+        Thread.sleep(80);
+        assertEquals("value of c", cache.lookup("c", 1));
+        for (int i = 0; i < 50 && lookups.get() < 2; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(2, lookups.get());
+        assertEquals(1, cache.getRefreshCount());
+        assertEquals(1, cache.getMissCount());
+        cache.close();
+    }
+
+    /**
+     * Preloaded views are served without lookups.
+     */
+    public void testPreload() {
+        final ViewLookupCache cache = new ViewLookupCache(createView(), 10, 60000);
+        assertEquals(3, cache.preload());
+        assertEquals("value of c", cache.lookup("c", 1));
+        assertEquals(0, lookups.get());
+        assertEquals(3, cache.size());
+    }
+}
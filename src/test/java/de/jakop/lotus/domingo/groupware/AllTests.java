@@ -48,7 +48,10 @@ public final class AllTests {
     public static Test suite() {
         TestSuite suite = new TestSuite("All tests for package de.jakop.lotus.domingo.groupware");
         //$JUnit-BEGIN$
+        suite.addTestSuite(ContactIndexTest.class);
         suite.addTestSuite(EmailTest.class);
+        suite.addTestSuite(FreeBusyIndexTest.class);
+        suite.addTestSuite(IntervalTreeTest.class);
         //$JUnit-END$
         return suite;
     }
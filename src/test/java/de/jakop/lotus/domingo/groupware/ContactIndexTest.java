@@ -0,0 +1,149 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.groupware;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for class {@link ContactIndex}.
+ */
+public final class ContactIndexTest extends TestCase {
+
+    /**
+     * @param name the name of the test
+     */
+    public ContactIndexTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Lookup by exact name, abbreviated name and mail address.
+     */
+    public void testLookup() {
+        TestAddressBook book = new TestAddressBook();
+        book.add("1", "CN=Kurt Riede/O=BEA", "kriede@example.com");
+        book.add("2", "CN=Hans Wurst/OU=Dev/O=BEA", "hwurst@example.com");
+        ContactIndex index = new ContactIndex();
+        index.add(book);
+        index.load();
+        assertEquals(2, index.size());
+        assertEquals("1", unid(index.lookup("kurt riede/bea")));
+        assertEquals("1", unid(index.lookup("KRiede@Example.com")));
+        assertEquals("2", unid(index.lookup("Hans Wurst")));
+        assertEquals(0, index.lookup("Hans").size());
+        assertEquals("CN=Hans Wurst/OU=Dev/O=BEA", index.getCanonicalName("Hans Wurst/Dev/BEA"));
+        assertEquals("Hans Wurst/Dev/BEA", ContactIndex.getAbbreviatedName("CN=Hans Wurst/OU=Dev/O=BEA"));
+        assertEquals("Hans Wurst", ContactIndex.getCommonName("CN=Hans Wurst/OU=Dev/O=BEA"));
+    }
+
+    /**
+     * Prefix search over words of the name and mail addresses.
+     */
+    public void testFind() {
+        TestAddressBook book = new TestAddressBook();
+        book.add("1", "CN=Kurt Riede/O=BEA", "kriede@example.com");
+        book.add("2", "CN=Kurt Wurst/O=BEA", "kwurst@example.com");
+        book.add("3", "CN=Hans Wurst/O=BEA", "hwurst@example.com");
+        ContactIndex index = new ContactIndex();
+        index.add(book);
+        index.load();
+        assertEquals(2, index.find("ku", 10).size());
+        assertEquals(2, index.find("wur", 10).size());
+        assertEquals(1, index.find("hw", 10).size());
+        assertEquals(3, index.find("", 10).size());
+        assertEquals(1, index.find("", 1).size());
+        assertEquals(0, index.find("x", 10).size());
+    }
+
+    /**
+     * A refresh replaces modified contacts.
+     */
+    public void testRefresh() {
+        TestAddressBook book = new TestAddressBook();
+        book.add("1", "CN=Kurt Riede/O=BEA", "kriede@example.com");
+        ContactIndex index = new ContactIndex();
+        index.add(book);
+        index.load();
+        book.fContacts.clear();
+        book.add("1", "CN=Kurt Riede/O=Example", "kurt.riede@example.com");
+        book.add("2", "CN=Hans Wurst/O=BEA", "hwurst@example.com");
+        index.refresh();
+        assertEquals(1, book.fModifiedCalls);
+        assertEquals(2, index.size());
+        assertEquals(0, index.lookup("kriede@example.com").size());
+        assertEquals(0, index.find("kri", 10).size());
+        assertEquals("1", unid(index.lookup("Kurt Riede/Example")));
+        assertEquals(1, index.find("kurt.", 10).size());
+    }
+
+    private static String unid(final List contacts) {
+        assertEquals(1, contacts.size());
+        return ((ContactDigest) contacts.get(0)).getUnid();
+    }
+
+    /**
+     * Address book holding a list of contacts in memory.
+     */
+    private static final class TestAddressBook implements AddressBook {
+
+        private final List fContacts = new ArrayList();
+
+        private int fModifiedCalls;
+
+        void add(final String unid, final String fullName, final String email) {
+            ContactDigest contact = new ContactDigest();
+            contact.setUnid(unid);
+            contact.setFullName(fullName);
+            contact.setEmail(email);
+            fContacts.add(contact);
+        }
+
+        public Iterator getContacts() {
+            return new ArrayList(fContacts).iterator();
+        }
+
+        public Iterator getModifiedContacts(final Calendar since) {
+            fModifiedCalls++;
+            return new ArrayList(fContacts).iterator();
+        }
+
+        public boolean isPrivate() {
+            return false;
+        }
+
+        public boolean isPublic() {
+            return true;
+        }
+
+        public String getTitle() {
+            return "Test";
+        }
+    }
+}
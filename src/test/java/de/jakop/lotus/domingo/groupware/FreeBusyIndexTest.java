@@ -0,0 +1,161 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.groupware;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Iterator;
+import java.util.List;
+
+import junit.framework.TestCase;
+import de.jakop.lotus.domingo.util.GregorianDateTime;
+
+/**
+ * Tests for class {@link FreeBusyIndex}.
+ */
+public final class FreeBusyIndexTest extends TestCase {
+
+    private static final long HOUR = 3600000L;
+
+    /**
+     * @param name the name of the test
+     */
+    public FreeBusyIndexTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Finds the first slot where all owners are free.
+     *
+     * @throws GroupwareException if the index cannot be loaded
+     */
+    public void testFindFreeSlot() throws GroupwareException {
+        TestCalendar alice = new TestCalendar();
+        alice.add("a1", 9, 10);
+        alice.add("a2", 11, 12);
+        TestCalendar bob = new TestCalendar();
+        bob.add("b1", 10, 11);
+        bob.add("b2", 12, 13);
+        FreeBusyIndex index = new FreeBusyIndex(time(0), time(24), 2);
+        index.add("alice", alice);
+        index.add("bob", bob);
+        index.load();
+        List owners = Arrays.asList(new String[] {"alice", "bob"});
+        assertEquals(13 * HOUR, index.findFreeSlot(owners, time(9), time(18), HOUR).getTimeInMillis());
+        assertEquals(8 * HOUR, index.findFreeSlot(owners, time(8), time(18), HOUR).getTimeInMillis());
+        assertNull(index.findFreeSlot(owners, time(9), time(13), HOUR));
+        assertFalse(index.isFree("alice", time(9), time(18)));
+        assertTrue(index.isFree("alice", time(10), time(11)));
+        assertEquals(2, index.getBusy("bob", time(0), time(24)).size());
+    }
+
+    /**
+     * A refresh replaces modified entries.
+     *
+     * @throws GroupwareException if the index cannot be loaded
+     */
+    public void testRefresh() throws GroupwareException {
+        TestCalendar alice = new TestCalendar();
+        alice.add("a1", 9, 10);
+        FreeBusyIndex index = new FreeBusyIndex(time(0), time(24), 1);
+        index.add("alice", alice);
+        index.load();
+        assertFalse(index.isFree("alice", time(9), time(10)));
+        alice.clear();
+        alice.add("a1", 14, 15);
+        index.refresh();
+        assertTrue(index.isFree("alice", time(9), time(10)));
+        assertFalse(index.isFree("alice", time(14), time(15)));
+        assertEquals(1, alice.fModifiedCalls);
+    }
+
+    private static Calendar time(final int hour) {
+        Calendar calendar = new GregorianDateTime();
+        calendar.setTimeInMillis(hour * HOUR);
+        return calendar;
+    }
+
+    /**
+     * Calendar holding a list of digests in memory.
+     */
+    private static final class TestCalendar implements CalendarInterface {
+
+        private final List fDigests = new ArrayList();
+
+        private int fModifiedCalls;
+
+        void add(final String unid, final int start, final int end) {
+            CalendarEntryDigest digest = new CalendarEntryDigest();
+            digest.setUnid(unid);
+            digest.setType(CalendarEntry.Type.APPOINTMENT);
+            digest.setStartDateTime(time(start));
+            digest.setEndDateTime(time(end));
+            fDigests.add(digest);
+        }
+
+        void clear() {
+            fDigests.clear();
+        }
+
+        public Iterator getObjects(final Calendar from, final Calendar to, final int offset, final int limit) {
+            return new ArrayList(fDigests).iterator();
+        }
+
+        public Iterator getModifiedObjects(final Calendar since) {
+            fModifiedCalls++;
+            return new ArrayList(fDigests).iterator();
+        }
+
+        public List getObjects(final Calendar from, final Calendar to) {
+            return new ArrayList(fDigests);
+        }
+
+        public void save(final CalendarEntry entry) {
+        }
+
+        public Iterator getCalendar() {
+            return fDigests.iterator();
+        }
+
+        public Iterator getCalendar(final boolean reverseOrder) {
+            return fDigests.iterator();
+        }
+
+        public Object getCalendarEntry(final CalendarEntryDigest ced) {
+            return null;
+        }
+
+        public Object getCalendarEntry(final String unid) {
+            return null;
+        }
+
+        public void remove(final CalendarEntry entry) {
+        }
+
+        public void remove(final CalendarEntryDigest digest) {
+        }
+    }
+}
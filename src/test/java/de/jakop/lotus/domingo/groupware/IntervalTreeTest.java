@@ -0,0 +1,116 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.groupware;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for class {@link IntervalTree}.
+ */
+public final class IntervalTreeTest extends TestCase {
+
+    /**
+     * @param name the name of the test
+     */
+    public IntervalTreeTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Basic overlap queries on half-open intervals.
+     */
+    public void testOverlaps() {
+        IntervalTree tree = new IntervalTree();
+        tree.add(10, 20, "a");
+        tree.add(30, 40, "b");
+        assertTrue(tree.overlaps(15, 16));
+        assertTrue(tree.overlaps(5, 11));
+        assertFalse(tree.overlaps(20, 30));
+        assertFalse(tree.overlaps(0, 10));
+        assertEquals(40, tree.getMaxOverlapEnd(19, 31));
+        assertEquals(Long.MIN_VALUE, tree.getMaxOverlapEnd(40, 50));
+    }
+
+    /**
+     * Intervals are removed by their key.
+     */
+    public void testRemove() {
+        IntervalTree tree = new IntervalTree();
+        Object a = tree.add(10, 20, "a");
+        Object b = tree.add(10, 20, "b");
+        assertEquals(2, tree.size());
+        assertTrue(tree.remove(a));
+        assertFalse(tree.remove(a));
+        List result = new ArrayList();
+        tree.collect(0, 100, result);
+        assertEquals(1, result.size());
+        assertEquals("b", result.get(0));
+        assertTrue(tree.remove(b));
+        assertFalse(tree.overlaps(0, 100));
+    }
+
+    /**
+     * Compares the tree with a brute force search on random intervals.
+     */
+    public void testRandom() {
+        Random random = new Random(4711);
+        IntervalTree tree = new IntervalTree();
+        List intervals = new ArrayList();
+        List keys = new ArrayList();
+        for (int i = 0; i < 2000; i++) {
+            if (intervals.size() > 0 && random.nextInt(3) == 0) {
+                int index = random.nextInt(intervals.size());
+                intervals.remove(index);
+                assertTrue(tree.remove(keys.remove(index)));
+            } else {
+                long start = random.nextInt(10000);
+                long[] interval = new long[] {start, start + 1 + random.nextInt(200)};
+                intervals.add(interval);
+                keys.add(tree.add(interval[0], interval[1], interval));
+            }
+            long start = random.nextInt(10000);
+            long end = start + 1 + random.nextInt(100);
+            long maxEnd = Long.MIN_VALUE;
+            int count = 0;
+            for (int j = 0; j < intervals.size(); j++) {
+                long[] interval = (long[]) intervals.get(j);
+                if (interval[0] < end && start < interval[1]) {
+                    maxEnd = Math.max(maxEnd, interval[1]);
+                    count++;
+                }
+            }
+            List result = new ArrayList();
+            tree.collect(start, end, result);
+            assertEquals(intervals.size(), tree.size());
+            assertEquals(count, result.size());
+            assertEquals(count > 0, tree.overlaps(start, end));
+            assertEquals(maxEnd, tree.getMaxOverlapEnd(start, end));
+        }
+    }
+}
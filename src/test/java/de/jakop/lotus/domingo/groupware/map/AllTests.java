@@ -48,6 +48,7 @@ public final class AllTests {
         TestSuite suite = new TestSuite("All tests for package de.jakop.lotus.domingo.groupware.map");
         //$JUnit-BEGIN$
         suite.addTestSuite(CalendarEntryMapperTest.class);
+        suite.addTestSuite(CalendarRangeIteratorTest.class);
         suite.addTestSuite(EmailMapperTest.class);
         //$JUnit-END$
         return suite;
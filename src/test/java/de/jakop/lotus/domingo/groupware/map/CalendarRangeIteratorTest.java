@@ -0,0 +1,146 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.groupware.map;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import junit.framework.TestCase;
+import de.jakop.lotus.domingo.groupware.CalendarEntryDigest;
+
+/**
+ * Tests for class {@link CalendarRangeIterator}.
+ */
+public final class CalendarRangeIteratorTest extends TestCase {
+
+    /**
+     * @param name the name of the test
+     */
+    public CalendarRangeIteratorTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Occurrences of repeating entries are merged in order of start time.
+     * Like the calendar view, the fixture has one row per instance of a
+     * repeating entry, each listing all start dates of the entry.
+     */
+    public void testMergeRepeatingEntries() {
+        List rows = new ArrayList();
+        rows.add(row("a", new int[] {1, 4, 7}));
+        rows.add(row("b", new int[] {2}));
+        rows.add(row("c", new int[] {3, 5}));
+        rows.add(row("a", new int[] {1, 4, 7}));
+        rows.add(row("c", new int[] {3, 5}));
+        rows.add(row("d", new int[] {6}));
+        rows.add(row("a", new int[] {1, 4, 7}));
+        Iterator it = new CalendarRangeIterator(rows.iterator(), 0, Long.MAX_VALUE, 0, -1);
+        assertEquals("a1 b2 c3 a4 c5 d6 a7", toString(it));
+    }
+
+    /**
+     * Entries with equal start times are all returned in view order.
+     */
+    public void testEqualStartTimes() {
+        List rows = new ArrayList();
+        rows.add(row("a", new int[] {1}));
+        rows.add(row("b", new int[] {1}));
+        rows.add(row("c", new int[] {1}));
+        Iterator it = new CalendarRangeIterator(rows.iterator(), 0, Long.MAX_VALUE, 0, -1);
+        assertEquals("a1 b1 c1", toString(it));
+    }
+
+    /**
+     * Occurrences outside of the time frame and entries without start time
+     * are skipped.
+     */
+    public void testTimeFrame() {
+        List rows = new ArrayList();
+        rows.add(row("a", new int[] {1, 3, 5, 7}));
+        rows.add(Collections.EMPTY_LIST);
+        rows.add(row("b", new int[] {4}));
+        rows.add(row("a", new int[] {1, 3, 5, 7}));
+        rows.add(Collections.singletonList(new CalendarEntryDigest()));
+        Iterator it = new CalendarRangeIterator(rows.iterator(), hour(3), hour(6), 0, -1);
+        assertEquals("a3 b4 a5", toString(it));
+    }
+
+    /**
+     * Offset and limit select a page of occurrences.
+     */
+    public void testPaging() {
+        List rows = new ArrayList();
+        for (int i = 0; i < 3; i++) {
+            rows.add(row("a", new int[] {1, 3, 5}));
+            rows.add(row("b", new int[] {2, 4, 6}));
+        }
+        Iterator it = new CalendarRangeIterator(rows.iterator(), 0, Long.MAX_VALUE, 2, 3);
+        assertEquals("a3 b4 a5", toString(it));
+        assertFalse(it.hasNext());
+    }
+
+    /**
+     * Distinct entries without universal ID are not merged.
+     */
+    public void testWithoutUnid() {
+        List rows = new ArrayList();
+        rows.add(row(null, new int[] {1}));
+        rows.add(row(null, new int[] {1}));
+        Iterator it = new CalendarRangeIterator(rows.iterator(), 0, Long.MAX_VALUE, 0, -1);
+        assertEquals("null1 null1", toString(it));
+    }
+
+    private static List row(final String name, final int[] hours) {
+        CalendarEntryDigest[] digests = new CalendarEntryDigest[hours.length];
+        for (int i = 0; i < hours.length; i++) {
+            digests[i] = new CalendarEntryDigest();
+            digests[i].setUnid(name);
+            digests[i].setSubject(name + hours[i]);
+            Calendar start = Calendar.getInstance();
+            start.setTimeInMillis(hour(hours[i]));
+            digests[i].setStartDateTime(start);
+        }
+        return Arrays.asList(digests);
+    }
+
+    private static long hour(final int hour) {
+        return hour * 3600000L;
+    }
+
+    private static String toString(final Iterator it) {
+        StringBuffer buffer = new StringBuffer();
+        while (it.hasNext()) {
+            if (buffer.length() > 0) {
+                buffer.append(' ');
+            }
+            buffer.append(((CalendarEntryDigest) it.next()).getSubject());
+        }
+        return buffer.toString();
+    }
+}
@@ -47,7 +47,15 @@ public final class AllTests {
     public static Test suite() {
         TestSuite suite = new TestSuite("All tests for package de.jakop.lotus.domingo.http");
         //$JUnit-BEGIN$
+        suite.addTestSuite(ConcurrencyLimiterTest.class);
+        suite.addTestSuite(DocumentHttpTest.class);
         suite.addTestSuite(DominoLocaleTest.class);
+        suite.addTestSuite(JsonResponseCodecTest.class);
+        suite.addTestSuite(RequestCoalescerTest.class);
+        suite.addTestSuite(RequestHedgerTest.class);
+        suite.addTestSuite(UrlConnectionTransportTest.class);
+        suite.addTestSuite(ValueParserTest.class);
+        suite.addTestSuite(ViewHttpTest.class);
         //$JUnit-END$
         return suite;
     }
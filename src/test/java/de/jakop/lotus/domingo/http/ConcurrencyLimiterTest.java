@@ -0,0 +1,196 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package de.jakop.lotus.domingo.http;
+
+import java.io.InterruptedIOException;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for class {@link ConcurrencyLimiter}.
+ */
+public final class ConcurrencyLimiterTest extends TestCase {
+
+    private static final String READ = "ReadViewEntries";
+
+    private static final String OPEN = "OpenDocument";
+
+    private static final long FAST = 1000000L;
+
+    private static final long SLOW = 10 * FAST;
+
+    /**
+     * @param name the name of the test
+     */
+    public ConcurrencyLimiterTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Tests that the limit grows additively while the limit is saturated and
+     * requests are fast.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testLimitIncreasesWhenSaturated() throws Exception {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(2, 1, 10);
+        for (int i = 0; i < 20; i++) {
+            final int limit = limiter.getLimit();
+            for (int j = 0; j < limit; j++) {
+                limiter.acquire(0);
+            }
+            for (int j = 0; j < limit; j++) {
+                limiter.release(READ, FAST, true);
+            }
+        }
+        assertTrue("limit should grow", limiter.getLimit() > 2);
+        assertTrue("limit should not exceed maximum", limiter.getLimit() <= 10);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    /**
+     * Tests that the limit is not increased if it is not saturated.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testLimitStableWhenNotSaturated() throws Exception {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(4, 1, 10);
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire(0);
+            limiter.release(READ, FAST, true);
+        }
+        assertEquals(4, limiter.getLimit());
+    }
+
+    /**
+     * Tests that releasing the permit of an aborted request keeps the limit.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testReleaseAbortedKeepsLimit() throws Exception {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(4, 1, 10);
+        limiter.acquire(0);
+        limiter.release(READ, FAST, true);
+        limiter.acquire(0);
+        limiter.release();
+        assertEquals(4, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    /**
+     * Tests that the limit shrinks multiplicatively on failures and slow
+     * requests, but not below the minimum.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testLimitDecreases() throws Exception {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(10, 2, 10);
+        limiter.acquire(0);
+        limiter.release(READ, FAST, true);
+        limiter.acquire(0);
+        limiter.release(READ, FAST, false);
+        assertEquals(9, limiter.getLimit());
+        limiter.acquire(0);
+        limiter.release(READ, SLOW, true);
+        assertEquals(8, limiter.getLimit());
+        for (int i = 0; i < 100; i++) {
+            limiter.acquire(0);
+            limiter.release(READ, FAST, false);
+        }
+        assertEquals(2, limiter.getLimit());
+    }
+
+    /**
+     * Tests that commands with different latencies do not shrink the limit,
+     * as long as each command is as fast as usual.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testMixedCommandsKeepLimit() throws Exception {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(4, 1, 10);
+        for (int i = 0; i < 50; i++) {
+            limiter.acquire(0);
+            limiter.release(OPEN, FAST, true);
+            limiter.acquire(0);
+            limiter.release(READ, SLOW, true);
+        }
+        assertEquals(4, limiter.getLimit());
+        limiter.acquire(0);
+        limiter.release(OPEN, SLOW, true);
+        assertEquals(3, limiter.getLimit());
+    }
+
+    /**
+     * Tests that acquiring a permit times out if the limit is reached.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testAcquireTimeout() throws Exception {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 1);
+        limiter.acquire(0);
+        assertFalse(limiter.hasCapacity());
+        final long start = System.currentTimeMillis();
+        try {
+            limiter.acquire(50);
+            fail("acquire should time out");
+        } catch (InterruptedIOException e) {
+            // expected
+        }
+        assertTrue(System.currentTimeMillis() - start >= 40);
+        assertEquals(1, limiter.getTimeoutCount());
+        assertEquals(1, limiter.getInFlight());
+        limiter.release(READ, FAST, true);
+        limiter.acquire(50);
+        assertEquals(1, limiter.getInFlight());
+    }
+
+    /**
+     * Tests that a waiting thread can be interrupted.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testAcquireInterrupted() throws Exception {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(1, 1, 1);
+        limiter.acquire(0);
+        final Throwable[] failure = new Throwable[1];
+        final boolean[] interrupted = new boolean[1];
+        final Thread thread = new Thread() {
+            public void run() {
+                try {
+                    limiter.acquire(0);
+                } catch (Throwable t) {
+                    failure[0] = t;
+                    interrupted[0] = Thread.currentThread().isInterrupted();
+                }
+            }
+        };
+        thread.start();
+        Thread.sleep(50);
+        thread.interrupt();
+        thread.join(1000);
+        assertTrue(failure[0] instanceof InterruptedIOException);
+        assertTrue("interrupt status should be restored", interrupted[0]);
+        assertEquals(1, limiter.getInFlight());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.http;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import junit.framework.TestCase;
+import de.jakop.lotus.domingo.DItem;
+import de.jakop.lotus.domingo.monitor.NullMonitor;
+
+/**
+ * Tests for class {@link DocumentHttp}.
+ */
+public final class DocumentHttpTest extends TestCase {
+
+    /**
+     * @param name the name of the test
+     */
+    public DocumentHttpTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Values set directly on an item of an existing document are posted
+     * on the next save.
+     */
+    public void testSetValuesOnItemIsSaved() {
+        final DocumentHttp document = new DocumentHttp(null, null, "", NullMonitor.getInstance());
+        document.replaceItemValue("Subject", "old");
+        document.replaceItemValue("Body", "text");
+        document.clearChangedItems();
+        assertFalse(document.getChangedItems().hasNext());
+
+        final List values = new ArrayList();
+        values.add("new");
+        ((DItem) document.getFirstItem("Subject")).setValues(values);
+
+        final Iterator iterator = document.getChangedItems();
+        assertTrue(iterator.hasNext());
+        final DItem item = (DItem) iterator.next();
+        assertEquals("Subject", item.getName());
+        assertEquals(values, item.getValues());
+        assertFalse(iterator.hasNext());
+    }
+
+    /**
+     * Values appended to an item of an existing document are posted on the
+     * next save.
+     */
+    public void testAppendToTextListIsSaved() {
+        final DocumentHttp document = new DocumentHttp(null, null, "", NullMonitor.getInstance());
+        final List values = new ArrayList();
+        values.add("a");
+        document.replaceItemValue("Categories", values);
+        document.clearChangedItems();
+
+        ((DItem) document.getFirstItem("Categories")).appendToTextList("b");
+
+        final Iterator iterator = document.getChangedItems();
+        assertTrue(iterator.hasNext());
+        assertEquals("Categories", ((DItem) iterator.next()).getName());
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package de.jakop.lotus.domingo.http;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.SAXParserFactory;
+
+import junit.framework.TestCase;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Tests for class {@link JsonResponseCodec}.
+ */
+public final class JsonResponseCodecTest extends TestCase {
+
+    private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+        + "<viewentries timestamp=\"20070119T155258,93+01\" toplevelentries=\"2\">\n"
+        + "<viewentry position=\"1\" noteid=\"80000004\" children=\"1\" descendants=\"1\" siblings=\"2\">\n"
+        + "<entrydata columnnumber=\"0\" name=\"Category\" category=\"true\"><text>Tom &amp; \"Jerry\"</text></entrydata>\n"
+        + "</viewentry>\n"
+        + "<viewentry position=\"1.1\" unid=\"0123456789ABCDEF0123456789ABCDEF\" noteid=\"8FA\" siblings=\"1\">\n"
+        + "<entrydata columnnumber=\"1\" name=\"Amount\"><number>42.5</number></entrydata>\n"
+        + "<entrydata columnnumber=\"2\" name=\"Date\"><datetime>20070119T155258,93+01</datetime></entrydata>\n"
+        + "<entrydata columnnumber=\"3\" name=\"Tags\"><textlist><text>a</text><text>b\u00e4</text></textlist></entrydata>\n"
+        + "</viewentry>\n"
+        + "</viewentries>\n";
+
+    private static final String JSON = "{\n"
+        + "  \"@timestamp\": \"20070119T155258,93+01\", \"@toplevelentries\": \"2\",\n"
+        + "  \"viewentry\": [\n"
+        + "    {\"@position\": \"1\", \"@noteid\": \"80000004\", \"@children\": \"1\", \"@descendants\": \"1\",\n"
+        + "     \"@siblings\": \"2\", \"entrydata\": [\n"
+        + "      {\"@columnnumber\": \"0\", \"@name\": \"Category\", \"@category\": true,\n"
+        + "       \"text\": {\"0\": \"Tom & \\\"Jerry\\\"\"}}]},\n"
+        + "    {\"@position\": \"1.1\", \"@unid\": \"0123456789ABCDEF0123456789ABCDEF\", \"@noteid\": \"8FA\",\n"
+        + "     \"@siblings\": \"1\", \"entrydata\": [\n"
+        + "      {\"@columnnumber\": \"1\", \"@name\": \"Amount\", \"number\": {\"0\": 42.5}},\n"
+        + "      {\"@columnnumber\": \"2\", \"@name\": \"Date\", \"datetime\": {\"0\": \"20070119T155258,93+01\"}},\n"
+        + "      {\"@columnnumber\": \"3\", \"@name\": \"Tags\",\n"
+        + "       \"textlist\": {\"text\": [{\"0\": \"a\"}, {\"0\": \"b\\u00e4\"}]}}]}\n"
+        + "  ]\n"
+        + "}\n";
+
+    /**
+     * @param name the name of the test
+     */
+    public JsonResponseCodecTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Tests that a JSON response produces the same SAX events as the equivalent XML response.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testSameEventsAsXml() throws Exception {
+        final EventRecorder xml = new EventRecorder();
+        new XmlResponseCodec(SAXParserFactory.newInstance()).parse(XML, "viewentries", xml);
+        final EventRecorder json = new EventRecorder();
+        new JsonResponseCodec().parse(JSON, "viewentries", json);
+        assertEquals(xml.getEvents(), json.getEvents());
+        assertEquals("start:viewentries{timestamp=20070119T155258,93+01,toplevelentries=2}", json.getEvents().get(0));
+    }
+
+    /**
+     * Tests escape sequences, empty containers and <tt>null</tt> values.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testValues() throws Exception {
+        final EventRecorder recorder = new EventRecorder();
+        new JsonResponseCodec().parse("{\"@a\": null, \"x\": {\"0\": \"\\t\\u0041\\\\\\/\"}, \"y\": [], \"z\": {},"
+            + " \"n\": {\"0\": null}, \"s\": -1.5e3}", "root", recorder);
+        final List expected = new ArrayList();
+        expected.add("start:root{}");
+        expected.add("start:x{}");
+        expected.add("chars:\tA\\/");
+        expected.add("end:x");
+        expected.add("start:z{}");
+        expected.add("end:z");
+        expected.add("start:n{}");
+        expected.add("end:n");
+        expected.add("start:s{}");
+        expected.add("chars:-1.5e3");
+        expected.add("end:s");
+        expected.add("end:root");
+        assertEquals(expected, recorder.getEvents());
+    }
+
+    /**
+     * Tests that invalid responses are rejected.
+     */
+    public void testInvalid() {
+        final String[] invalid = {"", "{", "{\"a\": }", "{\"a\" 1}", "{\"a\": 1", "{\"a\": [1, 2}",
+            "{\"a\": {\"0\": 1, \"@b\": 2}}", "{\"a\": \"\\u00g0\"}", "{} x"};
+        for (int i = 0; i < invalid.length; i++) {
+            try {
+                new JsonResponseCodec().parse(invalid[i], "root", new DefaultHandler());
+                fail("SAXException expected: " + invalid[i]);
+            } catch (SAXException e) {
+                // expected
+            } catch (Exception e) {
+                fail("SAXException expected: " + invalid[i] + ", got " + e);
+            }
+        }
+    }
+
+    /**
+     * Tests detection of response formats.
+     */
+    public void testAccepts() {
+        final ResponseCodec json = new JsonResponseCodec();
+        final ResponseCodec xml = new XmlResponseCodec(SAXParserFactory.newInstance());
+        assertTrue(json.accepts(JSON));
+        assertFalse(json.accepts(XML));
+        assertTrue(xml.accepts(XML));
+        assertFalse(xml.accepts(JSON));
+        assertFalse(json.accepts(""));
+        assertEquals("&OutputFormat=JSON", json.getFormatArgument());
+        assertEquals("", xml.getFormatArgument());
+    }
+
+    /**
+     * SAX handler that records all events as strings. Consecutive characters
+     * are joined, whitespace between elements is ignored.
+     */
+    private static final class EventRecorder extends DefaultHandler {
+
+        private final List fEvents = new ArrayList();
+
+        private final StringBuffer fChars = new StringBuffer();
+
+        public void startElement(final String uri, final String localName, final String qName, final Attributes atts) {
+            flush();
+            final StringBuffer buffer = new StringBuffer("start:" + qName + "{");
+            for (int i = 0; i < atts.getLength(); i++) {
+                buffer.append(i > 0 ? "," : "").append(atts.getQName(i)).append('=').append(atts.getValue(i));
+            }
+            fEvents.add(buffer.append('}').toString());
+        }
+
+        public void endElement(final String uri, final String localName, final String qName) {
+            flush();
+            fEvents.add("end:" + qName);
+        }
+
+        public void characters(final char[] ch, final int start, final int length) {
+            fChars.append(ch, start, length);
+        }
+
+        private void flush() {
+            if (fChars.toString().trim().length() > 0) {
+                fEvents.add("chars:" + fChars);
+            }
+            fChars.setLength(0);
+        }
+
+        List getEvents() {
+            return fEvents;
+        }
+    }
+}
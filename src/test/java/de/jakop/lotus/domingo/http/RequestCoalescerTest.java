@@ -0,0 +1,250 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package de.jakop.lotus.domingo.http;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for class {@link RequestCoalescer}.
+ */
+public final class RequestCoalescerTest extends TestCase {
+
+    private static final int THREADS = 8;
+
+    /**
+     * @param name the name of the test
+     */
+    public RequestCoalescerTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Tests that concurrent identical requests are executed once.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testConcurrentRequestsAreCoalesced() throws Exception {
+        final RequestCoalescer coalescer = new RequestCoalescer(0, 0);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final Callable request = new Callable() {
+            public Object call() throws Exception {
+                calls.incrementAndGet();
+                release.await();
+                return "result";
+            }
+        };
+        final Object[] results = new Object[THREADS];
+        final Thread[] threads = new Thread[THREADS];
+        for (int i = 0; i < THREADS; i++) {
+            final int index = i;
+            threads[i] = new Thread() {
+                public void run() {
+                    try {
+                        results[index] = coalescer.execute("key", request);
+                    } catch (IOException e) {
+                        results[index] = e;
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        waitFor(coalescer, THREADS - 1);
+        release.countDown();
+        for (int i = 0; i < THREADS; i++) {
+            threads[i].join();
+            assertEquals("result", results[i]);
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, coalescer.getExecutedCount());
+        assertEquals(THREADS - 1, coalescer.getCoalescedCount());
+        // completed requests are not kept without time-to-live
+        coalescer.execute("key", request);
+        assertEquals(2, calls.get());
+    }
+
+    /**
+     * Tests that results are kept for the time-to-live, but failures are not.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testTimeToLive() throws Exception {
+        final RequestCoalescer coalescer = new RequestCoalescer(60000, 0);
+        final AtomicInteger calls = new AtomicInteger();
+        final Callable request = new Callable() {
+            public Object call() throws Exception {
+                if (calls.incrementAndGet() == 1) {
+                    throw new IOException("failure");
+                }
+                return "result";
+            }
+        };
+        try {
+            coalescer.execute("key", request);
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertEquals("failure", e.getMessage());
+        }
+        assertEquals("result", coalescer.execute("key", request));
+        assertEquals("result", coalescer.execute("key", request));
+        assertEquals(2, calls.get());
+        coalescer.invalidateAll();
+        assertEquals("result", coalescer.execute("key", request));
+        assertEquals(3, calls.get());
+    }
+
+    /**
+     * Tests that a request in flight during an invalidation still returns its
+     * result, but the result is not kept.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testInvalidateRequestInFlight() throws Exception {
+        final RequestCoalescer coalescer = new RequestCoalescer(60000, 0);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger calls = new AtomicInteger();
+        final Callable request = new Callable() {
+            public Object call() throws Exception {
+                if (calls.incrementAndGet() == 1) {
+                    started.countDown();
+                    release.await();
+                    return "stale";
+                }
+                return "fresh";
+            }
+        };
+        final Object[] result = new Object[1];
+        final Thread reader = new Thread() {
+            public void run() {
+                try {
+                    result[0] = coalescer.execute("key", request);
+                } catch (IOException e) {
+                    result[0] = e;
+                }
+            }
+        };
+        reader.start();
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        coalescer.invalidateAll();
+        release.countDown();
+        reader.join();
+        assertEquals("stale", result[0]);
+        assertEquals("fresh", coalescer.execute("key", request));
+        assertEquals("fresh", coalescer.execute("key", request));
+        assertEquals(2, calls.get());
+    }
+
+    /**
+     * Tests that a waiting caller can be cancelled by interruption or timeout
+     * without cancelling the request.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCancellation() throws Exception {
+        final RequestCoalescer coalescer = new RequestCoalescer(0, 50);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Object[] result = new Object[1];
+        final Thread leader = new Thread() {
+            public void run() {
+                try {
+                    result[0] = coalescer.execute("key", new Callable() {
+                        public Object call() throws Exception {
+                            release.await();
+                            return "result";
+                        }
+                    });
+                } catch (IOException e) {
+                    result[0] = e;
+                }
+            }
+        };
+        leader.start();
+        waitFor(coalescer, 0);
+        try {
+            coalescer.execute("key", null);
+            fail("InterruptedIOException expected");
+        } catch (InterruptedIOException e) {
+            // expected: timeout
+        }
+        Thread.currentThread().interrupt();
+        try {
+            coalescer.execute("key", null);
+            fail("InterruptedIOException expected");
+        } catch (InterruptedIOException e) {
+            assertTrue(Thread.interrupted());
+        }
+        release.countDown();
+        leader.join();
+        assertEquals("result", result[0]);
+    }
+
+    /**
+     * Tests normalization of URLs.
+     */
+    public void testNormalize() {
+        assertEquals("db.nsf/v?readviewentries&count=5&start=1&startkey=Abc",
+            RequestCoalescer.normalize("db.nsf/v?ReadViewEntries&StartKey=Abc&Start=1&Count=5"));
+        assertEquals(RequestCoalescer.normalize("db.nsf/v?ReadViewEntries&Start=1&Count=5"),
+            RequestCoalescer.normalize("db.nsf/v?readviewentries&count=5&start=1&"));
+        assertEquals("db.nsf/v", RequestCoalescer.normalize("db.nsf/v"));
+        assertEquals("db.nsf/v?", RequestCoalescer.normalize("db.nsf/v?"));
+    }
+
+    /**
+     * Tests detection of read commands.
+     */
+    public void testIsRead() {
+        assertTrue(RequestCoalescer.isRead("ReadViewEntries"));
+        assertTrue(RequestCoalescer.isRead("ReadDocument"));
+        assertTrue(RequestCoalescer.isRead("OpenDocument"));
+        assertFalse(RequestCoalescer.isRead("OpenAgent"));
+        assertFalse(RequestCoalescer.isRead("SaveDocument"));
+        assertFalse(RequestCoalescer.isRead("DeleteDocument"));
+        assertFalse(RequestCoalescer.isRead("POST"));
+        assertFalse(RequestCoalescer.isRead(null));
+    }
+
+    /**
+     * Waits until a request is executed and a number of calls wait for it.
+     *
+     * @param coalescer the coalescer
+     * @param coalesced number of waiting calls
+     * @throws InterruptedException if interrupted
+     */
+    private void waitFor(final RequestCoalescer coalescer, final int coalesced) throws InterruptedException {
+        final long end = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (coalescer.getExecutedCount() < 1 || coalescer.getCoalescedCount() < coalesced) {
+            assertTrue("timeout", System.currentTimeMillis() < end);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,402 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package de.jakop.lotus.domingo.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import de.jakop.lotus.domingo.DNotesMonitor;
+import de.jakop.lotus.domingo.monitor.AbstractDefaultMonitor;
+
+/**
+ * Tests for class {@link RequestHedger} against a local stub server with
+ * injected latency.
+ */
+public final class RequestHedgerTest extends TestCase {
+
+    private static final String COMMAND = "ReadViewEntries";
+
+    private HttpServer fServer;
+
+    private ExecutorService fServerExecutor;
+
+    private String fBaseUrl;
+
+    private ExecutorService fHedgeExecutor;
+
+    private RequestHedger fHedger;
+
+    private ConcurrencyLimiter fLimiter;
+
+    /** Configuration values to restore after the test. */
+    private final Map fProperties = new HashMap();
+
+    /**
+     * @param name the name of the test
+     */
+    public RequestHedgerTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see junit.framework.TestCase#setUp()
+     */
+    protected void setUp() throws Exception {
+        fServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        fServer.createContext("/", new StubHandler());
+        fServerExecutor = Executors.newCachedThreadPool();
+        fServer.setExecutor(fServerExecutor);
+        fServer.start();
+        fBaseUrl = "http://127.0.0.1:" + fServer.getAddress().getPort() + "/";
+        fLimiter = new ConcurrencyLimiter(4, 1, 4);
+        fHedgeExecutor = RequestHedger.createExecutor(4);
+        fHedger = new RequestHedger(95, fLimiter, fHedgeExecutor);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see junit.framework.TestCase#tearDown()
+     */
+    protected void tearDown() throws Exception {
+        final Iterator iterator = fProperties.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry entry = (Map.Entry) iterator.next();
+            NotesHttpFactory.setProperty((String) entry.getKey(), (String) entry.getValue());
+        }
+        fHedgeExecutor.shutdownNow();
+        fServer.stop(0);
+        fServerExecutor.shutdownNow();
+    }
+
+    /**
+     * Tests that no hedge is sent until enough latencies were observed.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testNoHedgeBeforeMinimumSamples() throws Exception {
+        assertEquals(-1, fHedger.getHedgeDelay(COMMAND));
+        for (int i = 0; i < RequestHedger.MIN_SAMPLES - 1; i++) {
+            assertEquals("ok", fHedger.execute(COMMAND, new StubAttempt("?delay=0"), new StubAttempt("?delay=0")));
+        }
+        assertEquals(-1, fHedger.getHedgeDelay(COMMAND));
+        assertEquals(0, fHedger.getHedgedCount());
+    }
+
+    /**
+     * Tests that a slow request is hedged, the hedge wins and the slow
+     * attempt is aborted.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testSlowRequestIsHedged() throws Exception {
+        warmUp();
+        final StubAttempt slow = new StubAttempt("?delay=3000");
+        final StubAttempt hedge = new StubAttempt("?delay=0");
+        final long start = System.currentTimeMillis();
+        assertEquals("ok", fHedger.execute(COMMAND, slow, hedge));
+        assertTrue("hedge should answer before the slow attempt", System.currentTimeMillis() - start < 2000);
+        assertEquals(1, fHedger.getHedgedCount());
+        assertEquals(1, fHedger.getHedgeWinCount());
+        assertTrue("slow attempt should be aborted", slow.fAborted);
+        assertFalse(hedge.fAborted);
+    }
+
+    /**
+     * Tests that a request is not hedged if no limit of concurrent requests
+     * is left.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testNoHedgeWithoutCapacity() throws Exception {
+        warmUp();
+        for (int i = 0; i < fLimiter.getLimit(); i++) {
+            fLimiter.acquire(0);
+        }
+        assertEquals("ok", fHedger.execute(COMMAND, new StubAttempt("?delay=200"), new StubAttempt("?delay=0")));
+        assertEquals(0, fHedger.getHedgedCount());
+    }
+
+    /**
+     * Tests that a request is not hedged if the shared executor is saturated.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testNoHedgeWhenExecutorSaturated() throws Exception {
+        final ExecutorService executor = RequestHedger.createExecutor(1);
+        try {
+            fHedger = new RequestHedger(95, fLimiter, executor);
+            warmUp();
+            assertEquals("ok", fHedger.execute(COMMAND, new StubAttempt("?delay=200"), new StubAttempt("?delay=0")));
+            assertEquals(0, fHedger.getHedgedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that the response of the hedge is returned if the first attempt
+     * fails while the hedge is still running.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testFailedAttemptFallsBackToHedge() throws Exception {
+        warmUp();
+        final Object result = fHedger.execute(COMMAND, new StubAttempt("?delay=200&status=500"),
+                new StubAttempt("?delay=600"));
+        assertEquals("ok", result);
+        assertEquals(1, fHedger.getHedgedCount());
+        assertEquals(1, fHedger.getHedgeWinCount());
+    }
+
+    /**
+     * Tests that the attempt aborted in favour of a hedge neither lowers the
+     * limit of concurrent requests nor is logged as an error, with limit and
+     * hedging enabled for a session.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testAbortedAttemptKeepsLimit() throws Exception {
+        setProperty(NotesHttpFactory.TRANSPORT_PROPERTY, UrlConnectionTransport.NAME, CommonsHttpTransport.NAME);
+        setProperty(NotesHttpFactory.LIMIT_ENABLED_PROPERTY, "true", "false");
+        setProperty(NotesHttpFactory.LIMIT_INITIAL_PROPERTY, "4", String.valueOf(NotesHttpFactory.DEFAULT_LIMIT_INITIAL));
+        setProperty(NotesHttpFactory.HEDGE_PERCENTILE_PROPERTY, "95", "0");
+        final NotesHttpFactory factory = new NotesHttpFactory();
+        final ErrorMonitor monitor = new ErrorMonitor();
+        factory.setMonitor(monitor);
+        try {
+            final SessionHttp session = (SessionHttp) factory.getSession(fBaseUrl, "user", "password");
+            for (int i = 0; i < RequestHedger.MIN_SAMPLES; i++) {
+                session.executeUrl("names.nsf?ReadViewEntries&delay=100");
+            }
+            final ConcurrencyLimiter limiter = session.getLimiter();
+            final int limit = limiter.getLimit();
+            assertEquals("ok", session.executeUrl("names.nsf?ReadViewEntries&delay=100&first=3000").trim());
+            assertEquals(1, session.getHedger().getHedgeWinCount());
+            final long deadline = System.currentTimeMillis() + 2000;
+            while (limiter.getInFlight() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, limiter.getInFlight());
+            assertEquals(limit, limiter.getLimit());
+            assertEquals(Collections.EMPTY_LIST, monitor.fErrors);
+        } finally {
+            factory.disposeInstance(true);
+        }
+    }
+
+    /**
+     * Tests that the failure is reported if all attempts fail.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testAllAttemptsFail() throws Exception {
+        warmUp();
+        try {
+            fHedger.execute(COMMAND, new StubAttempt("?delay=200&status=500"), new StubAttempt("?status=503"));
+            fail("request should fail");
+        } catch (IOException e) {
+            // expected
+        }
+        assertEquals(1, fHedger.getHedgedCount());
+        assertEquals(0, fHedger.getHedgeWinCount());
+    }
+
+    /**
+     * Executes enough fast requests to compute a hedge delay.
+     *
+     * @throws IOException if a request fails
+     */
+    private void warmUp() throws IOException {
+        for (int i = 0; i < RequestHedger.MIN_SAMPLES; i++) {
+            fHedger.execute(COMMAND, new StubAttempt("?delay=0"), null);
+        }
+        assertTrue(fHedger.getHedgeDelay(COMMAND) >= 0);
+    }
+
+    /**
+     * Sets a configuration value for the test.
+     *
+     * @param key the key of the property
+     * @param value the value for the test
+     * @param defaultValue the value to restore if the property is not configured
+     */
+    private void setProperty(final String key, final String value, final String defaultValue) {
+        fProperties.put(key, NotesHttpFactory.getProperty(key, defaultValue));
+        NotesHttpFactory.setProperty(key, value);
+    }
+
+    /**
+     * Attempt requesting the stub server with an URL connection.
+     */
+    private final class StubAttempt implements HttpAttempt {
+
+        private final String fQuery;
+
+        private volatile HttpURLConnection fConnection;
+
+        private volatile boolean fAborted;
+
+        /**
+         * @param query query string controlling the stub's response
+         */
+        StubAttempt(final String query) {
+            fQuery = query;
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see de.jakop.lotus.domingo.http.HttpAttempt#execute()
+         */
+        public Object execute() throws IOException {
+            fConnection = (HttpURLConnection) new URL(fBaseUrl + fQuery).openConnection();
+            try {
+                if (fConnection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                    throw new IOException("Error " + fConnection.getResponseCode());
+                }
+                final InputStream in = fConnection.getInputStream();
+                final StringBuffer buffer = new StringBuffer();
+                int c;
+                while ((c = in.read()) >= 0) {
+                    buffer.append((char) c);
+                }
+                return buffer.toString();
+            } finally {
+                fConnection.disconnect();
+            }
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see de.jakop.lotus.domingo.http.HttpAttempt#abort()
+         */
+        public void abort() {
+            fAborted = true;
+            if (fConnection != null) {
+                fConnection.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Monitor collecting error messages.
+     */
+    private static final class ErrorMonitor extends AbstractDefaultMonitor {
+
+        /** Collected error messages. */
+        private final List fErrors = Collections.synchronizedList(new ArrayList());
+
+        /**
+         * Constructor.
+         */
+        private ErrorMonitor() {
+            super(DNotesMonitor.ERROR);
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see AbstractDefaultMonitor#monitor(java.lang.String)
+         */
+        protected void monitor(final String message) {
+            fErrors.add(message);
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see AbstractDefaultMonitor#monitor(java.lang.Throwable)
+         */
+        protected void monitor(final Throwable throwable) {
+        }
+    }
+
+    /**
+     * Stub handler answering <tt>ok</tt> after the delay and with the status
+     * given in the query string. The delay <tt>first</tt> is applied to the
+     * first request of an URI only.
+     */
+    private static final class StubHandler implements HttpHandler {
+
+        /** URIs requested so far. */
+        private final Set fRequested = Collections.synchronizedSet(new HashSet());
+
+        /**
+         * {@inheritDoc}
+         * @see com.sun.net.httpserver.HttpHandler#handle(com.sun.net.httpserver.HttpExchange)
+         */
+        public void handle(final HttpExchange exchange) throws IOException {
+            final String query = exchange.getRequestURI().getQuery();
+            long delay = getParameter(query, "delay", 0);
+            if (fRequested.add(exchange.getRequestURI())) {
+                delay += getParameter(query, "first", 0);
+            }
+            final int status = (int) getParameter(query, "status", HttpURLConnection.HTTP_OK);
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            final byte[] body = "ok".getBytes("US-ASCII");
+            exchange.sendResponseHeaders(status, body.length);
+            final OutputStream out = exchange.getResponseBody();
+            try {
+                out.write(body);
+            } finally {
+                out.close();
+            }
+        }
+
+        private static long getParameter(final String query, final String name, final long defaultValue) {
+            if (query == null) {
+                return defaultValue;
+            }
+            final String[] parameters = query.split("&");
+            for (int i = 0; i < parameters.length; i++) {
+                if (parameters[i].startsWith(name + "=")) {
+                    return Long.parseLong(parameters[i].substring(name.length() + 1));
+                }
+            }
+            return defaultValue;
+        }
+    }
+}
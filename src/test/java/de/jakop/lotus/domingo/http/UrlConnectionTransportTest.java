@@ -0,0 +1,346 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package de.jakop.lotus.domingo.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests for class {@link UrlConnectionTransport} against a local stub server.
+ */
+public final class UrlConnectionTransportTest extends TestCase {
+
+    private HttpServer fServer;
+
+    private ExecutorService fServerExecutor;
+
+    private String fBaseUrl;
+
+    private UrlConnectionTransport fTransport;
+
+    /** Last request received by the stub server. */
+    private volatile Request fRequest;
+
+    /** Number of requests received by the stub server. */
+    private volatile int fRequestCount;
+
+    /**
+     * @param name the name of the test
+     */
+    public UrlConnectionTransportTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see junit.framework.TestCase#setUp()
+     */
+    protected void setUp() throws Exception {
+        fServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        fServer.createContext("/", new StubHandler());
+        fServerExecutor = Executors.newCachedThreadPool();
+        fServer.setExecutor(fServerExecutor);
+        fServer.start();
+        fBaseUrl = "http://127.0.0.1:" + fServer.getAddress().getPort() + "/";
+        fTransport = new UrlConnectionTransport();
+        fTransport.init("127.0.0.1", fServer.getAddress().getPort());
+        fTransport.configure(4, 5000);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see junit.framework.TestCase#tearDown()
+     */
+    protected void tearDown() throws Exception {
+        fTransport.shutdown();
+        fServer.stop(0);
+        fServerExecutor.shutdownNow();
+    }
+
+    /**
+     * Tests a GET request with a text response in the charset of the
+     * content type.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testGet() throws Exception {
+        final DominoHttpMethod method = fTransport.createGetMethod(fBaseUrl + "names.nsf?ReadViewEntries&Count=1");
+        try {
+            assertEquals(200, fTransport.executeMethod(method));
+            assertEquals("GET", fRequest.fMethod);
+            assertEquals("ReadViewEntries&Count=1", method.getQueryString());
+            assertEquals("text/plain; charset=UTF-8", method.getResponseHeaderValue("content-type"));
+            assertEquals("äöü", method.getResponseBodyString());
+        } finally {
+            method.releaseConnection();
+        }
+    }
+
+    /**
+     * Tests that the response body can be read as a stream.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testResponseStream() throws Exception {
+        final DominoHttpMethod method = fTransport.createGetMethod(fBaseUrl + "file?size=100000");
+        try {
+            assertEquals(200, fTransport.executeMethod(method));
+            final InputStream in = method.getResponseBodyAsStream();
+            int count = 0;
+            while (in.read() >= 0) {
+                count++;
+            }
+            assertEquals(100000, count);
+        } finally {
+            method.releaseConnection();
+        }
+    }
+
+    /**
+     * Tests a POST request with form parameters.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testPostParameters() throws Exception {
+        final DominoHttpMethod method = fTransport.createPostMethod(fBaseUrl + "db.nsf/Form?CreateDocument");
+        method.addParameter("Subject", "a b&c");
+        method.addParameter("Body", "ä");
+        try {
+            assertEquals(200, fTransport.executeMethod(method));
+            assertEquals("POST", fRequest.fMethod);
+            assertEquals("Subject=a+b%26c&Body=%C3%A4", fRequest.fBody);
+        } finally {
+            method.releaseConnection();
+        }
+    }
+
+    /**
+     * Tests that parameters are rejected by GET methods.
+     */
+    public void testGetRejectsParameters() {
+        try {
+            fTransport.createGetMethod(fBaseUrl).addParameter("a", "b");
+            fail("GET methods must not accept parameters");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Tests that cookies set by the server are sent with later requests and
+     * expired cookies are removed.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCookies() throws Exception {
+        fTransport.addCookie("DomTimeZonePrfM", "+1:6:Berlin");
+        execute("login?cookie=DomAuthSessId%3Dabc%3B%20Path%3D%2F");
+        assertEquals("abc", fTransport.getCookies().get("DomAuthSessId"));
+        execute("names.nsf");
+        final String header = fRequest.fCookie;
+        assertTrue(header, header.indexOf("DomAuthSessId=abc") >= 0);
+        assertTrue(header, header.indexOf("DomTimeZonePrfM=+1:6:Berlin") >= 0);
+        execute("logout?cookie=DomAuthSessId%3D%3B%20Expires%3DThu,%2001-Jan-1970%2000:00:01%20GMT");
+        final Map cookies = fTransport.getCookies();
+        assertFalse(cookies.containsKey("DomAuthSessId"));
+        assertTrue(cookies.containsKey("DomTimeZonePrfM"));
+    }
+
+    /**
+     * Tests that credentials are sent with basic authentication only after
+     * the server has requested them.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testBasicAuthentication() throws Exception {
+        fTransport.setCredentials("Aladdin", "open sesame");
+        execute("names.nsf");
+        assertNull(fRequest.fAuthorization);
+        fRequestCount = 0;
+        execute("secure.nsf");
+        assertEquals("Basic QWxhZGRpbjpvcGVuIHNlc2FtZQ==", fRequest.fAuthorization);
+        assertEquals("challenge and authenticated request", 2, fRequestCount);
+        execute("names.nsf");
+        assertEquals("Basic QWxhZGRpbjpvcGVuIHNlc2FtZQ==", fRequest.fAuthorization);
+    }
+
+    /**
+     * Tests that a POST request is sent again with its body after a basic
+     * authentication challenge.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testBasicAuthenticationPost() throws Exception {
+        fTransport.setCredentials("Aladdin", "open sesame");
+        final DominoHttpMethod method = fTransport.createPostMethod(fBaseUrl + "secure.nsf/Form?CreateDocument");
+        method.addParameter("Subject", "a");
+        try {
+            assertEquals(200, fTransport.executeMethod(method));
+            assertEquals("Basic QWxhZGRpbjpvcGVuIHNlc2FtZQ==", fRequest.fAuthorization);
+            assertEquals("Subject=a", fRequest.fBody);
+        } finally {
+            method.releaseConnection();
+        }
+    }
+
+    /**
+     * Tests that a basic authentication challenge is returned to the caller
+     * if no credentials are available.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testBasicAuthenticationWithoutCredentials() throws Exception {
+        final DominoHttpMethod method = fTransport.createGetMethod(fBaseUrl + "secure.nsf");
+        try {
+            assertEquals(401, fTransport.executeMethod(method));
+            assertNull(fRequest.fAuthorization);
+        } finally {
+            method.releaseConnection();
+        }
+    }
+
+    /**
+     * Tests that redirects are returned to the caller instead of being
+     * followed.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testRedirectNotFollowed() throws Exception {
+        final DominoHttpMethod method = fTransport.createPostMethod(fBaseUrl + "names.nsf?Login");
+        method.addParameter("RedirectTo", "/names.nsf");
+        try {
+            assertEquals(302, fTransport.executeMethod(method));
+            assertEquals("/names.nsf", method.getResponseHeaderValue("Location"));
+        } finally {
+            method.releaseConnection();
+        }
+    }
+
+    /**
+     * Tests that an aborted method is not executed.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testAbort() throws Exception {
+        final DominoHttpMethod method = fTransport.createGetMethod(fBaseUrl);
+        method.abort();
+        try {
+            fTransport.executeMethod(method);
+            fail("aborted method must not be executed");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    private void execute(final String pathInfo) throws IOException {
+        final DominoHttpMethod method = fTransport.createGetMethod(fBaseUrl + pathInfo);
+        try {
+            assertEquals(200, fTransport.executeMethod(method));
+            method.getResponseBody();
+        } finally {
+            method.releaseConnection();
+        }
+    }
+
+    /**
+     * A request received by the stub server.
+     */
+    private static final class Request {
+
+        private final String fMethod;
+
+        private final String fCookie;
+
+        private final String fBody;
+
+        private final String fAuthorization;
+
+        Request(final String method, final String cookie, final String body, final String authorization) {
+            fMethod = method;
+            fCookie = cookie;
+            fBody = body;
+            fAuthorization = authorization;
+        }
+    }
+
+    /**
+     * Stub handler recording requests. The query parameter <tt>cookie</tt>
+     * is returned as <tt>Set-Cookie</tt> header, <tt>size</tt> selects the
+     * length of a binary response; the login redirects and <tt>secure.nsf</tt>
+     * requires basic authentication.
+     */
+    private final class StubHandler implements HttpHandler {
+
+        /**
+         * {@inheritDoc}
+         * @see com.sun.net.httpserver.HttpHandler#handle(com.sun.net.httpserver.HttpExchange)
+         */
+        public void handle(final HttpExchange exchange) throws IOException {
+            final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            final InputStream in = exchange.getRequestBody();
+            int c;
+            while ((c = in.read()) >= 0) {
+                body.write(c);
+            }
+            fRequest = new Request(exchange.getRequestMethod(), exchange.getRequestHeaders().getFirst("Cookie"),
+                    body.toString("US-ASCII"), exchange.getRequestHeaders().getFirst("Authorization"));
+            fRequestCount++;
+            final String query = exchange.getRequestURI().getQuery();
+            byte[] response = "äöü".getBytes("UTF-8");
+            int status = 200;
+            if (exchange.getRequestURI().getPath().startsWith("/secure.nsf") && fRequest.fAuthorization == null) {
+                exchange.getResponseHeaders().add("WWW-Authenticate", "Basic realm=\"Domino\"");
+                status = 401;
+            } else if (query != null && query.startsWith("cookie=")) {
+                exchange.getResponseHeaders().add("Set-Cookie", query.substring("cookie=".length()));
+            } else if (query != null && query.startsWith("size=")) {
+                response = new byte[Integer.parseInt(query.substring("size=".length()))];
+            } else if ("Login".equals(query)) {
+                exchange.getResponseHeaders().add("Location", "/names.nsf");
+                status = 302;
+                response = new byte[0];
+            }
+            exchange.getResponseHeaders().add("Content-Type", "text/plain; charset=UTF-8");
+            exchange.sendResponseHeaders(status, response.length == 0 ? -1 : response.length);
+            final OutputStream out = exchange.getResponseBody();
+            try {
+                out.write(response);
+            } finally {
+                out.close();
+            }
+        }
+    }
+}
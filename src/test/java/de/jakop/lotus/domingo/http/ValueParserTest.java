@@ -0,0 +1,161 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package de.jakop.lotus.domingo.http;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Random;
+import java.util.TimeZone;
+
+import junit.framework.TestCase;
+import de.jakop.lotus.domingo.DDocumentSnapshot;
+
+/**
+ * Tests for classes {@link ValueParser} and {@link ValueList}.
+ */
+public final class ValueParserTest extends TestCase {
+
+    /**
+     * @param name the name of the test
+     */
+    public ValueParserTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Test parsing of numbers against <code>Double.parseDouble()</code>.
+     */
+    public void testParseNumber() {
+        final String[] numbers = {"0", "-0", "1", "-1", "+2", "3.5", " 42 ", "0.1", "0.3", "123456.789",
+            "-98765.4321", "1.7976931348623157E308", "4.9E-324", "12345678901234567890", "0.000000000000000000000001",
+            "9007199254740993", ".5", "5."};
+        for (int i = 0; i < numbers.length; i++) {
+            final char[] chars = ("xx" + numbers[i] + "yy").toCharArray();
+            assertEquals(numbers[i], Double.parseDouble(numbers[i]),
+                ValueParser.parseNumber(chars, 2, numbers[i].length()), 0);
+        }
+        final Random random = new Random(4711);
+        for (int i = 0; i < 10000; i++) {
+            final String number = Long.toString(random.nextLong() % 100000000000L) + "." + random.nextInt(100000);
+            assertEquals(number, Double.parseDouble(number),
+                ValueParser.parseNumber(number.toCharArray(), 0, number.length()), 0);
+        }
+        try {
+            ValueParser.parseNumber("abc".toCharArray(), 0, 3);
+            fail("NumberFormatException expected");
+        } catch (NumberFormatException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Test parsing of date/time values against a gregorian calendar.
+     */
+    public void testParseDateTime() {
+        final TimeZone zone = TimeZone.getTimeZone("Europe/Berlin");
+        assertEquals(expected(2007, 1, 19, 15, 52, 58, 930, zone), parse("20070119T155258,93+01", zone));
+        assertEquals(expected(2007, 1, 19, 15, 52, 58, 0, zone), parse("20070119T155258", zone));
+        assertEquals(expected(2007, 1, 19, 0, 0, 0, 0, zone), parse("20070119", zone));
+        assertEquals(expected(2007, 3, 25, 2, 30, 0, 0, zone), parse("20070325T023000", zone));
+        assertEquals(expected(2007, 10, 28, 2, 30, 0, 0, zone), parse("20071028T023000", zone));
+        assertEquals(expected(1066, 10, 14, 9, 0, 0, 0, zone), parse("10661014T090000", zone));
+        assertEquals(DDocumentSnapshot.NO_DATE, parse("", zone));
+        final Random random = new Random(4711);
+        for (int i = 0; i < 10000; i++) {
+            final int year = 1900 + random.nextInt(200);
+            final int month = 1 + random.nextInt(12);
+            final int day = 1 + random.nextInt(28);
+            final int hour = random.nextInt(24);
+            final int minute = random.nextInt(60);
+            final int second = random.nextInt(60);
+            final long millis = ValueParser.toMillis(year, month, day, hour, minute, second, 0, zone);
+            assertEquals(expected(year, month, day, hour, minute, second, 0, zone), millis);
+        }
+        try {
+            parse("2007011", zone);
+            fail("NumberFormatException expected");
+        } catch (NumberFormatException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Test lazy creation of objects in a value list.
+     */
+    public void testValueList() {
+        final ValueList list = new ValueList();
+        final long millis = expected(2007, 1, 19, 15, 52, 58, 0, TimeZone.getDefault());
+        list.addNumber(1.5);
+        list.addDateTime(millis);
+        list.addDateTime(DDocumentSnapshot.NO_DATE);
+        list.add("text");
+        assertEquals(4, list.size());
+        assertEquals(1.5, list.getDouble(0), 0);
+        assertEquals(millis, list.getMillis(1));
+        assertEquals(DDocumentSnapshot.NO_DATE, list.getMillis(0));
+        assertEquals(new Double(1.5), list.get(0));
+        assertEquals(millis, ((Calendar) list.get(1)).getTimeInMillis());
+        assertSame(list.get(1), list.get(1));
+        assertNull(list.get(2));
+        assertEquals("text", list.get(3));
+        list.remove(0);
+        assertEquals(millis, list.getMillis(0));
+        list.add(0, new Double(2));
+        assertEquals(2.0, list.getDouble(0), 0);
+        assertEquals(millis, list.getMillis(1));
+    }
+
+    /**
+     * Parses a date/time string.
+     *
+     * @param value the string
+     * @param zone the time zone
+     * @return milliseconds
+     */
+    private static long parse(final String value, final TimeZone zone) {
+        return ValueParser.parseDateTime(value.toCharArray(), 0, value.length(), zone);
+    }
+
+    /**
+     * Computes the expected milliseconds of a date/time with a gregorian calendar.
+     *
+     * @param year year
+     * @param month month, 1 to 12
+     * @param day day
+     * @param hour hour
+     * @param minute minute
+     * @param second second
+     * @param millis millis
+     * @param zone time zone
+     * @return milliseconds
+     */
+    private static long expected(final int year, final int month, final int day, final int hour, final int minute,
+            final int second, final int millis, final TimeZone zone) {
+        final Calendar calendar = new GregorianCalendar(zone);
+        calendar.clear();
+        calendar.set(year, month - 1, day, hour, minute, second);
+        calendar.set(Calendar.MILLISECOND, millis);
+        return calendar.getTimeInMillis();
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package de.jakop.lotus.domingo.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import de.jakop.lotus.domingo.DDatabase;
+import de.jakop.lotus.domingo.DNotesException;
+import de.jakop.lotus.domingo.DView;
+import de.jakop.lotus.domingo.monitor.NullMonitor;
+
+/**
+ * Tests for class {@link ViewHttp} against a local stub server with views
+ * sorted by their only column.
+ */
+public final class ViewHttpTest extends TestCase {
+
+    /** Keys of the entries of the view <tt>texts</tt>, in view order. */
+    private static final Object[] TEXTS = {"Apple", "apple", "Banana", "Cherry"};
+
+    /** Keys of the entries of the view <tt>numbers</tt>, in view order. */
+    private static final Object[] NUMBERS = new Object[100];
+
+    static {
+        for (int i = 0; i < NUMBERS.length; i++) {
+            NUMBERS[i] = new Double(i + 1);
+        }
+    }
+
+    private HttpServer fServer;
+
+    private ExecutorService fServerExecutor;
+
+    private NotesHttpFactory fFactory;
+
+    private DDatabase fDatabase;
+
+    /** Number of <tt>ReadViewEntries</tt> requests received by the stub server. */
+    private volatile int fReadCount;
+
+    /** Configuration values to restore after the test. */
+    private final Map fProperties = new HashMap();
+
+    /**
+     * @param name the name of the test
+     */
+    public ViewHttpTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see junit.framework.TestCase#setUp()
+     */
+    protected void setUp() throws Exception {
+        fServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        fServer.createContext("/", new StubHandler());
+        fServerExecutor = Executors.newCachedThreadPool();
+        fServer.setExecutor(fServerExecutor);
+        fServer.start();
+        setProperty(NotesHttpFactory.TRANSPORT_PROPERTY, UrlConnectionTransport.NAME, CommonsHttpTransport.NAME);
+        setProperty(NotesHttpFactory.OUTPUT_FORMAT_PROPERTY, NotesHttpFactory.OUTPUT_FORMAT_XML,
+                NotesHttpFactory.OUTPUT_FORMAT_AUTO);
+        fFactory = new NotesHttpFactory();
+        fFactory.setMonitor(NullMonitor.getInstance());
+        fDatabase = fFactory.getSession("http://127.0.0.1:" + fServer.getAddress().getPort(), "user", "password")
+                .getDatabase("", "db.nsf");
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see junit.framework.TestCase#tearDown()
+     */
+    protected void tearDown() throws Exception {
+        fFactory.disposeInstance(true);
+        final Iterator iterator = fProperties.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Map.Entry entry = (Map.Entry) iterator.next();
+            NotesHttpFactory.setProperty((String) entry.getKey(), (String) entry.getValue());
+        }
+        fServer.stop(0);
+        fServerExecutor.shutdownNow();
+    }
+
+    /**
+     * Tests that text keys are looked up with one range request, text is
+     * compared case-insensitive and keys without entries are looked up
+     * again one by one.
+     */
+    public void testLookupTextKeys() {
+        final DView view = fDatabase.getView("texts");
+        final Map result = view.lookupAll(Arrays.asList(new Object[] {"banana", "Apple", "kiwi", "APPLE"}));
+        assertEquals(Arrays.asList(new Object[] {"banana", "Apple", "kiwi", "APPLE"}),
+                Arrays.asList(result.keySet().toArray()));
+        assertEquals(1, ((List) result.get("banana")).size());
+        assertEquals(2, ((List) result.get("Apple")).size());
+        assertEquals(0, ((List) result.get("kiwi")).size());
+        assertEquals(2, ((List) result.get("APPLE")).size());
+        assertEquals("one range and one request for the key without entries", 2, fReadCount);
+    }
+
+    /**
+     * Tests that number keys are looked up with one range request, that
+     * integer and floating point keys are equal and that keys without
+     * entries are not looked up again.
+     */
+    public void testLookupNumberKeys() {
+        final DView view = fDatabase.getView("numbers");
+        final Map result = view.lookupAll(Arrays.asList(new Object[] {new Integer(2), new Double(5), new Double(4.5)}));
+        assertEquals(1, ((List) result.get(new Integer(2))).size());
+        assertEquals(1, ((List) result.get(new Double(5))).size());
+        assertEquals(0, ((List) result.get(new Double(4.5))).size());
+        assertEquals(1, fReadCount);
+    }
+
+    /**
+     * Tests that keys of a range with too many entries to read with one
+     * request are looked up one by one.
+     */
+    public void testLookupSparseKeys() {
+        final DView view = fDatabase.getView("numbers");
+        final Map result = view.lookupAll(Arrays.asList(new Object[] {new Integer(1), new Integer(100)}));
+        assertEquals(1, ((List) result.get(new Integer(1))).size());
+        assertEquals(1, ((List) result.get(new Integer(100))).size());
+        assertEquals(2, fReadCount);
+    }
+
+    /**
+     * Tests that the columns of a view are read from its design.
+     */
+    public void testColumns() {
+        final DView view = fDatabase.getView("texts");
+        assertEquals(1, view.getColumnCount());
+        assertEquals(1, view.getColumns().size());
+        assertEquals(Arrays.asList(new Object[] {"Key"}), view.getColumnNames());
+        assertTrue(view.getColumn(1).isSorted());
+    }
+
+    /**
+     * Tests that sessions sharing a view entries response each get entries
+     * of their own view.
+     */
+    public void testSharedResponseEntriesBelongToView() throws DNotesException {
+        setProperty(NotesHttpFactory.COALESCE_TTL_PROPERTY, "60000", "0");
+        final NotesHttpFactory factory = new NotesHttpFactory();
+        factory.setMonitor(NullMonitor.getInstance());
+        try {
+            final String host = "http://127.0.0.1:" + fServer.getAddress().getPort();
+            final DView view1 = factory.getSession(host, "user", "password").getDatabase("", "db.nsf").getView("texts");
+            final DView view2 = factory.getSession(host, "user", "password").getDatabase("", "db.nsf").getView("texts");
+            final ViewEntryHttp entry1 = (ViewEntryHttp) view1.getAllEntries().next();
+            final ViewEntryHttp entry2 = (ViewEntryHttp) view2.getAllEntries().next();
+            assertEquals("one shared request", 1, fReadCount);
+            assertSame(view1, entry1.getParent());
+            assertSame(view2, entry2.getParent());
+        } finally {
+            factory.disposeInstance(true);
+        }
+    }
+
+    /**
+     * Sets a configuration value for the test.
+     *
+     * @param key the key of the property
+     * @param value the value for the test
+     * @param defaultValue the value to restore if the property is not configured
+     */
+    private void setProperty(final String key, final String value, final String defaultValue) {
+        fProperties.put(key, NotesHttpFactory.getProperty(key, defaultValue));
+        NotesHttpFactory.setProperty(key, value);
+    }
+
+    /**
+     * Stub handler answering the login, the design of the views and
+     * <tt>ReadViewEntries</tt> requests with the arguments <tt>Start</tt>,
+     * <tt>StartKey</tt>, <tt>UntilKey</tt> and <tt>Count</tt>.
+     */
+    private final class StubHandler implements HttpHandler {
+
+        /**
+         * {@inheritDoc}
+         * @see com.sun.net.httpserver.HttpHandler#handle(com.sun.net.httpserver.HttpExchange)
+         */
+        public void handle(final HttpExchange exchange) throws IOException {
+            final String path = exchange.getRequestURI().getPath();
+            final String query = exchange.getRequestURI().getRawQuery();
+            final String response;
+            if (query.startsWith("ReadDesign")) {
+                response = "<viewdesign><column name=\"Key\" title=\"Key\" sortascending=\"true\"/></viewdesign>";
+            } else if (query.startsWith("ReadViewEntries")) {
+                fReadCount++;
+                response = readViewEntries(path.endsWith("numbers") ? NUMBERS : TEXTS, query);
+            } else {
+                response = "ok";
+            }
+            final byte[] body = response.getBytes("UTF-8");
+            exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            final OutputStream out = exchange.getResponseBody();
+            try {
+                out.write(body);
+            } finally {
+                out.close();
+            }
+        }
+
+        private String readViewEntries(final Object[] keys, final String query) throws IOException {
+            final String startKey = getParameter(query, "StartKey");
+            final String untilKey = getParameter(query, "UntilKey");
+            final String start = getParameter(query, "Start");
+            final int count = Integer.parseInt(getParameter(query, "Count"));
+            int index = start == null ? 0 : Integer.parseInt(start) - 1;
+            while (startKey != null && index < keys.length && compare(keys[index], startKey) < 0) {
+                index++;
+            }
+            final StringBuffer buffer = new StringBuffer("<viewentries>");
+            for (int i = index; i < keys.length && i < index + count; i++) {
+                if (untilKey != null && compare(keys[i], untilKey) > 0) {
+                    break;
+                }
+                final String value = keys[i] instanceof Double
+                    ? "<number>" + keys[i] + "</number>" : "<text>" + keys[i] + "</text>";
+                buffer.append("<viewentry position=\"" + (i + 1) + "\" unid=\"" + (1000 + i) + "\" noteid=\"" + i
+                    + "\"><entrydata columnnumber=\"0\" name=\"Key\">" + value + "</entrydata></viewentry>");
+            }
+            return buffer.append("</viewentries>").toString();
+        }
+
+        private int compare(final Object key, final String argument) {
+            if (key instanceof Double) {
+                return ((Double) key).compareTo(Double.valueOf(argument));
+            }
+            return ((String) key).compareToIgnoreCase(argument);
+        }
+
+        private String getParameter(final String query, final String name) throws IOException {
+            final String[] parameters = query.split("&");
+            for (int i = 0; i < parameters.length; i++) {
+                if (parameters[i].startsWith(name + "=")) {
+                    return URLDecoder.decode(parameters[i].substring(name.length() + 1), "UTF-8");
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.metrics;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the classes {@link Histogram}, {@link StripedCounter} and {@link MetricsRegistry}.
+ */
+public final class HistogramTest extends TestCase {
+
+    /**
+     * @param name the name of the test
+     */
+    public HistogramTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Test that buckets are contiguous and cover the values with a small relative error.
+     */
+    public void testBuckets() {
+        assertEquals(0, Histogram.getBucketIndex(0));
+        assertEquals(15, Histogram.getBucketIndex(15));
+        assertEquals(16, Histogram.getBucketIndex(16));
+        assertEquals(31, Histogram.getBucketIndex(31));
+        assertEquals(32, Histogram.getBucketIndex(32));
+        assertEquals(32, Histogram.getBucketIndex(33));
+        long[] values = {1, 17, 1000, 123456789, Long.MAX_VALUE / 3, Long.MAX_VALUE};
+        for (int i = 0; i < values.length; i++) {
+            final int index = Histogram.getBucketIndex(values[i]);
+            final long upper = Histogram.getBucketUpperBound(index);
+            assertTrue(values[i] <= upper);
+            assertTrue(upper - values[i] <= values[i] / 16);
+            if (index > 0) {
+                assertEquals(index - 1, Histogram.getBucketIndex(Histogram.getBucketUpperBound(index - 1)));
+                assertEquals(index, Histogram.getBucketIndex(Histogram.getBucketUpperBound(index - 1) + 1));
+            }
+        }
+    }
+
+    /**
+     * Test count, mean, max and percentiles.
+     */
+    public void testRecord() {
+        final Histogram histogram = new Histogram();
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500500, histogram.getTotal());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500.5, histogram.getMean(), 0.001);
+        final long median = histogram.getValueAtPercentile(50);
+        assertTrue(median >= 500 && median <= 532);
+        assertEquals(1000, histogram.getValueAtPercentile(100));
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+
+    /**
+     * Test concurrent updates of a striped counter.
+     *
+     * @throws InterruptedException if interrupted
+     */
+    public void testStripedCounter() throws InterruptedException {
+        final StripedCounter counter = new StripedCounter();
+        final Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    for (int j = 0; j < 10000; j++) {
+                        counter.increment();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].join();
+        }
+        assertEquals(40000, counter.sum());
+        counter.add(-40000);
+        assertEquals(0, counter.sum());
+    }
+
+    /**
+     * Test that a reset of the registry resets timers and counters but not gauges.
+     */
+    public void testRegistry() {
+        final MetricsRegistry registry = new MetricsRegistry();
+        assertSame(registry.timer("a"), registry.timer("a"));
+        registry.timer("a").record(2000000);
+        registry.timer("a").error();
+        registry.counter("c").increment();
+        registry.gauge("g").increment();
+        assertEquals(1, registry.getCallCount("a"));
+        assertEquals(1, registry.getErrorCount("a"));
+        assertEquals(2.0, registry.getMaxMillis("a"), 0.001);
+        assertEquals(0, registry.getCallCount("unknown"));
+        assertEquals(2, registry.getCounterNames().length);
+        assertEquals(3, registry.getReport().length);
+        registry.reset();
+        assertEquals(0, registry.getCallCount("a"));
+        assertEquals(0, registry.getCounterValue("c"));
+        assertEquals(1, registry.getCounterValue("g"));
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package de.jakop.lotus.domingo.monitor;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+import de.jakop.lotus.domingo.DNotesMonitor;
+
+/**
+ * Tests for class {@link AsyncMonitor}.
+ */
+public final class AsyncMonitorTest extends TestCase {
+
+    /**
+     * @param name the name of the test
+     */
+    public AsyncMonitorTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Test that all events are written in order.
+     */
+    public void testWriteAll() {
+        final StringWriter out = new StringWriter();
+        final AsyncMonitor monitor = new AsyncMonitor(out, 16, AsyncMonitor.OVERFLOW_BLOCK);
+        monitor.setLevel(DNotesMonitor.DEBUG);
+        for (int i = 0; i < 100; i++) {
+            monitor.info("message " + i);
+        }
+        monitor.close();
+        final String[] lines = out.toString().split("\n");
+        assertEquals(100, lines.length);
+        for (int i = 0; i < lines.length; i++) {
+            assertTrue(lines[i], lines[i].trim().endsWith("INFO:  message " + i));
+        }
+        assertEquals(0, monitor.getDroppedCount());
+        assertEquals(100, monitor.getWrittenCount());
+    }
+
+    /**
+     * Test dropping of events if the buffer is full.
+     *
+     * @throws InterruptedException if interrupted
+     */
+    public void testDrop() throws InterruptedException {
+        final BlockingWriter out = new BlockingWriter();
+        final AsyncMonitor monitor = new AsyncMonitor(out, 4, AsyncMonitor.OVERFLOW_DROP);
+        monitor.setLevel(DNotesMonitor.DEBUG);
+        monitor.info("first");
+        assertTrue(out.entered.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 10; i++) {
+            monitor.info("message " + i);
+        }
+        assertEquals(7, monitor.getDroppedCount());
+        out.release.countDown();
+        monitor.close();
+        assertEquals(4, monitor.getWrittenCount());
+        monitor.info("after close");
+        assertEquals(8, monitor.getDroppedCount());
+    }
+
+    /**
+     * Test sampling of events if the buffer fills up.
+     *
+     * @throws InterruptedException if interrupted
+     */
+    public void testSample() throws InterruptedException {
+        final BlockingWriter out = new BlockingWriter();
+        final AsyncMonitor monitor = new AsyncMonitor(out, 8, AsyncMonitor.OVERFLOW_SAMPLE);
+        monitor.setLevel(DNotesMonitor.DEBUG);
+        monitor.setSampleRate(2);
+        monitor.info("first");
+        assertTrue(out.entered.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 5; i++) {
+            monitor.info("message " + i);
+        }
+        // six of eight slots are used, every second event is accepted now
+        assertEquals(0, monitor.getDroppedCount());
+        for (int i = 0; i < 4; i++) {
+            monitor.info("sampled " + i);
+        }
+        assertEquals(8, monitor.getPendingCount());
+        assertEquals(2, monitor.getDroppedCount());
+        out.release.countDown();
+        monitor.close();
+        assertEquals(8, monitor.getWrittenCount());
+    }
+
+    /**
+     * Test that a message and its throwable are queued as one event.
+     *
+     * @throws InterruptedException if interrupted
+     */
+    public void testMessageWithThrowable() throws InterruptedException {
+        final BlockingWriter out = new BlockingWriter();
+        final AsyncMonitor monitor = new AsyncMonitor(out, 2, AsyncMonitor.OVERFLOW_DROP);
+        monitor.setLevel(DNotesMonitor.DEBUG);
+        monitor.info("first");
+        assertTrue(out.entered.await(5, TimeUnit.SECONDS));
+        monitor.error("failed", new IllegalStateException("cause"));
+        assertEquals(2, monitor.getPendingCount());
+        assertEquals(0, monitor.getDroppedCount());
+        out.release.countDown();
+        monitor.close();
+        assertEquals(2, monitor.getWrittenCount());
+        final String text = out.toString();
+        final int message = text.indexOf("failed");
+        assertTrue(text, message >= 0);
+        assertTrue(text, text.indexOf("java.lang.IllegalStateException: cause") > message);
+    }
+
+    /**
+     * Writer that blocks until released and records the written text.
+     */
+    private static final class BlockingWriter extends Writer {
+
+        /** Signalled when the first write starts. */
+        private final CountDownLatch entered = new CountDownLatch(1);
+
+        /** Releases the writer. */
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        /** The written text. */
+        private final StringBuffer text = new StringBuffer();
+
+        /**
+         * {@inheritDoc}
+         * @see java.io.Writer#write(char[], int, int)
+         */
+        public void write(final char[] cbuf, final int off, final int len) throws IOException {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException("interrupted");
+            }
+            text.append(cbuf, off, len);
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see java.io.Writer#flush()
+         */
+        public void flush() {
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see java.io.Writer#close()
+         */
+        public void close() {
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see java.lang.Object#toString()
+         */
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
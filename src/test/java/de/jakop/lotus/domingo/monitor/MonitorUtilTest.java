@@ -0,0 +1,113 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package de.jakop.lotus.domingo.monitor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import de.jakop.lotus.domingo.DNotesMonitor;
+
+/**
+ * Tests for class {@link MonitorUtil}.
+ */
+public final class MonitorUtilTest extends TestCase {
+
+    /**
+     * @param name the name of the test
+     */
+    public MonitorUtilTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Test formatting of message patterns.
+     */
+    public void testFormat() {
+        assertEquals("a 1 b 2 c", MonitorUtil.format("a {} b {} c", new Object[] {new Integer(1), new Integer(2)}));
+        assertEquals("a 1 b {}", MonitorUtil.format("a {} b {}", new Object[] {new Integer(1)}));
+        assertEquals("a 1", MonitorUtil.format("a {}", new Object[] {new Integer(1), new Integer(2)}));
+        assertEquals("null", MonitorUtil.format("{}", new Object[] {null}));
+        assertEquals("a {}", MonitorUtil.format("a {}", null));
+    }
+
+    /**
+     * Test that messages are only formatted if the level is enabled.
+     */
+    public void testLevels() {
+        final CollectingMonitor monitor = new CollectingMonitor(DNotesMonitor.INFO);
+        MonitorUtil.debug(monitor, "size = {}", 1);
+        MonitorUtil.debug(monitor, new MessageSupplier() {
+            public String getMessage() {
+                fail("supplier must not be called for disabled level");
+                return null;
+            }
+        });
+        assertEquals(0, monitor.messages.size());
+        MonitorUtil.info(monitor, "size = {}", 2);
+        MonitorUtil.warn(monitor, "{} = {}", "size", new Integer(3));
+        MonitorUtil.error(monitor, new MessageSupplier() {
+            public String getMessage() {
+                return "size = 4";
+            }
+        });
+        assertEquals(3, monitor.messages.size());
+        assertEquals("INFO:  size = 2", monitor.messages.get(0));
+        assertEquals("WARN:  size = 3", monitor.messages.get(1));
+        assertEquals("ERROR: size = 4", monitor.messages.get(2));
+    }
+
+    /**
+     * Monitor that collects all messages in a list.
+     */
+    private static final class CollectingMonitor extends AbstractDefaultMonitor {
+
+        /** Collected messages. */
+        private final List messages = new ArrayList();
+
+        /**
+         * Constructor.
+         *
+         * @param level the monitor level
+         */
+        private CollectingMonitor(final int level) {
+            super(level);
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see AbstractDefaultMonitor#monitor(java.lang.String)
+         */
+        protected void monitor(final String message) {
+            messages.add(message);
+        }
+
+        /**
+         * {@inheritDoc}
+         * @see AbstractDefaultMonitor#monitor(java.lang.Throwable)
+         */
+        protected void monitor(final Throwable throwable) {
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.pool;
+
+import java.applet.Applet;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import junit.framework.TestCase;
+import de.jakop.lotus.domingo.DNotesException;
+import de.jakop.lotus.domingo.DNotesFactory;
+import de.jakop.lotus.domingo.DNotesMonitor;
+import de.jakop.lotus.domingo.DNotesRuntimeException;
+import de.jakop.lotus.domingo.DSession;
+
+/**
+ * Tests for class {@link SessionPool}.
+ */
+public final class SessionPoolTest extends TestCase {
+
+    /**
+     * @param name the name of the test
+     */
+    public SessionPoolTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Returned sessions are reused for the same server and user.
+     *
+     * @throws DNotesException if a session cannot be borrowed
+     */
+    public void testReuse() throws DNotesException {
+        TestFactory factory = new TestFactory();
+        SessionPool pool = new SessionPool(factory, 0, 2, 60000, 100);
+        try {
+            DSession session1 = pool.borrowSession("host", "user", "password");
+            assertEquals(1, pool.getActiveCount());
+            pool.returnSession(session1);
+            assertEquals(0, pool.getActiveCount());
+            assertEquals(1, pool.getIdleCount());
+            DSession session2 = pool.borrowSession("host", "user", "password");
+            assertSame(session1, session2);
+            DSession session3 = pool.borrowSession("host", "other", "password");
+            assertNotSame(session1, session3);
+            assertEquals(2, factory.fCreated);
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * Invalid sessions are discarded on borrow.
+     *
+     * @throws DNotesException if a session cannot be borrowed
+     */
+    public void testValidation() throws DNotesException {
+        TestFactory factory = new TestFactory();
+        SessionPool pool = new SessionPool(factory, 0, 2, 60000, 100);
+        try {
+            DSession session1 = pool.borrowSession("host", "user", "password");
+            pool.returnSession(session1);
+            factory.fValid = false;
+            DSession session2 = pool.borrowSession("host", "user", "password");
+            assertNotSame(session1, session2);
+            assertEquals(2, factory.fCreated);
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * Borrowing fails after the maximum wait time if all sessions are in use.
+     *
+     * @throws DNotesException if a session cannot be borrowed
+     */
+    public void testMaxTotal() throws DNotesException {
+        SessionPool pool = new SessionPool(new TestFactory(), 0, 1, 60000, 50);
+        try {
+            DSession session = pool.borrowSession("host", "user", "password");
+            try {
+                pool.borrowSession("host", "user", "password");
+                fail("borrow should time out");
+            } catch (DNotesException e) {
+                assertTrue(e.getMessage().indexOf("user@host") >= 0);
+                assertTrue(e.getMessage().indexOf("password") < 0);
+            }
+            pool.invalidateSession(session);
+            pool.returnSession(pool.borrowSession("host", "user", "password"));
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * Idle sessions are evicted after the idle timeout down to the minimum.
+     *
+     * @throws DNotesException if a session cannot be borrowed
+     */
+    public void testEvict() throws DNotesException {
+        TestFactory factory = new TestFactory();
+        SessionPool pool = new SessionPool(factory, 1, 3, 0, 100);
+        try {
+            DSession session1 = pool.borrowSession("host", "user", "password");
+            DSession session2 = pool.borrowSession("host", "user", "password");
+            pool.returnSession(session1);
+            pool.returnSession(session2);
+            assertEquals(2, pool.getIdleCount());
+            pool.evict();
+            assertEquals(1, pool.getIdleCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * A partition that cannot create sessions does not stop the eviction of
+     * the other partitions.
+     *
+     * @throws DNotesException if a session cannot be borrowed
+     */
+    public void testEvictContinuesAfterError() throws DNotesException {
+        TestFactory factory = new TestFactory();
+        SessionPool pool = new SessionPool(factory, 1, 3, 60000, 100);
+        try {
+            factory.fFailingUser = "failing";
+            for (int i = 0; i < 5; i++) {
+                try {
+                    pool.borrowSession("host", "failing", "password" + i);
+                    fail("borrow should fail");
+                } catch (RuntimeException e) {
+                    // expected
+                }
+            }
+            pool.invalidateSession(pool.borrowSession("host", "user", "password"));
+            assertEquals(0, pool.getIdleCount());
+            pool.evict();
+            assertEquals(1, pool.getIdleCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * Factory creating dummy sessions.
+     */
+    private static final class TestFactory extends DNotesFactory {
+
+        private int fCreated;
+
+        private boolean fValid = true;
+
+        private String fFailingUser;
+
+        public DSession getSession(final String serverUrl, final String user, final String password) {
+            if (user != null && user.equals(fFailingUser)) {
+                throw new IllegalStateException("cannot create session for " + user);
+            }
+            fCreated++;
+            return (DSession) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[] {DSession.class},
+                    new InvocationHandler() {
+                        public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                            if ("isValid".equals(method.getName())) {
+                                return Boolean.valueOf(fValid);
+                            }
+                            if ("hashCode".equals(method.getName())) {
+                                return new Integer(System.identityHashCode(proxy));
+                            }
+                            if ("equals".equals(method.getName())) {
+                                return Boolean.valueOf(proxy == args[0]);
+                            }
+                            return null;
+                        }
+                    });
+        }
+
+        public DSession getSession() {
+            return getSession((String) null, null, null);
+        }
+
+        public DSession getSession(final String serverUrl) {
+            throw new UnsupportedOperationException();
+        }
+
+        public DSession getSessionSSL(final String serverUrl, final String user, final String password) {
+            throw new UnsupportedOperationException();
+        }
+
+        public DSession getSession(final String serverUrl, final String[] args, final String user, final String password) {
+            throw new UnsupportedOperationException();
+        }
+
+        public DSession getSession(final Applet applet, final String user, final String password) {
+            throw new UnsupportedOperationException();
+        }
+
+        public DSession getSession(final Object notesSession) {
+            throw new UnsupportedOperationException();
+        }
+
+        public DSession getSessionWithFullAccess() {
+            throw new UnsupportedOperationException();
+        }
+
+        public DSession getSessionWithFullAccess(final String password) {
+            throw new UnsupportedOperationException();
+        }
+
+        public void sinitThread() {
+        }
+
+        public void stermThread() {
+        }
+
+        protected void gc() {
+        }
+
+        public void disposeInternal(final boolean force) throws DNotesRuntimeException {
+        }
+
+        public void disposeInstance(final boolean force) throws DNotesRuntimeException {
+        }
+
+        public void disposeInstance() throws DNotesRuntimeException {
+        }
+
+        protected DNotesMonitor getMonitor() {
+            return null;
+        }
+
+        protected void setMonitor(final DNotesMonitor theMonitor) {
+        }
+    }
+}
@@ -47,6 +47,7 @@ public final class AllTests {
     public static Test suite() {
         TestSuite suite = new TestSuite("All tests for package de.jakop.lotus.domingo.proxy");
         //$JUnit-BEGIN$
+        suite.addTestSuite(DatabaseProxyTest.class);
         suite.addTestSuite(SessionProxyTest.class);
         //$JUnit-END$
         return suite;
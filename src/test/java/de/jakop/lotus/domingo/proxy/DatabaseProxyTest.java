@@ -0,0 +1,62 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.proxy;
+
+import junit.framework.TestCase;
+import de.jakop.lotus.domingo.cache.Cache;
+import de.jakop.lotus.domingo.cache.LRUCache;
+
+/**
+ * Tests for class {@link DatabaseProxy}.
+ */
+public final class DatabaseProxyTest extends TestCase {
+
+    /**
+     * @param name the name of the test
+     */
+    public DatabaseProxyTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Evicting a cached handle from an access-ordered cache removes all its
+     * entries and keeps the others.
+     */
+    public void testRemoveValue() {
+        final Cache cache = new LRUCache(10);
+        final Object view = new Object();
+        final Object other = new Object();
+        cache.put("a", view);
+        cache.put("b", other);
+        cache.put("c", view);
+        cache.put("d", other);
+        DatabaseProxy.removeValue(cache, view);
+        assertEquals(2, cache.size());
+        assertFalse(cache.containsKey("a"));
+        assertFalse(cache.containsKey("c"));
+        assertSame(other, cache.get("b"));
+        assertSame(other, cache.get("d"));
+    }
+}
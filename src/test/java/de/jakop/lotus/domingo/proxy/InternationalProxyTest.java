@@ -23,9 +23,13 @@
 
 package de.jakop.lotus.domingo.proxy;
 
+import java.util.Calendar;
 import java.util.TimeZone;
 
 import junit.framework.TestCase;
+import de.jakop.lotus.domingo.util.GregorianDate;
+import de.jakop.lotus.domingo.util.GregorianDateTime;
+import de.jakop.lotus.domingo.util.GregorianTime;
 
 /**
  * Tests for class {@link InternationalProxy}.
@@ -60,4 +64,33 @@ public final class InternationalProxyTest extends TestCase {
         assertEquals(-100 * 60 * 60 * 10, InternationalProxy.getRawOffset(-1));
         assertEquals(-300 * 60 * 60 * 10, InternationalProxy.getRawOffset(-3));
     }
+
+    /**
+     * Test that the millisecond based conversions compute the same values as
+     * the conversion based on calendars.
+     */
+    public void testMillisConversions() {
+        final String[] zoneIds = {"GMT", "Europe/Berlin", "America/New_York", "Asia/Katmandu"};
+        final long[] dates = {0L, -86400001L, 1199145598123L, 1206838800000L, 1214866800999L, -2208988800000L};
+        for (int i = 0; i < zoneIds.length; i++) {
+            final TimeZone zone = TimeZone.getTimeZone(zoneIds[i]);
+            for (int j = 0; j < dates.length; j++) {
+                final long date = dates[j];
+                Calendar calendar = Calendar.getInstance(zone);
+                calendar.setTimeInMillis(date);
+                calendar.add(Calendar.MILLISECOND, zone.getOffset(calendar.getTimeInMillis()));
+                assertEquals(new GregorianDate(calendar.getTime()).getTimeInMillis(),
+                    InternationalProxy.toDateOnly(date, zone));
+                assertEquals(new GregorianTime(calendar).getTimeInMillis(), InternationalProxy.toTimeOnly(date, zone));
+
+                final int notesOffset = InternationalProxy.getRawOffset(-1) - 3600000;
+                calendar = Calendar.getInstance(zone);
+                calendar.setTimeInMillis(date);
+                calendar.add(Calendar.MILLISECOND, -notesOffset);
+                calendar.add(Calendar.MILLISECOND, -zone.getOffset(calendar.getTimeInMillis()));
+                assertEquals(new GregorianDateTime(calendar).getTimeInMillis(),
+                    InternationalProxy.toDateTime(date, notesOffset, zone));
+            }
+        }
+    }
 }
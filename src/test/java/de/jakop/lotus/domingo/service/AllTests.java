@@ -47,7 +47,9 @@ public final class AllTests {
     public static Test suite() {
         TestSuite suite = new TestSuite("All tests for package de.jakop.lotus.domingo.service");
         //$JUnit-BEGIN$
+        suite.addTestSuite(InvocationTaskTest.class);
         suite.addTestSuite(NotesJavaWriterTest.class);
+        suite.addTestSuite(TraceCallTest.class);
         //$JUnit-END$
         return suite;
     }
@@ -0,0 +1,141 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+package de.jakop.lotus.domingo.service;
+
+import java.lang.reflect.Method;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for class {@link InvocationTask}.
+ */
+public final class InvocationTaskTest extends TestCase {
+
+    /**
+     * @param name the name of the test
+     */
+    public InvocationTaskTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Tests that a completed task returns the result of the method.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testRun() throws Exception {
+        final InvocationTask task = newTask("abc", "indexOf", "c");
+        assertFalse(task.isCompleted());
+        assertFalse(task.await(10));
+        task.run();
+        assertTrue(task.await(0));
+        assertTrue(task.isCompleted());
+        assertEquals(new Integer(2), task.getResult());
+        assertNull(task.getThrowable());
+    }
+
+    /**
+     * Tests that the exception of the method is returned unwrapped.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testThrowable() throws Exception {
+        final InvocationTask task = newTask("abc", "substring", new Integer(5));
+        task.run();
+        assertTrue(task.await(0));
+        assertTrue(task.getThrowable() instanceof IndexOutOfBoundsException);
+    }
+
+    /**
+     * Tests that a cancelled task is not executed and releases waiting threads.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCancel() throws Exception {
+        final StringBuffer buffer = new StringBuffer();
+        final InvocationTask task = newTask(buffer, "append", "x");
+        assertTrue(task.cancel());
+        assertTrue(task.await(0));
+        task.run();
+        assertEquals(0, buffer.length());
+        assertFalse(task.isCompleted());
+        assertTrue(task.cancel());
+    }
+
+    /**
+     * Tests that a completed task cannot be cancelled.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCancelCompleted() throws Exception {
+        final InvocationTask task = newTask("abc", "indexOf", "c");
+        task.run();
+        assertFalse(task.cancel());
+        assertTrue(task.isCompleted());
+    }
+
+    /**
+     * Tests that a thread waiting for a task can be interrupted.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testAwaitInterrupted() throws Exception {
+        final InvocationTask task = newTask("abc", "indexOf", "c");
+        final Throwable[] failure = new Throwable[1];
+        final Thread thread = new Thread() {
+            public void run() {
+                try {
+                    task.await(0);
+                } catch (Throwable t) {
+                    failure[0] = t;
+                }
+            }
+        };
+        thread.start();
+        Thread.sleep(50);
+        thread.interrupt();
+        thread.join(1000);
+        assertTrue(failure[0] instanceof InterruptedException);
+        assertFalse(task.isCompleted());
+    }
+
+    /**
+     * Tests that a task completed by another thread releases a waiting thread.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testAwaitCompletedByOtherThread() throws Exception {
+        final InvocationTask task = newTask("abc", "indexOf", "b");
+        final Thread thread = new Thread(task);
+        thread.start();
+        assertTrue(task.await(1000));
+        assertEquals(new Integer(1), task.getResult());
+    }
+
+    private static InvocationTask newTask(final Object object, final String name, final Object arg) throws Exception {
+        final Class type = arg instanceof Integer ? Integer.TYPE : String.class;
+        final Method method = object.getClass().getMethod(name, new Class[] {type});
+        return new InvocationTask(object, method, new Object[] {arg});
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.service;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the compact trace format of classes {@link TraceCall} and {@link TraceValue}.
+ */
+public final class TraceCallTest extends TestCase {
+
+    /**
+     * @param name the name of the test
+     */
+    public TraceCallTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Test that values survive encoding and decoding.
+     */
+    public void testValues() {
+        final Calendar calendar = new GregorianCalendar(2007, Calendar.MARCH, 4, 5, 6, 7);
+        final List list = new ArrayList();
+        list.add("a,b");
+        list.add(new Integer(1));
+        final Object[] values = {null, "tab\there\\, new\nline", new Integer(42), new Long(-7L), new Double(1.5),
+            Boolean.TRUE, calendar, list};
+        for (int i = 0; i < values.length; i++) {
+            final StringBuffer buffer = new StringBuffer();
+            TraceValue.of(values[i]).encode(buffer);
+            assertTrue(buffer.indexOf("\t") < 0 && buffer.indexOf("\n") < 0);
+            final Object decoded = TraceValue.decode(buffer.toString()).toObject(null);
+            if (values[i] instanceof Calendar) {
+                assertEquals(calendar.getTimeInMillis(), ((Calendar) decoded).getTimeInMillis());
+            } else {
+                assertEquals(values[i], decoded);
+            }
+        }
+    }
+
+    /**
+     * Test that calls survive encoding and decoding and are grouped by thread.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testCalls() throws Exception {
+        final Object target = new Object();
+        final Object result = new Object();
+        final TraceCall call = new TraceCall(12, 3, "DDatabase", "getDocumentByUNID", TraceValue.of(target),
+            new TraceValue[] {TraceValue.of("0123")}, TraceValue.of(result), "not\tfound", null);
+        final StringBuffer buffer = new StringBuffer();
+        call.encode(buffer);
+        final TraceCall decoded = TraceCall.decode(buffer.toString());
+        assertEquals(12, decoded.getTime());
+        assertEquals(3, decoded.getThread());
+        assertEquals("DDatabase", decoded.getType());
+        assertEquals("getDocumentByUNID", decoded.getMethod());
+        assertEquals(target.hashCode(), decoded.getTarget().getId());
+        assertEquals(result.hashCode(), decoded.getResult().getId());
+        assertTrue(decoded.getResult().isReference());
+        assertEquals("not\tfound", decoded.getError());
+        assertEquals("0123", decoded.getArgs()[0].getLiteral());
+
+        final String trace = NotesJavaWriter.TRACE_HEADER + "\n" + buffer + "\ninvalid\n" + buffer + "\n";
+        final ReplayResult replayResult = new ReplayResult();
+        final Map threads = TraceReplayer.read(new StringReader(trace), replayResult);
+        assertEquals(1, threads.size());
+        assertEquals(2, ((List) threads.get(new Long(3))).size());
+        assertEquals(1, replayResult.getSkippedCount());
+    }
+
+    /**
+     * Test resolving of interface names.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testTypeNames() throws Exception {
+        assertEquals("DDatabase", TraceCall.getTypeName(de.jakop.lotus.domingo.DDatabase.class));
+        assertEquals("java.util.Iterator", TraceCall.getTypeName(java.util.Iterator.class));
+        assertEquals(java.util.Iterator.class, TraceCall.getType("java.util.Iterator"));
+    }
+}
@@ -47,9 +47,14 @@ public final class AllTests {
     public static Test suite() {
         TestSuite suite = new TestSuite("All tests for package de.jakop.lotus.domingo.util");
         //$JUnit-BEGIN$
+        suite.addTestSuite(BulkWriterTest.class);
         suite.addTestSuite(DateUtilTest.class);
+        suite.addTestSuite(DocumentSnapshotTest.class);
         suite.addTestSuite(GregorianTest.class);
+        suite.addTestSuite(StreamUtilTest.class);
         suite.addTestSuite(TimezonesTest.class);
+        suite.addTestSuite(ViewDesignTest.class);
+        suite.addTestSuite(WriteBehindDocumentTest.class);
         //$JUnit-END$
         return suite;
     }
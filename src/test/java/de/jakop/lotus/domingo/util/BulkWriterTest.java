@@ -0,0 +1,128 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+import de.jakop.lotus.domingo.DDatabase;
+import de.jakop.lotus.domingo.mock.MockDocument;
+
+/**
+ * Tests for class {@link BulkWriter}.
+ */
+public final class BulkWriterTest extends TestCase {
+
+    /**
+     * @param name the name of the test
+     */
+    public BulkWriterTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Documents are written in batches and results are reported per document.
+     *
+     * @throws Exception if the test fails
+     */
+    public void testSubmit() throws Exception {
+        final List batchSizes = Collections.synchronizedList(new ArrayList());
+        DDatabase database = (DDatabase) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[] {DDatabase.class}, new InvocationHandler() {
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        if (!"createDocuments".equals(method.getName())) {
+                            throw new UnsupportedOperationException(method.getName());
+                        }
+                        List maps = (List) args[0];
+                        batchSizes.add(new Integer(maps.size()));
+                        List results = new ArrayList();
+                        for (int i = 0; i < maps.size(); i++) {
+                            Map map = (Map) maps.get(i);
+                            if (map.containsKey("fail")) {
+                                results.add(new IllegalStateException("failed"));
+                            } else {
+                                results.add("UNID" + map.get("id"));
+                            }
+                        }
+                        return results;
+                    }
+                });
+        List records = new ArrayList();
+        for (int i = 0; i < 7; i++) {
+            Map map = new HashMap();
+            map.put("id", new Integer(i));
+            if (i == 3) {
+                map.put("fail", "true");
+            }
+            records.add(map);
+        }
+        final List saved = Collections.synchronizedList(new ArrayList());
+        final List failed = Collections.synchronizedList(new ArrayList());
+        BulkWriter writer = new BulkWriter(3, 2, new BulkWriter.Listener() {
+            public void saved(final DDatabase db, final int index, final String universalId) {
+                saved.add(index + "=" + universalId);
+            }
+
+            public void failed(final DDatabase db, final int index, final Map items, final RuntimeException e) {
+                failed.add(new Integer(index));
+            }
+        });
+        Integer count = (Integer) writer.submit(database, records.iterator()).get();
+        writer.close();
+        assertEquals(6, count.intValue());
+        assertEquals("[3, 3, 1]", batchSizes.toString());
+        assertEquals("[3]", failed.toString());
+        assertTrue(saved.contains("6=UNID6"));
+    }
+
+    /**
+     * Item values are set with the method matching their type.
+     */
+    public void testReplaceItemValue() {
+        MockDocument document = new MockDocument();
+        Calendar now = Calendar.getInstance();
+        BulkWriter.replaceItemValue(document, "Text", "abc");
+        BulkWriter.replaceItemValue(document, "Number", new Integer(42));
+        BulkWriter.replaceItemValue(document, "Date", now);
+        BulkWriter.replaceItemValue(document, "Empty", null);
+        assertEquals("abc", document.getItemValueString("Text"));
+        assertEquals(new Integer(42), document.getItemValueInteger("Number"));
+        assertEquals("", document.getItemValueString("Empty"));
+        try {
+            BulkWriter.replaceItemValue(document, "Other", new Object());
+            fail("unsupported type should be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().indexOf("Other") >= 0);
+        }
+    }
+}
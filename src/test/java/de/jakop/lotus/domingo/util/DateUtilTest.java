@@ -23,9 +23,12 @@
 
 package de.jakop.lotus.domingo.util;
 
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.List;
 
 import junit.framework.TestCase;
+import de.jakop.lotus.domingo.DDocumentSnapshot;
 
 /**
  * @author <a href=mailto:kriede@users.sourceforge.net>Kurt Riede</a>
@@ -53,4 +56,36 @@ public final class DateUtilTest extends TestCase {
         assertEquals(gregorianDateTime, calendar);
     }
 
+    /**
+     * test conversion of date values to milliseconds.
+     */
+    public void testGetMillis() {
+        final long millis = gregorianDateTime.getTimeInMillis();
+        assertEquals(millis, DateUtil.getMillis(gregorianDateTime));
+        assertEquals(millis, DateUtil.getMillis(gregorianDateTime.getTime()));
+        assertEquals(millis, DateUtil.getMillis(new GregorianDateTimeRange(gregorianDateTime, null)));
+        assertEquals(DDocumentSnapshot.NO_DATE, DateUtil.getMillis(null));
+        assertEquals(DDocumentSnapshot.NO_DATE, DateUtil.getMillis("2007-12-31"));
+        final List list = new ArrayList();
+        assertEquals(DDocumentSnapshot.NO_DATE, DateUtil.getMillis(list));
+        list.add(gregorianDateTime);
+        assertEquals(millis, DateUtil.getMillis(list));
+    }
+
+    /**
+     * test conversion of date lists to milliseconds.
+     */
+    public void testGetMillisArray() {
+        final Calendar other = new GregorianDateTime(2008, Calendar.JANUARY, 1, 0, 0, 0);
+        final List list = new ArrayList();
+        list.add(gregorianDateTime);
+        list.add("text");
+        list.add(new GregorianDateTimeRange(gregorianDateTime, other));
+        final long[] millis = DateUtil.getMillisArray(list);
+        assertEquals(3, millis.length);
+        assertEquals(gregorianDateTime.getTimeInMillis(), millis[0]);
+        assertEquals(gregorianDateTime.getTimeInMillis(), millis[1]);
+        assertEquals(other.getTimeInMillis(), millis[2]);
+        assertEquals(0, DateUtil.getMillisArray(null).length);
+    }
 }
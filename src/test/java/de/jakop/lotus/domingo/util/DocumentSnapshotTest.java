@@ -0,0 +1,163 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.util;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import de.jakop.lotus.domingo.DDateRange;
+import de.jakop.lotus.domingo.DDocumentSnapshot;
+
+/**
+ * Tests for class {@link DocumentSnapshot}.
+ */
+public final class DocumentSnapshotTest extends TestCase {
+
+    /**
+     * @param name the name of the test
+     */
+    public DocumentSnapshotTest(String name) {
+        super(name);
+    }
+
+    /**
+     * Tests conversion of value lists into the compact representation.
+     */
+    public void testToCompactValues() {
+        List numbers = new ArrayList();
+        numbers.add(new Double(1.5));
+        numbers.add(new Integer(2));
+        assertTrue(DocumentSnapshot.toCompactValues(numbers) instanceof double[]);
+
+        Calendar calendar = new GregorianDateTime(2007, Calendar.DECEMBER, 31, 23, 59, 58);
+        List dates = new ArrayList();
+        dates.add(calendar);
+        dates.add(calendar);
+        long[] millis = (long[]) DocumentSnapshot.toCompactValues(dates);
+        assertEquals(2, millis.length);
+        assertEquals(calendar.getTimeInMillis(), millis[1]);
+
+        dates.set(1, new GregorianDateTimeRange(calendar, calendar));
+        long[][] ranges = (long[][]) DocumentSnapshot.toCompactValues(dates);
+        assertEquals(2, ranges.length);
+        assertEquals(1, ranges[0].length);
+        assertEquals(calendar.getTimeInMillis(), ranges[1][1]);
+
+        List mixed = new ArrayList();
+        mixed.add("a");
+        mixed.add(new Double(1));
+        assertTrue(DocumentSnapshot.toCompactValues(mixed) instanceof String[]);
+        assertEquals(0, ((String[]) DocumentSnapshot.toCompactValues(null)).length);
+    }
+
+    /**
+     * Tests typed access to snapshot values.
+     */
+    public void testAccess() {
+        DDocumentSnapshot snapshot = createSnapshot();
+        assertEquals("unid", snapshot.getUniversalID());
+        assertEquals(3, snapshot.getItemNames().size());
+        assertTrue(snapshot.hasItem("subject"));
+        assertFalse(snapshot.hasItem("Body"));
+        assertEquals(DDocumentSnapshot.TYPE_TEXT, snapshot.getItemType("SUBJECT"));
+        assertEquals(DDocumentSnapshot.TYPE_NUMBER, snapshot.getItemType("Amount"));
+        assertEquals(DDocumentSnapshot.TYPE_DATETIME, snapshot.getItemType("Date"));
+        assertEquals(DDocumentSnapshot.TYPE_NONE, snapshot.getItemType("Body"));
+        assertEquals("first", snapshot.getItemValueString("Subject"));
+        assertEquals(2, snapshot.getItemValueSize("Subject"));
+        assertEquals(1.5, snapshot.getItemValueDouble("Amount"), 0);
+        assertEquals(1, snapshot.getItemValueInteger("Amount"));
+        assertEquals(1000L, snapshot.getItemValueDateTime("Date"));
+        assertEquals(DDocumentSnapshot.NO_DATE, snapshot.getItemValueDateTime("Subject"));
+        assertNull(snapshot.getItemValueDate("Body"));
+        assertEquals(1000L, snapshot.getItemValueDate("Date").getTimeInMillis());
+        assertEquals(new Double(1.5), snapshot.getItemValue("Amount").get(0));
+        assertEquals(0, snapshot.getItemValue("Body").size());
+        assertEquals("", snapshot.getItemValueString("Body"));
+    }
+
+    /**
+     * Tests that date ranges keep their type.
+     */
+    public void testDateRanges() {
+        Calendar start = new GregorianDateTime(2007, Calendar.DECEMBER, 24, 0, 0, 0);
+        Calendar end = new GregorianDateTime(2007, Calendar.DECEMBER, 26, 0, 0, 0);
+        long[][] values = new long[][] {{start.getTimeInMillis()},
+            {start.getTimeInMillis(), end.getTimeInMillis()}};
+        DDocumentSnapshot snapshot = new DocumentSnapshot("UNID", DDocumentSnapshot.NO_DATE,
+            new String[] {"Holidays"}, new Object[] {values});
+        assertEquals(DDocumentSnapshot.TYPE_DATETIME, snapshot.getItemType("Holidays"));
+        assertEquals(2, snapshot.getItemValueSize("Holidays"));
+        assertEquals(start.getTimeInMillis(), snapshot.getItemValueDateTime("Holidays"));
+        assertEquals(3, snapshot.getItemValueDateTimes("Holidays").length);
+        List list = snapshot.getItemValue("Holidays");
+        assertTrue(list.get(0) instanceof Calendar);
+        DDateRange range = (DDateRange) list.get(1);
+        assertEquals(start.getTimeInMillis(), range.getFrom().getTimeInMillis());
+        assertEquals(end.getTimeInMillis(), range.getTo().getTimeInMillis());
+    }
+
+    /**
+     * Tests that returned arrays are copies.
+     */
+    public void testImmutable() {
+        DDocumentSnapshot snapshot = createSnapshot();
+        snapshot.getItemValueStrings("Subject")[0] = "changed";
+        snapshot.getItemValueNumbers("Amount")[0] = 0;
+        snapshot.getItemValueDateTimes("Date")[0] = 0;
+        assertEquals("first", snapshot.getItemValueString("Subject"));
+        assertEquals(1.5, snapshot.getItemValueDouble("Amount"), 0);
+        assertEquals(1000L, snapshot.getItemValueDateTime("Date"));
+    }
+
+    /**
+     * Tests that duplicate item names keep the first occurrence.
+     */
+    public void testDuplicateNames() {
+        DDocumentSnapshot snapshot = new DocumentSnapshot("unid", DDocumentSnapshot.NO_DATE,
+            new String[] {"A", "a"}, new Object[] {new String[] {"1"}, new String[] {"2"}});
+        assertEquals(1, snapshot.getItemNames().size());
+        assertEquals("1", snapshot.getItemValueString("a"));
+    }
+
+    /**
+     * Tests serialization of snapshots.
+     */
+    public void testSerialization() {
+        DDocumentSnapshot snapshot = (DDocumentSnapshot) DeepCopy.copy(createSnapshot());
+        assertEquals("first", snapshot.getItemValueString("Subject"));
+        assertEquals(1000L, snapshot.getItemValueDateTime("Date"));
+        assertSame("Subject", snapshot.getItemNames().get(2));
+    }
+
+    private DDocumentSnapshot createSnapshot() {
+        String[] names = {"Subject", "Amount", "Date"};
+        Object[] values = {new String[] {"first", "second"}, new double[] {1.5}, new long[] {1000L}};
+        return new DocumentSnapshot("unid", 0, names, values);
+    }
+}
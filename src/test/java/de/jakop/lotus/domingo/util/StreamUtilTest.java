@@ -0,0 +1,102 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for class {@link StreamUtil}.
+ */
+public final class StreamUtilTest extends TestCase {
+
+    /** Test data, larger than the transfer buffer. */
+    private final byte[] data = new byte[StreamUtil.BUFFER_SIZE * 2 + 17];
+
+    /**
+     * @param name the name of the test
+     */
+    public StreamUtilTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @see junit.framework.TestCase#setUp()
+     */
+    protected void setUp() throws Exception {
+        super.setUp();
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+    }
+
+    /**
+     * Test transfer between streams.
+     *
+     * @throws IOException if the transfer fails
+     */
+    public void testStreamTransfer() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final long count = StreamUtil.transfer(new ByteArrayInputStream(data), Channels.newChannel(out));
+        assertEquals(data.length, count);
+        assertTrue(java.util.Arrays.equals(data, out.toByteArray()));
+    }
+
+    /**
+     * Test transfer from a stream into a file and from a file into a stream.
+     *
+     * @throws IOException if the transfer fails
+     */
+    public void testFileTransfer() throws IOException {
+        final File file = File.createTempFile("domingo", ".tmp");
+        try {
+            final FileOutputStream fileOut = new FileOutputStream(file);
+            try {
+                assertEquals(data.length, StreamUtil.transfer(new ByteArrayInputStream(data), fileOut.getChannel()));
+            } finally {
+                fileOut.close();
+            }
+            assertEquals(data.length, file.length());
+            final FileInputStream fileIn = new FileInputStream(file);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                assertEquals(data.length, StreamUtil.transfer(fileIn, Channels.newChannel(out)));
+            } finally {
+                fileIn.close();
+            }
+            assertTrue(java.util.Arrays.equals(data, out.toByteArray()));
+        } finally {
+            file.delete();
+        }
+    }
+}
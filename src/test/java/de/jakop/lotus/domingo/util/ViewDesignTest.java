@@ -0,0 +1,137 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import de.jakop.lotus.domingo.DViewColumn;
+
+/**
+ * Tests for classes {@link ViewDesign} and {@link ViewColumnDesign}.
+ */
+public final class ViewDesignTest extends TestCase {
+
+    /**
+     * @param name the name of the test
+     */
+    public ViewDesignTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * Creates a column that counts the calls of its getters.
+     *
+     * @param title title of the column
+     * @param itemName item name of the column
+     * @param calls list to record the method names in
+     * @return column
+     */
+    private DViewColumn createColumn(final String title, final String itemName, final List calls) {
+        return (DViewColumn) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[] {DViewColumn.class}, new InvocationHandler() {
+                    public Object invoke(final Object proxy, final Method method, final Object[] args) {
+                        calls.add(method.getName());
+                        if ("getTitle".equals(method.getName())) {
+                            return title;
+                        } else if ("getItemName".equals(method.getName())) {
+                            return itemName;
+                        } else if (method.getReturnType() == boolean.class) {
+                            return Boolean.valueOf("isSorted".equals(method.getName()));
+                        } else if (method.getReturnType() == int.class) {
+                            return new Integer(1);
+                        }
+                        return "";
+                    }
+                });
+    }
+
+    /**
+     * Columns are copied once and mapped by item name.
+     */
+    public void testColumns() {
+        final List calls = new ArrayList();
+        final List columns = new ArrayList();
+        columns.add(createColumn("Name", "FullName", calls));
+        columns.add(createColumn("Mail", "InternetAddress", calls));
+        final ViewDesign design = new ViewDesign("People", "UNID", null, "SELECT @All", 0,
+                ViewDesign.CATEGORIZED, columns);
+        final int callsAfterCopy = calls.size();
+        assertEquals(2, design.getColumnCount());
+        assertEquals("Mail", design.getColumn(2).getTitle());
+        assertTrue(design.getColumn(1).isSorted());
+        assertEquals("Name", design.getColumnNames().get(0));
+        assertEquals(1, design.getColumnIndex("internetaddress"));
+        assertEquals(-1, design.getColumnIndex("Unknown"));
+        assertTrue(design.isCategorized());
+        assertFalse(design.isFolder());
+        assertEquals(0, design.getAliases().size());
+        assertEquals(callsAfterCopy, calls.size());
+    }
+
+    /**
+     * Columns created from basic attributes get their flags and defaults.
+     */
+    public void testColumnFromAttributes() {
+        final ViewColumnDesign column = new ViewColumnDesign(2, "Name", "FullName", 20, DViewColumn.SEP_COMMA,
+                ViewColumnDesign.SORTED | ViewColumnDesign.CATEGORY | ViewColumnDesign.SHOW_TWISTIE);
+        assertEquals(2, column.getPosition());
+        assertEquals("Name", column.getTitle());
+        assertEquals("FullName", column.getItemName());
+        assertEquals(20, column.getWidth());
+        assertEquals(DViewColumn.SEP_COMMA, column.getListSep());
+        assertTrue(column.isSorted());
+        assertTrue(column.isCategory());
+        assertTrue(column.isShowTwistie());
+        assertFalse(column.isSortDescending());
+        assertFalse(column.isHidden());
+        assertNull(column.getFormula());
+    }
+
+    /**
+     * Column designs cannot be modified.
+     */
+    public void testImmutable() {
+        final List columns = new ArrayList();
+        columns.add(createColumn("Name", "FullName", new ArrayList()));
+        final ViewDesign design = new ViewDesign("People", "UNID", null, "SELECT @All", 0, 0, columns);
+        try {
+            design.getColumn(1).setTitle("Other");
+            fail("UnsupportedOperationException expected");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+        try {
+            design.getColumns().clear();
+            fail("UnsupportedOperationException expected");
+        } catch (UnsupportedOperationException e) {
+            // expected
+        }
+    }
+}
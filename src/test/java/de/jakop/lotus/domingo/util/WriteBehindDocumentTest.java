@@ -0,0 +1,135 @@
+/*
+ * This file is part of Domingo
+ * an Open Source Java-API to Lotus Notes/Domino
+ * originally hosted at http://domingo.sourceforge.net, now available
+ * at https://github.com/fjakop/domingo
+ *
+ * Copyright (c) 2003-2007 Beck et al. projects GmbH Munich, Germany (http://www.bea.de)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA 02111-1307 USA
+ */
+
+
+package de.jakop.lotus.domingo.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+import de.jakop.lotus.domingo.DDocument;
+import de.jakop.lotus.domingo.mock.MockDocument;
+
+/**
+ * Tests for class {@link WriteBehindDocument}.
+ */
+public final class WriteBehindDocumentTest extends TestCase {
+
+    /** Names of methods called on the underlying document. */
+    private List calls;
+
+    /** The underlying document. */
+    private DDocument document;
+
+    /**
+     * @param name the name of the test
+     */
+    public WriteBehindDocumentTest(final String name) {
+        super(name);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see junit.framework.TestCase#setUp()
+     */
+    protected void setUp() throws Exception {
+        super.setUp();
+        calls = new ArrayList();
+        final MockDocument mock = new MockDocument();
+        mock.replaceItemValue("Subject", "Hello");
+        mock.replaceItemValue("Count", 3);
+        document = (DDocument) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class[] {DDocument.class}, new InvocationHandler() {
+                    public Object invoke(final Object proxy, final Method method, final Object[] args)
+                            throws Throwable {
+                        calls.add(method.getName());
+                        try {
+                            return method.invoke(mock, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Unchanged values are not written and the document is not saved.
+     */
+    public void testUnchangedValuesAreDropped() {
+        final DDocument buffered = WriteBehindDocument.wrap(document);
+        buffered.replaceItemValue("subject", "Hello");
+        buffered.replaceItemValue("Count", 3.0);
+        assertEquals(0, WriteBehindDocument.getPendingCount(buffered));
+        assertTrue(buffered.save());
+        assertFalse(calls.contains("replaceItemValues"));
+        assertFalse(calls.contains("save"));
+    }
+
+    /**
+     * Changed values are buffered and written with one call on save.
+     */
+    public void testChangesAreFlushedOnSave() {
+        final DDocument buffered = WriteBehindDocument.wrap(document);
+        buffered.replaceItemValue("Subject", "Hello");
+        buffered.replaceItemValue("Subject", "World");
+        buffered.replaceItemValue("Body", "Text");
+        assertEquals(2, WriteBehindDocument.getPendingCount(buffered));
+        assertEquals("World", buffered.getItemValue("Subject").get(0));
+        assertEquals("Hello", document.getItemValueString("Subject"));
+        calls.clear();
+        buffered.save();
+        assertEquals(2, calls.size());
+        assertEquals("replaceItemValues", calls.get(0));
+        assertEquals("save", calls.get(1));
+        assertEquals("World", document.getItemValueString("Subject"));
+        assertEquals("Text", document.getItemValueString("Body"));
+        assertEquals(0, WriteBehindDocument.getPendingCount(buffered));
+    }
+
+    /**
+     * Reverting a change drops it.
+     */
+    public void testRevertedChangeIsDropped() {
+        final DDocument buffered = WriteBehindDocument.wrap(document);
+        buffered.replaceItemValue("Subject", "World");
+        buffered.replaceItemValue("Subject", "Hello");
+        assertEquals(0, WriteBehindDocument.getPendingCount(buffered));
+    }
+
+    /**
+     * Other methods see the recorded changes.
+     */
+    public void testUnwrapFlushes() {
+        final DDocument buffered = WriteBehindDocument.wrap(document);
+        buffered.replaceItemValue("Subject", "World");
+        assertSame(document, WriteBehindDocument.unwrap(buffered));
+        assertEquals("World", document.getItemValueString("Subject"));
+        assertSame(buffered, WriteBehindDocument.wrap(buffered));
+    }
+}